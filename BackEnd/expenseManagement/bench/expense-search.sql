@@ -0,0 +1,82 @@
+-- Expense search benchmark: LIKE '%q%' scan vs. tsvector/GIN + pg_trgm.
+--
+-- Builds a throwaway 5M-row table shaped like `expense` (same generated
+-- search_vector and indexes as ExpenseSearchService) and runs both query
+-- styles for a selective term, a common term and an infix fragment.
+--
+--   psql -d expensedb -f bench/expense-search.sql
+--
+-- Drops bench_expense at the end; nothing in the application schema is touched.
+
+\timing on
+SET client_min_messages = warning;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+DROP TABLE IF EXISTS bench_expense;
+CREATE TABLE bench_expense (
+    id          bigint PRIMARY KEY,
+    user_id     bigint NOT NULL,
+    title       varchar(255),
+    category    varchar(255),
+    description varchar(255),
+    search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(category, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'C')) STORED
+);
+
+-- ~5M rows: 40 vendors x 8 categories, 2k users, a rare token in 1 of 50k rows
+INSERT INTO bench_expense (id, user_id, title, category, description)
+SELECT g,
+       g % 2000,
+       (ARRAY['Uber','Lyft','Starbucks','Amazon','Marriott','Hilton','Delta','Indigo','Swiggy','Zomato',
+              'Ola','Dominos','KFC','Subway','Apple','Dell','Lenovo','Staples','FedEx','DHL',
+              'Airbnb','Expedia','Vistara','Hertz','Avis','Shell','BP','Costco','Walmart','Target',
+              'IKEA','Zoom','Slack','Notion','Figma','Adobe','GitHub','Atlassian','Dropbox','Oracle'])[1 + g % 40]
+           || ' ' || (ARRAY['ride','lunch','dinner','hotel','flight','laptop','subscription','fuel'])[1 + g % 8]
+           || CASE WHEN g % 50000 = 0 THEN ' quarterlyoffsite' ELSE '' END,
+       (ARRAY['Travel','Food','Accommodation','Office Supplies','Transport','Utilities','Entertainment','Other'])[1 + g % 8],
+       'Expense ' || g || ' for client meeting ' || (g % 997)
+FROM generate_series(1, 5000000) g;
+
+CREATE INDEX ON bench_expense USING gin (search_vector);
+CREATE INDEX ON bench_expense USING gin (lower(title) gin_trgm_ops);
+CREATE INDEX ON bench_expense (user_id);
+VACUUM ANALYZE bench_expense;
+
+-- ── Before: the old JPQL predicate, unbounded ───────────────────────────────
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM bench_expense e
+WHERE lower(e.title) LIKE '%quarterlyoffsite%'
+   OR lower(e.category) LIKE '%quarterlyoffsite%'
+   OR lower(e.description) LIKE '%quarterlyoffsite%';
+
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM bench_expense e
+WHERE e.user_id = 42
+  AND (lower(e.title) LIKE '%uber%' OR lower(e.category) LIKE '%uber%' OR lower(e.description) LIKE '%uber%');
+
+-- ── After: same statement shape as ExpenseSearchService.search ──────────────
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT id, rank FROM (
+    SELECT e.id, ts_rank_cd(e.search_vector, q.query) AS rank
+    FROM bench_expense e, to_tsquery('simple', 'quarterlyoffsite:*') AS q(query)
+    WHERE (e.search_vector @@ q.query OR lower(e.title) LIKE '%quarterlyoffsite%')
+) ranked ORDER BY rank DESC, id DESC LIMIT 21;
+
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT id, rank FROM (
+    SELECT e.id, ts_rank_cd(e.search_vector, q.query) AS rank
+    FROM bench_expense e, to_tsquery('simple', 'uber:*') AS q(query)
+    WHERE (e.search_vector @@ q.query OR lower(e.title) LIKE '%uber%') AND e.user_id = 42
+) ranked ORDER BY rank DESC, id DESC LIMIT 21;
+
+-- Infix fragment served by the trigram index only
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT id, rank FROM (
+    SELECT e.id, ts_rank_cd(e.search_vector, q.query) AS rank
+    FROM bench_expense e, to_tsquery('simple', 'rterlyoff:*') AS q(query)
+    WHERE (e.search_vector @@ q.query OR lower(e.title) LIKE '%rterlyoff%')
+) ranked ORDER BY rank DESC, id DESC LIMIT 21;
+
+DROP TABLE bench_expense;
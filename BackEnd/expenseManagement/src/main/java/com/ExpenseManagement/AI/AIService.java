@@ -1,13 +1,17 @@
 package com.expensemanagement.AI;
 
+import com.expensemanagement.config.ReadReplica;
 import com.expensemanagement.entities.Expense;
 import com.expensemanagement.entities.*;
 import com.expensemanagement.repository.ExpenseRepository;
+import com.expensemanagement.services.SpendProfile;
+import com.expensemanagement.services.SpendProfileService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
@@ -38,6 +42,7 @@ public class AIService {
         private final ExternalAIClient externalAIClient;
         private final OllamaService ollamaService;
         private final ExpenseRepository expenseRepository;
+        private final SpendProfileService spendProfileService;
 
         public String getAiModelName() {
                 if (aiProviderConfig.isExternal()) {
@@ -114,40 +119,19 @@ public class AIService {
         // ── Feature 3: Personal Spending Insights ─────────────────────────────────
 
         public CompletableFuture<AIResponse> spendingInsights(User user) {
-                List<Expense> all = expenseRepository.findByUser(user);
-                double totalSpent = all.stream().mapToDouble(Expense::getAmount).sum();
-                double approved = all.stream()
-                                .filter(e -> com.expensemanagement.entities.Approval_Status.APPROVED
-                                                .equals(e.getStatus()))
-                                .mapToDouble(Expense::getAmount).sum();
-                double pending = all.stream()
-                                .filter(e -> com.expensemanagement.entities.Approval_Status.PENDING
-                                                .equals(e.getStatus()))
-                                .mapToDouble(Expense::getAmount).sum();
-                String topCat = all.stream()
-                                .filter(e -> e.getCategory() != null)
-                                .collect(java.util.stream.Collectors.groupingBy(Expense::getCategory,
-                                                java.util.stream.Collectors.summingDouble(Expense::getAmount)))
-                                .entrySet().stream()
-                                .max(java.util.Map.Entry.comparingByValue())
-                                .map(java.util.Map.Entry::getKey).orElse("N/A");
+                SpendProfile profile = spendProfileService.get(user.getId());
+                String topCat = profile.topCategory() != null ? profile.topCategory() : "N/A";
 
                 String prompt = PromptTemplates.spendingInsights(
-                                user.getName(), totalSpent, approved, pending, topCat, all.size());
+                                user.getName(), profile.total(), profile.spend(Approval_Status.APPROVED),
+                                profile.spend(Approval_Status.PENDING), topCat, profile.count());
                 return ask(prompt, "spending-insights");
         }
 
         // ── Feature 4: Approval Recommendation ───────────────────────────────────
 
         public CompletableFuture<AIResponse> approvalRecommendation(Expense expense, User expenseOwner) {
-                double monthlySpend = expenseRepository.findByUser(expenseOwner).stream()
-                                .filter(e -> {
-                                        LocalDate d = e.getDate();
-                                        LocalDate now = LocalDate.now();
-                                        return d != null && d.getMonth() == now.getMonth()
-                                                        && d.getYear() == now.getYear();
-                                })
-                                .mapToDouble(Expense::getAmount).sum();
+                double monthlySpend = spendProfileService.get(expenseOwner.getId()).monthSpend(YearMonth.now());
 
                 String prompt = PromptTemplates.approvalRecommendation(
                                 expense.getTitle(), expense.getAmount(),
@@ -161,8 +145,7 @@ public class AIService {
         // ── Feature 5: Risk Scoring ───────────────────────────────────────────────
 
         public CompletableFuture<AIResponse> riskScore(Expense expense, User expenseOwner) {
-                List<Expense> all = expenseRepository.findByUser(expenseOwner);
-                double avg = all.stream().mapToDouble(Expense::getAmount).average().orElse(0);
+                double avg = spendProfileService.get(expenseOwner.getId()).average();
 
                 String prompt = PromptTemplates.riskScore(
                                 expense.getTitle(), expense.getAmount(),
@@ -173,6 +156,7 @@ public class AIService {
 
         // ── Feature 6: Team Summary ────────────────────────────────────────────────
 
+        @ReadReplica
         public CompletableFuture<AIResponse> teamSummary(List<User> members, double monthlySpend,
                         double budget, String teamName) {
 
@@ -200,6 +184,8 @@ public class AIService {
                                 .append("\", amount: ").append(e.getAmount())
                                 .append(", category: \"").append(e.getCategory()).append("\"")
                                 .append(", duplicate: ").append(e.isDuplicate())
+                                .append(e.getFraudFlags() != null
+                                                ? ", flags: \"" + e.getFraudFlags() + "\"" : "")
                                 .append(", status: \"").append(e.getStatus()).append("\" },"));
                 sb.append("\n]");
 
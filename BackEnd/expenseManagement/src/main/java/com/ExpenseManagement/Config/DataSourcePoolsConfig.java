@@ -0,0 +1,136 @@
+package com.expensemanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Bulkheaded connection pools, one Hikari pool per {@link WorkloadClass}.
+ *
+ * <ul>
+ * <li>{@code interactive} is configured by {@code spring.datasource.hikari.*};
+ * {@code reporting}, {@code background} and {@code batch} by
+ * {@code app.datasource.pools.<name>.*}, each with its own size, connection
+ * timeout and leak-detection threshold. All share spring.datasource's URL and
+ * credentials.
+ * <li>Each pool reports {@code hikaricp.*} under its own name plus
+ * {@code db.pool.saturation} (in-use + waiting, over max size).
+ * <li>The exposed {@code dataSource} is a {@link LazyConnectionDataSourceProxy}
+ * so the pool (and, with {@link ReadReplicaConfig}, primary vs replica) is
+ * picked at the first statement.
+ * </ul>
+ */
+@Configuration
+public class DataSourcePoolsConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource interactivePool(DataSourceProperties properties) {
+        return pool(properties, WorkloadClass.INTERACTIVE);
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.pools.reporting")
+    public HikariDataSource reportingPool(DataSourceProperties properties) {
+        return pool(properties, WorkloadClass.REPORTING);
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.pools.background")
+    public HikariDataSource backgroundPool(DataSourceProperties properties) {
+        return pool(properties, WorkloadClass.BACKGROUND);
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.pools.batch")
+    public HikariDataSource batchPool(DataSourceProperties properties) {
+        return pool(properties, WorkloadClass.BATCH);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("interactivePool") HikariDataSource interactivePool,
+            @Qualifier("reportingPool") HikariDataSource reportingPool,
+            @Qualifier("backgroundPool") HikariDataSource backgroundPool,
+            @Qualifier("batchPool") HikariDataSource batchPool,
+            @Qualifier("replicaPool") ObjectProvider<DataSource> replicaPool,
+            ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+            MeterRegistry meterRegistry) {
+        for (HikariDataSource pool : new HikariDataSource[] { interactivePool, reportingPool, backgroundPool,
+                batchPool }) {
+            Gauge.builder("db.pool.saturation", pool, DataSourcePoolsConfig::saturation)
+                    .description("In-use plus waiting connections over maximum pool size")
+                    .tag("pool", pool.getPoolName())
+                    .register(meterRegistry);
+        }
+        DataSource target = new WorkloadRoutingDataSource(Map.of(
+                WorkloadClass.INTERACTIVE, interactivePool,
+                WorkloadClass.REPORTING, reportingPool,
+                WorkloadClass.BACKGROUND, backgroundPool,
+                WorkloadClass.BATCH, batchPool));
+
+        DataSource replica = replicaPool.getIfAvailable();
+        if (replica != null) {
+            target = new ReplicaRoutingDataSource(target, replica, replicaLagMonitor.getObject(), meterRegistry);
+        }
+        return new LazyConnectionDataSourceProxy(target);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor workloadAdvisor() {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(Workload.class, true))
+                .union(new AnnotationMatchingPointcut(null, Workload.class, true));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, (MethodInterceptor) invocation -> {
+            Class<?> targetClass = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis())
+                    : invocation.getMethod().getDeclaringClass();
+            Method method = AopUtils.getMostSpecificMethod(invocation.getMethod(), targetClass);
+            // Method-level annotation wins over the class-level one
+            Workload workload = AnnotatedElementUtils.findMergedAnnotation(method, Workload.class);
+            if (workload == null) {
+                workload = AnnotatedElementUtils.findMergedAnnotation(targetClass, Workload.class);
+            }
+            return workload == null ? invocation.proceed()
+                    : WorkloadRoutingDataSource.within(workload.value(), invocation::proceed);
+        });
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, WorkloadClass workload) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName(workload.poolName());
+        return pool;
+    }
+
+    private static double saturation(HikariDataSource pool) {
+        HikariPoolMXBean mx = pool.getHikariPoolMXBean();
+        if (mx == null || pool.getMaximumPoolSize() <= 0) {
+            return 0;
+        }
+        return (double) (mx.getActiveConnections() + mx.getThreadsAwaitingConnection()) / pool.getMaximumPoolSize();
+    }
+}
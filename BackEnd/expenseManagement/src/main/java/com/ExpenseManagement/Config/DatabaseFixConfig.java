@@ -35,4 +35,52 @@ public class DatabaseFixConfig {
             }
         };
     }
+
+    /**
+     * expense.receipt_url used to be a {@code @Lob}, which PostgreSQL stores as
+     * an {@code oid} pointing into pg_largeobject — one extra fetch per row.
+     * Inline the values as TEXT and release the large objects.
+     */
+    @Bean
+    public CommandLineRunner migrateReceiptUrlToText(JdbcTemplate jdbcTemplate) {
+        return args -> {
+            try {
+                String type = jdbcTemplate.query("SELECT data_type FROM information_schema.columns "
+                        + "WHERE table_name = 'expense' AND column_name = 'receipt_url'",
+                        rs -> rs.next() ? rs.getString(1) : null);
+                if (!"oid".equals(type)) {
+                    return;
+                }
+                // One multi-statement execute runs as a single implicit transaction
+                jdbcTemplate.execute("ALTER TABLE expense ADD COLUMN receipt_url_text TEXT; "
+                        + "UPDATE expense SET receipt_url_text = convert_from(lo_get(receipt_url), 'UTF8') "
+                        + "WHERE receipt_url IS NOT NULL; "
+                        + "SELECT lo_unlink(receipt_url) FROM expense WHERE receipt_url IS NOT NULL; "
+                        + "ALTER TABLE expense DROP COLUMN receipt_url; "
+                        + "ALTER TABLE expense RENAME COLUMN receipt_url_text TO receipt_url");
+                log.info("DATABASE-FIX: expense.receipt_url migrated from oid to TEXT.");
+            } catch (Exception e) {
+                log.warn("DATABASE-FIX: Could not migrate expense.receipt_url to TEXT: {}", e.getMessage());
+            }
+        };
+    }
+
+    /**
+     * audit_logs moved from an IDENTITY column to audit_logs_seq. Make sure the
+     * sequence exists and starts past any rows written under the old scheme.
+     */
+    @Bean
+    public CommandLineRunner alignAuditLogSequence(JdbcTemplate jdbcTemplate) {
+        return args -> {
+            try {
+                jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS audit_logs_seq");
+                jdbcTemplate.execute("SELECT setval('audit_logs_seq', GREATEST("
+                        + "(SELECT COALESCE(MAX(id), 0) FROM audit_logs), "
+                        + "(SELECT last_value FROM audit_logs_seq)))");
+                log.info("DATABASE-FIX: audit_logs_seq aligned with existing audit rows.");
+            } catch (Exception e) {
+                log.warn("DATABASE-FIX: Could not align audit_logs_seq: {}", e.getMessage());
+            }
+        };
+    }
 }
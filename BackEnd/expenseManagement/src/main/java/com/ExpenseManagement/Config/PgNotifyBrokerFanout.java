@@ -0,0 +1,264 @@
+package com.expensemanagement.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi-node fan-out for the in-process STOMP broker using Postgres
+ * LISTEN/NOTIFY — no extra infrastructure needed.
+ *
+ * <p>
+ * Every {@code /topic/**} and {@code /user/**} message published on this node
+ * is delivered locally as usual and also queued for {@code pg_notify}. Each
+ * node LISTENs on the same channel and re-injects messages from other nodes
+ * into its own broker channel, so sockets held anywhere receive them.
+ *
+ * <p>
+ * Both the publisher and the listener run on dedicated JDBC connections
+ * outside the Hikari pool. The outbox is bounded; when it is full (or a
+ * payload exceeds the NOTIFY size limit) the message is delivered locally only
+ * and counted under {@code ws.fanout.dropped}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.websocket.broker-mode", havingValue = "POSTGRES")
+public class PgNotifyBrokerFanout implements ChannelInterceptor, SmartLifecycle {
+
+    static final String ORIGIN_HEADER = "x-fanout-origin";
+
+    /** Postgres rejects NOTIFY payloads of 8000 bytes or more. */
+    private static final int MAX_NOTIFY_BYTES = 7900;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final MessageChannel brokerChannel;
+    private final ObjectMapper objectMapper;
+    private final String channelName;
+    private final String nodeId = UUID.randomUUID().toString();
+    /** NOTIFY payloads waiting for the publisher; package-private for tests. */
+    final BlockingQueue<String> outbox;
+
+    private final Counter published;
+    private final Counter received;
+    private final Counter dropped;
+
+    private volatile boolean running;
+    private Thread publisherThread;
+    private Thread listenerThread;
+
+    public PgNotifyBrokerFanout(DataSourceProperties dataSourceProperties,
+            @Lazy @Qualifier("brokerChannel") MessageChannel brokerChannel,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.websocket.pg.channel:ws_fanout}") String channelName,
+            @Value("${app.websocket.pg.outbox-capacity:10000}") int outboxCapacity) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.brokerChannel = brokerChannel;
+        this.objectMapper = objectMapper;
+        // Channel name is interpolated into LISTEN, so only allow a plain identifier
+        this.channelName = channelName.matches("[a-z_][a-z0-9_]*") ? channelName : "ws_fanout";
+        this.outbox = new ArrayBlockingQueue<>(outboxCapacity);
+
+        this.published = meterRegistry.counter("ws.fanout.published");
+        this.received = meterRegistry.counter("ws.fanout.received");
+        this.dropped = meterRegistry.counter("ws.fanout.dropped");
+        Gauge.builder("ws.fanout.outbox.size", outbox, BlockingQueue::size).register(meterRegistry);
+    }
+
+    // ── outbound: local publish → NOTIFY ────────────────────────────────────────
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                || headers.containsKey(ORIGIN_HEADER)) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (destination == null || !(destination.startsWith("/topic/") || destination.startsWith("/user/"))
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+
+        try {
+            MimeType contentType = headers.get(MessageHeaders.CONTENT_TYPE, MimeType.class);
+            String envelope = objectMapper.writeValueAsString(Map.of(
+                    "o", nodeId,
+                    "d", destination,
+                    "c", contentType != null ? contentType.toString() : "application/json",
+                    "p", Base64.getEncoder().encodeToString(payload)));
+            if (envelope.getBytes(StandardCharsets.UTF_8).length > MAX_NOTIFY_BYTES || !outbox.offer(envelope)) {
+                dropped.increment();
+            }
+        } catch (Exception e) {
+            dropped.increment();
+            log.warn("WS-FANOUT: Failed to enqueue message for {}: {}", destination, e.getMessage());
+        }
+        return message;
+    }
+
+    private void publishLoop() {
+        Connection conn = null;
+        while (running) {
+            try {
+                String envelope = outbox.poll(1, TimeUnit.SECONDS);
+                if (envelope == null) {
+                    continue;
+                }
+                if (conn == null || conn.isClosed()) {
+                    conn = openConnection();
+                }
+                try (PreparedStatement ps = conn.prepareStatement("SELECT pg_notify(?, ?)")) {
+                    do {
+                        ps.setString(1, channelName);
+                        ps.setString(2, envelope);
+                        ps.execute();
+                        published.increment();
+                    } while ((envelope = outbox.poll()) != null);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (SQLException e) {
+                log.warn("WS-FANOUT: NOTIFY failed, reconnecting: {}", e.getMessage());
+                closeQuietly(conn);
+                conn = null;
+                sleepQuietly(1000);
+            }
+        }
+        closeQuietly(conn);
+    }
+
+    // ── inbound: LISTEN → local broker ──────────────────────────────────────────
+
+    private void listenLoop() {
+        while (running) {
+            Connection conn = null;
+            try {
+                conn = openConnection();
+                try (Statement st = conn.createStatement()) {
+                    st.execute("LISTEN " + channelName);
+                }
+                PGConnection pg = conn.unwrap(PGConnection.class);
+                log.info("WS-FANOUT: Listening on channel '{}' as node {}", channelName, nodeId);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(500);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification n : notifications) {
+                        deliver(n.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("WS-FANOUT: LISTEN connection lost, reconnecting: {}", e.getMessage());
+                    sleepQuietly(1000);
+                }
+            } finally {
+                closeQuietly(conn);
+            }
+        }
+    }
+
+    /** Re-injects a notification from another node; package-private for tests. */
+    void deliver(String envelope) {
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String, String> env = objectMapper.readValue(envelope, Map.class);
+            if (nodeId.equals(env.get("o"))) {
+                return; // already delivered locally
+            }
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setDestination(env.get("d"));
+            accessor.setContentType(MimeType.valueOf(env.get("c")));
+            accessor.setHeader(ORIGIN_HEADER, env.get("o"));
+            byte[] payload = Base64.getDecoder().decode(env.get("p"));
+            brokerChannel.send(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+            received.increment();
+        } catch (Exception e) {
+            log.warn("WS-FANOUT: Dropping malformed notification: {}", e.getMessage());
+        }
+    }
+
+    // ── lifecycle ───────────────────────────────────────────────────────────────
+
+    @Override
+    public void start() {
+        running = true;
+        publisherThread = Thread.ofPlatform().daemon().name("ws-fanout-publisher").start(this::publishLoop);
+        listenerThread = Thread.ofPlatform().daemon().name("ws-fanout-listener").start(this::listenLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (publisherThread != null) {
+            publisherThread.interrupt();
+        }
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private Connection openConnection() throws SQLException {
+        Connection conn = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        conn.setAutoCommit(true);
+        return conn;
+    }
+
+    private static void closeQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.expensemanagement.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks reporting / analytics reads that may be served by the read replica
+ * even when they are not inside a {@code @Transactional(readOnly = true)}
+ * method. Only takes effect when {@code app.datasource.replica.url} is set;
+ * statements issued inside a read-write transaction always stay on the
+ * primary. See {@link ReplicaRoutingDataSource}.
+ */
+@Documented
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadReplica {
+}
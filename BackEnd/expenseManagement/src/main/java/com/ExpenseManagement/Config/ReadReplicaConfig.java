@@ -0,0 +1,73 @@
+package com.expensemanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Read-replica pool, enabled by setting {@code app.datasource.replica.url}.
+ * When present, {@link DataSourcePoolsConfig} puts a
+ * {@link ReplicaRoutingDataSource} in front of the workload pools.
+ *
+ * <p>
+ * The replica is a Hikari bean named {@code replica}, so {@code hikaricp.*}
+ * metrics are reported for it separately. It is sized by
+ * {@code app.datasource.replica.hikari.*} independently of the primary pools.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaPool(DataSourceProperties properties,
+            @Value("${app.datasource.replica.url}") String url,
+            @Value("${app.datasource.replica.username:}") String username,
+            @Value("${app.datasource.replica.password:}") String password) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("replica");
+        pool.setDriverClassName(properties.determineDriverClassName());
+        pool.setJdbcUrl(url);
+        pool.setUsername(username.isBlank() ? properties.determineUsername() : username);
+        pool.setPassword(password.isBlank() ? properties.determinePassword() : password);
+        pool.setReadOnly(true);
+        // Start even if the replica is down; the lag monitor keeps it out of rotation
+        pool.setInitializationFailTimeout(-1);
+        return pool;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaPool") DataSource replicaPool,
+            @Value("${app.datasource.replica.max-lag-seconds:5}") double maxLagSeconds,
+            @Value("${app.datasource.replica.lag-check-ms:2000}") long checkMillis,
+            MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replicaPool, maxLagSeconds, checkMillis, meterRegistry);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor readReplicaAdvisor() {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(ReadReplica.class, true))
+                .union(new AnnotationMatchingPointcut(null, ReadReplica.class, true));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut,
+                (MethodInterceptor) invocation -> ReplicaRoutingDataSource.preferReplica(invocation::proceed));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
@@ -0,0 +1,95 @@
+package com.expensemanagement.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jakarta.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the read replica's replay lag so the router can send reads back to
+ * the primary while the replica is behind or down. A standby that has
+ * replayed everything it received reports zero lag even if the primary has
+ * been idle; a server that is not in recovery (e.g. a second local instance
+ * used for testing) always reports zero.
+ *
+ * <p>
+ * Probes run on the monitor's own thread, independent of the shared
+ * scheduler, and a result older than {@link #STALE_PROBES} intervals counts
+ * as unusable — a stuck probe never leaves a lagging replica in rotation.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String LAG_SQL = "SELECT CASE "
+            + "WHEN NOT pg_is_in_recovery() THEN 0 "
+            + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    /** Probe intervals after which the last result no longer counts. */
+    static final int STALE_PROBES = 3;
+
+    private final JdbcTemplate replicaJdbc;
+    private final double maxLagSeconds;
+    private final long staleAfterNanos;
+    private final ScheduledExecutorService prober = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("replica-lag-monitor").daemon().factory());
+
+    /** Unreachable until the first successful probe. */
+    private volatile boolean reachable = false;
+    private volatile double lagSeconds = Double.NaN;
+    private volatile long lastProbeNanos;
+
+    public ReplicaLagMonitor(DataSource replica, double maxLagSeconds, long checkMillis,
+            MeterRegistry meterRegistry) {
+        this.replicaJdbc = new JdbcTemplate(replica);
+        this.replicaJdbc.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(checkMillis)));
+        this.maxLagSeconds = maxLagSeconds;
+        this.staleAfterNanos = TimeUnit.MILLISECONDS.toNanos(checkMillis * STALE_PROBES);
+        Gauge.builder("db.replica.lag.seconds", this, m -> m.lagSeconds)
+                .description("Replay lag of the read replica; NaN while unreachable")
+                .register(meterRegistry);
+        Gauge.builder("db.replica.usable", this, m -> m.usable() ? 1 : 0)
+                .register(meterRegistry);
+        prober.scheduleWithFixedDelay(this::probe, 0, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean usable() {
+        return reachable && lagSeconds <= maxLagSeconds && System.nanoTime() - lastProbeNanos <= staleAfterNanos;
+    }
+
+    void probe() {
+        try {
+            Double lag = replicaJdbc.queryForObject(LAG_SQL, Double.class);
+            boolean wasUsable = usable();
+            lagSeconds = lag != null ? lag : 0;
+            lastProbeNanos = System.nanoTime();
+            reachable = true;
+            if (wasUsable != usable()) {
+                log.info("REPLICA: {} (lag {}s, max {}s)", usable() ? "in rotation" : "lagging, reads on primary",
+                        lagSeconds, maxLagSeconds);
+            }
+        } catch (RuntimeException e) {
+            markDown(e);
+        }
+    }
+
+    /** Takes the replica out of rotation until the next successful probe. */
+    void markDown(Exception cause) {
+        if (reachable) {
+            log.warn("REPLICA: unreachable, reads on primary: {}", cause.getMessage());
+        }
+        reachable = false;
+        lagSeconds = Double.NaN;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prober.shutdownNow();
+    }
+}
@@ -0,0 +1,112 @@
+package com.expensemanagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands out primary or replica connections per call.
+ *
+ * <p>
+ * A connection goes to the replica when the current transaction is read-only
+ * and was declared by application code, or when the caller runs under
+ * {@link ReadReplica} outside a read-write transaction. Spring Data's implicit
+ * read-only repository transactions stay on the primary: most services call
+ * repositories without a surrounding transaction and re-read right after
+ * writing, which a lagging replica would break.
+ *
+ * <p>
+ * The replica is skipped while {@link ReplicaLagMonitor} reports it lagging
+ * or unreachable, and a failed replica checkout falls back to the primary.
+ * Must sit behind a {@code LazyConnectionDataSourceProxy} so the decision is
+ * made at the first statement, after the transaction's read-only flag is set.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final ThreadLocal<Boolean> PREFER_REPLICA = ThreadLocal.withInitial(() -> false);
+    private static final String SPRING_DATA_TX_PREFIX = "org.springframework.data.";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter toPrimary;
+    private final Counter toReplica;
+    private final Counter fallback;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+            MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+        this.toPrimary = counter(meterRegistry, "primary");
+        this.toReplica = counter(meterRegistry, "replica");
+        this.fallback = counter(meterRegistry, "fallback");
+    }
+
+    /** Runs {@code body} with replica reads allowed (see {@link ReadReplica}). */
+    public static <T> T preferReplica(ThrowingSupplier<T> body) throws Throwable {
+        boolean previous = PREFER_REPLICA.get();
+        PREFER_REPLICA.set(true);
+        try {
+            return body.get();
+        } finally {
+            PREFER_REPLICA.set(previous);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ThrowingSupplier<T> {
+        T get() throws Throwable;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!wantsReplica()) {
+            toPrimary.increment();
+            return primary.getConnection();
+        }
+        if (lagMonitor.usable()) {
+            try {
+                Connection connection = replica.getConnection();
+                toReplica.increment();
+                return connection;
+            } catch (SQLException e) {
+                lagMonitor.markDown(e);
+            }
+        }
+        fallback.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        toPrimary.increment();
+        return primary.getConnection(username, password);
+    }
+
+    private static boolean wantsReplica() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PREFER_REPLICA.get();
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        if (PREFER_REPLICA.get()) {
+            return true;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        return name == null || !name.startsWith(SPRING_DATA_TX_PREFIX);
+    }
+
+    private static Counter counter(MeterRegistry registry, String target) {
+        return Counter.builder("db.routing.connections")
+                .description("Connections handed out by the replica router")
+                .tag("target", target)
+                .register(registry);
+    }
+}
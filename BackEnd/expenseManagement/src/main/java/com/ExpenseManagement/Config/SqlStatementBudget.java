@@ -0,0 +1,89 @@
+package com.expensemanagement.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Map;
+
+/**
+ * Counts the Hibernate SQL statements each API request issues, records them
+ * as {@code http.sql.statements} (tagged by route) and warns when a request
+ * exceeds {@code app.sql-budget.max-statements}, so N+1 fetches show up in
+ * production too. The list queries are held to a hard cap by
+ * ExpenseSummaryQueryTest. Only statements on the request thread are counted;
+ * JdbcTemplate calls bypass Hibernate and are not included.
+ */
+@Slf4j
+@Component
+public class SqlStatementBudget implements StatementInspector, HandlerInterceptor, WebMvcConfigurer,
+        HibernatePropertiesCustomizer {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final int maxStatements;
+
+    public SqlStatementBudget(MeterRegistry meterRegistry,
+            @Value("${app.sql-budget.max-statements:25}") int maxStatements) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this).addPathPatterns("/api/**");
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        COUNT.set(new int[1]);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        if (count == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : "unmapped";
+        DistributionSummary.builder("http.sql.statements")
+                .tag("method", request.getMethod())
+                .tag("uri", route)
+                .register(meterRegistry)
+                .record(count[0]);
+        if (count[0] > maxStatements) {
+            log.warn("SQL-BUDGET: {} {} issued {} statements (cap {})", request.getMethod(), route, count[0],
+                    maxStatements);
+        }
+    }
+}
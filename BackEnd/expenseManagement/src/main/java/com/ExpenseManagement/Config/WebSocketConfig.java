@@ -1,20 +1,133 @@
 package com.expensemanagement.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+/**
+ * STOMP over WebSocket configuration with a pluggable broker.
+ *
+ * <p>
+ * {@code app.websocket.broker-mode}:
+ * <ul>
+ * <li>{@code SIMPLE} — in-process broker, single node only (default)
+ * <li>{@code RELAY} — relay to an external STOMP broker (RabbitMQ / ActiveMQ);
+ * a local stand-in is enough for development, e.g.
+ * {@code docker run -p 61613:61613 rmohr/activemq}
+ * <li>{@code POSTGRES} — in-process broker per node, fanned out across nodes
+ * through Postgres LISTEN/NOTIFY (see {@link PgNotifyBrokerFanout})
+ * </ul>
+ *
+ * <p>
+ * Slow consumers are evicted by the transport limits below: a session whose
+ * send buffer or send time exceeds the limit is closed instead of holding an
+ * outbound thread.
+ */
+@Slf4j
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    public enum BrokerMode {
+        SIMPLE, RELAY, POSTGRES
+    }
+
+    private final BrokerMode brokerMode;
+    private final ObjectProvider<PgNotifyBrokerFanout> fanout;
+
+    @Value("${app.websocket.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${app.websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${app.websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${app.websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${app.websocket.outbound.core-pool-size:4}")
+    private int outboundCorePoolSize;
+
+    @Value("${app.websocket.outbound.max-pool-size:16}")
+    private int outboundMaxPoolSize;
+
+    @Value("${app.websocket.outbound.queue-capacity:1000}")
+    private int outboundQueueCapacity;
+
+    @Value("${app.websocket.session.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${app.websocket.session.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.websocket.session.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    public WebSocketConfig(@Value("${app.websocket.broker-mode:SIMPLE}") String rawBrokerMode,
+            ObjectProvider<PgNotifyBrokerFanout> fanout) {
+        this.brokerMode = parseMode(rawBrokerMode);
+        this.fanout = fanout;
+    }
+
+    private static BrokerMode parseMode(String raw) {
+        try {
+            return BrokerMode.valueOf(raw.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid app.websocket.broker-mode '{}'. Falling back to SIMPLE.", raw);
+            return BrokerMode.SIMPLE;
+        }
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if (brokerMode == BrokerMode.RELAY) {
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    // Lets /user destinations resolve on whichever node holds the session
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+        } else {
+            config.enableSimpleBroker("/topic", "/queue");
+        }
+
+        PgNotifyBrokerFanout pgFanout = fanout.getIfAvailable();
+        if (brokerMode == BrokerMode.POSTGRES && pgFanout != null) {
+            config.configureBrokerChannel().interceptors(pgFanout);
+        }
+
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
+        log.info("WebSocket broker mode: {}", brokerMode);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity)
+                .keepAliveSeconds(60);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit);
     }
 
     @Override
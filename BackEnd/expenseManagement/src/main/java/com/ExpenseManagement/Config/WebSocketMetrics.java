@@ -0,0 +1,47 @@
+package com.expensemanagement.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+
+/**
+ * Exposes WebSocket session and outbound channel stats as Micrometer gauges
+ * (see {@code /actuator/metrics/ws.*}).
+ *
+ * <p>
+ * {@code ws.sessions.limit-exceeded} counts slow consumers evicted by the send
+ * buffer / send time limits in {@link WebSocketConfig}.
+ */
+@Component
+public class WebSocketMetrics implements MeterBinder {
+
+    private final WebSocketMessageBrokerStats stats;
+    private final ThreadPoolTaskExecutor outboundExecutor;
+
+    public WebSocketMetrics(WebSocketMessageBrokerStats stats,
+            @Qualifier("clientOutboundChannelExecutor") ThreadPoolTaskExecutor outboundExecutor) {
+        this.stats = stats;
+        this.outboundExecutor = outboundExecutor;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ws.sessions.total", stats,
+                s -> s.getWebSocketSessionStats() != null ? s.getWebSocketSessionStats().getTotalSessions() : 0)
+                .register(registry);
+        Gauge.builder("ws.sessions.limit-exceeded", stats,
+                s -> s.getWebSocketSessionStats() != null
+                        ? s.getWebSocketSessionStats().getLimitExceededSessions()
+                        : 0)
+                .register(registry);
+        Gauge.builder("ws.outbound.active", outboundExecutor, ThreadPoolTaskExecutor::getActiveCount)
+                .register(registry);
+        Gauge.builder("ws.outbound.queue.size", outboundExecutor,
+                e -> e.getThreadPoolExecutor().getQueue().size())
+                .register(registry);
+    }
+}
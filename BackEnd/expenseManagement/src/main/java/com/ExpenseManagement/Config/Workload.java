@@ -0,0 +1,21 @@
+package com.expensemanagement.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Selects the connection pool for everything a method (or every method of a
+ * class) runs. Only connections acquired inside the call are affected; a
+ * transaction that already holds a connection keeps it. See
+ * {@link WorkloadRoutingDataSource}.
+ */
+@Documented
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Workload {
+
+    WorkloadClass value();
+}
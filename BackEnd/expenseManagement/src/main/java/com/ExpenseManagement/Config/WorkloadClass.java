@@ -0,0 +1,34 @@
+package com.expensemanagement.config;
+
+/**
+ * Connection pool bulkheads. Each class draws from its own Hikari pool, so a
+ * burst in one (a report storm, a rebuild job) cannot starve the others.
+ */
+public enum WorkloadClass {
+
+    /** Request/response traffic: submits, approvals, listings. The default. */
+    INTERACTIVE("interactive"),
+
+    /** Exports, PDFs and cross-team aggregates. */
+    REPORTING("reporting"),
+
+    /** Scheduled jobs: flushes, ticks, mirrors and other short periodic work. */
+    BACKGROUND("background"),
+
+    /**
+     * Long scans over history: fraud re-scans, vendor relinks, full inbox
+     * rebuilds. Kept apart from {@link #BACKGROUND} so a scan holding every
+     * connection it can get does not stall the flushes.
+     */
+    BATCH("batch");
+
+    private final String poolName;
+
+    WorkloadClass(String poolName) {
+        this.poolName = poolName;
+    }
+
+    public String poolName() {
+        return poolName;
+    }
+}
@@ -0,0 +1,54 @@
+package com.expensemanagement.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Hands out connections from the pool of the caller's {@link WorkloadClass}:
+ * the innermost {@link Workload} on the call stack, else
+ * {@link WorkloadClass#INTERACTIVE}.
+ */
+public class WorkloadRoutingDataSource extends AbstractDataSource {
+
+    private static final ThreadLocal<WorkloadClass> CURRENT = ThreadLocal.withInitial(() -> WorkloadClass.INTERACTIVE);
+
+    private final Map<WorkloadClass, DataSource> pools;
+
+    public WorkloadRoutingDataSource(Map<WorkloadClass, DataSource> pools) {
+        this.pools = new EnumMap<>(pools);
+        if (!this.pools.keySet().containsAll(java.util.EnumSet.allOf(WorkloadClass.class))) {
+            throw new IllegalArgumentException("A pool is required for every workload class");
+        }
+    }
+
+    /** Runs {@code body} with connections drawn from {@code workload}'s pool. */
+    public static <T> T within(WorkloadClass workload, ReplicaRoutingDataSource.ThrowingSupplier<T> body)
+            throws Throwable {
+        WorkloadClass previous = CURRENT.get();
+        CURRENT.set(workload);
+        try {
+            return body.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static WorkloadClass current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return pools.get(CURRENT.get()).getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return pools.get(CURRENT.get()).getConnection(username, password);
+    }
+}
@@ -4,6 +4,8 @@ import com.expensemanagement.AI.AIResponse;
 import com.expensemanagement.AI.AIService;
 import com.expensemanagement.AI.OllamaService;
 import com.expensemanagement.dto.AIDTOs;
+import com.expensemanagement.dto.CursorPage;
+import com.expensemanagement.dto.ManagerDashboardDTO;
 import com.expensemanagement.entities.Expense;
 import com.expensemanagement.entities.Team;
 import com.expensemanagement.entities.User;
@@ -35,6 +37,7 @@ public class AIController {
     private final NaturalSearchService naturalSearchService;
     private final ExpensePolicyService policyService;
     private final ManagerService managerService;
+    private final FraudDetectionService fraudDetectionService;
 
     private User me(Authentication auth) {
         if (auth == null || auth.getName() == null)
@@ -117,10 +120,10 @@ public class AIController {
         }
 
         List<User> members = managerService.getTeamMembers(manager.getId());
-        Map<String, Object> stats = managerService.getManagerDashboard(manager.getId());
+        ManagerDashboardDTO stats = managerService.getManagerDashboard(manager.getId());
 
-        double spent = ((Number) stats.getOrDefault("monthlySpend", 0)).doubleValue();
-        double budget = ((Number) stats.getOrDefault("teamBudget", 0)).doubleValue();
+        double spent = stats.monthlySpend();
+        double budget = stats.budget().budget();
 
         return aiService.teamSummary(members, spent, budget, team.getName());
     }
@@ -178,7 +181,7 @@ public class AIController {
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/fraud-insights")
     public CompletableFuture<AIResponse> fraudInsights() {
-        return aiService.fraudInsights(expenseService.getallExpenses());
+        return aiService.fraudInsights(fraudDetectionService.recentFlagged());
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -212,11 +215,13 @@ public class AIController {
     }
 
     @GetMapping("/search")
-    public CompletableFuture<ResponseEntity<List<Expense>>> search(
+    public CompletableFuture<ResponseEntity<CursorPage<Expense>>> search(
             @RequestParam String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
             Authentication auth) {
 
-        return naturalSearchService.search(query, me(auth))
+        return naturalSearchService.search(query, me(auth), cursor, size)
                 .thenApply(ResponseEntity::ok);
     }
 }
\ No newline at end of file
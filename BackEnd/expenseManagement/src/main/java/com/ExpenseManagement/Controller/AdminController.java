@@ -9,9 +9,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import com.expensemanagement.dto.CursorPage;
+import com.expensemanagement.dto.ExpenseSummaryDTO;
+import com.expensemanagement.dto.FraudRescanProgress;
 import com.expensemanagement.dto.TeamDTO;
+import com.expensemanagement.dto.VendorRelinkStatus;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -32,8 +37,13 @@ public class AdminController {
     private final ExpensePolicyService policyService;
     private final VendorAnalyticsService vendorAnalyticsService;
     private final FraudDetectionService fraudDetectionService;
+    private final FraudRescanService fraudRescanService;
+    private final VendorResolver vendorResolver;
+    private final VendorRelinkService vendorRelinkService;
     private final ExpenseRepository expenseRepository;
     private final UserRepository userRepository;
+    private final IdempotencyService idempotencyService;
+    private final ExpenseListingService expenseListingService;
 
     // ── Expense Management ──────────────────────────────────────────────────────
 
@@ -41,22 +51,32 @@ public class AdminController {
      * GET /api/admin/expenses?page=1&limit=10&status=PENDING
      */
     @GetMapping("/expenses")
-    public ResponseEntity<Page<Expense>> getAllExpenses(
+    public ResponseEntity<Page<ExpenseSummaryDTO>> getAllExpenses(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int limit,
             @RequestParam(required = false) Approval_Status status,
             Authentication auth) {
         PageRequest pageable = PageRequest.of(Math.max(0, page - 1), limit,
                 Sort.by(Sort.Direction.DESC, "date"));
-        Page<Expense> expenses;
-        if (status != null) {
-            expenses = expenseRepository.findByStatus(status, pageable);
-        } else {
-            expenses = expenseRepository.findAll(pageable);
-        }
+        Page<ExpenseSummaryDTO> expenses = status != null
+                ? expenseRepository.findSummariesByStatus(status, pageable)
+                : expenseRepository.findSummaries(pageable);
         return ResponseEntity.ok(expenses);
     }
 
+    /**
+     * GET /api/admin/expenses/scroll?size=20&cursor=...&status=PENDING&count=true
+     */
+    @GetMapping("/expenses/scroll")
+    public ResponseEntity<CursorPage<ExpenseSummaryDTO>> scrollAllExpenses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) Approval_Status status,
+            @RequestParam(defaultValue = "false") boolean count) {
+        return ResponseEntity.ok(expenseListingService.list(ExpenseListingService.Scope.ALL, null, status, cursor,
+                size, count));
+    }
+
     /**
      * GET /api/expenses/getbyid/{id} (used by both manager and admin frontend
      * services)
@@ -73,8 +93,12 @@ public class AdminController {
      * PUT /api/admin/expenses/{id}/approve
      */
     @PutMapping("/expenses/{id}/approve")
-    public ResponseEntity<Expense> approveExpense(@PathVariable Long id) {
-        Expense expense = expenseService.approveExpense(id, "ADMIN");
+    public ResponseEntity<Expense> approveExpense(
+            @PathVariable Long id,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            Authentication auth) {
+        Expense expense = idempotencyService.execute("admin-approve:" + id, auth.getName(), idempotencyKey,
+                () -> expenseService.approveExpense(id, "ADMIN"));
         return ResponseEntity.ok(expense);
     }
 
@@ -84,8 +108,11 @@ public class AdminController {
     @PutMapping("/expenses/{id}/reject")
     public ResponseEntity<Expense> rejectExpense(
             @PathVariable Long id,
-            @RequestBody(required = false) Map<String, String> body) {
-        Expense expense = expenseService.rejectExpense(id, "ADMIN");
+            @RequestBody(required = false) Map<String, String> body,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            Authentication auth) {
+        Expense expense = idempotencyService.execute("admin-reject:" + id, auth.getName(), idempotencyKey,
+                () -> expenseService.rejectExpense(id, "ADMIN"));
         return ResponseEntity.ok(expense);
     }
 
@@ -270,6 +297,165 @@ public class AdminController {
         return ResponseEntity.ok(Map.of("expenseId", expenseId, "flags", flags));
     }
 
+    /**
+     * GET /api/admin/fraud-rules
+     */
+    @GetMapping("/fraud-rules")
+    public ResponseEntity<List<FraudRule>> getFraudRules() {
+        return ResponseEntity.ok(fraudDetectionService.getRules());
+    }
+
+    /**
+     * POST /api/admin/fraud-rules
+     */
+    @PostMapping("/fraud-rules")
+    public ResponseEntity<FraudRule> createFraudRule(@RequestBody FraudRule rule, Authentication auth) {
+        return ResponseEntity.ok(fraudDetectionService.createRule(rule, auth.getName()));
+    }
+
+    /**
+     * PUT /api/admin/fraud-rules/{id}
+     */
+    @PutMapping("/fraud-rules/{id}")
+    public ResponseEntity<FraudRule> updateFraudRule(@PathVariable Long id, @RequestBody FraudRule rule) {
+        return ResponseEntity.ok(fraudDetectionService.updateRule(id, rule));
+    }
+
+    /**
+     * DELETE /api/admin/fraud-rules/{id}
+     */
+    @DeleteMapping("/fraud-rules/{id}")
+    public ResponseEntity<Void> deleteFraudRule(@PathVariable Long id) {
+        fraudDetectionService.deleteRule(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * GET /api/admin/fraud-rescan
+     * Progress of the latest re-scan; 204 if none has run yet
+     */
+    @GetMapping("/fraud-rescan")
+    public ResponseEntity<FraudRescanProgress> getFraudRescan() {
+        FraudRescanProgress progress = fraudRescanService.progress();
+        return progress != null ? ResponseEntity.ok(progress) : ResponseEntity.noContent().build();
+    }
+
+    /**
+     * POST /api/admin/fraud-rescan?resume=false
+     * Re-runs fraud rules and confidence scoring over all expenses, or resumes
+     * the latest stopped re-scan
+     */
+    @PostMapping("/fraud-rescan")
+    public ResponseEntity<?> startFraudRescan(@RequestParam(defaultValue = "false") boolean resume,
+            Authentication auth) {
+        try {
+            return ResponseEntity.accepted()
+                    .body(resume ? fraudRescanService.resume() : fraudRescanService.start(auth.getName()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/admin/fraud-rescan/cancel
+     */
+    @PostMapping("/fraud-rescan/cancel")
+    public ResponseEntity<?> cancelFraudRescan() {
+        try {
+            return ResponseEntity.ok(fraudRescanService.cancel());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // ── Vendor Resolution ───────────────────────────────────────────────────────
+
+    /**
+     * GET /api/admin/vendors/canonical
+     * Canonical vendors with the names that resolve to them
+     */
+    @GetMapping("/vendors/canonical")
+    public ResponseEntity<List<Map<String, Object>>> getCanonicalVendors() {
+        return ResponseEntity.ok(vendorResolver.listVendors());
+    }
+
+    /**
+     * POST /api/admin/vendors/canonical/{id}/merge-into/{targetId}
+     * Folds one vendor into another, then re-links expenses and statistics;
+     * the re-link is queued if one is already running
+     */
+    @PostMapping("/vendors/canonical/{id}/merge-into/{targetId}")
+    public ResponseEntity<?> mergeVendor(@PathVariable Long id, @PathVariable Long targetId, Authentication auth) {
+        try {
+            VendorResolver.ResolvedVendor target = vendorResolver.merge(id, targetId);
+            VendorRelinkStatus relink = vendorRelinkService.startOrQueue(auth.getName());
+            return ResponseEntity.accepted().body(Map.of("vendor", target, "relink", relink));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/admin/vendors/fuzzy-links
+     * Names linked to a vendor by similarity, awaiting review
+     */
+    @GetMapping("/vendors/fuzzy-links")
+    public ResponseEntity<List<Map<String, Object>>> getFuzzyLinks() {
+        return ResponseEntity.ok(vendorResolver.listFuzzyLinks());
+    }
+
+    /**
+     * POST /api/admin/vendors/fuzzy-links/{aliasId}/confirm
+     */
+    @PostMapping("/vendors/fuzzy-links/{aliasId}/confirm")
+    public ResponseEntity<?> confirmFuzzyLink(@PathVariable Long aliasId) {
+        try {
+            vendorResolver.confirm(aliasId);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/admin/vendors/fuzzy-links/{aliasId}/detach
+     * Moves a wrongly matched name to a vendor of its own, then re-links
+     * expenses; the re-link is queued if one is already running
+     */
+    @PostMapping("/vendors/fuzzy-links/{aliasId}/detach")
+    public ResponseEntity<?> detachFuzzyLink(@PathVariable Long aliasId, Authentication auth) {
+        try {
+            VendorResolver.ResolvedVendor vendor = vendorResolver.detach(aliasId);
+            VendorRelinkStatus relink = vendorRelinkService.startOrQueue(auth.getName());
+            return ResponseEntity.accepted().body(Map.of("vendor", vendor, "relink", relink));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/admin/vendors/relink
+     * State of the latest vendor re-link; 204 if none has run on this node
+     */
+    @GetMapping("/vendors/relink")
+    public ResponseEntity<VendorRelinkStatus> getVendorRelink() {
+        VendorRelinkStatus status = vendorRelinkService.status();
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.noContent().build();
+    }
+
+    /**
+     * POST /api/admin/vendors/relink
+     * Points historical expenses and vendor statistics at canonical vendors
+     */
+    @PostMapping("/vendors/relink")
+    public ResponseEntity<?> startVendorRelink(Authentication auth) {
+        try {
+            return ResponseEntity.accepted().body(vendorRelinkService.start(auth.getName()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * GET /api/admin/fraud-flags/all
      * Returns all expenses that have a high risk (low confidence score)
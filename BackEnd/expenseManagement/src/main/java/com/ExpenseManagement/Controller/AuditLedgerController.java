@@ -0,0 +1,48 @@
+package com.expensemanagement.controller;
+
+import com.expensemanagement.services.AuditLedger;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Tamper-evident audit ledger — ADMIN only, available when
+ * app.audit.backend=LEDGER.
+ * GET /api/audit-logs/ledger/*
+ */
+@RestController
+@RequestMapping("/api/audit-logs/ledger")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.audit.backend", havingValue = "LEDGER")
+public class AuditLedgerController {
+
+    private final AuditLedger auditLedger;
+
+    /** GET /api/audit-logs/ledger/verify — re-walks the whole hash chain */
+    @GetMapping("/verify")
+    public ResponseEntity<AuditLedger.VerifyResult> verify() {
+        return ResponseEntity.ok(auditLedger.verify());
+    }
+
+    /** GET /api/audit-logs/ledger/entity?type=EXPENSE&id=42&limit=50 */
+    @GetMapping("/entity")
+    public ResponseEntity<List<AuditLedger.LedgerRecord>> getByEntity(
+            @RequestParam String type,
+            @RequestParam Long id,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(auditLedger.findByEntity(type, id, Math.min(limit, 500)));
+    }
+
+    /** GET /api/audit-logs/ledger/since?from=2024-01-01T00:00:00&limit=100 */
+    @GetMapping("/since")
+    public ResponseEntity<List<AuditLedger.LedgerRecord>> getSince(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(auditLedger.findSince(from, Math.min(limit, 1000)));
+    }
+}
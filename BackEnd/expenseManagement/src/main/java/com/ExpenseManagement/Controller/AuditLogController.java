@@ -1,21 +1,21 @@
 package com.expensemanagement.controller;
 
+import com.expensemanagement.dto.CursorPage;
 import com.expensemanagement.entities.AuditLog;
 import com.expensemanagement.services.AuditLogService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 /**
  * Audit log viewer — ADMIN only.
  * GET /api/audit-logs
+ *
+ * All listings are keyset-paginated, newest first: pass the
+ * {@code nextCursor} of a response as {@code ?cursor=} to get the next slice.
  */
 @RestController
 @RequestMapping("/api/audit-logs")
@@ -24,40 +24,43 @@ public class AuditLogController {
 
     private final AuditLogService auditLogService;
 
-    /** GET /api/audit-logs?page=0&size=20 */
+    /** GET /api/audit-logs?size=20&cursor=... */
     @GetMapping
-    public ResponseEntity<Page<AuditLog>> getAll(
-            @RequestParam(defaultValue = "0") int page,
+    public ResponseEntity<CursorPage<AuditLog>> getAll(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int size) {
-        PageRequest pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp"));
-        return ResponseEntity.ok(auditLogService.getAll(pageable));
+        return ResponseEntity.ok(auditLogService.getAll(cursor, size));
     }
 
-    /** GET /api/audit-logs/entity?type=EXPENSE&id=42 */
+    /** GET /api/audit-logs/entity?type=EXPENSE&id=42&size=20&cursor=... */
     @GetMapping("/entity")
-    public ResponseEntity<List<AuditLog>> getByEntity(
+    public ResponseEntity<CursorPage<AuditLog>> getByEntity(
             @RequestParam String type,
-            @RequestParam Long id) {
-        return ResponseEntity.ok(auditLogService.getByEntity(type, id));
+            @RequestParam Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(auditLogService.getByEntity(type, id, cursor, size));
     }
 
-    /** GET /api/audit-logs/user?username=john@acme.com */
+    /** GET /api/audit-logs/user?username=john@acme.com&size=20&cursor=... */
     @GetMapping("/user")
-    public ResponseEntity<List<AuditLog>> getByUser(@RequestParam String username) {
-        return ResponseEntity.ok(auditLogService.getByUser(username));
+    public ResponseEntity<CursorPage<AuditLog>> getByUser(
+            @RequestParam String username,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(auditLogService.getByUser(username, cursor, size));
     }
 
     /**
      * GET
-     * /api/audit-logs/range?from=2024-01-01T00:00:00&to=2024-01-31T23:59:59&page=0&size=20
+     * /api/audit-logs/range?from=2024-01-01T00:00:00&to=2024-01-31T23:59:59&size=20&cursor=...
      */
     @GetMapping("/range")
-    public ResponseEntity<Page<AuditLog>> getByRange(
+    public ResponseEntity<CursorPage<AuditLog>> getByRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int size) {
-        PageRequest pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp"));
-        return ResponseEntity.ok(auditLogService.getByDateRange(from, to, pageable));
+        return ResponseEntity.ok(auditLogService.getByDateRange(from, to, cursor, size));
     }
 }
@@ -1,7 +1,10 @@
 package com.expensemanagement.controller;
 
 import com.expensemanagement.dto.ComplaintDTO;
+import com.expensemanagement.dto.CursorPage;
 import com.expensemanagement.entities.Complaint;
+import com.expensemanagement.entities.Complaint_Department;
+import com.expensemanagement.entities.Complaint_Priority;
 import com.expensemanagement.entities.Complaint_Status;
 import com.expensemanagement.entities.User;
 import com.expensemanagement.services.ComplaintService;
@@ -16,7 +19,6 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -58,23 +60,45 @@ public class ComplaintController {
         }
     }
 
+    /** GET /api/complaints/my?status=&priority=&department=&size=20&cursor=... */
     @GetMapping("/my")
     @PreAuthorize("hasAnyRole('USER', 'MANAGER', 'ADMIN')")
-    public ResponseEntity<List<ComplaintDTO>> getMyComplaints(@AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<CursorPage<ComplaintDTO>> getMyComplaints(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) Complaint_Status status,
+            @RequestParam(required = false) Complaint_Priority priority,
+            @RequestParam(required = false) Complaint_Department department,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         User user = userService.getUserByEmail(userDetails.getUsername());
-        return ResponseEntity.ok(complaintService.getUserComplaints(user));
+        return ResponseEntity.ok(complaintService.getUserComplaints(user,
+                new ComplaintDTO.Filter(status, priority, department), cursor, size));
     }
 
+    /** GET /api/complaints/team?status=&priority=&department=&size=20&cursor=... */
     @GetMapping("/team")
     @PreAuthorize("hasRole('MANAGER')")
-    public ResponseEntity<List<ComplaintDTO>> getTeamComplaints() {
-        return ResponseEntity.ok(complaintService.getManagerComplaints());
+    public ResponseEntity<CursorPage<ComplaintDTO>> getTeamComplaints(
+            @RequestParam(required = false) Complaint_Status status,
+            @RequestParam(required = false) Complaint_Priority priority,
+            @RequestParam(required = false) Complaint_Department department,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(complaintService.getManagerComplaints(
+                new ComplaintDTO.Filter(status, priority, department), cursor, size));
     }
 
+    /** GET /api/complaints/all?status=&priority=&department=&size=20&cursor=... */
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<ComplaintDTO>> getAllComplaints() {
-        return ResponseEntity.ok(complaintService.getAdminComplaints());
+    public ResponseEntity<CursorPage<ComplaintDTO>> getAllComplaints(
+            @RequestParam(required = false) Complaint_Status status,
+            @RequestParam(required = false) Complaint_Priority priority,
+            @RequestParam(required = false) Complaint_Department department,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(complaintService.getAdminComplaints(
+                new ComplaintDTO.Filter(status, priority, department), cursor, size));
     }
 
     @PostMapping("/respond/{id}")
@@ -1,7 +1,11 @@
 package com.expensemanagement.controller;
 
+import com.expensemanagement.dto.CursorPage;
+import com.expensemanagement.dto.ExpenseSummaryDTO;
 import com.expensemanagement.entities.Expense;
+import com.expensemanagement.services.CategorySuggestionService;
 import com.expensemanagement.services.ExpenseService;
+import com.expensemanagement.services.TypeaheadService;
 import com.expensemanagement.services.UserService;
 import com.expensemanagement.entities.User;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +27,8 @@ public class ExpenseController {
 
     private final ExpenseService expenseService;
     private final UserService userService;
+    private final CategorySuggestionService categorySuggestionService;
+    private final TypeaheadService typeaheadService;
 
     /**
      * GET /api/expenses/getbyid/{id}
@@ -47,24 +53,49 @@ public class ExpenseController {
     }
 
     /**
-     * GET /api/expenses/search?query=...
+     * GET /api/expenses/search?query=...&size=20&cursor=...
+     * Ranked full-text matches, best first.
      */
     @GetMapping("/search")
-    public ResponseEntity<List<Expense>> searchExpenses(
-            @RequestParam String query, Authentication auth) {
+    public ResponseEntity<CursorPage<ExpenseSummaryDTO>> searchExpenses(
+            @RequestParam String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication auth) {
         User user = userService.getUserByEmail(auth.getName());
-        return ResponseEntity.ok(expenseService.searchExpenses(query, user));
+        return ResponseEntity.ok(expenseService.searchExpenses(query, user, cursor, size));
     }
 
     /**
      * GET /api/expenses/suggest-categories?title=...
+     * The caller's most used categories; the default list for new users.
      */
     @GetMapping("/suggest-categories")
-    public ResponseEntity<List<String>> suggestCategories(@RequestParam String title) {
+    public ResponseEntity<List<String>> suggestCategories(@RequestParam String title, Authentication auth) {
+        User user = userService.getUserByEmail(auth.getName());
+        List<String> history = categorySuggestionService.suggestCategories(user, title);
+        if (!history.isEmpty()) {
+            return ResponseEntity.ok(history);
+        }
         return ResponseEntity.ok(List.of("Travel", "Food", "Accommodation", "Office Supplies",
                 "Transport", "Utilities", "Entertainment", "Other"));
     }
 
+    /**
+     * GET /api/expenses/typeahead?field=TITLE&q=...
+     * Instant suggestions for VENDOR, TITLE or CATEGORY, boosted by the caller's
+     * own history. Served from memory.
+     */
+    @GetMapping("/typeahead")
+    public ResponseEntity<List<String>> typeahead(
+            @RequestParam TypeaheadService.Field field,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit,
+            Authentication auth) {
+        User user = userService.getUserByEmail(auth.getName());
+        return ResponseEntity.ok(typeaheadService.suggest(field, q, user.getId(), Math.min(Math.max(limit, 1), 20)));
+    }
+
     /**
      * POST /api/expenses/draft
      */
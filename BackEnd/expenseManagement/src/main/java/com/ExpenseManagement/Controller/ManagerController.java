@@ -1,5 +1,9 @@
 package com.expensemanagement.controller;
 
+import com.expensemanagement.dto.ApprovalInboxDTO;
+import com.expensemanagement.dto.CursorPage;
+import com.expensemanagement.dto.ExpenseSummaryDTO;
+import com.expensemanagement.dto.ManagerDashboardDTO;
 import com.expensemanagement.entities.Approval_Status;
 import com.expensemanagement.entities.Expense;
 import com.expensemanagement.entities.Team;
@@ -10,6 +14,7 @@ import com.expensemanagement.services.UserService;
 import com.expensemanagement.services.ExpensePolicyService;
 import com.expensemanagement.services.PerformanceService;
 import com.expensemanagement.services.ExpenseService;
+import com.expensemanagement.services.IdempotencyService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -36,6 +41,7 @@ public class ManagerController {
     private final ExpensePolicyService policyService;
     private final PerformanceService performanceService;
     private final ExpenseService expenseService;
+    private final IdempotencyService idempotencyService;
 
     private User getCurrentManager(Authentication auth) {
         return userService.getUserByEmail(auth.getName());
@@ -47,7 +53,7 @@ public class ManagerController {
      * GET /api/manager/team/expenses?page=1&limit=10&status=PENDING
      */
     @GetMapping("/team/expenses")
-    public ResponseEntity<Page<Expense>> getTeamExpenses(
+    public ResponseEntity<Page<ExpenseSummaryDTO>> getTeamExpenses(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int limit,
             @RequestParam(required = false) Approval_Status status,
@@ -55,10 +61,37 @@ public class ManagerController {
         User manager = getCurrentManager(auth);
         PageRequest pageable = PageRequest.of(Math.max(0, page - 1), limit,
                 Sort.by(Sort.Direction.DESC, "date"));
-        Page<Expense> expenses = managerService.getTeamExpenses(manager.getId(), status, pageable);
+        Page<ExpenseSummaryDTO> expenses = managerService.getTeamExpenses(manager.getId(), status, pageable);
         return ResponseEntity.ok(expenses);
     }
 
+    /**
+     * GET /api/manager/team/expenses/scroll?size=20&cursor=...&status=PENDING&count=true
+     */
+    @GetMapping("/team/expenses/scroll")
+    public ResponseEntity<CursorPage<ExpenseSummaryDTO>> scrollTeamExpenses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) Approval_Status status,
+            @RequestParam(defaultValue = "false") boolean count,
+            Authentication auth) {
+        User manager = getCurrentManager(auth);
+        return ResponseEntity.ok(managerService.scrollTeamExpenses(manager.getId(), status, cursor, size, count));
+    }
+
+    /**
+     * GET /api/manager/inbox?size=20&cursor=... — pending team expenses by
+     * priority
+     */
+    @GetMapping("/inbox")
+    public ResponseEntity<CursorPage<ApprovalInboxDTO>> getApprovalInbox(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication auth) {
+        User manager = getCurrentManager(auth);
+        return ResponseEntity.ok(managerService.getApprovalInbox(manager.getId(), cursor, size));
+    }
+
     /**
      * PUT /api/manager/expenses/{id}/approve
      */
@@ -66,9 +99,11 @@ public class ManagerController {
     public ResponseEntity<Expense> approveExpense(
             @PathVariable Long id,
             @RequestBody(required = false) Map<String, String> body,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication auth) {
         User manager = getCurrentManager(auth);
-        Expense expense = managerService.approveExpense(id, manager.getId());
+        Expense expense = idempotencyService.execute("manager-approve:" + id, auth.getName(), idempotencyKey,
+                () -> managerService.approveExpense(id, manager.getId()));
         return ResponseEntity.ok(expense);
     }
 
@@ -79,9 +114,11 @@ public class ManagerController {
     public ResponseEntity<Expense> rejectExpense(
             @PathVariable Long id,
             @RequestBody Map<String, String> body,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication auth) {
         String reason = body.getOrDefault("reason", "Rejected by manager");
-        Expense expense = managerService.rejectExpense(id, reason);
+        Expense expense = idempotencyService.execute("manager-reject:" + id, auth.getName(), idempotencyKey,
+                () -> managerService.rejectExpense(id, reason), reason);
         return ResponseEntity.ok(expense);
     }
 
@@ -92,10 +129,12 @@ public class ManagerController {
     public ResponseEntity<Expense> forwardToAdmin(
             @PathVariable Long id,
             @RequestBody Map<String, String> body,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication auth) {
         User manager = getCurrentManager(auth);
         String comment = body.getOrDefault("comment", "Forwarded to admin for review");
-        Expense expense = managerService.forwardToAdmin(id, manager.getId(), comment);
+        Expense expense = idempotencyService.execute("manager-forward:" + id, auth.getName(), idempotencyKey,
+                () -> managerService.forwardToAdmin(id, manager.getId(), comment), comment);
         return ResponseEntity.ok(expense);
     }
 
@@ -105,12 +144,17 @@ public class ManagerController {
     @PostMapping("/expenses/bulk-approve")
     public ResponseEntity<Map<String, Object>> bulkApprove(
             @RequestBody Map<String, Object> body,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication auth) {
         User manager = getCurrentManager(auth);
-        @SuppressWarnings("unchecked")
-        List<Long> expenseIds = (List<Long>) body.get("expenseIds");
+        // JSON numbers arrive as Integer or Long depending on size
+        List<Long> expenseIds = ((List<?>) body.getOrDefault("expenseIds", List.of())).stream()
+                .map(id -> ((Number) id).longValue())
+                .toList();
         String comment = (String) body.getOrDefault("comment", "Bulk approved");
-        Map<String, Object> result = managerService.bulkApprove(expenseIds, manager.getId(), comment);
+        Map<String, Object> result = idempotencyService.execute("manager-bulk-approve", auth.getName(),
+                idempotencyKey, () -> managerService.bulkApprove(expenseIds, manager.getId(), comment), expenseIds,
+                comment);
         return ResponseEntity.ok(result);
     }
 
@@ -151,9 +195,12 @@ public class ManagerController {
      * GET /api/manager/dashboard
      */
     @GetMapping("/dashboard")
-    public ResponseEntity<Map<String, Object>> getDashboard(Authentication auth) {
+    public ResponseEntity<?> getDashboard(Authentication auth) {
         User manager = getCurrentManager(auth);
-        Map<String, Object> dashboard = managerService.getManagerDashboard(manager.getId());
+        ManagerDashboardDTO dashboard = managerService.getManagerDashboard(manager.getId());
+        if (dashboard == null) {
+            return ResponseEntity.ok(Map.of("error", "No team assigned to this manager"));
+        }
         return ResponseEntity.ok(dashboard);
     }
 
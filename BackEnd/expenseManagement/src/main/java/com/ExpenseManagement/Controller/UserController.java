@@ -1,9 +1,12 @@
 package com.expensemanagement.controller;
 
+import com.expensemanagement.dto.CursorPage;
+import com.expensemanagement.dto.ExpenseSummaryDTO;
 import com.expensemanagement.dto.UserStatsDTO;
 import com.expensemanagement.entities.Approval_Status;
 import com.expensemanagement.entities.Expense;
 import com.expensemanagement.entities.User;
+import com.expensemanagement.services.ExpenseListingService;
 import com.expensemanagement.services.ExpenseService;
 import com.expensemanagement.services.FileService;
 import com.expensemanagement.services.UserService;
@@ -29,6 +32,7 @@ public class UserController {
     private final ExpenseService expenseService;
     private final UserService userService;
     private final FileService fileService;
+    private final ExpenseListingService expenseListingService;
 
     // ── Helpers ────────────────────────────────────────────────────────────────
 
@@ -42,7 +46,7 @@ public class UserController {
      * GET /api/user/expenses?page=1&limit=10&status=PENDING
      */
     @GetMapping("/expenses")
-    public ResponseEntity<Page<Expense>> getMyExpenses(
+    public ResponseEntity<Page<ExpenseSummaryDTO>> getMyExpenses(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int limit,
             @RequestParam(required = false) Approval_Status status,
@@ -51,10 +55,25 @@ public class UserController {
         // Spring Data pages are 0-indexed; frontend sends 1-indexed
         PageRequest pageable = PageRequest.of(Math.max(0, page - 1), limit,
                 Sort.by(Sort.Direction.DESC, "date"));
-        Page<Expense> result = expenseService.getUserExpenses(user, pageable);
+        Page<ExpenseSummaryDTO> result = expenseService.getUserExpenses(user, status, pageable);
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * GET /api/user/expenses/scroll?size=20&cursor=...&status=PENDING&count=true
+     */
+    @GetMapping("/expenses/scroll")
+    public ResponseEntity<CursorPage<ExpenseSummaryDTO>> scrollMyExpenses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) Approval_Status status,
+            @RequestParam(defaultValue = "false") boolean count,
+            Authentication auth) {
+        User user = getCurrentUser(auth);
+        return ResponseEntity.ok(expenseListingService.list(ExpenseListingService.Scope.USER, user.getId(), status,
+                cursor, size, count));
+    }
+
     /**
      * GET /api/user/expenses/{id}
      */
@@ -211,12 +230,16 @@ public class UserController {
     }
 
     /**
-     * GET /api/expenses/search?query=...
+     * GET /api/user/expenses/search?query=...&size=20&cursor=...
+     * Ranked full-text matches, best first.
      */
     @GetMapping("/expenses/search")
-    public ResponseEntity<?> searchExpenses(@RequestParam String query, Authentication auth) {
+    public ResponseEntity<?> searchExpenses(@RequestParam String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication auth) {
         User user = getCurrentUser(auth);
-        return ResponseEntity.ok(expenseService.searchExpenses(query, user));
+        return ResponseEntity.ok(expenseService.searchExpenses(query, user, cursor, size));
     }
 
     /**
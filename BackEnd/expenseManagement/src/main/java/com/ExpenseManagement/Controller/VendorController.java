@@ -21,8 +21,11 @@ public class VendorController {
     private final UserService userService;
 
     @GetMapping("/suggest")
-    public ResponseEntity<List<String>> getSuggestions(@RequestParam String query) {
-        return ResponseEntity.ok(vendorService.getVendorSuggestions(query));
+    public ResponseEntity<List<String>> getSuggestions(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam String query) {
+        Long userId = userDetails != null ? userService.getUserByEmail(userDetails.getUsername()).getId() : null;
+        return ResponseEntity.ok(vendorService.getVendorSuggestions(query, userId));
     }
 
     @GetMapping("/insights/{vendorName}")
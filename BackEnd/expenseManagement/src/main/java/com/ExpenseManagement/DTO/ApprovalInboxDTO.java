@@ -0,0 +1,25 @@
+package com.expensemanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor // used by the JPQL constructor projection in ApprovalInboxRepository
+public class ApprovalInboxDTO {
+    private Long expenseId;
+    private String title;
+    private String category;
+    private double amount;
+    private Long userId;
+    private String submitterName;
+    private LocalDate submittedOn;
+    private LocalDateTime slaDeadAt;
+    private boolean overdue;
+    private double confidenceScore;
+    private double priorityScore;
+}
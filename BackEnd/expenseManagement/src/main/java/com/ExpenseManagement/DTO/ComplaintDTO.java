@@ -1,11 +1,15 @@
 package com.expensemanagement.dto;
 
 import com.expensemanagement.entities.*;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor // used by the JPQL constructor projection in ComplaintRepositoryImpl
 public class ComplaintDTO {
     private Long id;
     private String title;
@@ -36,4 +40,8 @@ public class ComplaintDTO {
     public static class ResponseUpdate {
         private String response;
     }
+
+    /** Optional listing filters; {@code null} means "any". */
+    public record Filter(Complaint_Status status, Complaint_Priority priority, Complaint_Department department) {
+    }
 }
@@ -0,0 +1,66 @@
+package com.expensemanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated listing.
+ *
+ * <p>
+ * {@code nextCursor} is an opaque token encoding the sort key of the last item
+ * (e.g. {@code timestamp|id}); pass it back as {@code ?cursor=} to fetch the
+ * next slice. It is {@code null} on the last slice. Cost per slice is the same
+ * at any depth because the query seeks on the key instead of using OFFSET.
+ * {@code total} is only present when the caller asked for a count.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor, boolean hasMore,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Long total) {
+
+    private static final String SEPARATOR = "|";
+
+    public CursorPage(List<T> items, String nextCursor, boolean hasMore) {
+        this(items, nextCursor, hasMore, null);
+    }
+
+    public CursorPage<T> withTotal(Long total) {
+        return new CursorPage<>(items, nextCursor, hasMore, total);
+    }
+
+    /**
+     * Builds a slice from a query that fetched {@code size + 1} rows; the extra
+     * row only signals that another slice exists.
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int size, java.util.function.Function<T, String> cursorOf) {
+        boolean hasMore = fetched.size() > size;
+        List<T> items = hasMore ? fetched.subList(0, size) : fetched;
+        String next = hasMore ? cursorOf.apply(items.get(items.size() - 1)) : null;
+        return new CursorPage<>(items, next, hasMore);
+    }
+
+    public static String encode(Object... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(parts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is malformed or does not have
+     *                                  {@code expectedParts} parts
+     */
+    public static String[] decode(String cursor, int expectedParts) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\\|", -1);
+        if (parts.length != expectedParts) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,60 @@
+package com.expensemanagement.dto;
+
+import com.expensemanagement.entities.Approval_Status;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Read model for expense list views. Built by one joined JPQL projection per
+ * page (see ExpenseRepository), so listing never touches the entity graph.
+ * JSON keeps the shape the list screens already read, including the nested
+ * {@code user.team.manager}.
+ */
+public record ExpenseSummaryDTO(
+        Long id,
+        String title,
+        String description,
+        double amount,
+        LocalDate date,
+        String category,
+        Approval_Status status,
+        String approvalStage,
+        String approvalComment,
+        String rejectionReason,
+        String vendorName,
+        String receiptUrl,
+        @JsonProperty("isDuplicate") boolean isDuplicate,
+        boolean draft,
+        double confidenceScore,
+        LocalDateTime slaDeadAt,
+        boolean overdue,
+        Submitter user) {
+
+    public record Submitter(Long id, String name, String email, TeamRef team) {
+    }
+
+    public record TeamRef(Long id, String name, ManagerRef manager) {
+    }
+
+    public record ManagerRef(Long id, String name) {
+    }
+
+    /** Flat form used by the JPQL constructor expression. */
+    public ExpenseSummaryDTO(Long id, String title, String description, Double amount, LocalDate date,
+            String category, Approval_Status status, String approvalStage, String approvalComment,
+            String rejectionReason, String vendorName, String receiptUrl, Boolean isDuplicate, Boolean draft,
+            Double confidenceScore, LocalDateTime slaDeadAt, Boolean overdue,
+            Long userId, String userName, String userEmail,
+            Long teamId, String teamName, Long managerId, String managerName) {
+        this(id, title, description, amount != null ? amount : 0.0, date, category, status, approvalStage,
+                approvalComment, rejectionReason, vendorName, receiptUrl, Boolean.TRUE.equals(isDuplicate),
+                Boolean.TRUE.equals(draft), confidenceScore != null ? confidenceScore : 0.0, slaDeadAt,
+                Boolean.TRUE.equals(overdue),
+                userId == null ? null
+                        : new Submitter(userId, userName, userEmail, teamId == null ? null
+                                : new TeamRef(teamId, teamName,
+                                        managerId == null ? null : new ManagerRef(managerId, managerName))));
+    }
+}
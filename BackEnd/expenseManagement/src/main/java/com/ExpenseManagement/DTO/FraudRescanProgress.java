@@ -0,0 +1,28 @@
+package com.expensemanagement.dto;
+
+import com.expensemanagement.entities.FraudRescanJob;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a fraud re-scan job.
+ *
+ * @param status        INTERRUPTED when the job is RUNNING but no node has
+ *                      touched it recently; resume it to continue
+ * @param percent       share of the id range done
+ * @param rowsPerSecond throughput of the run on this node; null when it is not
+ *                      running here
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record FraudRescanProgress(Long jobId, String status, String startedBy, LocalDateTime startedAt,
+        LocalDateTime finishedAt, int partitions, int partitionsDone, long scanned, long flagged, long updated,
+        double percent, Long rowsPerSecond, String error) {
+
+    public static final String INTERRUPTED = "INTERRUPTED";
+
+    public boolean isResumable() {
+        return INTERRUPTED.equals(status) || FraudRescanJob.Status.CANCELLED.name().equals(status)
+                || FraudRescanJob.Status.FAILED.name().equals(status);
+    }
+}
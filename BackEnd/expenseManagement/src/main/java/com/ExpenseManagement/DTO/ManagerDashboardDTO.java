@@ -0,0 +1,31 @@
+package com.expensemanagement.dto;
+
+import com.expensemanagement.entities.Approval_Status;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Team KPIs for the manager dashboard, assembled by ManagerDashboardService.
+ * {@code flaggedExpenses} is capped; {@code flaggedCount} is the full count.
+ */
+public record ManagerDashboardDTO(
+        Long teamId,
+        String teamName,
+        long pendingCount,
+        long forwardedCount,
+        double monthlySpend,
+        long flaggedCount,
+        List<FlaggedExpense> flaggedExpenses,
+        BudgetStatus budget,
+        LocalDateTime generatedAt) {
+
+    public record FlaggedExpense(Long id, String title, double amount, LocalDate date, String submittedBy,
+            Approval_Status status) {
+    }
+
+    public record BudgetStatus(Long teamId, String teamName, int month, int year, double budget, double spent,
+            boolean exceeded, double remaining) {
+    }
+}
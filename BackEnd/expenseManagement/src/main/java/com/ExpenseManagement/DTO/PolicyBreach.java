@@ -0,0 +1,13 @@
+package com.expensemanagement.dto;
+
+/**
+ * One rule of one active policy that an expense violates.
+ *
+ * @param detail human-readable reason, e.g. "₹12000.0 > ₹10000.0"
+ */
+public record PolicyBreach(Long policyId, String policyName, Rule rule, String detail) {
+
+    public enum Rule {
+        MAX_AMOUNT, CATEGORY, RECEIPT, MONTHLY_LIMIT
+    }
+}
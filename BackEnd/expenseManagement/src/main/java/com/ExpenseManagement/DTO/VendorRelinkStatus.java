@@ -0,0 +1,18 @@
+package com.expensemanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of the latest vendor re-link on this node.
+ *
+ * @param names   distinct expense vendor names resolved
+ * @param linked  expenses whose vendor id changed
+ * @param rekeyed statistics keys folded into another vendor's
+ * @param queued  another re-link will start when this one ends
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record VendorRelinkStatus(boolean running, String startedBy, LocalDateTime startedAt,
+        LocalDateTime finishedAt, int names, long linked, int rekeyed, String error, boolean queued) {
+}
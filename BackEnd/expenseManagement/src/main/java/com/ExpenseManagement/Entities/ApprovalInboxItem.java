@@ -0,0 +1,45 @@
+package com.expensemanagement.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One row per PENDING expense awaiting a team manager, with its priority
+ * score precomputed. Maintained by ApprovalInboxService; the index matches
+ * the inbox read path (team, priority DESC, expense_id DESC), so a manager's
+ * top items are an index range scan however large the backlog.
+ */
+@Entity
+@Table(name = "approval_inbox", indexes = {
+        @Index(name = "idx_inbox_team_priority", columnList = "team_id, priority DESC, expense_id DESC")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApprovalInboxItem {
+
+    @Id
+    @Column(name = "expense_id")
+    private Long expenseId;
+
+    @Column(name = "team_id", nullable = false)
+    private Long teamId;
+
+    private Long userId;
+    private String submitterName;
+    private String title;
+    private String category;
+    private double amount;
+    private double confidenceScore;
+    private LocalDate submittedOn;
+    private LocalDateTime slaDeadAt;
+    private boolean overdue;
+
+    /** Amount and risk part of the score; fixed until the expense changes. */
+    private double baseScore;
+
+    /** {@code baseScore} plus SLA aging; re-aged daily. */
+    private double priority;
+}
@@ -4,16 +4,27 @@ import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
 
+/**
+ * audit_logs is range-partitioned by month on {@code timestamp} (see
+ * AuditPartitionService). The indexes mirror the keyset access paths in
+ * AuditLogRepository and are inherited by every partition.
+ */
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs", indexes = {
+        @Index(name = "idx_audit_ts_id", columnList = "timestamp, id"),
+        @Index(name = "idx_audit_user_ts_id", columnList = "performed_by, timestamp, id"),
+        @Index(name = "idx_audit_entity_ts_id", columnList = "entity_type, entity_id, timestamp, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class AuditLog {
 
+    // Rows are inserted by AuditLogWriter with nextval() inline, one round trip per batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_logs_seq")
+    @SequenceGenerator(name = "audit_logs_seq", sequenceName = "audit_logs_seq", allocationSize = 1)
     private Long id;
 
     private String entityType; // "EXPENSE", "USER", "POLICY"
@@ -30,8 +41,18 @@ public class AuditLog {
     @Column(nullable = false)
     private LocalDateTime timestamp;
 
+    /**
+     * AuditLedger sequence of a mirrored record, null otherwise. Unique with
+     * {@code timestamp} (uq_audit_ledger_seq, created by AuditLogWriter) so a
+     * re-sent batch is skipped.
+     */
+    @Column(name = "ledger_seq")
+    private Long ledgerSeq;
+
     @PrePersist
     public void prePersist() {
-        this.timestamp = LocalDateTime.now();
+        if (this.timestamp == null) {
+            this.timestamp = LocalDateTime.now();
+        }
     }
 }
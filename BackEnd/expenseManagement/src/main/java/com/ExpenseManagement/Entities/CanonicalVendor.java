@@ -0,0 +1,39 @@
+package com.expensemanagement.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/** A real-world vendor that any number of {@link VendorAlias} names resolve to. */
+@Entity
+@Table(name = "canonical_vendors", indexes = {
+        @Index(name = "uq_canonical_vendors_key", columnList = "canonical_key", unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CanonicalVendor {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** VendorNames#canonicalize of the first name seen, e.g. "uber". */
+    @Column(name = "canonical_key", nullable = false)
+    private String canonicalKey;
+
+    /** Shown in analytics; the first name seen as typed. */
+    @Column(nullable = false)
+    private String displayName;
+
+    /** Set when an admin merged this vendor into another; resolution follows it. */
+    private Long mergedInto;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -16,7 +16,12 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "complaints")
+@Table(name = "complaints", indexes = {
+        @Index(name = "idx_complaint_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_complaint_created", columnList = "created_at, id"),
+        @Index(name = "idx_complaint_role_created", columnList = "role_level, created_at, id"),
+        @Index(name = "idx_complaint_creator_created", columnList = "created_by_id, created_at, id")
+})
 public class Complaint {
 
     @Id
@@ -72,4 +77,8 @@ public class Complaint {
 
     @UpdateTimestamp
     private LocalDateTime updatedAt;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
 }
@@ -8,14 +8,24 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_expense_sla", columnList = "status, overdue, sla_dead_at"),
+        @Index(name = "idx_expense_user_date", columnList = "user_id, date, id"),
+        @Index(name = "idx_expense_user_status_date", columnList = "user_id, status, date, id"),
+        @Index(name = "idx_expense_status_date", columnList = "status, date, id"),
+        @Index(name = "idx_expense_date_id", columnList = "date, id"),
+        @Index(name = "idx_expense_submitted_at", columnList = "submitted_at"),
+        @Index(name = "idx_expense_vendor_id", columnList = "vendor_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,10 +40,20 @@ public class Expense {
     private String description;
     private LocalDate date;
 
-    @Lob
-    @jakarta.persistence.Column(name = "receipt_url")
+    /** Path or URL of the stored receipt — plain TEXT, not a LOB (see DatabaseFixConfig). */
+    @jakarta.persistence.Column(name = "receipt_url", columnDefinition = "TEXT")
     private String receiptUrl;
 
+    /**
+     * Still EAGER: with open-in-view off, these serialize the entity (and its
+     * submitter) after the transaction, and the non-transactional saves in
+     * ExpenseServiceImple hand back merged copies whose LAZY user would be an
+     * uninitialized proxy. Move them to ExpenseSummaryDTO before switching:
+     * GET /api/expenses/getbyid/{id}, /api/user/expenses/{id},
+     * /api/manager/api/expenses/getbyid/{id}, /api/admin/expenses/{id},
+     * /api/admin/fraud-flags/all, /api/sla/overdue and /api/ai/search, and the
+     * create, update, draft, submit, approve, reject and forward responses.
+     */
     @ManyToOne
     @JoinColumn(name = "user_id")
     @com.fasterxml.jackson.annotation.JsonIgnoreProperties({ "password", "teamMembers", "manager", "roles",
@@ -74,6 +94,10 @@ public class Expense {
     /** Vendor / merchant name (for vendor analytics & fraud) */
     private String vendorName;
 
+    /** Canonical vendor the name resolves to; see VendorResolver. Null until resolved. */
+    @jakarta.persistence.Column(name = "vendor_id")
+    private Long vendorId;
+
     /** AI-computed risk/confidence score 0–100 */
     @jakarta.persistence.Column(columnDefinition = "float8 default 0")
     private Double confidenceScore = 0.0;
@@ -84,6 +108,18 @@ public class Expense {
     @jakarta.persistence.Column(columnDefinition = "boolean default false")
     private boolean overdue = false;
 
+    /** When the expense was submitted (leaves draft); drives fraud rule windows */
+    private java.time.LocalDateTime submittedAt;
+
+    /** Fraud rules triggered at submission, "; "-separated; null when none */
+    @jakarta.persistence.Column(columnDefinition = "TEXT")
+    private String fraudFlags;
+
+    /** Optimistic lock; approval transitions bump it in their conditional UPDATE. */
+    @jakarta.persistence.Version
+    @jakarta.persistence.Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     // Explicit Getters/Setters for newly added fields to ensure visibility
     public String getVendorName() {
         return vendorName;
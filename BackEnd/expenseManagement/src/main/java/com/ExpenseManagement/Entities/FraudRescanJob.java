@@ -0,0 +1,41 @@
+package com.expensemanagement.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/** One run of the historical fraud / confidence re-scan; see FraudRescanService. */
+@Entity
+@Table(name = "fraud_rescan_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FraudRescanJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    /** Expense id range covered, fixed when the job starts. */
+    private long minId;
+    private long maxId;
+
+    private String startedBy;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    /** Touched while a node is working on the job; a stale one means it died. */
+    private LocalDateTime heartbeatAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    public enum Status {
+        RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+}
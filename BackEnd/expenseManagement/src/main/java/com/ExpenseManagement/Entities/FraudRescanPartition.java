@@ -0,0 +1,37 @@
+package com.expensemanagement.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * An expense id range of a {@link FraudRescanJob}, (fromId, toId]. lastId is
+ * the checkpoint: rows up to it are done and a resume continues after it.
+ */
+@Entity
+@Table(name = "fraud_rescan_partitions", indexes = {
+        @Index(name = "idx_fraud_rescan_partition_job", columnList = "job_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FraudRescanPartition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    private long fromId;
+    private long toId;
+    private long lastId;
+
+    private boolean done;
+
+    /** Rows read, rows with fraud flags, rows whose stored results changed. */
+    private long scanned;
+    private long flagged;
+    private long updated;
+}
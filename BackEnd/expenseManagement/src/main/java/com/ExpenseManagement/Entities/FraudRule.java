@@ -32,9 +32,24 @@ public class FraudRule {
 
     private Integer thresholdWindowHours; // time window
 
+    /** Whose window the count / sum is taken over: the submitter's or the vendor's. */
+    @Enumerated(EnumType.STRING)
+    @Column(columnDefinition = "varchar(16) default 'USER'")
+    @Builder.Default
+    private Scope scope = Scope.USER;
+
+    /** Only applies to expenses dated on a Saturday or Sunday. */
+    @Column(columnDefinition = "boolean default false")
+    @Builder.Default
+    private boolean weekendOnly = false;
+
     private String createdBy;
     private LocalDateTime createdAt;
 
+    public enum Scope {
+        USER, VENDOR
+    }
+
     @PrePersist
     public void prePersist() {
         this.createdAt = LocalDateTime.now();
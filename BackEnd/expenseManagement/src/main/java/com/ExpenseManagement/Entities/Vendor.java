@@ -5,7 +5,9 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "vendors")
+@Table(name = "vendors", indexes = {
+        @Index(name = "uq_vendors_user_name_key", columnList = "user_id, name_key", unique = true)
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -19,6 +21,10 @@ public class Vendor {
     @Column(nullable = false)
     private String name;
 
+    /** Canonical vendor key the stats are aggregated under; see VendorResolver. */
+    @Column(name = "name_key")
+    private String nameKey;
+
     private String category;
 
     @Builder.Default
@@ -30,6 +36,10 @@ public class Vendor {
     @Builder.Default
     private Double avgAmount = 0.0;
 
+    /** Sum of squared amounts, for the variance behind anomaly detection. */
+    @Builder.Default
+    private Double sumSquares = 0.0;
+
     @Builder.Default
     private Integer trustScore = 100;
 
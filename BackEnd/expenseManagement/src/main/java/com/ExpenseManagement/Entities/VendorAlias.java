@@ -0,0 +1,47 @@
+package com.expensemanagement.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/** A vendor name as users type it, linked to the {@link CanonicalVendor} it means. */
+@Entity
+@Table(name = "vendor_aliases", indexes = {
+        @Index(name = "uq_vendor_aliases_key", columnList = "alias_key", unique = true),
+        @Index(name = "idx_vendor_aliases_vendor", columnList = "vendor_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VendorAlias {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** VendorNames#normalize of the name, e.g. "uber india". */
+    @Column(name = "alias_key", nullable = false)
+    private String aliasKey;
+
+    @Column(name = "vendor_id", nullable = false)
+    private Long vendorId;
+
+    /**
+     * Similarity of the canonical forms when matched fuzzily; 1 for exact matches.
+     * Automatic links below 1 are listed for admin review.
+     */
+    private Double score;
+
+    /** Linked by an admin merge, or a fuzzy link an admin confirmed or detached. */
+    @Column(columnDefinition = "boolean default false")
+    @Builder.Default
+    private boolean manual = false;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
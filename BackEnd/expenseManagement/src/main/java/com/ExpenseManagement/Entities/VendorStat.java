@@ -5,7 +5,9 @@ import lombok.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "vendor_stats")
+@Table(name = "vendor_stats", indexes = {
+        @Index(name = "uq_vendor_stats_vendor_key", columnList = "vendor_key", unique = true)
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -19,6 +21,10 @@ public class VendorStat {
     @Column(nullable = false, unique = true)
     private String vendorName;
 
+    /** Canonical vendor key the stats are aggregated under; see VendorResolver. */
+    @Column(name = "vendor_key")
+    private String vendorKey;
+
     @Builder.Default
     private Long transactionCount = 0L;
 
@@ -28,6 +34,10 @@ public class VendorStat {
     @Builder.Default
     private Double avgAmount = 0.0;
 
+    /** Sum of squared amounts, for the variance behind anomaly detection. */
+    @Builder.Default
+    private Double sumSquares = 0.0;
+
     @Column(columnDefinition = "boolean default false")
     @Builder.Default
     private boolean suspicious = false;
@@ -0,0 +1,11 @@
+package com.expensemanagement.exception;
+
+/**
+ * An approval transition lost a race: the expense is no longer in a state the
+ * action applies to. Handled by GlobalExceptionHandler → returns HTTP 409.
+ */
+public class ExpenseConflictException extends RuntimeException {
+    public ExpenseConflictException(String message) {
+        super(message);
+    }
+}
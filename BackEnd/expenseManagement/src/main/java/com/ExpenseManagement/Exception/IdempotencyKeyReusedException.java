@@ -0,0 +1,11 @@
+package com.expensemanagement.exception;
+
+/**
+ * An Idempotency-Key was sent again with a different request payload.
+ * Handled by GlobalExceptionHandler → returns HTTP 422.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
@@ -62,6 +62,21 @@ public class NotificationService {
         messagingTemplate.convertAndSend("/topic/user/" + userId, notification);
     }
 
+    /**
+     * Persists many user notifications in one {@code saveAll} and pushes each
+     * to its user's topic — for bulk actions that would otherwise call
+     * {@link #notifyUser} in a loop.
+     */
+    @Transactional
+    public void notifyUsers(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        for (Notification notification : notificationRepository.saveAll(notifications)) {
+            messagingTemplate.convertAndSend("/topic/user/" + notification.getUserId(), notification);
+        }
+    }
+
     // Notify all users with a specific role (e.g., ADM INS)
     public void notifyRole(Role role, String title, String message, Notification.NotificationType type,
             Notification.NotificationCategory category) {
@@ -0,0 +1,35 @@
+package com.expensemanagement.repository;
+
+import com.expensemanagement.dto.ApprovalInboxDTO;
+import com.expensemanagement.entities.ApprovalInboxItem;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Inbox reads are keyset-paginated on (priority, expense_id) within a team,
+ * matching {@code idx_inbox_team_priority}. Writes go through
+ * ApprovalInboxService as set-based SQL.
+ */
+@Repository
+public interface ApprovalInboxRepository extends JpaRepository<ApprovalInboxItem, Long> {
+
+    String PROJECTION = "SELECT new com.expensemanagement.dto.ApprovalInboxDTO(i.expenseId, i.title, i.category, " +
+            "i.amount, i.userId, i.submitterName, i.submittedOn, i.slaDeadAt, i.overdue, i.confidenceScore, " +
+            "i.priority) FROM ApprovalInboxItem i ";
+
+    @Query(PROJECTION + "WHERE i.teamId = :teamId ORDER BY i.priority DESC, i.expenseId DESC")
+    List<ApprovalInboxDTO> findTop(@Param("teamId") Long teamId, Limit limit);
+
+    @Query(PROJECTION + "WHERE i.teamId = :teamId " +
+            "AND (i.priority < :priority OR (i.priority = :priority AND i.expenseId < :id)) " +
+            "ORDER BY i.priority DESC, i.expenseId DESC")
+    List<ApprovalInboxDTO> findAfter(@Param("teamId") Long teamId, @Param("priority") double priority,
+            @Param("id") Long id, Limit limit);
+
+    long countByTeamId(Long teamId);
+}
@@ -1,21 +1,57 @@
 package com.expensemanagement.repository;
 
 import com.expensemanagement.entities.AuditLog;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Audit queries are keyset-paginated on (timestamp, id) so every slice is an
+ * index seek, whatever the depth. Each access path has a matching index on
+ * {@code audit_logs} (see {@link AuditLog}).
+ */
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
-    List<AuditLog> findByEntityTypeAndEntityIdOrderByTimestampDesc(String entityType, Long entityId);
 
-    List<AuditLog> findByPerformedByOrderByTimestampDesc(String performedBy);
+    // --- Keyset: all ---
+    List<AuditLog> findAllByOrderByTimestampDescIdDesc(Limit limit);
 
-    Page<AuditLog> findByTimestampBetweenOrderByTimestampDesc(LocalDateTime from, LocalDateTime to, Pageable pageable);
+    @Query("SELECT a FROM AuditLog a WHERE a.timestamp < :ts OR (a.timestamp = :ts AND a.id < :id) " +
+            "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findAllBefore(@Param("ts") LocalDateTime ts, @Param("id") Long id, Limit limit);
 
-    Page<AuditLog> findAllByOrderByTimestampDesc(Pageable pageable);
+    // --- Keyset: by user ---
+    List<AuditLog> findByPerformedByOrderByTimestampDescIdDesc(String performedBy, Limit limit);
+
+    @Query("SELECT a FROM AuditLog a WHERE a.performedBy = :performedBy " +
+            "AND (a.timestamp < :ts OR (a.timestamp = :ts AND a.id < :id)) " +
+            "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findByPerformedByBefore(@Param("performedBy") String performedBy,
+            @Param("ts") LocalDateTime ts, @Param("id") Long id, Limit limit);
+
+    // --- Keyset: by entity ---
+    List<AuditLog> findByEntityTypeAndEntityIdOrderByTimestampDescIdDesc(String entityType, Long entityId,
+            Limit limit);
+
+    @Query("SELECT a FROM AuditLog a WHERE a.entityType = :entityType AND a.entityId = :entityId " +
+            "AND (a.timestamp < :ts OR (a.timestamp = :ts AND a.id < :id)) " +
+            "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findByEntityBefore(@Param("entityType") String entityType, @Param("entityId") Long entityId,
+            @Param("ts") LocalDateTime ts, @Param("id") Long id, Limit limit);
+
+    // --- Keyset: by time range ---
+    @Query("SELECT a FROM AuditLog a WHERE a.timestamp >= :from AND a.timestamp <= :to " +
+            "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Limit limit);
+
+    @Query("SELECT a FROM AuditLog a WHERE a.timestamp >= :from AND a.timestamp <= :to " +
+            "AND (a.timestamp < :ts OR (a.timestamp = :ts AND a.id < :id)) " +
+            "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findInRangeBefore(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("ts") LocalDateTime ts, @Param("id") Long id, Limit limit);
 }
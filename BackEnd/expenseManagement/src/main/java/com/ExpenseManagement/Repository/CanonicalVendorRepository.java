@@ -0,0 +1,20 @@
+package com.expensemanagement.repository;
+
+import com.expensemanagement.entities.CanonicalVendor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CanonicalVendorRepository extends JpaRepository<CanonicalVendor, Long> {
+    Optional<CanonicalVendor> findByCanonicalKey(String canonicalKey);
+
+    /** Points the vendor, and any merged into it before, at the target. */
+    @Modifying
+    @Query("UPDATE CanonicalVendor v SET v.mergedInto = :to WHERE v.id = :from OR v.mergedInto = :from")
+    int mergeInto(@Param("from") Long from, @Param("to") Long to);
+}
@@ -2,20 +2,77 @@ package com.expensemanagement.repository;
 
 import com.expensemanagement.entities.Complaint;
 import com.expensemanagement.entities.User;
+import com.expensemanagement.entities.Complaint_Status;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Repository interface for managing Complaint entities.
  */
 @Repository
-public interface ComplaintRepository extends JpaRepository<Complaint, Long> {
+public interface ComplaintRepository extends JpaRepository<Complaint, Long>, ComplaintRepositoryCustom {
 
     List<Complaint> findByCreatedBy(User user);
 
     List<Complaint> findByRoleLevel(String roleLevel);
 
     List<Complaint> findTop10ByCreatedByOrderByCreatedAtDesc(User user);
+
+    List<Complaint> findByStatusIn(Collection<Complaint_Status> statuses);
+
+    // --- Escalation (backed by idx_complaint_status_created on status, created_at) ---
+
+    /** (id, created_at) of every open complaint created after {@code since}, for seeding the deadline queue. */
+    @Query("SELECT c.id, c.createdAt FROM Complaint c WHERE c.status IN :statuses AND c.createdAt > :since")
+    List<Object[]> findOpenDeadlines(@Param("statuses") Collection<Complaint_Status> statuses,
+            @Param("since") LocalDateTime since);
+
+    /** (id, created_at) of the given complaints that are still open. */
+    @Query("SELECT c.id, c.createdAt FROM Complaint c WHERE c.id IN :ids AND c.status IN :statuses")
+    List<Object[]> findOpenByIds(@Param("ids") Collection<Long> ids,
+            @Param("statuses") Collection<Complaint_Status> statuses);
+
+    /**
+     * 48h rule: escalates open complaints created in [{@code criticalBefore},
+     * {@code escalateBefore}). Returns (id, created_by_id, title) of changed rows.
+     */
+    @Transactional
+    @Query(value = "UPDATE complaints SET status = 'ESCALATED', priority = 'CRITICAL', updated_at = now(), version = version + 1 " +
+            "WHERE status IN ('SUBMITTED', 'UNDER_REVIEW') " +
+            "AND created_at < :escalateBefore AND created_at >= :criticalBefore " +
+            "RETURNING id, created_by_id, title", nativeQuery = true)
+    List<Object[]> escalateStale(@Param("escalateBefore") LocalDateTime escalateBefore,
+            @Param("criticalBefore") LocalDateTime criticalBefore);
+
+    @Transactional
+    @Query(value = "UPDATE complaints SET status = 'ESCALATED', priority = 'CRITICAL', updated_at = now(), version = version + 1 " +
+            "WHERE id IN (:ids) AND status IN ('SUBMITTED', 'UNDER_REVIEW') " +
+            "AND created_at < :escalateBefore AND created_at >= :criticalBefore " +
+            "RETURNING id, created_by_id, title", nativeQuery = true)
+    List<Object[]> escalateStaleByIds(@Param("ids") Collection<Long> ids,
+            @Param("escalateBefore") LocalDateTime escalateBefore,
+            @Param("criticalBefore") LocalDateTime criticalBefore);
+
+    /** 72h rule: open complaints older than {@code criticalBefore} become CRITICAL. */
+    @Transactional
+    @Query(value = "UPDATE complaints SET priority = 'CRITICAL', updated_at = now(), version = version + 1 " +
+            "WHERE status IN ('SUBMITTED', 'UNDER_REVIEW') AND created_at < :criticalBefore " +
+            "AND priority IS DISTINCT FROM 'CRITICAL' " +
+            "RETURNING id, created_by_id, title", nativeQuery = true)
+    List<Object[]> markCritical(@Param("criticalBefore") LocalDateTime criticalBefore);
+
+    @Transactional
+    @Query(value = "UPDATE complaints SET priority = 'CRITICAL', updated_at = now(), version = version + 1 " +
+            "WHERE id IN (:ids) AND status IN ('SUBMITTED', 'UNDER_REVIEW') AND created_at < :criticalBefore " +
+            "AND priority IS DISTINCT FROM 'CRITICAL' " +
+            "RETURNING id, created_by_id, title", nativeQuery = true)
+    List<Object[]> markCriticalByIds(@Param("ids") Collection<Long> ids,
+            @Param("criticalBefore") LocalDateTime criticalBefore);
 }
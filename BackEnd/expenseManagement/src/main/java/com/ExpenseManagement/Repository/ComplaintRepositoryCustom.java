@@ -0,0 +1,24 @@
+package com.expensemanagement.repository;
+
+import com.expensemanagement.dto.ComplaintDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keyset-paginated complaint listings, projected straight into DTOs.
+ */
+public interface ComplaintRepositoryCustom {
+
+    /**
+     * Newest-first slice of complaints matching the given scope and filters.
+     *
+     * @param roleLevel   restrict to this role level, or {@code null}
+     * @param createdById restrict to this creator, or {@code null}
+     * @param beforeTs    cursor timestamp (exclusive), or {@code null} for the
+     *                    first slice
+     * @param beforeId    cursor id, required when {@code beforeTs} is set
+     */
+    List<ComplaintDTO> findSlice(String roleLevel, Long createdById, ComplaintDTO.Filter filter,
+            LocalDateTime beforeTs, Long beforeId, int limit);
+}
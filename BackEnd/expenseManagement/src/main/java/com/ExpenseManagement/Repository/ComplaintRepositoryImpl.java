@@ -0,0 +1,69 @@
+package com.expensemanagement.repository;
+
+import com.expensemanagement.dto.ComplaintDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the listing query with only the predicates that are actually set, so
+ * each combination gets a plan that can use its matching
+ * {@code (scope, created_at, id)} index. Creator and assignee emails come from
+ * the same statement — no per-row association loads.
+ */
+public class ComplaintRepositoryImpl implements ComplaintRepositoryCustom {
+
+    private static final String SELECT = "SELECT new com.expensemanagement.dto.ComplaintDTO(" +
+            "c.id, c.title, c.description, c.status, c.category, c.priority, c.sentiment, " +
+            "c.assignedDepartment, c.expenseId, c.riskScore, c.isDuplicate, c.response, " +
+            "cb.email, asg.email, c.createdAt, c.updatedAt) " +
+            "FROM Complaint c JOIN c.createdBy cb LEFT JOIN c.assignedTo asg WHERE 1 = 1";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ComplaintDTO> findSlice(String roleLevel, Long createdById, ComplaintDTO.Filter filter,
+            LocalDateTime beforeTs, Long beforeId, int limit) {
+        StringBuilder jpql = new StringBuilder(SELECT);
+        Map<String, Object> params = new LinkedHashMap<>();
+
+        if (roleLevel != null) {
+            jpql.append(" AND c.roleLevel = :roleLevel");
+            params.put("roleLevel", roleLevel);
+        }
+        if (createdById != null) {
+            jpql.append(" AND cb.id = :createdById");
+            params.put("createdById", createdById);
+        }
+        if (filter != null) {
+            if (filter.status() != null) {
+                jpql.append(" AND c.status = :status");
+                params.put("status", filter.status());
+            }
+            if (filter.priority() != null) {
+                jpql.append(" AND c.priority = :priority");
+                params.put("priority", filter.priority());
+            }
+            if (filter.department() != null) {
+                jpql.append(" AND c.assignedDepartment = :department");
+                params.put("department", filter.department());
+            }
+        }
+        if (beforeTs != null) {
+            jpql.append(" AND (c.createdAt < :beforeTs OR (c.createdAt = :beforeTs AND c.id < :beforeId))");
+            params.put("beforeTs", beforeTs);
+            params.put("beforeId", beforeId);
+        }
+        jpql.append(" ORDER BY c.createdAt DESC, c.id DESC");
+
+        TypedQuery<ComplaintDTO> query = entityManager.createQuery(jpql.toString(), ComplaintDTO.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
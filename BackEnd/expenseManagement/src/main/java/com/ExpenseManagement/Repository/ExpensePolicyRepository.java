@@ -2,10 +2,15 @@ package com.expensemanagement.repository;
 
 import com.expensemanagement.entities.ExpensePolicy;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
 public interface ExpensePolicyRepository extends JpaRepository<ExpensePolicy, Long> {
     List<ExpensePolicy> findByIsActiveTrue();
+
+    /** Active policies with their category lists in one query (PolicyService compile). */
+    @Query("SELECT DISTINCT p FROM ExpensePolicy p LEFT JOIN FETCH p.allowedCategories WHERE p.isActive = true")
+    List<ExpensePolicy> findActiveWithCategories();
 }
@@ -1,11 +1,13 @@
 package com.expensemanagement.repository;
 
+import com.expensemanagement.dto.ExpenseSummaryDTO;
 import com.expensemanagement.entities.Approval_Status;
 import com.expensemanagement.entities.Expense;
 import com.expensemanagement.entities.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -112,6 +114,86 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpec
                         @Param("month") int month,
                         @Param("year") int year);
 
+        // --- List views: one joined projection per page (ExpenseSummaryDTO) ---
+        String SUMMARY = "SELECT new com.expensemanagement.dto.ExpenseSummaryDTO(e.id, e.title, e.description, " +
+                        "e.amount, e.date, e.category, e.status, e.approvalStage, e.approvalComment, " +
+                        "e.rejectionReason, e.vendorName, e.receiptUrl, e.isDuplicate, e.draft, e.confidenceScore, " +
+                        "e.slaDeadAt, e.overdue, u.id, u.name, u.email, t.id, t.name, m.id, m.name) " +
+                        "FROM Expense e LEFT JOIN e.user u LEFT JOIN u.team t LEFT JOIN t.manager m ";
+
+        @Query(value = SUMMARY, countQuery = "SELECT COUNT(e) FROM Expense e")
+        Page<ExpenseSummaryDTO> findSummaries(Pageable pageable);
+
+        @Query(value = SUMMARY + "WHERE e.status = :status",
+                        countQuery = "SELECT COUNT(e) FROM Expense e WHERE e.status = :status")
+        Page<ExpenseSummaryDTO> findSummariesByStatus(@Param("status") Approval_Status status, Pageable pageable);
+
+        @Query(value = SUMMARY + "WHERE u.id = :userId",
+                        countQuery = "SELECT COUNT(e) FROM Expense e WHERE e.user.id = :userId")
+        Page<ExpenseSummaryDTO> findSummariesByUser(@Param("userId") Long userId, Pageable pageable);
+
+        @Query(value = SUMMARY + "WHERE u.id = :userId AND e.status = :status",
+                        countQuery = "SELECT COUNT(e) FROM Expense e WHERE e.user.id = :userId AND e.status = :status")
+        Page<ExpenseSummaryDTO> findSummariesByUserAndStatus(@Param("userId") Long userId,
+                        @Param("status") Approval_Status status, Pageable pageable);
+
+        @Query(value = SUMMARY + "WHERE t.id = :teamId",
+                        countQuery = "SELECT COUNT(e) FROM Expense e WHERE e.user.team.id = :teamId")
+        Page<ExpenseSummaryDTO> findSummariesByTeam(@Param("teamId") Long teamId, Pageable pageable);
+
+        /** A search page's rows, in no particular order. */
+        @Query(SUMMARY + "WHERE e.id IN :ids")
+        List<ExpenseSummaryDTO> findSummariesByIds(@Param("ids") java.util.Collection<Long> ids);
+
+        @Query(value = SUMMARY + "WHERE t.id = :teamId AND e.status = :status",
+                        countQuery = "SELECT COUNT(e) FROM Expense e WHERE e.user.team.id = :teamId AND e.status = :status")
+        Page<ExpenseSummaryDTO> findSummariesByTeamAndStatus(@Param("teamId") Long teamId,
+                        @Param("status") Approval_Status status, Pageable pageable);
+
+        // --- Per-status counts for keyset listings (ExpenseListingService) ---
+        @Query("SELECT e.status, COUNT(e) FROM Expense e GROUP BY e.status")
+        List<Object[]> countGroupedByStatus();
+
+        @Query("SELECT e.status, COUNT(e) FROM Expense e WHERE e.user.id = :userId GROUP BY e.status")
+        List<Object[]> countByUserGroupedByStatus(@Param("userId") Long userId);
+
+        @Query("SELECT e.status, COUNT(e) FROM Expense e WHERE e.user.team.id = :teamId GROUP BY e.status")
+        List<Object[]> countByTeamGroupedByStatus(@Param("teamId") Long teamId);
+
+        // --- Monthly policy limits (PolicyService) ---
+        @Query("SELECT COALESCE(SUM(e.amount), 0) FROM Expense e WHERE e.user.id = :userId " +
+                        "AND e.date >= :from AND e.date < :to AND e.id <> :excludeId AND e.status NOT IN :excluded")
+        Double sumAmountByUserBetweenExcluding(@Param("userId") Long userId,
+                        @Param("from") LocalDate from,
+                        @Param("to") LocalDate to,
+                        @Param("excludeId") Long excludeId,
+                        @Param("excluded") java.util.Collection<Approval_Status> excluded);
+
+        // --- Fraud rule windows (FraudRuleEngine startup replay) ---
+        @Query("SELECT e.user.id, e.vendorName, e.amount, e.submittedAt FROM Expense e " +
+                        "WHERE e.submittedAt >= :since ORDER BY e.submittedAt")
+        List<Object[]> findSubmissionsSince(@Param("since") java.time.LocalDateTime since);
+
+        // --- Manager dashboard (ManagerDashboardService), keyed by team ---
+        @Query("SELECT e.status, COUNT(e) FROM Expense e WHERE e.user.team.id = :teamId " +
+                        "AND e.status IN :statuses GROUP BY e.status")
+        List<Object[]> countByTeamAndStatusIn(@Param("teamId") Long teamId,
+                        @Param("statuses") java.util.Collection<Approval_Status> statuses);
+
+        @Query("SELECT COALESCE(SUM(e.amount), 0) FROM Expense e WHERE e.user.team.id = :teamId " +
+                        "AND e.date >= :from AND e.date < :to")
+        Double sumAmountByTeamBetween(@Param("teamId") Long teamId,
+                        @Param("from") LocalDate from,
+                        @Param("to") LocalDate to);
+
+        @Query("SELECT COUNT(e) FROM Expense e WHERE e.user.team.id = :teamId AND e.isDuplicate = true")
+        long countDuplicatesByTeam(@Param("teamId") Long teamId);
+
+        /** (id, title, amount, date, submitter name, status), newest first. */
+        @Query("SELECT e.id, e.title, e.amount, e.date, u.name, e.status FROM Expense e JOIN e.user u " +
+                        "WHERE u.team.id = :teamId AND e.isDuplicate = true ORDER BY e.id DESC")
+        List<Object[]> findDuplicatesByTeam(@Param("teamId") Long teamId, org.springframework.data.domain.Limit limit);
+
         // --- TOP Teams spend by month (admin dashboard) ---
         @Query("SELECT e.user.team.name, SUM(e.amount) as total FROM Expense e " +
                         "WHERE MONTH(e.date) = :month AND YEAR(e.date) = :year " +
@@ -119,19 +201,6 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpec
                         "GROUP BY e.user.team.name ORDER BY total DESC")
         List<Object[]> findTopTeamsByMonth(@Param("month") int month, @Param("year") int year);
 
-        // --- Keyword Search ---
-        @Query("SELECT e FROM Expense e WHERE " +
-                        "(LOWER(e.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-                        "LOWER(e.category) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-                        "LOWER(e.description) LIKE LOWER(CONCAT('%', :query, '%')))")
-        List<Expense> searchByKeyword(@Param("query") String query);
-
-        @Query("SELECT e FROM Expense e WHERE e.user = :user AND " +
-                        "(LOWER(e.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-                        "LOWER(e.category) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-                        "LOWER(e.description) LIKE LOWER(CONCAT('%', :query, '%')))")
-        List<Expense> searchByKeywordAndUser(@Param("query") String query, @Param("user") User user);
-
         @Query("SELECT e.date, SUM(e.amount) FROM Expense e WHERE e.user IN :users " +
                         "AND MONTH(e.date) = :month AND YEAR(e.date) = :year " +
                         "GROUP BY e.date ORDER BY e.date ASC")
@@ -139,16 +208,69 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpec
                         @Param("month") int month,
                         @Param("year") int year);
 
-        @Query("SELECT e FROM Expense e WHERE (e.user IN :users OR e.user = :manager) AND " +
-                        "(LOWER(e.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-                        "LOWER(e.category) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-                        "LOWER(e.description) LIKE LOWER(CONCAT('%', :query, '%')))")
-        List<Expense> searchByKeywordAndUsers(@Param("query") String query, @Param("users") List<User> users,
-                        @Param("manager") User manager);
+        // --- SLA tracking (backed by idx_expense_sla on status, overdue, sla_dead_at) ---
+        @Query("SELECT e.id, e.slaDeadAt FROM Expense e WHERE e.status = :status AND e.overdue = false " +
+                        "AND e.slaDeadAt IS NOT NULL")
+        List<Object[]> findSlaDeadlines(@Param("status") Approval_Status status);
+
+        List<Expense> findByStatusAndOverdueTrueOrderBySlaDeadAtAsc(Approval_Status status);
+
+        /** Flags breached expenses in one statement; returns (id, user_id, title) of rows changed. */
+        @org.springframework.transaction.annotation.Transactional
+        @Query(value = "UPDATE expense SET overdue = true, version = version + 1 WHERE id IN (:ids) AND status = 'PENDING' " +
+                        "AND overdue = false AND sla_dead_at <= :now RETURNING id, user_id, title", nativeQuery = true)
+        List<Object[]> markOverdueByIds(@Param("ids") java.util.Collection<Long> ids,
+                        @Param("now") java.time.LocalDateTime now);
+
+        @org.springframework.transaction.annotation.Transactional
+        @Query(value = "UPDATE expense SET overdue = true, version = version + 1 WHERE status = 'PENDING' AND overdue = false " +
+                        "AND sla_dead_at <= :now RETURNING id, user_id, title", nativeQuery = true)
+        List<Object[]> markAllOverdue(@Param("now") java.time.LocalDateTime now);
+
+        // --- State transitions (see ExpenseStateMachine) ---
+        /**
+         * Moves one expense to {@code to} only if it is currently in one of
+         * {@code from}; returns the number of rows changed (0 or 1). Null comment /
+         * reason keep the stored value.
+         */
+        @org.springframework.transaction.annotation.Transactional
+        @Modifying(flushAutomatically = true, clearAutomatically = true)
+        @Query("UPDATE Expense e SET e.status = :to, e.approvalStage = :stage, " +
+                        "e.approvalComment = COALESCE(:comment, e.approvalComment), " +
+                        "e.rejectionReason = COALESCE(:reason, e.rejectionReason), " +
+                        "e.version = e.version + 1 " +
+                        "WHERE e.id = :id AND e.status IN :from")
+        int transition(@Param("id") Long id,
+                        @Param("from") java.util.Collection<Approval_Status> from,
+                        @Param("to") Approval_Status to,
+                        @Param("stage") String stage,
+                        @Param("comment") String comment,
+                        @Param("reason") String reason);
+
+        // --- Bulk approval ---
+        /** One row per requested id: (id, amount, status, team_id, user_id, title). */
+        @Query("SELECT e.id, e.amount, e.status, t.id, u.id, e.title FROM Expense e " +
+                        "JOIN e.user u LEFT JOIN u.team t WHERE e.id IN :ids")
+        List<Object[]> findApprovalCandidates(@Param("ids") java.util.Collection<Long> ids);
+
+        /**
+         * Approves in one statement; the status/amount guards make it safe against
+         * concurrent changes. Returns (id, user_id, title) of rows actually approved.
+         */
+        @org.springframework.transaction.annotation.Transactional
+        @Query(value = "UPDATE expense SET status = 'APPROVED', approval_stage = 'MANAGER', " +
+                        "approval_comment = :comment, version = version + 1 WHERE id IN (:ids) AND status = 'PENDING' " +
+                        "AND amount <= :maxAmount RETURNING id, user_id, title", nativeQuery = true)
+        List<Object[]> approvePendingByIds(@Param("ids") java.util.Collection<Long> ids,
+                        @Param("maxAmount") double maxAmount,
+                        @Param("comment") String comment);
 
         // --- Fraud Analytics ---
         /** Fetch expenses with low AI confidence scores (e.g. < 50%) */
         List<Expense> findByConfidenceScoreLessThanEqual(Double threshold);
 
+        /** Latest expenses with fraud rule hits, from submission or the last re-scan */
+        List<Expense> findTop30ByFraudFlagsIsNotNullOrderByIdDesc();
+
         void deleteByUser(User user);
 }
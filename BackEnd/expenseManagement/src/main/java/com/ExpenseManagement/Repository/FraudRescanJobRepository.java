@@ -0,0 +1,12 @@
+package com.expensemanagement.repository;
+
+import com.expensemanagement.entities.FraudRescanJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FraudRescanJobRepository extends JpaRepository<FraudRescanJob, Long> {
+    Optional<FraudRescanJob> findTopByOrderByIdDesc();
+}
@@ -0,0 +1,12 @@
+package com.expensemanagement.repository;
+
+import com.expensemanagement.entities.FraudRescanPartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FraudRescanPartitionRepository extends JpaRepository<FraudRescanPartition, Long> {
+    List<FraudRescanPartition> findByJobIdOrderByFromIdAsc(Long jobId);
+}
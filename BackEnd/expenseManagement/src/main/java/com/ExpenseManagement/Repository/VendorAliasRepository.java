@@ -0,0 +1,26 @@
+package com.expensemanagement.repository;
+
+import com.expensemanagement.entities.VendorAlias;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface VendorAliasRepository extends JpaRepository<VendorAlias, Long> {
+    Optional<VendorAlias> findByAliasKey(String aliasKey);
+
+    List<VendorAlias> findByManualFalseAndScoreLessThanOrderByScoreAsc(double score);
+
+    @Modifying
+    @Query("UPDATE VendorAlias a SET a.manual = true WHERE a.id = :id AND a.manual = false")
+    int confirm(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE VendorAlias a SET a.vendorId = :to, a.manual = true WHERE a.vendorId = :from")
+    int repoint(@Param("from") Long from, @Param("to") Long to);
+}
@@ -1,47 +1,72 @@
 package com.expensemanagement.security;
 
-import com.expensemanagement.dto.AIDTOs;
-import com.expensemanagement.entities.Approval_Status;
 import com.expensemanagement.entities.Expense;
 import com.expensemanagement.entities.User;
+import com.expensemanagement.search.ExpenseQuery;
 import org.springframework.data.jpa.domain.Specification;
 import jakarta.persistence.criteria.Predicate;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Turns a compiled {@link ExpenseQuery} into a Criteria query. Always scoped
+ * to the user and shaped for {@code idx_expense_user_date (user_id, date, id)}:
+ * dates become half-open ranges, never functions on the column.
+ */
 public class ExpenseSpecification {
 
-    public static Specification<Expense> filterBy(AIDTOs.SearchFilters filters, User user) {
+    public static Specification<Expense> filterBy(ExpenseQuery filters, User user) {
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             // Always scope to the user
             predicates.add(cb.equal(root.get("user"), user));
+            // Keyset order is (date, id); undated rows have no place in it
+            predicates.add(cb.isNotNull(root.get("date")));
 
-            if (filters.getStatus() != null && !filters.getStatus().isEmpty()) {
-                try {
-                    Approval_Status status = Approval_Status.valueOf(filters.getStatus().toUpperCase());
-                    predicates.add(cb.equal(root.get("status"), status));
-                } catch (IllegalArgumentException ignored) {
-                }
+            if (!filters.statuses().isEmpty()) {
+                predicates.add(root.get("status").in(filters.statuses()));
+            }
+
+            if (filters.category() != null) {
+                predicates.add(cb.equal(cb.lower(root.get("category")), filters.category().toLowerCase()));
             }
 
-            if (filters.getCategory() != null && !filters.getCategory().isEmpty()) {
-                predicates
-                        .add(cb.like(cb.lower(root.get("category")), "%" + filters.getCategory().toLowerCase() + "%"));
+            if (filters.minAmount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("amount"), filters.minAmount()));
+            }
+            if (filters.maxAmount() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("amount"), filters.maxAmount()));
             }
 
-            if (filters.getMinAmount() != null) {
-                predicates.add(cb.greaterThanOrEqualTo(root.get("amount"), filters.getMinAmount()));
+            if (filters.from() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("date"), filters.from()));
+            }
+            if (filters.to() != null) {
+                predicates.add(cb.lessThan(root.get("date"), filters.to()));
             }
 
-            if (filters.getMonth() != null && !filters.getMonth().isEmpty()) {
-                // Assuming month is something like "January" or "01"
-                // For simplicity, let's use a basic like or extra logic if needed.
-                // In a production app, we'd parse this to a date range.
+            // Leftover words: any of them in title, vendor or description
+            if (!filters.keywords().isEmpty()) {
+                List<Predicate> matches = new ArrayList<>();
+                for (String keyword : filters.keywords()) {
+                    String pattern = "%" + keyword.toLowerCase() + "%";
+                    matches.add(cb.like(cb.lower(root.get("title")), pattern));
+                    matches.add(cb.like(cb.lower(root.get("vendorName")), pattern));
+                    matches.add(cb.like(cb.lower(root.get("description")), pattern));
+                }
+                predicates.add(cb.or(matches.toArray(new Predicate[0])));
             }
 
             return cb.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    /** Keyset continuation: rows strictly after ({@code date}, {@code id}) in (date DESC, id DESC) order. */
+    public static Specification<Expense> before(LocalDate date, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("date"), date),
+                cb.and(cb.equal(root.get("date"), date), cb.lessThan(root.get("id"), id)));
+    }
 }
@@ -0,0 +1,161 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.config.Workload;
+import com.expensemanagement.config.WorkloadClass;
+import com.expensemanagement.dto.ApprovalInboxDTO;
+import com.expensemanagement.dto.CursorPage;
+import com.expensemanagement.repository.ApprovalInboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persistent approval inbox: {@code approval_inbox} holds every PENDING team
+ * expense with its priority score already computed, so a manager's top items
+ * are one index range scan instead of scoring the whole backlog per request.
+ *
+ * <p>
+ * Score = amount × 0.004 + (100 − confidence) × 0.2 + 5 per full day past the
+ * SLA deadline; an unscored expense counts as confidence 100 (no risk
+ * points). Rows are re-derived from {@code expense} in one upsert by
+ * {@link #refreshAfterCommit} on submit, edit, delete, every approval
+ * transition and SLA breach; rows whose expense left PENDING are removed by
+ * the same call. A nightly rebuild re-ages overdue items and reconciles
+ * anything changed behind the application's back (e.g. team moves).
+ */
+@Slf4j
+@Service
+public class ApprovalInboxService implements CommandLineRunner {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String BASE_SCORE =
+            "e.amount * 0.004 + (100 - COALESCE(e.confidence_score, 100)) * 0.2";
+    private static final String SLA_AGING =
+            "5 * GREATEST(0, FLOOR(EXTRACT(EPOCH FROM (CAST(CURRENT_DATE AS timestamp) - e.sla_dead_at)) / 86400))";
+
+    private static final String UPSERT = "INSERT INTO approval_inbox (expense_id, team_id, user_id, submitter_name, " +
+            "title, category, amount, confidence_score, submitted_on, sla_dead_at, overdue, base_score, priority) " +
+            "SELECT e.id, u.team_id, u.id, u.name, e.title, e.category, e.amount, " +
+            "COALESCE(e.confidence_score, 100), e.date, e.sla_dead_at, e.overdue, " + BASE_SCORE + ", " + BASE_SCORE + " + " + SLA_AGING + " " +
+            "FROM expense e JOIN users u ON u.id = e.user_id " +
+            "WHERE e.status = 'PENDING' AND u.team_id IS NOT NULL %s " +
+            "ON CONFLICT (expense_id) DO UPDATE SET team_id = EXCLUDED.team_id, user_id = EXCLUDED.user_id, " +
+            "submitter_name = EXCLUDED.submitter_name, title = EXCLUDED.title, category = EXCLUDED.category, " +
+            "amount = EXCLUDED.amount, confidence_score = EXCLUDED.confidence_score, " +
+            "submitted_on = EXCLUDED.submitted_on, sla_dead_at = EXCLUDED.sla_dead_at, overdue = EXCLUDED.overdue, " +
+            "base_score = EXCLUDED.base_score, priority = EXCLUDED.priority";
+
+    private static final String PRUNE = "DELETE FROM approval_inbox i WHERE %s NOT EXISTS (" +
+            "SELECT 1 FROM expense e JOIN users u ON u.id = e.user_id " +
+            "WHERE e.id = i.expense_id AND e.status = 'PENDING' AND u.team_id IS NOT NULL)";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final ApprovalInboxRepository inboxRepository;
+    private final TransactionTemplate newTransaction;
+
+    public ApprovalInboxService(NamedParameterJdbcTemplate jdbc, ApprovalInboxRepository inboxRepository,
+            PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.inboxRepository = inboxRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ── reads ──────────────────────────────────────────────────────────────────
+
+    /** Highest priority first; cursor = (priority, expenseId) of the last item. */
+    public CursorPage<ApprovalInboxDTO> page(Long teamId, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Limit limit = Limit.of(pageSize + 1);
+        List<ApprovalInboxDTO> rows;
+        if (cursor == null) {
+            rows = inboxRepository.findTop(teamId, limit);
+        } else {
+            String[] parts = CursorPage.decode(cursor, 2);
+            rows = inboxRepository.findAfter(teamId, Double.parseDouble(parts[0]), Long.parseLong(parts[1]), limit);
+        }
+        return CursorPage.of(rows, pageSize, i -> CursorPage.encode(i.getPriorityScore(), i.getExpenseId()));
+    }
+
+    public long count(Long teamId) {
+        return inboxRepository.countByTeamId(teamId);
+    }
+
+    // ── maintenance ────────────────────────────────────────────────────────────
+
+    public void refreshAfterCommit(Long expenseId) {
+        if (expenseId != null) {
+            refreshAfterCommit(List.of(expenseId));
+        }
+    }
+
+    /**
+     * Re-derives the inbox rows of these expenses once the caller's
+     * transaction has committed (immediately when there is none), so the
+     * upsert sees the final state.
+     */
+    public void refreshAfterCommit(Collection<Long> expenseIds) {
+        if (expenseIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(expenseIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(ids);
+                }
+            });
+        } else {
+            refresh(ids);
+        }
+    }
+
+    private void refresh(List<Long> ids) {
+        try {
+            newTransaction.executeWithoutResult(tx -> {
+                MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+                jdbc.update(String.format(UPSERT, "AND e.id IN (:ids)"), params);
+                jdbc.update(String.format(PRUNE, "i.expense_id IN (:ids) AND"), params);
+            });
+        } catch (Exception e) {
+            // The nightly rebuild repairs anything missed here
+            log.error("APPROVAL-INBOX: Refresh of {} expenses failed (non-blocking): {}", ids.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void run(String... args) {
+        rebuild();
+    }
+
+    /** Full reconcile; also re-ages overdue items since the score moves once per day. */
+    @Scheduled(cron = "${app.approval-inbox.rebuild-cron:0 5 0 * * *}")
+    @Workload(WorkloadClass.BATCH)
+    public void rebuild() {
+        try {
+            long started = System.currentTimeMillis();
+            int[] counts = newTransaction.execute(tx -> new int[] {
+                    jdbc.getJdbcOperations().update(String.format(UPSERT, "")),
+                    jdbc.getJdbcOperations().update(String.format(PRUNE, ""))
+            });
+            log.info("APPROVAL-INBOX: Rebuilt in {} ms — {} pending, {} stale removed",
+                    System.currentTimeMillis() - started, counts[0], counts[1]);
+        } catch (Exception e) {
+            log.error("APPROVAL-INBOX: Rebuild failed (non-blocking): {}", e.getMessage());
+        }
+    }
+}
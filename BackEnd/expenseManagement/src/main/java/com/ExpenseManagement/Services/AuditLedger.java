@@ -0,0 +1,618 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.config.Workload;
+import com.expensemanagement.config.WorkloadClass;
+import com.expensemanagement.config.WorkloadRoutingDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, tamper-evident audit ledger stored in memory-mapped segment
+ * files. Enabled with {@code app.audit.backend=LEDGER}.
+ *
+ * <p>
+ * Every record has a fixed {@value #RECORD_SIZE}-byte layout and carries
+ * {@code SHA-256(previousHash || recordBody)}, so editing or deleting any
+ * record breaks the chain from that point on. Each segment header stores the
+ * chain hash it continues from. Segments roll when full or when older than
+ * the roll interval.
+ *
+ * <p>
+ * A sparse in-memory index keeps, per block of {@value #BLOCK_RECORDS}
+ * records, the first sequence/timestamp and a Bloom filter of entity keys, so
+ * time and entity lookups only touch candidate blocks. The index is rebuilt on
+ * startup while the chain is verified. Summaries are mirrored into
+ * {@code audit_logs} by {@link #mirrorToDatabase()} for SQL querying.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.audit.backend", havingValue = "LEDGER")
+public class AuditLedger implements SmartLifecycle {
+
+    static final int RECORD_SIZE = 512;
+    static final int HEADER_SIZE = 64;
+    static final int BLOCK_RECORDS = 256;
+
+    private static final long MAGIC = 0x4558504155444954L; // "EXPAUDIT"
+    private static final int VERSION = 1;
+
+    // ── header layout ──
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 8;
+    private static final int H_FIRST_SEQ = 16;
+    private static final int H_CREATED_AT = 24;
+    private static final int H_PREV_HASH = 32;
+
+    // ── record layout ──
+    private static final int R_SEQ = 0;
+    private static final int R_TIMESTAMP = 8; // epoch micros, UTC-naive
+    private static final int R_ENTITY_ID = 16;
+    private static final int R_ENTITY_TYPE = 24;
+    private static final int LEN_ENTITY_TYPE = 16;
+    private static final int R_ACTION = 40;
+    private static final int LEN_ACTION = 24;
+    private static final int R_ROLE = 64;
+    private static final int LEN_ROLE = 16;
+    private static final int R_PERFORMED_BY = 80;
+    private static final int LEN_PERFORMED_BY = 64;
+    private static final int R_DETAILS_LEN = 144;
+    private static final int R_DETAILS = 146;
+    private static final int R_HASH = RECORD_SIZE - 32;
+    private static final int LEN_DETAILS = R_HASH - R_DETAILS;
+
+    private static final long NULL_ENTITY_ID = Long.MIN_VALUE;
+    private static final int BLOOM_WORDS = 32; // 2048 bits per block
+    private static final String CHECKPOINT_FILE = "mirror.checkpoint";
+
+    public record LedgerRecord(long seq, LocalDateTime timestamp, String entityType, Long entityId, String action,
+            String performedBy, String role, String details, String hash) {
+    }
+
+    public record VerifyResult(boolean valid, long recordsChecked, Long brokenAtSeq, long elapsedMs) {
+    }
+
+    private final AuditLogWriter auditLogWriter;
+    private final Path dir;
+    private final int recordsPerSegment;
+    private final Duration rollInterval;
+    private final int mirrorBatchSize;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private final MessageDigest digest;
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_SIZE);
+    private final byte[] lastHash = new byte[32];
+    private long lastSeq;
+    private volatile long mirroredSeq;
+    /** Set once uq_audit_ledger_seq exists; nothing is mirrored before that. */
+    private volatile boolean mirrorIndexReady;
+    private volatile boolean running;
+
+    public AuditLedger(AuditLogWriter auditLogWriter,
+            MeterRegistry meterRegistry,
+            @Value("${app.audit.ledger.dir:ledger/audit}") String dir,
+            @Value("${app.audit.ledger.segment-size-mb:64}") int segmentSizeMb,
+            @Value("${app.audit.ledger.roll-interval-minutes:1440}") long rollIntervalMinutes,
+            @Value("${app.audit.ledger.mirror-batch-size:1000}") int mirrorBatchSize) {
+        this.auditLogWriter = auditLogWriter;
+        this.dir = Paths.get(dir);
+        this.recordsPerSegment = (int) ((segmentSizeMb * 1024L * 1024L - HEADER_SIZE) / RECORD_SIZE);
+        this.rollInterval = Duration.ofMinutes(rollIntervalMinutes);
+        this.mirrorBatchSize = mirrorBatchSize;
+        this.digest = sha256();
+
+        Gauge.builder("audit.ledger.records", this, l -> l.lastSeq).register(meterRegistry);
+        Gauge.builder("audit.ledger.mirror.lag", this, l -> l.lastSeq - l.mirroredSeq).register(meterRegistry);
+        Gauge.builder("audit.ledger.segments", segments, List::size).register(meterRegistry);
+    }
+
+    // ── write path ──────────────────────────────────────────────────────────────
+
+    /**
+     * Appends one record and returns its sequence number. Strings longer than
+     * their fixed field are truncated; {@code details} keeps its first
+     * {@value #LEN_DETAILS} bytes.
+     */
+    public synchronized long append(AuditLogWriter.AuditEvent e) throws IOException {
+        Segment active = segments.get(segments.size() - 1);
+        if (active.count == recordsPerSegment
+                || (active.count > 0 && Duration.between(active.createdAt, LocalDateTime.now())
+                        .compareTo(rollInterval) > 0)) {
+            active = roll();
+        }
+
+        long seq = lastSeq + 1;
+        ByteBuffer r = scratch.clear();
+        Arrays.fill(r.array(), (byte) 0);
+        long micros = toMicros(e.timestamp());
+        long entityId = e.entityId() != null ? e.entityId() : NULL_ENTITY_ID;
+        r.putLong(R_SEQ, seq);
+        r.putLong(R_TIMESTAMP, micros);
+        r.putLong(R_ENTITY_ID, entityId);
+        putString(r, R_ENTITY_TYPE, LEN_ENTITY_TYPE, e.entityType());
+        putString(r, R_ACTION, LEN_ACTION, e.action());
+        putString(r, R_ROLE, LEN_ROLE, e.role());
+        putString(r, R_PERFORMED_BY, LEN_PERFORMED_BY, e.performedBy());
+        int detailsLen = putString(r, R_DETAILS, LEN_DETAILS, e.details());
+        r.putShort(R_DETAILS_LEN, (short) detailsLen);
+
+        digest.update(lastHash);
+        digest.update(r.array(), 0, R_HASH);
+        try {
+            digest.digest(r.array(), R_HASH, 32);
+        } catch (java.security.DigestException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        int pos = HEADER_SIZE + active.count * RECORD_SIZE;
+        active.buffer.put(pos, r.array(), 0, RECORD_SIZE);
+        System.arraycopy(r.array(), R_HASH, lastHash, 0, 32);
+        // Key the stored (possibly truncated) type, exactly as recover() does
+        active.index(active.count, seq, micros, entityKey(getString(r, R_ENTITY_TYPE, LEN_ENTITY_TYPE), entityId));
+        active.count++;
+        lastSeq = seq;
+        return seq;
+    }
+
+    private Segment roll() throws IOException {
+        Segment current = segments.get(segments.size() - 1);
+        current.buffer.force();
+        Segment next = Segment.create(dir, lastSeq + 1, lastHash, recordsPerSegment);
+        segments.add(next);
+        log.info("AUDIT-LEDGER: Rolled to segment {} after {} records", next.path.getFileName(), current.count);
+        return next;
+    }
+
+    /** Flushes dirty pages of the active segment to disk. */
+    @Scheduled(fixedDelayString = "${app.audit.ledger.force-interval-ms:1000}")
+    public void force() {
+        Segment active;
+        synchronized (this) {
+            if (!running || segments.isEmpty()) {
+                return;
+            }
+            active = segments.get(segments.size() - 1);
+        }
+        active.buffer.force();
+    }
+
+    // ── read path ───────────────────────────────────────────────────────────────
+
+    /** Newest-first records for one entity, using the per-block Bloom filters. */
+    public List<LedgerRecord> findByEntity(String entityType, Long entityId, int limit) {
+        String storedType = new String(encode(entityType, LEN_ENTITY_TYPE), StandardCharsets.UTF_8);
+        long key = entityKey(storedType, entityId != null ? entityId : NULL_ENTITY_ID);
+        List<LedgerRecord> out = new ArrayList<>();
+        for (Segment s : snapshot().reversed()) {
+            int count = s.count;
+            for (int b = (count - 1) / BLOCK_RECORDS; b >= 0 && out.size() < limit; b--) {
+                if (!s.mightContain(b, key)) {
+                    continue;
+                }
+                int end = Math.min(count, (b + 1) * BLOCK_RECORDS);
+                for (int i = end - 1; i >= b * BLOCK_RECORDS && out.size() < limit; i--) {
+                    LedgerRecord rec = read(s, i);
+                    if (rec.entityId() != null && rec.entityId().equals(entityId)
+                            && rec.entityType().equals(storedType)) {
+                        out.add(rec);
+                    }
+                }
+            }
+            if (out.size() >= limit) {
+                break;
+            }
+        }
+        return out;
+    }
+
+    /** Oldest-first records at or after {@code from}, seeking via the sparse time index. */
+    public List<LedgerRecord> findSince(LocalDateTime from, int limit) {
+        long micros = toMicros(from);
+        List<LedgerRecord> out = new ArrayList<>();
+        for (Segment s : snapshot()) {
+            int count = s.count;
+            if (count == 0 || s.lastMicros < micros) {
+                continue;
+            }
+            int block = s.lastBlockStartingBefore(micros);
+            for (int i = block * BLOCK_RECORDS; i < count && out.size() < limit; i++) {
+                LedgerRecord rec = read(s, i);
+                if (toMicros(rec.timestamp()) >= micros) {
+                    out.add(rec);
+                }
+            }
+            if (out.size() >= limit) {
+                break;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Re-walks every segment sequentially, recomputing the hash chain. Pure
+     * sequential reads over mapped memory, so it runs at disk speed.
+     */
+    public VerifyResult verify() {
+        long start = System.currentTimeMillis();
+        MessageDigest md = sha256();
+        byte[] prev = new byte[32];
+        byte[] expected = new byte[32];
+        byte[] record = new byte[RECORD_SIZE];
+        long checked = 0;
+        for (Segment s : snapshot()) {
+            byte[] headerPrev = new byte[32];
+            s.buffer.get(H_PREV_HASH, headerPrev);
+            if (!Arrays.equals(prev, headerPrev)) {
+                return new VerifyResult(false, checked, s.firstSeq, System.currentTimeMillis() - start);
+            }
+            int count = s.count;
+            for (int i = 0; i < count; i++) {
+                s.buffer.get(HEADER_SIZE + i * RECORD_SIZE, record);
+                md.update(prev);
+                md.update(record, 0, R_HASH);
+                try {
+                    md.digest(expected, 0, 32);
+                } catch (java.security.DigestException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                if (!Arrays.equals(expected, 0, 32, record, R_HASH, RECORD_SIZE)) {
+                    return new VerifyResult(false, checked, s.firstSeq + i, System.currentTimeMillis() - start);
+                }
+                System.arraycopy(record, R_HASH, prev, 0, 32);
+                checked++;
+            }
+        }
+        return new VerifyResult(true, checked, null, System.currentTimeMillis() - start);
+    }
+
+    private synchronized List<Segment> snapshot() {
+        return new ArrayList<>(segments);
+    }
+
+    private static LedgerRecord read(Segment s, int i) {
+        ByteBuffer b = s.buffer;
+        int base = HEADER_SIZE + i * RECORD_SIZE;
+        long entityId = b.getLong(base + R_ENTITY_ID);
+        int detailsLen = b.getShort(base + R_DETAILS_LEN);
+        byte[] hash = new byte[32];
+        b.get(base + R_HASH, hash);
+        return new LedgerRecord(
+                b.getLong(base + R_SEQ),
+                fromMicros(b.getLong(base + R_TIMESTAMP)),
+                getString(b, base + R_ENTITY_TYPE, LEN_ENTITY_TYPE),
+                entityId == NULL_ENTITY_ID ? null : entityId,
+                getString(b, base + R_ACTION, LEN_ACTION),
+                getString(b, base + R_PERFORMED_BY, LEN_PERFORMED_BY),
+                getString(b, base + R_ROLE, LEN_ROLE),
+                getString(b, base + R_DETAILS, detailsLen),
+                HexFormat.of().formatHex(hash));
+    }
+
+    // ── Postgres mirror ─────────────────────────────────────────────────────────
+
+    /**
+     * Copies records appended since the last checkpoint into {@code audit_logs}
+     * in multi-row batches, advancing the checkpoint after each batch. Rows
+     * carry their ledger sequence, so a batch re-sent after a crash before its
+     * checkpoint was written is skipped rather than inserted twice.
+     */
+    @Scheduled(fixedDelayString = "${app.audit.ledger.mirror-interval-ms:5000}")
+    @Workload(WorkloadClass.BACKGROUND)
+    public void mirrorToDatabase() {
+        if (!running) {
+            return;
+        }
+        try {
+            if (!mirrorIndexReady) {
+                auditLogWriter.ensureLedgerSeqIndex();
+                mirrorIndexReady = true;
+            }
+            long target;
+            synchronized (this) {
+                target = lastSeq;
+            }
+            List<Segment> view = snapshot();
+            while (mirroredSeq < target) {
+                List<AuditLogWriter.AuditEvent> batch = new ArrayList<>(mirrorBatchSize);
+                long seq = mirroredSeq + 1;
+                for (; seq <= target && batch.size() < mirrorBatchSize; seq++) {
+                    LedgerRecord r = readSeq(view, seq);
+                    if (r == null) {
+                        break;
+                    }
+                    batch.add(new AuditLogWriter.AuditEvent(r.entityType(), r.entityId(), r.action(),
+                            r.performedBy(), r.role(), r.details(), r.timestamp(), r.seq()));
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                auditLogWriter.writeBatch(batch);
+                mirroredSeq = seq - 1;
+                Files.writeString(dir.resolve(CHECKPOINT_FILE), Long.toString(mirroredSeq));
+            }
+        } catch (Exception e) {
+            log.warn("AUDIT-LEDGER: Mirror to Postgres failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private static LedgerRecord readSeq(List<Segment> view, long seq) {
+        for (Segment s : view.reversed()) {
+            if (seq >= s.firstSeq) {
+                int i = (int) (seq - s.firstSeq);
+                return i < s.count ? read(s, i) : null;
+            }
+        }
+        return null;
+    }
+
+    // ── lifecycle ───────────────────────────────────────────────────────────────
+
+    @Override
+    public synchronized void start() {
+        try {
+            Files.createDirectories(dir);
+            List<Path> files;
+            try (Stream<Path> list = Files.list(dir)) {
+                files = list.filter(p -> p.getFileName().toString().endsWith(".seg")).sorted().toList();
+            }
+            for (Path p : files) {
+                Segment s = Segment.open(p, recordsPerSegment);
+                recover(s);
+                segments.add(s);
+            }
+            if (segments.isEmpty()) {
+                segments.add(Segment.create(dir, 1, lastHash, recordsPerSegment));
+            }
+            Path checkpoint = dir.resolve(CHECKPOINT_FILE);
+            mirroredSeq = Files.exists(checkpoint) ? Long.parseLong(Files.readString(checkpoint).trim()) : 0;
+            running = true;
+            log.info("AUDIT-LEDGER: Opened {} segment(s), last seq {}, mirrored up to {}", segments.size(),
+                    lastSeq, mirroredSeq);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open audit ledger at " + dir, e);
+        }
+    }
+
+    /**
+     * Rebuilds the sparse index for a segment and re-derives the chain tail. A
+     * hash mismatch on the very last record is a torn write from a crash and is
+     * discarded; anywhere else it is reported as tampering and left in place.
+     */
+    private void recover(Segment s) {
+        byte[] record = new byte[RECORD_SIZE];
+        byte[] expected = new byte[32];
+        for (int i = 0; i < recordsPerSegment; i++) {
+            int base = HEADER_SIZE + i * RECORD_SIZE;
+            s.buffer.get(base, record);
+            long seq = ByteBuffer.wrap(record).getLong(R_SEQ);
+            if (seq == 0) {
+                break;
+            }
+            digest.update(lastHash);
+            digest.update(record, 0, R_HASH);
+            try {
+                digest.digest(expected, 0, 32);
+            } catch (java.security.DigestException ex) {
+                throw new IllegalStateException(ex);
+            }
+            if (!Arrays.equals(expected, 0, 32, record, R_HASH, RECORD_SIZE)) {
+                boolean tail = i + 1 == recordsPerSegment
+                        || s.buffer.getLong(base + RECORD_SIZE + R_SEQ) == 0;
+                if (tail) {
+                    log.warn("AUDIT-LEDGER: Discarding torn record seq {} in {}", seq, s.path.getFileName());
+                    s.buffer.put(base, new byte[RECORD_SIZE]);
+                    break;
+                }
+                log.error("AUDIT-LEDGER: Hash chain broken at seq {} in {} — possible tampering", seq,
+                        s.path.getFileName());
+            }
+            ByteBuffer rb = ByteBuffer.wrap(record);
+            s.index(i, seq, rb.getLong(R_TIMESTAMP),
+                    entityKey(getString(rb, R_ENTITY_TYPE, LEN_ENTITY_TYPE), rb.getLong(R_ENTITY_ID)));
+            System.arraycopy(record, R_HASH, lastHash, 0, 32);
+            s.count = i + 1;
+            lastSeq = seq;
+        }
+    }
+
+    @Override
+    public void stop() {
+        // Called on this, not the proxy, so route the final mirror to the background pool here
+        try {
+            WorkloadRoutingDataSource.within(WorkloadClass.BACKGROUND, () -> {
+                mirrorToDatabase();
+                return null;
+            });
+        } catch (Throwable t) {
+            log.warn("AUDIT-LEDGER: Final mirror failed: {}", t.getMessage());
+        }
+        synchronized (this) {
+            running = false;
+            for (Segment s : segments) {
+                s.buffer.force();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0; // stop after the web server so in-flight requests can still append
+    }
+
+    // ── encoding helpers ────────────────────────────────────────────────────────
+
+    private static int putString(ByteBuffer b, int offset, int maxLen, String value) {
+        byte[] bytes = encode(value, maxLen);
+        b.put(offset, bytes);
+        return bytes.length;
+    }
+
+    /** UTF-8 of {@code value}, cut to at most {@code maxLen} bytes on a character boundary. */
+    private static byte[] encode(String value, int maxLen) {
+        if (value == null || value.isEmpty()) {
+            return new byte[0];
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= maxLen) {
+            return bytes;
+        }
+        int len = maxLen;
+        while (len > 0 && (bytes[len] & 0xC0) == 0x80) {
+            len--; // bytes[len] continues a character that would be split
+        }
+        return Arrays.copyOf(bytes, len);
+    }
+
+    private static String getString(ByteBuffer b, int offset, int maxLen) {
+        byte[] bytes = new byte[maxLen];
+        b.get(offset, bytes);
+        int len = 0;
+        while (len < maxLen && bytes[len] != 0) {
+            len++;
+        }
+        return new String(bytes, 0, len, StandardCharsets.UTF_8);
+    }
+
+    private static long entityKey(String entityType, long entityId) {
+        long h = entityType != null ? entityType.hashCode() : 0;
+        h = h * 0x9E3779B97F4A7C15L + entityId;
+        return h ^ (h >>> 31);
+    }
+
+    private static long toMicros(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + t.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** One mapped segment file plus its sparse block index. */
+    private static final class Segment {
+        final Path path;
+        final MappedByteBuffer buffer;
+        final long firstSeq;
+        final LocalDateTime createdAt;
+        volatile int count;
+        volatile long lastMicros = Long.MIN_VALUE;
+        long[] blockFirstMicros;
+        long[][] blockBloom;
+
+        private Segment(Path path, MappedByteBuffer buffer, int capacity) {
+            this.path = path;
+            this.buffer = buffer;
+            this.firstSeq = buffer.getLong(H_FIRST_SEQ);
+            this.createdAt = fromMicros(buffer.getLong(H_CREATED_AT));
+            int blocks = (capacity + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+            this.blockFirstMicros = new long[blocks];
+            this.blockBloom = new long[blocks][];
+        }
+
+        static Segment create(Path dir, long firstSeq, byte[] prevHash, int capacity) throws IOException {
+            Path path = dir.resolve(String.format("audit-%020d.seg", firstSeq));
+            MappedByteBuffer buf = map(path, capacity);
+            buf.putLong(H_MAGIC, MAGIC);
+            buf.putInt(H_VERSION, VERSION);
+            buf.putLong(H_FIRST_SEQ, firstSeq);
+            buf.putLong(H_CREATED_AT, toMicros(LocalDateTime.now()));
+            buf.put(H_PREV_HASH, prevHash);
+            buf.force();
+            return new Segment(path, buf, capacity);
+        }
+
+        static Segment open(Path path, int capacity) throws IOException {
+            MappedByteBuffer buf = map(path, capacity);
+            if (buf.getLong(H_MAGIC) != MAGIC) {
+                throw new IOException("Not an audit segment: " + path);
+            }
+            return new Segment(path, buf, capacity);
+        }
+
+        private static MappedByteBuffer map(Path path, int capacity) throws IOException {
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                return ch.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+            }
+        }
+
+        void index(int i, long seq, long micros, long entityKey) {
+            int block = i / BLOCK_RECORDS;
+            if (i % BLOCK_RECORDS == 0) {
+                blockFirstMicros[block] = micros;
+                blockBloom[block] = new long[BLOOM_WORDS];
+            }
+            long[] bloom = blockBloom[block];
+            int h1 = (int) (entityKey & (BLOOM_WORDS * 64 - 1));
+            int h2 = (int) ((entityKey >>> 32) & (BLOOM_WORDS * 64 - 1));
+            bloom[h1 >>> 6] |= 1L << (h1 & 63);
+            bloom[h2 >>> 6] |= 1L << (h2 & 63);
+            lastMicros = Math.max(lastMicros, micros);
+        }
+
+        boolean mightContain(int block, long entityKey) {
+            long[] bloom = blockBloom[block];
+            if (bloom == null) {
+                return false;
+            }
+            int h1 = (int) (entityKey & (BLOOM_WORDS * 64 - 1));
+            int h2 = (int) ((entityKey >>> 32) & (BLOOM_WORDS * 64 - 1));
+            return (bloom[h1 >>> 6] & (1L << (h1 & 63))) != 0 && (bloom[h2 >>> 6] & (1L << (h2 & 63))) != 0;
+        }
+
+        /** Binary search over block start times. */
+        int lastBlockStartingBefore(long micros) {
+            int lo = 0;
+            int hi = (count - 1) / BLOCK_RECORDS;
+            int ans = 0;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (blockFirstMicros[mid] <= micros) {
+                    ans = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return ans;
+        }
+    }
+}
@@ -1,57 +1,159 @@
 package com.expensemanagement.services;
 
+import com.expensemanagement.dto.CursorPage;
 import com.expensemanagement.entities.AuditLog;
 import com.expensemanagement.repository.AuditLogRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class AuditLogService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final Comparator<AuditLog> NEWEST_FIRST = Comparator.comparing(AuditLog::getTimestamp)
+            .thenComparing(AuditLog::getId).reversed();
+    private static final RowMapper<AuditLog> LEGACY_ROW = new BeanPropertyRowMapper<>(AuditLog.class);
+
     private final AuditLogRepository auditLogRepository;
+    private final AuditLogWriter auditLogWriter;
+    private final AuditPartitionService auditPartitionService;
+    private final JdbcTemplate jdbcTemplate;
+    /** Present only when app.audit.backend=LEDGER. */
+    private final AuditLedger auditLedger;
+
+    public AuditLogService(AuditLogRepository auditLogRepository, AuditLogWriter auditLogWriter,
+            AuditPartitionService auditPartitionService, JdbcTemplate jdbcTemplate,
+            ObjectProvider<AuditLedger> auditLedger) {
+        this.auditLogRepository = auditLogRepository;
+        this.auditLogWriter = auditLogWriter;
+        this.auditPartitionService = auditPartitionService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.auditLedger = auditLedger.getIfAvailable();
+    }
 
     /**
-     * Asynchronously logs an audit event — never blocks the main flow.
+     * Records an audit event — never blocks the main flow. With the ledger
+     * backend the event is appended to the hash-chained segment files (and
+     * mirrored to audit_logs later); otherwise it is queued for the batched
+     * writer.
      */
-    @Async
     public void log(String entityType, Long entityId, String action, String performedBy, String role, String details) {
-        try {
-            AuditLog entry = AuditLog.builder()
-                    .entityType(entityType)
-                    .entityId(entityId)
-                    .action(action)
-                    .performedBy(performedBy)
-                    .role(role)
-                    .details(details)
-                    .build();
-            auditLogRepository.save(entry);
-        } catch (Exception e) {
-            log.error("AuditLog failed (non-blocking): {}", e.getMessage());
+        AuditLogWriter.AuditEvent event = new AuditLogWriter.AuditEvent(entityType, entityId, action, performedBy,
+                role, details, LocalDateTime.now());
+        if (auditLedger != null) {
+            try {
+                auditLedger.append(event);
+                return;
+            } catch (Exception e) {
+                log.error("AuditLedger append failed, falling back to database writer: {}", e.getMessage());
+            }
         }
+        auditLogWriter.submit(event);
+    }
+
+    // ── keyset reads: newest first, cursor = (timestamp, id) of the last row ────
+    // Repeatable read, so a row moving out of audit_logs_legacy during the page
+    // is seen in exactly one of the two tables.
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public CursorPage<AuditLog> getAll(String cursor, int size) {
+        Limit limit = limitFor(size);
+        List<AuditLog> rows = cursor == null
+                ? auditLogRepository.findAllByOrderByTimestampDescIdDesc(limit)
+                : withCursor(cursor, (ts, id) -> auditLogRepository.findAllBefore(ts, id, limit));
+        return toPage(withLegacy(rows, limit, cursor, "TRUE"), size);
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public CursorPage<AuditLog> getByEntity(String entityType, Long entityId, String cursor, int size) {
+        Limit limit = limitFor(size);
+        List<AuditLog> rows = cursor == null
+                ? auditLogRepository.findByEntityTypeAndEntityIdOrderByTimestampDescIdDesc(entityType, entityId, limit)
+                : withCursor(cursor,
+                        (ts, id) -> auditLogRepository.findByEntityBefore(entityType, entityId, ts, id, limit));
+        return toPage(withLegacy(rows, limit, cursor, "entity_type = ? AND entity_id = ?", entityType, entityId),
+                size);
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public CursorPage<AuditLog> getByUser(String username, String cursor, int size) {
+        Limit limit = limitFor(size);
+        List<AuditLog> rows = cursor == null
+                ? auditLogRepository.findByPerformedByOrderByTimestampDescIdDesc(username, limit)
+                : withCursor(cursor, (ts, id) -> auditLogRepository.findByPerformedByBefore(username, ts, id, limit));
+        return toPage(withLegacy(rows, limit, cursor, "performed_by = ?", username), size);
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public CursorPage<AuditLog> getByDateRange(LocalDateTime from, LocalDateTime to, String cursor, int size) {
+        Limit limit = limitFor(size);
+        List<AuditLog> rows = cursor == null
+                ? auditLogRepository.findInRange(from, to, limit)
+                : withCursor(cursor, (ts, id) -> auditLogRepository.findInRangeBefore(from, to, ts, id, limit));
+        return toPage(withLegacy(rows, limit, cursor, "timestamp >= ? AND timestamp <= ?", from, to), size);
+    }
+
+    private interface KeysetQuery {
+        List<AuditLog> fetch(LocalDateTime ts, Long id);
     }
 
-    public Page<AuditLog> getAll(Pageable pageable) {
-        return auditLogRepository.findAllByOrderByTimestampDesc(pageable);
+    /**
+     * Merges in the same slice of audit_logs_legacy while AuditPartitionService
+     * is still moving rows out of it; {@code rows} as-is otherwise.
+     */
+    private List<AuditLog> withLegacy(List<AuditLog> rows, Limit limit, String cursor, String filter,
+            Object... args) {
+        if (!auditPartitionService.legacyPending()) {
+            return rows;
+        }
+        StringBuilder sql = new StringBuilder("SELECT id, entity_type, entity_id, action, performed_by, details, "
+                + "role, timestamp, ledger_seq FROM audit_logs_legacy WHERE ").append(filter);
+        List<Object> params = new ArrayList<>(List.of(args));
+        if (cursor != null) {
+            String[] parts = CursorPage.decode(cursor, 2);
+            LocalDateTime ts = LocalDateTime.parse(parts[0]);
+            sql.append(" AND (timestamp < ? OR (timestamp = ? AND id < ?))");
+            params.addAll(List.of(ts, ts, Long.parseLong(parts[1])));
+        }
+        sql.append(" ORDER BY timestamp DESC, id DESC LIMIT ?");
+        params.add(limit.max());
+        List<AuditLog> legacy = jdbcTemplate.query(sql.toString(), LEGACY_ROW, params.toArray());
+        if (legacy.isEmpty()) {
+            return rows;
+        }
+        List<AuditLog> merged = new ArrayList<>(rows.size() + legacy.size());
+        merged.addAll(rows);
+        merged.addAll(legacy);
+        merged.sort(NEWEST_FIRST);
+        return merged.subList(0, Math.min(merged.size(), limit.max()));
     }
 
-    public List<AuditLog> getByEntity(String entityType, Long entityId) {
-        return auditLogRepository.findByEntityTypeAndEntityIdOrderByTimestampDesc(entityType, entityId);
+    private static List<AuditLog> withCursor(String cursor, KeysetQuery query) {
+        String[] parts = CursorPage.decode(cursor, 2);
+        return query.fetch(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
     }
 
-    public List<AuditLog> getByUser(String username) {
-        return auditLogRepository.findByPerformedByOrderByTimestampDesc(username);
+    /** Fetch one extra row so the page knows whether another slice exists. */
+    private static Limit limitFor(int size) {
+        return Limit.of(Math.min(Math.max(size, 1), MAX_PAGE_SIZE) + 1);
     }
 
-    public Page<AuditLog> getByDateRange(LocalDateTime from, LocalDateTime to, Pageable pageable) {
-        return auditLogRepository.findByTimestampBetweenOrderByTimestampDesc(from, to, pageable);
+    private static CursorPage<AuditLog> toPage(List<AuditLog> rows, int size) {
+        return CursorPage.of(rows, Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+                a -> CursorPage.encode(a.getTimestamp(), a.getId()));
     }
 }
@@ -0,0 +1,239 @@
+package com.expensemanagement.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dedicated audit pipeline: a bounded ring buffer drained by a single writer
+ * thread that flushes multi-row INSERTs into {@code audit_logs}.
+ *
+ * <p>
+ * Ids come straight from {@code audit_logs_seq} inside the INSERT, so a batch
+ * costs one round trip regardless of size. When the buffer is full the
+ * configured {@link OverflowPolicy} applies; drops are counted, never thrown.
+ * Remaining events are flushed on shutdown.
+ *
+ * <p>
+ * Metrics: {@code audit.queue.size}, {@code audit.lag.ms} (age of the oldest
+ * pending event), {@code audit.written}, {@code audit.dropped},
+ * {@code audit.batches}.
+ */
+@Slf4j
+@Component
+public class AuditLogWriter implements SmartLifecycle {
+
+    public enum OverflowPolicy {
+        /** Discard the incoming event. */
+        DROP_NEWEST,
+        /** Evict the oldest buffered event to make room. */
+        DROP_OLDEST,
+        /** Block the caller for up to {@code app.audit.offer-timeout-ms}, then drop. */
+        BLOCK
+    }
+
+    /** @param ledgerSeq sequence number in the AuditLedger; null for events written directly */
+    public record AuditEvent(String entityType, Long entityId, String action, String performedBy, String role,
+            String details, LocalDateTime timestamp, Long ledgerSeq) {
+
+        public AuditEvent(String entityType, Long entityId, String action, String performedBy, String role,
+                String details, LocalDateTime timestamp) {
+            this(entityType, entityId, action, performedBy, role, details, timestamp, null);
+        }
+    }
+
+    private static final String INSERT_PREFIX = "INSERT INTO audit_logs "
+            + "(id, entity_type, entity_id, action, performed_by, role, details, timestamp, ledger_seq) VALUES ";
+    private static final String ROW = "(nextval('audit_logs_seq'), ?, ?, ?, ?, ?, ?, ?, ?)";
+    /** Re-mirrored ledger records hit uq_audit_ledger_seq and are skipped. */
+    private static final String ON_CONFLICT = " ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<AuditEvent> buffer;
+    private final OverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter batches;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.audit.buffer-capacity:8192}") int capacity,
+            @Value("${app.audit.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+            @Value("${app.audit.batch-size:500}") int batchSize,
+            @Value("${app.audit.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${app.audit.offer-timeout-ms:50}") long offerTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+
+        this.written = meterRegistry.counter("audit.written");
+        this.dropped = meterRegistry.counter("audit.dropped");
+        this.batches = meterRegistry.counter("audit.batches");
+        Gauge.builder("audit.queue.size", buffer, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("audit.lag.ms", this, AuditLogWriter::lagMillis).register(meterRegistry);
+    }
+
+    /**
+     * Enqueues an event without touching the database. Never throws.
+     */
+    public void submit(AuditEvent event) {
+        boolean accepted = switch (overflowPolicy) {
+            case DROP_NEWEST -> buffer.offer(event);
+            case DROP_OLDEST -> {
+                while (!buffer.offer(event)) {
+                    if (buffer.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+                yield true;
+            }
+            case BLOCK -> {
+                try {
+                    yield buffer.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    yield false;
+                }
+            }
+        };
+        if (!accepted) {
+            dropped.increment();
+        }
+    }
+
+    private double lagMillis() {
+        AuditEvent oldest = buffer.peek();
+        return oldest == null ? 0
+                : Duration.between(oldest.timestamp(), LocalDateTime.now()).toMillis();
+    }
+
+    private void writeLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                AuditEvent first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                // stop() interrupts the poll; fall through and drain what is left
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<AuditEvent> batch) {
+        try {
+            writeBatch(batch);
+            batches.increment();
+        } catch (Exception ex) {
+            dropped.increment(batch.size());
+            log.error("AuditLog batch of {} failed (non-blocking): {}", batch.size(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Synchronously inserts {@code batch} as one multi-row INSERT. Unlike
+     * {@link #submit}, failures propagate to the caller. Ledger records that
+     * are already present are skipped, so re-sending a batch is harmless.
+     */
+    public void writeBatch(List<AuditEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + batch.size() * (ROW.length() + 2)
+                + ON_CONFLICT.length()).append(INSERT_PREFIX);
+        Object[] args = new Object[batch.size() * 8];
+        int i = 0;
+        for (AuditEvent e : batch) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+            args[i++] = e.entityType();
+            args[i++] = e.entityId();
+            args[i++] = e.action();
+            args[i++] = e.performedBy();
+            args[i++] = e.role();
+            args[i++] = e.details();
+            args[i++] = Timestamp.valueOf(e.timestamp());
+            args[i++] = e.ledgerSeq();
+        }
+        sql.append(ON_CONFLICT);
+        written.increment(jdbcTemplate.update(sql.toString(), args));
+    }
+
+    /**
+     * Creates the column and unique index that make ledger mirroring
+     * idempotent. The index includes the partition key, as Postgres requires
+     * on a partitioned table.
+     */
+    public void ensureLedgerSeqIndex() {
+        jdbcTemplate.execute("ALTER TABLE audit_logs ADD COLUMN IF NOT EXISTS ledger_seq bigint");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uq_audit_ledger_seq "
+                + "ON audit_logs (ledger_seq, timestamp)");
+    }
+
+    // ── lifecycle ───────────────────────────────────────────────────────────────
+
+    @Override
+    public void start() {
+        running = true;
+        writerThread = Thread.ofPlatform().daemon().name("audit-writer").start(this::writeLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+            try {
+                writerThread.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!buffer.isEmpty()) {
+                log.warn("AuditLog shutdown left {} events unflushed", buffer.size());
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Stop after the web server so in-flight requests can still audit. */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
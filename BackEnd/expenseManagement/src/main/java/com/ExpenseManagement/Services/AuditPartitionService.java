@@ -0,0 +1,294 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.config.Workload;
+import com.expensemanagement.config.WorkloadClass;
+import com.expensemanagement.config.WorkloadRoutingDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps {@code audit_logs} range-partitioned by month.
+ *
+ * <ul>
+ * <li>On startup, converts a plain (Hibernate-created) table into a
+ * partitioned one. Existing rows are then moved over on a background thread,
+ * in batches of {@code app.audit.partition.migrate-batch-size}; an
+ * interrupted move continues on the next start. Until the move is done,
+ * {@link #legacyPending()} tells AuditLogService to read audit_logs_legacy
+ * too, so no row drops out of the audit trail meanwhile.
+ * <li>Daily, pre-creates partitions for the next few months.
+ * <li>Daily, streams partitions older than the retention window to
+ * {@code <archive-dir>/audit_logs_pYYYY_MM.csv.gz} via COPY, then detaches and
+ * drops them — only once the archive is on disk and still matches the
+ * partition.
+ * </ul>
+ */
+@Slf4j
+@Service
+public class AuditPartitionService implements CommandLineRunner {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final String PARTITION_PREFIX = "audit_logs_p";
+    /** How long an emptied legacy table is kept for readers that already chose to read it. */
+    private static final long LEGACY_DROP_GRACE_MS = 60_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.audit.partition.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${app.audit.retention-months:24}")
+    private int retentionMonths;
+
+    @Value("${app.audit.archive-dir:archive/audit}")
+    private String archiveDir;
+
+    @Value("${app.audit.partition.migrate-batch-size:10000}")
+    private int migrateBatchSize;
+
+    private volatile boolean legacyPending;
+
+    public AuditPartitionService(JdbcTemplate jdbcTemplate, DataSource dataSource,
+            TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void run(String... args) {
+        try {
+            if (!isPartitioned()) {
+                migrateToPartitioned();
+            }
+            ensureUpcomingPartitions();
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT to_regclass('audit_logs_legacy') IS NOT NULL", Boolean.class))) {
+                legacyPending = true;
+                Thread.ofVirtual().name("audit-legacy-move").start(this::moveLegacyRowsInBackground);
+            }
+        } catch (Exception e) {
+            log.warn("AUDIT-PARTITION: Startup maintenance failed (non-blocking): {}", e.getMessage());
+        }
+    }
+
+    /** Whether rows may still sit in audit_logs_legacy; audit reads include it while true. */
+    public boolean legacyPending() {
+        return legacyPending;
+    }
+
+    private void moveLegacyRowsInBackground() {
+        try {
+            WorkloadRoutingDataSource.within(WorkloadClass.BATCH, () -> {
+                moveLegacyRows();
+                return null;
+            });
+        } catch (Throwable t) {
+            log.error("AUDIT-PARTITION: Moving legacy rows failed, resuming on next start: {}", t.getMessage());
+        }
+    }
+
+    private boolean isPartitioned() {
+        Integer n = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid " +
+                        "WHERE c.relname = 'audit_logs'",
+                Integer.class);
+        return n != null && n > 0;
+    }
+
+    /** Swaps in the partitioned parent; rows stay in audit_logs_legacy until {@link #moveLegacyRows}. */
+    private void migrateToPartitioned() {
+        log.info("AUDIT-PARTITION: Converting audit_logs to a monthly range-partitioned table...");
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("ALTER TABLE audit_logs RENAME TO audit_logs_legacy");
+            // Free up the constraint/index names for the new parent table; the keyset
+            // indexes stay on the legacy table for the reads that span it until it is dropped
+            jdbcTemplate.execute("ALTER INDEX IF EXISTS audit_logs_pkey RENAME TO audit_logs_legacy_pkey");
+            jdbcTemplate.execute("ALTER INDEX IF EXISTS idx_audit_ts_id RENAME TO idx_audit_legacy_ts_id");
+            jdbcTemplate.execute("ALTER INDEX IF EXISTS idx_audit_user_ts_id RENAME TO idx_audit_legacy_user_ts_id");
+            jdbcTemplate.execute("ALTER INDEX IF EXISTS idx_audit_entity_ts_id "
+                    + "RENAME TO idx_audit_legacy_entity_ts_id");
+            jdbcTemplate.execute("DROP INDEX IF EXISTS uq_audit_ledger_seq");
+            jdbcTemplate.execute("ALTER TABLE audit_logs_legacy ADD COLUMN IF NOT EXISTS ledger_seq bigint");
+            jdbcTemplate.execute("CREATE TABLE audit_logs (" +
+                    "id bigint NOT NULL, " +
+                    "entity_type varchar(255), " +
+                    "entity_id bigint, " +
+                    "action varchar(255), " +
+                    "performed_by varchar(255), " +
+                    "details text, " +
+                    "role varchar(255), " +
+                    "timestamp timestamp(6) NOT NULL, " +
+                    "ledger_seq bigint, " +
+                    "PRIMARY KEY (id, timestamp)) PARTITION BY RANGE (timestamp)");
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS audit_logs_default PARTITION OF audit_logs DEFAULT");
+
+            Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(timestamp) FROM audit_logs_legacy",
+                    Timestamp.class);
+            YearMonth from = oldest != null ? YearMonth.from(oldest.toLocalDateTime()) : YearMonth.now();
+            for (YearMonth m = from; !m.isAfter(YearMonth.now().plusMonths(monthsAhead)); m = m.plusMonths(1)) {
+                createPartition(m);
+            }
+
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_audit_ts_id ON audit_logs (timestamp, id)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_audit_user_ts_id " +
+                    "ON audit_logs (performed_by, timestamp, id)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_audit_entity_ts_id " +
+                    "ON audit_logs (entity_type, entity_id, timestamp, id)");
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uq_audit_ledger_seq " +
+                    "ON audit_logs (ledger_seq, timestamp)");
+        });
+        log.info("AUDIT-PARTITION: audit_logs is now partitioned by month.");
+    }
+
+    /**
+     * Moves rows from audit_logs_legacy into the partitions, one batch per
+     * transaction, and drops it when empty. Each batch is a single
+     * DELETE ... RETURNING into INSERT, so a crash never loses or doubles rows,
+     * and a reader sees every row in exactly one of the two tables.
+     */
+    private void moveLegacyRows() throws InterruptedException {
+        long moved = 0;
+        int batch;
+        do {
+            batch = jdbcTemplate.update("WITH moved AS (DELETE FROM audit_logs_legacy WHERE id IN " +
+                    "(SELECT id FROM audit_logs_legacy ORDER BY id LIMIT ?) " +
+                    "RETURNING id, entity_type, entity_id, action, performed_by, details, role, timestamp, ledger_seq) " +
+                    "INSERT INTO audit_logs " +
+                    "(id, entity_type, entity_id, action, performed_by, details, role, timestamp, ledger_seq) " +
+                    "SELECT id, entity_type, entity_id, action, performed_by, details, role, timestamp, ledger_seq " +
+                    "FROM moved",
+                    migrateBatchSize);
+            moved += batch;
+        } while (batch > 0);
+        log.info("AUDIT-PARTITION: Moved {} legacy audit rows into partitions.", moved);
+        // Stop new reads of the empty table, let running ones finish, then drop it
+        legacyPending = false;
+        Thread.sleep(LEGACY_DROP_GRACE_MS);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS audit_logs_legacy");
+    }
+
+    /**
+     * Runs daily at 01:00 — keeps partitions ready ahead of time so writes never
+     * land in the default partition.
+     */
+    @Scheduled(cron = "0 0 1 * * *")
+    @Workload(WorkloadClass.BACKGROUND)
+    public void ensureUpcomingPartitions() {
+        YearMonth now = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            try {
+                createPartition(now.plusMonths(i));
+            } catch (Exception e) {
+                log.warn("AUDIT-PARTITION: Could not create partition for {}: {}", now.plusMonths(i),
+                        e.getMessage());
+            }
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        LocalDate start = month.atDay(1);
+        jdbcTemplate.execute(String.format(
+                "CREATE TABLE IF NOT EXISTS %s%s PARTITION OF audit_logs FOR VALUES FROM ('%s') TO ('%s')",
+                PARTITION_PREFIX, month.format(SUFFIX), start, start.plusMonths(1)));
+    }
+
+    /**
+     * Runs daily at 02:00 — archives and drops partitions past retention.
+     */
+    @Scheduled(cron = "0 0 2 * * *")
+    @Workload(WorkloadClass.BACKGROUND)
+    public void archiveExpiredPartitions() {
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent " +
+                        "WHERE p.relname = 'audit_logs' AND c.relname LIKE 'audit_logs\\_p%' ORDER BY c.relname",
+                String.class);
+
+        for (String partition : partitions) {
+            YearMonth month;
+            try {
+                month = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), SUFFIX);
+            } catch (Exception e) {
+                continue;
+            }
+            if (!month.isBefore(cutoff)) {
+                continue;
+            }
+            try {
+                archivePartition(partition);
+            } catch (Exception e) {
+                log.error("AUDIT-PARTITION: Archival of {} failed, leaving it in place: {}", partition,
+                        e.getMessage());
+            }
+        }
+    }
+
+    private void archivePartition(String partition) throws Exception {
+        Path dir = Paths.get(archiveDir);
+        Files.createDirectories(dir);
+        Path target = dir.resolve(partition + ".csv.gz");
+        Path tmp = dir.resolve(partition + ".csv.gz.part");
+
+        // Copy while the partition is still attached; a failure here leaves it untouched
+        long rows;
+        try (Connection conn = dataSource.getConnection();
+                OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+            rows = conn.unwrap(PGConnection.class).getCopyAPI()
+                    .copyOut("COPY " + partition + " TO STDOUT (FORMAT csv, HEADER)", out);
+        } catch (Exception e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // Detach and drop together; a row-count mismatch rolls back and keeps it attached
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("ALTER TABLE audit_logs DETACH PARTITION " + partition);
+            Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partition, Long.class);
+            if (count == null || count != rows) {
+                throw new IllegalStateException(partition + " has " + count + " rows but " + rows
+                        + " were archived");
+            }
+            jdbcTemplate.execute("DROP TABLE " + partition);
+        });
+        log.info("AUDIT-PARTITION: Archived {} ({} rows) to {}", partition, rows, target);
+    }
+
+    /**
+     * Planner row estimate summed across partitions — cheap enough for dashboards
+     * where an exact COUNT(*) over the whole history would not be.
+     */
+    public long estimateRowCount() {
+        Long n = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(GREATEST(c.reltuples, 0)), 0)::bigint FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = 'audit_logs'",
+                Long.class);
+        return n != null ? n : 0L;
+    }
+}
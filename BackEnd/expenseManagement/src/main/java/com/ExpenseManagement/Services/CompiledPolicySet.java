@@ -0,0 +1,107 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.dto.PolicyBreach;
+import com.expensemanagement.entities.ExpensePolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable, array-backed form of the active expense policies. Thresholds are
+ * unboxed ({@code NaN} = not set) and category lists are hashed sets, so
+ * {@link #evaluate} is a tight loop that allocates only when it finds a
+ * breach.
+ */
+final class CompiledPolicySet {
+
+    static final CompiledPolicySet EMPTY = compile(List.of());
+
+    private final long[] ids;
+    private final String[] names;
+    private final double[] maxAmount;
+    private final double[] monthlyLimit;
+    private final boolean[] requiresReceipt;
+    /** {@code null} entry = any category allowed. */
+    private final Set<String>[] allowedCategories;
+    private final boolean hasMonthlyLimits;
+
+    private CompiledPolicySet(long[] ids, String[] names, double[] maxAmount, double[] monthlyLimit,
+            boolean[] requiresReceipt, Set<String>[] allowedCategories, boolean hasMonthlyLimits) {
+        this.ids = ids;
+        this.names = names;
+        this.maxAmount = maxAmount;
+        this.monthlyLimit = monthlyLimit;
+        this.requiresReceipt = requiresReceipt;
+        this.allowedCategories = allowedCategories;
+        this.hasMonthlyLimits = hasMonthlyLimits;
+    }
+
+    @SuppressWarnings("unchecked")
+    static CompiledPolicySet compile(List<ExpensePolicy> policies) {
+        int n = policies.size();
+        long[] ids = new long[n];
+        String[] names = new String[n];
+        double[] maxAmount = new double[n];
+        double[] monthlyLimit = new double[n];
+        boolean[] requiresReceipt = new boolean[n];
+        Set<String>[] allowedCategories = new Set[n];
+        boolean monthly = false;
+        for (int i = 0; i < n; i++) {
+            ExpensePolicy p = policies.get(i);
+            ids[i] = p.getId() != null ? p.getId() : -1L;
+            names[i] = p.getName();
+            maxAmount[i] = p.getMaxAmount() != null ? p.getMaxAmount() : Double.NaN;
+            monthlyLimit[i] = p.getMonthlyLimit() != null ? p.getMonthlyLimit() : Double.NaN;
+            requiresReceipt[i] = p.isRequiresReceipt();
+            List<String> categories = p.getAllowedCategories();
+            allowedCategories[i] = categories == null || categories.isEmpty() ? null
+                    : Set.copyOf(categories.stream().filter(Objects::nonNull).toList());
+            monthly |= p.getMonthlyLimit() != null;
+        }
+        return new CompiledPolicySet(ids, names, maxAmount, monthlyLimit, requiresReceipt, allowedCategories,
+                monthly);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    /** Whether {@link #evaluate} needs the submitter's month-to-date spend. */
+    boolean hasMonthlyLimits() {
+        return hasMonthlyLimits;
+    }
+
+    /**
+     * @param monthSpend month-to-date spend including this expense, or
+     *                   {@code NaN} to skip monthly limits
+     * @return every breached rule; an empty immutable list when none
+     */
+    List<PolicyBreach> evaluate(double amount, String category, boolean hasReceipt, double monthSpend) {
+        List<PolicyBreach> breaches = null;
+        for (int i = 0; i < ids.length; i++) {
+            if (amount > maxAmount[i]) {
+                breaches = add(breaches, i, PolicyBreach.Rule.MAX_AMOUNT, "₹" + amount + " > ₹" + maxAmount[i]);
+            }
+            Set<String> allowed = allowedCategories[i];
+            if (allowed != null && (category == null || !allowed.contains(category))) {
+                breaches = add(breaches, i, PolicyBreach.Rule.CATEGORY, "Category " + category + " not allowed");
+            }
+            if (requiresReceipt[i] && !hasReceipt) {
+                breaches = add(breaches, i, PolicyBreach.Rule.RECEIPT, "Receipt required but missing");
+            }
+            if (monthSpend > monthlyLimit[i]) {
+                breaches = add(breaches, i, PolicyBreach.Rule.MONTHLY_LIMIT,
+                        "Month spend ₹" + monthSpend + " > ₹" + monthlyLimit[i]);
+            }
+        }
+        return breaches != null ? breaches : List.of();
+    }
+
+    private List<PolicyBreach> add(List<PolicyBreach> breaches, int i, PolicyBreach.Rule rule, String detail) {
+        List<PolicyBreach> list = breaches != null ? breaches : new ArrayList<>(2);
+        list.add(new PolicyBreach(ids[i] >= 0 ? ids[i] : null, names[i], rule, detail));
+        return list;
+    }
+}
@@ -0,0 +1,190 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.config.Workload;
+import com.expensemanagement.config.WorkloadClass;
+import com.expensemanagement.entities.Complaint;
+import com.expensemanagement.entities.Complaint_Department;
+import com.expensemanagement.entities.Complaint_Priority;
+import com.expensemanagement.entities.Complaint_Sentiment;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the four AI verdicts for a new complaint (priority, sentiment,
+ * department, risk) and writes them back as a single partial UPDATE.
+ *
+ * <ul>
+ * <li>Each verdict is bounded by {@code app.complaint.enrichment.timeout-ms};
+ * a failed or late call leaves its column untouched.
+ * <li>Completed enrichments are queued and flushed together as one JDBC batch,
+ * so a burst of complaints costs one round trip.
+ * <li>The UPDATE is guarded by the version the complaint was saved with. If a
+ * user or the escalation scheduler changed it meanwhile, the retry skips
+ * priority and status so their change wins, and still fills in the rest.
+ * </ul>
+ */
+@Slf4j
+@Service
+public class ComplaintEnrichmentService {
+
+    private static final String UPDATE_SQL = "UPDATE complaints SET " +
+            "priority = COALESCE(?, priority), " +
+            "sentiment = COALESCE(?, sentiment), " +
+            "assigned_department = COALESCE(?, assigned_department), " +
+            "risk_score = COALESCE(?, risk_score), " +
+            // Only lift fresh submissions; never pull back an escalated or resolved one
+            "status = CASE WHEN ? AND status = 'SUBMITTED' THEN 'UNDER_REVIEW' ELSE status END, " +
+            "version = version + 1, updated_at = now() " +
+            "WHERE id = ? AND version = ?";
+
+    /** AI verdicts for one complaint; {@code null} fields were not determined. */
+    record Enrichment(long complaintId, long version, Complaint_Priority priority,
+            Complaint_Sentiment sentiment, Complaint_Department department, Integer riskScore) {
+
+        Enrichment withoutPriority(long currentVersion) {
+            return new Enrichment(complaintId, currentVersion, null, sentiment, department, riskScore);
+        }
+    }
+
+    private final ComplaintAIService complaintAIService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentLinkedQueue<Enrichment> pending = new ConcurrentLinkedQueue<>();
+
+    @Value("${app.complaint.enrichment.timeout-ms:30000}")
+    private long timeoutMs;
+
+    @Value("${app.complaint.enrichment.batch-size:200}")
+    private int batchSize;
+
+    public ComplaintEnrichmentService(ComplaintAIService complaintAIService, JdbcTemplate jdbcTemplate) {
+        this.complaintAIService = complaintAIService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Starts AI analysis for a freshly saved complaint once the surrounding
+     * transaction commits, so the UPDATE never races the INSERT. Non-blocking.
+     */
+    public void enrich(Complaint complaint) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    analyse(complaint);
+                }
+            });
+        } else {
+            analyse(complaint);
+        }
+    }
+
+    private void analyse(Complaint complaint) {
+        String title = complaint.getTitle();
+        String description = complaint.getDescription();
+
+        CompletableFuture<Complaint_Priority> priority = bounded(
+                complaintAIService.detectPriority(title, description));
+        CompletableFuture<Complaint_Sentiment> sentiment = bounded(
+                complaintAIService.detectSentiment(title, description));
+        CompletableFuture<Complaint_Department> department = bounded(
+                complaintAIService.classifyDepartment(title, description));
+        CompletableFuture<Integer> risk = bounded(
+                complaintAIService.detectRiskScore(title, description));
+
+        CompletableFuture.allOf(priority, sentiment, department, risk)
+                .thenRun(() -> pending.add(new Enrichment(complaint.getId(), complaint.getVersion(),
+                        priority.join(), sentiment.join(), department.join(), risk.join())));
+    }
+
+    private <T> CompletableFuture<T> bounded(CompletableFuture<T> future) {
+        return future.orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    log.warn("Complaint AI call failed or timed out: {}", e.getMessage());
+                    return null;
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${app.complaint.enrichment.flush-interval-ms:250}")
+    @Workload(WorkloadClass.BACKGROUND)
+    public void flush() {
+        List<Enrichment> batch = new ArrayList<>(batchSize);
+        for (Enrichment e; (e = pending.poll()) != null;) {
+            batch.add(e);
+            if (batch.size() == batchSize) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<Enrichment> batch) {
+        try {
+            List<Enrichment> conflicts = apply(batch);
+            if (!conflicts.isEmpty()) {
+                retryWithoutPriority(conflicts);
+            }
+        } catch (Exception e) {
+            log.error("Complaint enrichment write failed for {} complaints: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /** Runs one batched UPDATE and returns the entries whose version no longer matched. */
+    private List<Enrichment> apply(List<Enrichment> batch) {
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (ps, e) -> {
+            ps.setObject(1, e.priority() != null ? e.priority().name() : null, Types.VARCHAR);
+            ps.setObject(2, e.sentiment() != null ? e.sentiment().name() : null, Types.VARCHAR);
+            ps.setObject(3, e.department() != null ? e.department().name() : null, Types.VARCHAR);
+            ps.setObject(4, e.riskScore(), Types.INTEGER);
+            ps.setBoolean(5, e.priority() == Complaint_Priority.CRITICAL || e.priority() == Complaint_Priority.HIGH);
+            ps.setLong(6, e.complaintId());
+            ps.setLong(7, e.version());
+        })[0];
+
+        List<Enrichment> conflicts = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                conflicts.add(batch.get(i));
+            }
+        }
+        return conflicts;
+    }
+
+    private void retryWithoutPriority(List<Enrichment> conflicts) {
+        Map<Long, Long> versions = new HashMap<>();
+        String in = String.join(",", conflicts.stream().map(e -> "?").toList());
+        jdbcTemplate.query("SELECT id, version FROM complaints WHERE id IN (" + in + ")",
+                rs -> {
+                    versions.put(rs.getLong(1), rs.getLong(2));
+                },
+                conflicts.stream().map(Enrichment::complaintId).toArray());
+
+        List<Enrichment> retry = conflicts.stream()
+                .filter(e -> versions.containsKey(e.complaintId()))
+                .map(e -> e.withoutPriority(versions.get(e.complaintId())))
+                .toList();
+        if (retry.isEmpty()) {
+            return;
+        }
+        int lost = apply(retry).size();
+        if (lost > 0) {
+            log.warn("Complaint enrichment skipped for {} complaints under concurrent modification", lost);
+        }
+    }
+}
@@ -1,16 +1,18 @@
 package com.expensemanagement.services;
 
+import com.expensemanagement.dto.ComplaintDTO;
+import com.expensemanagement.dto.CursorPage;
 import com.expensemanagement.entities.Complaint;
 import com.expensemanagement.entities.Complaint_Status;
 import com.expensemanagement.entities.Complaint_Priority;
-import com.expensemanagement.entities.Complaint_Sentiment;
-import com.expensemanagement.entities.Complaint_Department;
 import com.expensemanagement.entities.User;
 import com.expensemanagement.repository.ComplaintRepository;
+import com.expensemanagement.scheduler.ComplaintScheduler;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -19,7 +21,10 @@ import java.util.stream.Collectors;
 public class ComplaintService {
 
     private final ComplaintRepository complaintRepository;
-    private final ComplaintAIService complaintAIService;
+    private final ComplaintEnrichmentService complaintEnrichmentService;
+    private final ComplaintScheduler complaintScheduler;
+
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Transactional
     public com.expensemanagement.dto.ComplaintDTO createComplaint(User user, Complaint complaint) {
@@ -33,40 +38,14 @@ public class ComplaintService {
         complaint.setStatus(Complaint_Status.SUBMITTED);
 
         Complaint saved = complaintRepository.save(complaint);
+        complaintScheduler.track(saved.getId(), saved.getCreatedAt());
 
-        // 2. AI Analysis (Non-blocking)
-        triggerAIAnalysis(saved);
+        // 2. AI Analysis (Non-blocking, applied as one UPDATE once all verdicts are in)
+        complaintEnrichmentService.enrich(saved);
 
         return convertToDTO(saved);
     }
 
-    private void triggerAIAnalysis(Complaint complaint) {
-        complaintAIService.detectPriority(complaint.getTitle(), complaint.getDescription())
-                .thenAccept(p -> updateField(complaint.getId(), c -> {
-                    c.setPriority(p);
-                    if (p == Complaint_Priority.CRITICAL || p == Complaint_Priority.HIGH) {
-                        c.setStatus(Complaint_Status.UNDER_REVIEW);
-                    }
-                }));
-
-        complaintAIService.detectSentiment(complaint.getTitle(), complaint.getDescription())
-                .thenAccept(s -> updateField(complaint.getId(), c -> c.setSentiment(s)));
-
-        complaintAIService.classifyDepartment(complaint.getTitle(), complaint.getDescription())
-                .thenAccept(d -> updateField(complaint.getId(), c -> c.setAssignedDepartment(d)));
-
-        complaintAIService.detectRiskScore(complaint.getTitle(), complaint.getDescription())
-                .thenAccept(score -> updateField(complaint.getId(), c -> c.setRiskScore(score)));
-    }
-
-    @Transactional
-    public void updateField(Long id, java.util.function.Consumer<Complaint> updater) {
-        complaintRepository.findById(id).ifPresent(c -> {
-            updater.accept(c);
-            complaintRepository.save(c);
-        });
-    }
-
     private boolean isDuplicate(User user, String title, String desc) {
         List<Complaint> recent = complaintRepository.findTop10ByCreatedByOrderByCreatedAtDesc(user);
         String combined = (title + " " + desc).toLowerCase();
@@ -87,25 +66,36 @@ public class ComplaintService {
         return (double) common / Math.max(words1.size(), words2.size());
     }
 
+    // ── keyset listings: newest first, cursor = (createdAt, id) of the last row ──
+
     @Transactional(readOnly = true)
-    public List<com.expensemanagement.dto.ComplaintDTO> getUserComplaints(User user) {
-        return complaintRepository.findByCreatedBy(user).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<ComplaintDTO> getUserComplaints(User user, ComplaintDTO.Filter filter, String cursor, int size) {
+        return slice(null, user.getId(), filter, cursor, size);
     }
 
     @Transactional(readOnly = true)
-    public List<com.expensemanagement.dto.ComplaintDTO> getManagerComplaints() {
-        return complaintRepository.findByRoleLevel("USER").stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<ComplaintDTO> getManagerComplaints(ComplaintDTO.Filter filter, String cursor, int size) {
+        return slice("USER", null, filter, cursor, size);
     }
 
     @Transactional(readOnly = true)
-    public List<com.expensemanagement.dto.ComplaintDTO> getAdminComplaints() {
-        return complaintRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<ComplaintDTO> getAdminComplaints(ComplaintDTO.Filter filter, String cursor, int size) {
+        return slice(null, null, filter, cursor, size);
+    }
+
+    private CursorPage<ComplaintDTO> slice(String roleLevel, Long createdById, ComplaintDTO.Filter filter,
+            String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        LocalDateTime beforeTs = null;
+        Long beforeId = null;
+        if (cursor != null) {
+            String[] parts = CursorPage.decode(cursor, 2);
+            beforeTs = LocalDateTime.parse(parts[0]);
+            beforeId = Long.parseLong(parts[1]);
+        }
+        List<ComplaintDTO> rows = complaintRepository.findSlice(roleLevel, createdById, filter,
+                beforeTs, beforeId, pageSize + 1);
+        return CursorPage.of(rows, pageSize, c -> CursorPage.encode(c.getCreatedAt(), c.getId()));
     }
 
     @Transactional
@@ -140,8 +130,7 @@ public class ComplaintService {
 
     @Transactional(readOnly = true)
     public List<com.expensemanagement.dto.ComplaintDTO> getComplaintsByStatus(List<Complaint_Status> statuses) {
-        return complaintRepository.findAll().stream()
-                .filter(c -> statuses.contains(c.getStatus()))
+        return complaintRepository.findByStatusIn(statuses).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
@@ -0,0 +1,71 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.entities.Approval_Status;
+import com.expensemanagement.entities.Expense;
+
+import java.time.LocalDate;
+
+/**
+ * Published whenever an expense is created, edited, deleted or changes
+ * status, so read-side caches can drop what they hold for the owner and
+ * the owner's team. Listeners should react after commit.
+ *
+ * <p>
+ * When the publisher knows what the expense counted for before and after
+ * the change, {@link #before} and {@link #after} carry it (a null side means
+ * the expense did not exist), so per-user aggregates can apply a delta
+ * instead of rebuilding. Both are null when the change is not known.
+ */
+public record ExpenseChangedEvent(Long expenseId, Long userId, Long teamId, Spend before, Spend after) {
+
+    /** The fields of an expense that user aggregates are keyed on. */
+    public record Spend(double amount, String category, Approval_Status status, LocalDate date) {
+
+        public static Spend of(Expense expense) {
+            return new Spend(expense.getAmount(), expense.getCategory(), expense.getStatus(), expense.getDate());
+        }
+
+        public Spend withStatus(Approval_Status status) {
+            return new Spend(amount, category, status, date);
+        }
+    }
+
+    public ExpenseChangedEvent(Long expenseId, Long userId, Long teamId) {
+        this(expenseId, userId, teamId, null, null);
+    }
+
+    /** Whether {@link #before} and {@link #after} describe the change. */
+    public boolean hasDelta() {
+        return before != null || after != null;
+    }
+
+    /** A change whose effect on the aggregates is not known. */
+    public static ExpenseChangedEvent of(Expense expense) {
+        return changed(expense, null, null);
+    }
+
+    /** {@code expense} was created. */
+    public static ExpenseChangedEvent created(Expense expense) {
+        return changed(expense, null, Spend.of(expense));
+    }
+
+    /** {@code expense} was deleted. */
+    public static ExpenseChangedEvent deleted(Expense expense) {
+        return changed(expense, Spend.of(expense), null);
+    }
+
+    /** {@code expense} counted as {@code before} until this change. */
+    public static ExpenseChangedEvent changed(Spend before, Expense expense) {
+        return changed(expense, before, Spend.of(expense));
+    }
+
+    private static ExpenseChangedEvent changed(Expense expense, Spend before, Spend after) {
+        Long userId = null;
+        Long teamId = null;
+        if (expense.getUser() != null) {
+            userId = expense.getUser().getId();
+            teamId = expense.getUser().getTeam() != null ? expense.getUser().getTeam().getId() : null;
+        }
+        return new ExpenseChangedEvent(expense.getId(), userId, teamId, before, after);
+    }
+}
@@ -0,0 +1,201 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.dto.CursorPage;
+import com.expensemanagement.dto.ExpenseSummaryDTO;
+import com.expensemanagement.entities.Approval_Status;
+import com.expensemanagement.repository.ExpenseRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset-paginated expense listings for users, managers and admins, next to
+ * the OFFSET-based page endpoints.
+ *
+ * <ul>
+ * <li>Rows come from the same joined projection as the page API
+ * ({@link ExpenseRepository#SUMMARY}), ordered by (date DESC, id DESC) and
+ * sought past the cursor, so every slice costs the same at any depth. Scopes
+ * are served by {@code idx_expense_user_date}, {@code idx_expense_user_status_date},
+ * {@code idx_expense_status_date} and {@code idx_expense_date_id}.
+ * <li>Undated expenses (legacy rows) follow all dated ones, ordered by id; the
+ * cursor's empty date marks that segment.
+ * <li>No COUNT runs per slice. When a total is asked for it comes from per-scope
+ * status counts, cached and dropped on {@link ExpenseChangedEvent}.
+ * </ul>
+ */
+@Service
+public class ExpenseListingService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String ALL = "all";
+
+    /** Which rows a listing covers; the scope id is the user or team id. */
+    public enum Scope {
+        ALL, USER, TEAM
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ExpenseRepository expenseRepository;
+    private final Cache<String, StatusCounts> counts;
+
+    public ExpenseListingService(ExpenseRepository expenseRepository,
+            @Value("${app.expense-listing.count-ttl-seconds:300}") long countTtlSeconds) {
+        this.expenseRepository = expenseRepository;
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(countTtlSeconds))
+                .maximumSize(50_000)
+                .build();
+    }
+
+    /**
+     * @param scopeId   user or team id; ignored for {@link Scope#ALL}
+     * @param status    only this status, or {@code null} for all
+     * @param withTotal also return the number of matching rows
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ExpenseSummaryDTO> list(Scope scope, Long scopeId, Approval_Status status, String cursor,
+            int size, boolean withTotal) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        LocalDate afterDate = null;
+        Long afterId = null;
+        boolean undated = false;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorPage.decode(cursor, 2);
+            try {
+                undated = parts[0].isEmpty();
+                afterDate = undated ? null : LocalDate.parse(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        List<ExpenseSummaryDTO> fetched = new ArrayList<>(pageSize + 1);
+        if (!undated) {
+            fetched.addAll(dated(scope, scopeId, status, afterDate, afterId, pageSize + 1));
+            afterId = null;
+        }
+        if (fetched.size() <= pageSize) {
+            fetched.addAll(undated(scope, scopeId, status, afterId, pageSize + 1 - fetched.size()));
+        }
+
+        CursorPage<ExpenseSummaryDTO> page = CursorPage.of(fetched, pageSize,
+                e -> CursorPage.encode(e.date() != null ? e.date() : "", e.id()));
+        return withTotal ? page.withTotal(total(scope, scopeId, status)) : page;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        counts.invalidate(ALL);
+        if (event.userId() != null) {
+            counts.invalidate(key(Scope.USER, event.userId()));
+        }
+        if (event.teamId() != null) {
+            counts.invalidate(key(Scope.TEAM, event.teamId()));
+        }
+    }
+
+    // ── seek queries ───────────────────────────────────────────────────────────
+
+    private List<ExpenseSummaryDTO> dated(Scope scope, Long scopeId, Approval_Status status, LocalDate afterDate,
+            Long afterId, int limit) {
+        StringBuilder where = where(scope, status).append(" AND e.date IS NOT NULL");
+        if (afterDate != null) {
+            where.append(" AND (e.date < :afterDate OR (e.date = :afterDate AND e.id < :afterId))");
+        }
+        TypedQuery<ExpenseSummaryDTO> q = query(where.append(" ORDER BY e.date DESC, e.id DESC"), scope, scopeId,
+                status, limit);
+        if (afterDate != null) {
+            q.setParameter("afterDate", afterDate).setParameter("afterId", afterId);
+        }
+        return q.getResultList();
+    }
+
+    private List<ExpenseSummaryDTO> undated(Scope scope, Long scopeId, Approval_Status status, Long afterId,
+            int limit) {
+        StringBuilder where = where(scope, status).append(" AND e.date IS NULL");
+        if (afterId != null) {
+            where.append(" AND e.id < :afterId");
+        }
+        TypedQuery<ExpenseSummaryDTO> q = query(where.append(" ORDER BY e.id DESC"), scope, scopeId, status, limit);
+        if (afterId != null) {
+            q.setParameter("afterId", afterId);
+        }
+        return q.getResultList();
+    }
+
+    private StringBuilder where(Scope scope, Approval_Status status) {
+        StringBuilder where = new StringBuilder(ExpenseRepository.SUMMARY).append("WHERE 1 = 1");
+        switch (scope) {
+            case USER -> where.append(" AND u.id = :scopeId");
+            case TEAM -> where.append(" AND t.id = :scopeId");
+            case ALL -> {
+            }
+        }
+        if (status != null) {
+            where.append(" AND e.status = :status");
+        }
+        return where;
+    }
+
+    private TypedQuery<ExpenseSummaryDTO> query(StringBuilder jpql, Scope scope, Long scopeId,
+            Approval_Status status, int limit) {
+        TypedQuery<ExpenseSummaryDTO> q = entityManager.createQuery(jpql.toString(), ExpenseSummaryDTO.class)
+                .setMaxResults(limit);
+        if (scope != Scope.ALL) {
+            q.setParameter("scopeId", scopeId);
+        }
+        if (status != null) {
+            q.setParameter("status", status);
+        }
+        return q;
+    }
+
+    // ── counts ─────────────────────────────────────────────────────────────────
+
+    private long total(Scope scope, Long scopeId, Approval_Status status) {
+        StatusCounts c = counts.get(key(scope, scopeId), k -> {
+            List<Object[]> rows = switch (scope) {
+                case USER -> expenseRepository.countByUserGroupedByStatus(scopeId);
+                case TEAM -> expenseRepository.countByTeamGroupedByStatus(scopeId);
+                case ALL -> expenseRepository.countGroupedByStatus();
+            };
+            Map<Approval_Status, Long> byStatus = new EnumMap<>(Approval_Status.class);
+            long all = 0;
+            for (Object[] row : rows) {
+                long n = ((Number) row[1]).longValue();
+                all += n;
+                if (row[0] != null) {
+                    byStatus.put((Approval_Status) row[0], n);
+                }
+            }
+            return new StatusCounts(byStatus, all);
+        });
+        return status != null ? c.byStatus().getOrDefault(status, 0L) : c.all();
+    }
+
+    private record StatusCounts(Map<Approval_Status, Long> byStatus, long all) {
+    }
+
+    private static String key(Scope scope, Long scopeId) {
+        return scope == Scope.ALL ? ALL : scope.name() + ":" + scopeId;
+    }
+}
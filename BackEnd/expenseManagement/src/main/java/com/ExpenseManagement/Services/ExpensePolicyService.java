@@ -3,6 +3,7 @@ package com.expensemanagement.services;
 import com.expensemanagement.entities.ExpensePolicy;
 import com.expensemanagement.repository.ExpensePolicyRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,6 +13,7 @@ import java.util.List;
 public class ExpensePolicyService {
 
     private final ExpensePolicyRepository policyRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<ExpensePolicy> getAllPolicies() {
         return policyRepository.findAll();
@@ -26,6 +28,7 @@ public class ExpensePolicyService {
 
     public ExpensePolicy createPolicy(ExpensePolicy policy) {
         ExpensePolicy saved = policyRepository.save(policy);
+        eventPublisher.publishEvent(new PolicyChangedEvent(saved.getId()));
         notificationService.notifyRole(
                 com.expensemanagement.entities.Role.MANAGER,
                 "New Policy Created",
@@ -44,11 +47,14 @@ public class ExpensePolicyService {
             policy.setRequiresReceipt(updatedPolicy.isRequiresReceipt());
             policy.setActive(updatedPolicy.isActive());
             policy.setAllowedCategories(updatedPolicy.getAllowedCategories());
-            return policyRepository.save(policy);
+            ExpensePolicy saved = policyRepository.save(policy);
+            eventPublisher.publishEvent(new PolicyChangedEvent(saved.getId()));
+            return saved;
         }).orElseThrow(() -> new RuntimeException("Policy not found"));
     }
 
     public void deletePolicy(Long id) {
         policyRepository.deleteById(id);
+        eventPublisher.publishEvent(new PolicyChangedEvent(id));
     }
 }
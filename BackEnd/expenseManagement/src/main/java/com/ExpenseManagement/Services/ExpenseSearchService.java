@@ -0,0 +1,179 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.dto.CursorPage;
+import com.expensemanagement.dto.ExpenseSummaryDTO;
+import com.expensemanagement.entities.Role;
+import com.expensemanagement.entities.User;
+import com.expensemanagement.repository.ExpenseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Ranked full-text search over expense title, category and description.
+ *
+ * <ul>
+ * <li>{@code expense.search_vector} is a STORED generated {@code tsvector}
+ * (title weighted A, category B, description C), so Postgres maintains it on
+ * every write with no application code involved. A GIN index serves matches.
+ * <li>Each query word is matched as a prefix ({@code word:*}); when
+ * {@code pg_trgm} is available, a trigram index on {@code lower(title)} adds
+ * infix matches ("ber" → "Uber") for queries of 3+ characters.
+ * <li>The full-text and trigram matches are separate UNION branches, so
+ * each is served by its own index instead of an OR that can degrade to a
+ * scan. Role scoping applies to both.
+ * <li>Ranking has to look at every candidate, so only the newest
+ * {@code app.expense-search.max-matches} matching expenses are ranked;
+ * older matches are reachable by narrowing the query. A page therefore costs
+ * at most that many {@code ts_rank_cd} calls, at any depth, plus the keyset
+ * filter on (rank, id) over them.
+ * <li>The page is returned as {@link ExpenseSummaryDTO}s from one joined
+ * projection; no entity is loaded.
+ * </ul>
+ */
+@Slf4j
+@Service
+public class ExpenseSearchService implements CommandLineRunner {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MIN_TRIGRAM_LENGTH = 3;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final ExpenseRepository expenseRepository;
+    private final int maxMatches;
+
+    private volatile boolean trigramEnabled;
+
+    public ExpenseSearchService(NamedParameterJdbcTemplate jdbc, ExpenseRepository expenseRepository,
+            @Value("${app.expense-search.max-matches:1000}") int maxMatches) {
+        this.jdbc = jdbc;
+        this.expenseRepository = expenseRepository;
+        this.maxMatches = maxMatches;
+    }
+
+    // ── schema ─────────────────────────────────────────────────────────────────
+
+    @Override
+    public void run(String... args) {
+        var ops = jdbc.getJdbcOperations();
+        try {
+            ops.execute("ALTER TABLE expense ADD COLUMN IF NOT EXISTS search_vector tsvector " +
+                    "GENERATED ALWAYS AS (" +
+                    "setweight(to_tsvector('simple', coalesce(title, '')), 'A') || " +
+                    "setweight(to_tsvector('simple', coalesce(category, '')), 'B') || " +
+                    "setweight(to_tsvector('simple', coalesce(description, '')), 'C')) STORED");
+            ops.execute("CREATE INDEX IF NOT EXISTS idx_expense_search ON expense USING gin (search_vector)");
+            log.info("EXPENSE-SEARCH: Full-text index ready.");
+        } catch (Exception e) {
+            log.error("EXPENSE-SEARCH: Could not prepare full-text index: {}", e.getMessage());
+        }
+        try {
+            ops.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            ops.execute("CREATE INDEX IF NOT EXISTS idx_expense_title_trgm ON expense " +
+                    "USING gin (lower(title) gin_trgm_ops)");
+            trigramEnabled = true;
+        } catch (Exception e) {
+            log.warn("EXPENSE-SEARCH: pg_trgm unavailable, infix matching disabled: {}", e.getMessage());
+        }
+    }
+
+    // ── search ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Best matches first. ADMIN sees everything, MANAGER their own and their
+     * team's expenses, USER only their own.
+     */
+    public CursorPage<ExpenseSummaryDTO> search(String query, User user, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        String tsQuery = toPrefixQuery(query);
+        if (tsQuery.isEmpty()) {
+            return new CursorPage<>(List.of(), null, false);
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("q", tsQuery)
+                .addValue("maxMatches", maxMatches)
+                .addValue("limit", pageSize + 1);
+        StringBuilder sql = new StringBuilder("WITH q AS (SELECT to_tsquery('simple', :q) AS query), " +
+                "matches AS (SELECT e.id FROM expense e, q WHERE e.search_vector @@ q.query");
+        appendScope(sql, params, user);
+        String trimmed = query.trim().toLowerCase(Locale.ROOT);
+        if (trigramEnabled && trimmed.length() >= MIN_TRIGRAM_LENGTH) {
+            sql.append(" UNION SELECT e.id FROM expense e WHERE lower(e.title) LIKE :pattern");
+            appendScope(sql, params, user);
+            params.addValue("pattern", "%" + escapeLike(trimmed) + "%");
+        }
+        sql.append(" ORDER BY id DESC LIMIT :maxMatches) " +
+                "SELECT id, rank FROM (" +
+                "SELECT e.id, ts_rank_cd(e.search_vector, q.query) AS rank " +
+                "FROM expense e JOIN matches m ON m.id = e.id, q) ranked");
+        if (cursor != null) {
+            String[] parts = CursorPage.decode(cursor, 2);
+            sql.append(" WHERE (rank < CAST(:afterRank AS real) " +
+                    "OR (rank = CAST(:afterRank AS real) AND id < :afterId))");
+            params.addValue("afterRank", Float.parseFloat(parts[0]));
+            params.addValue("afterId", Long.parseLong(parts[1]));
+        }
+        sql.append(" ORDER BY rank DESC, id DESC LIMIT :limit");
+
+        List<Long> ids = new ArrayList<>();
+        Map<Long, Float> ranks = new HashMap<>();
+        jdbc.query(sql.toString(), params, rs -> {
+            long id = rs.getLong(1);
+            ids.add(id);
+            ranks.put(id, rs.getFloat(2));
+        });
+
+        // Hydrate the page in one query and restore rank order
+        Map<Long, ExpenseSummaryDTO> byId = new HashMap<>();
+        if (!ids.isEmpty()) {
+            expenseRepository.findSummariesByIds(ids).forEach(e -> byId.put(e.id(), e));
+        }
+        List<ExpenseSummaryDTO> ordered = ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+
+        return CursorPage.of(ordered, pageSize, e -> CursorPage.encode(ranks.get(e.id()), e.id()));
+    }
+
+    private static void appendScope(StringBuilder sql, MapSqlParameterSource params, User user) {
+        if (user.getRole() == Role.ADMIN) {
+            return;
+        }
+        if (user.getRole() == Role.MANAGER && user.getTeam() != null) {
+            // Manager's own expenses plus those of their team members
+            sql.append(" AND (e.user_id = :userId OR e.user_id IN " +
+                    "(SELECT u.id FROM users u WHERE u.team_id = :teamId))");
+            params.addValue("teamId", user.getTeam().getId());
+        } else {
+            sql.append(" AND e.user_id = :userId");
+        }
+        params.addValue("userId", user.getId());
+    }
+
+    /** "uber  taxi!" → "uber:* &amp; taxi:*"; anything but letters/digits is dropped. */
+    static String toPrefixQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        List<String> terms = new ArrayList<>();
+        for (String word : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                terms.add(word + ":*");
+            }
+        }
+        return String.join(" & ", terms);
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
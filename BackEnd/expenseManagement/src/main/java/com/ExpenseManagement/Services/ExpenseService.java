@@ -21,7 +21,10 @@ public interface ExpenseService {
         public List<Expense> getbymonthandyear(int month, int year);
 
         // User Specific
-        public org.springframework.data.domain.Page<Expense> getUserExpenses(com.expensemanagement.entities.User user,
+        /** List view of the user's expenses; {@code status} may be null for all. */
+        public org.springframework.data.domain.Page<com.expensemanagement.dto.ExpenseSummaryDTO> getUserExpenses(
+                        com.expensemanagement.entities.User user,
+                        com.expensemanagement.entities.Approval_Status status,
                         org.springframework.data.domain.Pageable pageable);
 
         public Double getUserTotalSpent(com.expensemanagement.entities.User user);
@@ -39,7 +42,9 @@ public interface ExpenseService {
 
         public com.expensemanagement.entities.Expense rejectExpense(Long id, String role);
 
-        public List<Expense> searchExpenses(String query, com.expensemanagement.entities.User user);
+        public com.expensemanagement.dto.CursorPage<com.expensemanagement.dto.ExpenseSummaryDTO> searchExpenses(
+                        String query,
+                        com.expensemanagement.entities.User user, String cursor, int size);
 
         public Expense saveDraft(Expense expense);
 
@@ -1,11 +1,16 @@
 package com.expensemanagement.services;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import com.expensemanagement.dto.AIDTOs;
+import com.expensemanagement.dto.CursorPage;
+import com.expensemanagement.dto.ExpenseSummaryDTO;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -43,6 +48,13 @@ public class ExpenseServiceImple implements ExpenseService {
     private final VendorAnalyticsService vendorAnalyticsService;
     private final ConfidenceScoreService confidenceScoreService;
     private final VendorService userVendorService;
+    private final ExpenseSearchService expenseSearchService;
+    private final TypeaheadService typeaheadService;
+    private final ExpenseStateMachine stateMachine;
+    private final ApprovalInboxService approvalInboxService;
+    private final FraudDetectionService fraudDetectionService;
+    private final VendorResolver vendorResolver;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ── basic reads ───────────────────────────────────────────────────────────
 
@@ -69,6 +81,15 @@ public class ExpenseServiceImple implements ExpenseService {
         if (expense == null) {
             throw new IllegalArgumentException("Expense cannot be null");
         }
+        return submit(expense, null);
+    }
+
+    /**
+     * @param draft what the expense counted as while it was a stored draft;
+     *              null for a new expense or when not known
+     */
+    private Expense submit(Expense expense, ExpenseChangedEvent.Spend draft) {
+        boolean created = expense.getId() == null;
 
         // Feature 4: Freeze period check (skip for ADMIN role submissions)
         boolean isAdminSubmission = expense.getUser() != null &&
@@ -123,7 +144,12 @@ public class ExpenseServiceImple implements ExpenseService {
             }
         }
 
+        // Canonical vendor, so spellings of one merchant aggregate together
+        expense.setVendorId(vendorResolver.resolveId(expense.getVendorName()));
+
         Expense saved = expenseRepository.save(expense);
+        slaService.track(saved);
+        typeaheadService.record(saved);
 
         // Feature 17: Audit Log
         auditLogService.log("EXPENSE", saved.getId(), "SUBMITTED",
@@ -170,7 +196,7 @@ public class ExpenseServiceImple implements ExpenseService {
         // Feature 10: Policy Evaluation (Directly affects stage)
         if (policyService.evaluatePolicies(expense)) {
             saved.setApprovalStage("ADMIN"); // Escalation
-            expenseRepository.save(saved);
+            saved = expenseRepository.save(saved); // carries the bumped @Version
             log.info("Expense #{} escalated to ADMIN due to policy breach", saved.getId());
         }
 
@@ -180,9 +206,18 @@ public class ExpenseServiceImple implements ExpenseService {
         // User-Specific Vendor Tracking
         userVendorService.trackVendor(saved.getVendorName(), saved.getAmount(), saved.getUser());
 
+        // Fraud rules: sliding-window checks, flags stored on the expense. Stamped
+        // here, after the blocking duplicate check, so windows see submissions in
+        // the order they are screened
+        saved.setSubmittedAt(java.time.LocalDateTime.now());
+        fraudDetectionService.screen(saved);
+
         // Feature 16: Confidence Score
         saved.setConfidenceScore((double) confidenceScoreService.calculateScore(saved).getScore());
-        expenseRepository.save(saved);
+        saved = expenseRepository.save(saved);
+        approvalInboxService.refreshAfterCommit(saved.getId());
+        eventPublisher.publishEvent(created ? ExpenseChangedEvent.created(saved)
+                : draft != null ? ExpenseChangedEvent.changed(draft, saved) : ExpenseChangedEvent.of(saved));
 
         return saved;
     }
@@ -190,9 +225,11 @@ public class ExpenseServiceImple implements ExpenseService {
     // Feature 4: Save as Draft
     @Override
     public Expense saveDraft(Expense expense) {
+        boolean created = expense.getId() == null;
         expense.setStatus(Approval_Status.DRAFT);
         expense.setDraft(true);
         Expense saved = expenseRepository.save(expense);
+        eventPublisher.publishEvent(created ? ExpenseChangedEvent.created(saved) : ExpenseChangedEvent.of(saved));
 
         auditLogService.log("EXPENSE", saved.getId(), "DRAFT_SAVED",
                 saved.getUser() != null ? saved.getUser().getName() : "SYSTEM",
@@ -209,7 +246,7 @@ public class ExpenseServiceImple implements ExpenseService {
         if (expense.getStatus() != Approval_Status.DRAFT) {
             throw new IllegalStateException("Only drafts can be submitted");
         }
-        return saveExpense(expense);
+        return submit(expense, ExpenseChangedEvent.Spend.of(expense));
     }
 
     // ── crud ──────────────────────────────────────────────────────────────────
@@ -218,6 +255,8 @@ public class ExpenseServiceImple implements ExpenseService {
         Optional<Expense> getexpense = expenseRepository.findById(id);
         if (getexpense.isPresent()) {
             expenseRepository.deleteById(id);
+            approvalInboxService.refreshAfterCommit(id);
+            eventPublisher.publishEvent(ExpenseChangedEvent.deleted(getexpense.get()));
             auditLogService.log("EXPENSE", id, "DELETED", "UNKNOWN", "ADMIN", "Soft delete simulated");
             return true;
         }
@@ -228,6 +267,7 @@ public class ExpenseServiceImple implements ExpenseService {
         Optional<Expense> result = expenseRepository.findById(id);
         if (result.isPresent()) {
             Expense expenseToUpdate = result.get();
+            ExpenseChangedEvent.Spend before = ExpenseChangedEvent.Spend.of(expenseToUpdate);
             expenseToUpdate.setAmount(expense.getAmount());
             expenseToUpdate.setTitle(expense.getTitle());
             expenseToUpdate.setDate(expense.getDate());
@@ -237,6 +277,8 @@ public class ExpenseServiceImple implements ExpenseService {
                 expenseToUpdate.setReceiptUrl(expense.getReceiptUrl());
             }
             Expense updated = expenseRepository.save(expenseToUpdate);
+            approvalInboxService.refreshAfterCommit(id);
+            eventPublisher.publishEvent(ExpenseChangedEvent.changed(before, updated));
             auditLogService.log("EXPENSE", id, "UPDATED", "OWNER", "USER", "Fields modified");
             return updated;
         }
@@ -245,8 +287,10 @@ public class ExpenseServiceImple implements ExpenseService {
 
     // ── user-specific ─────────────────────────────────────────────────────────
 
-    public Page<Expense> getUserExpenses(User user, Pageable pageable) {
-        return expenseRepository.findByUser(user, pageable);
+    public Page<ExpenseSummaryDTO> getUserExpenses(User user, Approval_Status status, Pageable pageable) {
+        return status != null
+                ? expenseRepository.findSummariesByUserAndStatus(user.getId(), status, pageable)
+                : expenseRepository.findSummariesByUser(user.getId(), pageable);
     }
 
     public Double getUserTotalSpent(User user) {
@@ -283,9 +327,9 @@ public class ExpenseServiceImple implements ExpenseService {
             }
         }
 
-        expense.setStatus(Approval_Status.APPROVED);
-        expense.setApprovalStage(role.toUpperCase());
-        Expense saved = expenseRepository.save(expense);
+        Expense saved = stateMachine.transition(id, transitionSources(role),
+                Approval_Status.APPROVED, role.toUpperCase(), null, null);
+        slaService.cancel(id);
 
         auditLogService.log("EXPENSE", id, "APPROVED", "APPROVER", role, "Approved at stage: " + role);
         return saved;
@@ -304,26 +348,24 @@ public class ExpenseServiceImple implements ExpenseService {
             }
         }
 
-        expense.setStatus(Approval_Status.REJECTED);
-        expense.setApprovalStage(role.toUpperCase());
-        Expense saved = expenseRepository.save(expense);
+        Expense saved = stateMachine.transition(id, transitionSources(role),
+                Approval_Status.REJECTED, role.toUpperCase(), null, null);
+        slaService.cancel(id);
 
         auditLogService.log("EXPENSE", id, "REJECTED", "APPROVER", role, "Rejected at stage: " + role);
         return saved;
     }
 
+    /** Managers act on fresh submissions; admins also on forwarded and legacy multi-stage ones. */
+    private static Set<Approval_Status> transitionSources(String role) {
+        return "MANAGER".equalsIgnoreCase(role)
+                ? EnumSet.of(Approval_Status.PENDING)
+                : EnumSet.of(Approval_Status.PENDING, Approval_Status.FORWARDED_TO_ADMIN,
+                        Approval_Status.APPROVED_BY_MANAGER, Approval_Status.APPROVED_BY_FINANCE);
+    }
+
     @Override
-    public List<Expense> searchExpenses(String query, User user) {
-        if (user.getRole() == Role.ADMIN) {
-            return expenseRepository.searchByKeyword(query);
-        } else if (user.getRole() == Role.MANAGER) {
-            // Include manager's own expenses and those of their team members
-            if (user.getTeam() != null) {
-                return expenseRepository.searchByKeywordAndUsers(query, user.getTeam().getMembers(), user);
-            }
-            return expenseRepository.searchByKeywordAndUser(query, user);
-        } else {
-            return expenseRepository.searchByKeywordAndUser(query, user);
-        }
+    public CursorPage<ExpenseSummaryDTO> searchExpenses(String query, User user, String cursor, int size) {
+        return expenseSearchService.search(query, user, cursor, size);
     }
 }
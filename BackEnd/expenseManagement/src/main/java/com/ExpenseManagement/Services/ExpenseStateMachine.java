@@ -0,0 +1,58 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.entities.Approval_Status;
+import com.expensemanagement.entities.Expense;
+import com.expensemanagement.exception.ExpenseConflictException;
+import com.expensemanagement.repository.ExpenseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+
+/**
+ * Approval transitions as compare-and-set UPDATEs — no read-modify-write, no
+ * row locks.
+ *
+ * <p>
+ * {@link #transition} changes the status only if it is still one of the
+ * expected ones, bumping {@code version} in the same statement. Exactly one of
+ * two racing approvers succeeds; the other gets an
+ * {@link ExpenseConflictException}, even if the expense already has the status
+ * it asked for. Retries of the same request are replayed by
+ * {@link IdempotencyService} before they get here.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExpenseStateMachine {
+
+    private final ExpenseRepository expenseRepository;
+    private final ApprovalInboxService approvalInboxService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * @return the expense after the transition; side effects (notifications,
+     *         audit, SLA) belong to the caller
+     * @throws ExpenseConflictException if the expense is no longer in one of
+     *                                  the {@code from} states
+     */
+    @Transactional
+    public Expense transition(Long id, Set<Approval_Status> from, Approval_Status to, String stage,
+            String comment, String reason) {
+        int updated = expenseRepository.transition(id, from, to, stage, comment, reason);
+        Expense current = expenseRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Expense not found"));
+        if (updated == 0) {
+            throw new ExpenseConflictException(
+                    "Expense " + id + " is " + current.getStatus() + " and can no longer be moved to " + to);
+        }
+        approvalInboxService.refreshAfterCommit(id);
+        // The previous status is only known when a single one was allowed
+        eventPublisher.publishEvent(from.size() == 1
+                ? ExpenseChangedEvent.changed(ExpenseChangedEvent.Spend.of(current).withStatus(from.iterator().next()),
+                        current)
+                : ExpenseChangedEvent.of(current));
+        return current;
+    }
+}
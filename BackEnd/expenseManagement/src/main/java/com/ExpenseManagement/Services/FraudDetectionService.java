@@ -1,15 +1,20 @@
 package com.expensemanagement.services;
 
 import com.expensemanagement.entities.Expense;
+import com.expensemanagement.entities.FraudRule;
+import com.expensemanagement.entities.Role;
+import com.expensemanagement.notification.Notification;
+import com.expensemanagement.notification.NotificationService;
 import com.expensemanagement.repository.ExpenseRepository;
+import com.expensemanagement.repository.FraudRuleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
-import java.time.DayOfWeek;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @Slf4j
@@ -17,32 +22,92 @@ import java.util.List;
 @RequiredArgsConstructor
 public class FraudDetectionService {
 
-    private final ExpenseRepository expenseRepository;
+    static final String FLAG_SEPARATOR = "; ";
 
-    public List<String> detectFraud(Expense expense) {
-        List<String> flags = new ArrayList<>();
+    private final FraudRuleEngine fraudRuleEngine;
+    private final FraudRuleRepository fraudRuleRepository;
+    private final ExpenseRepository expenseRepository;
+    private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
 
-        // Rule 1: Weekend submission for large amounts
-        if (expense.getDate() != null) {
-            DayOfWeek dow = expense.getDate().getDayOfWeek();
-            if ((dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY) && expense.getAmount() > 5000) {
-                flags.add("High-value weekend submission");
-            }
+    /**
+     * Runs a just-submitted expense through the rule engine, stores the flags
+     * on the expense (caller saves it) and alerts admins when any rule fires.
+     */
+    public List<String> screen(Expense expense) {
+        if (expense.getSubmittedAt() == null) {
+            expense.setSubmittedAt(LocalDateTime.now());
+        }
+        Long userId = expense.getUser() != null ? expense.getUser().getId() : null;
+        List<String> flags = fraudRuleEngine.onSubmitted(userId, expense.getVendorName(), expense.getAmount(),
+                expense.getDate(), expense.getSubmittedAt());
+        expense.setFraudFlags(flags.isEmpty() ? null : String.join(FLAG_SEPARATOR, flags));
+        if (!flags.isEmpty()) {
+            log.info("Fraud rules triggered for expense #{}: {}", expense.getId(), flags);
+            notificationService.notifyRole(
+                    Role.ADMIN,
+                    "Fraud Rule Triggered",
+                    "Expense '" + expense.getTitle() + "' (₹" + expense.getAmount() + ") from "
+                            + (expense.getUser() != null ? expense.getUser().getName() : "unknown") + ": "
+                            + String.join(FLAG_SEPARATOR, flags),
+                    Notification.NotificationType.WARNING,
+                    Notification.NotificationCategory.EXPENSE);
         }
+        return flags;
+    }
 
-        // Rule 2: Rapid submissions (3+ in 1 hour)
-        if (expense.getUser() != null) {
-            LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-            // This would require a specific query, for now we simulate or use a simpler
-            // check
-            // assuming a smaller window or just flagging high frequency
+    /** Flags recorded at submission plus the low-confidence check. */
+    public List<String> detectFraud(Expense expense) {
+        List<String> flags = new ArrayList<>();
+        if (expense.getFraudFlags() != null && !expense.getFraudFlags().isBlank()) {
+            flags.addAll(Arrays.asList(expense.getFraudFlags().split(FLAG_SEPARATOR)));
         }
 
-        // Rule 3: Vendor mismatch/confidence score (if integrated)
+        // Vendor mismatch/confidence score (if integrated)
         if (expense.getConfidenceScore() != null && expense.getConfidenceScore() < 40) {
             flags.add("Low AI confidence score");
         }
 
         return flags;
     }
+
+    /** Most recent expenses carrying fraud flags, newest first. */
+    public List<Expense> recentFlagged() {
+        return expenseRepository.findTop30ByFraudFlagsIsNotNullOrderByIdDesc();
+    }
+
+    // ── rule management ───────────────────────────────────────────────────────
+
+    public List<FraudRule> getRules() {
+        return fraudRuleRepository.findAll();
+    }
+
+    public FraudRule createRule(FraudRule rule, String createdBy) {
+        rule.setId(null);
+        rule.setCreatedBy(createdBy);
+        FraudRule saved = fraudRuleRepository.save(rule);
+        eventPublisher.publishEvent(new FraudRuleChangedEvent(saved.getId()));
+        return saved;
+    }
+
+    public FraudRule updateRule(Long id, FraudRule updated) {
+        return fraudRuleRepository.findById(id).map(rule -> {
+            rule.setRuleName(updated.getRuleName());
+            rule.setDescription(updated.getDescription());
+            rule.setActive(updated.isActive());
+            rule.setThresholdAmount(updated.getThresholdAmount());
+            rule.setThresholdCount(updated.getThresholdCount());
+            rule.setThresholdWindowHours(updated.getThresholdWindowHours());
+            rule.setScope(updated.getScope());
+            rule.setWeekendOnly(updated.isWeekendOnly());
+            FraudRule saved = fraudRuleRepository.save(rule);
+            eventPublisher.publishEvent(new FraudRuleChangedEvent(saved.getId()));
+            return saved;
+        }).orElseThrow(() -> new RuntimeException("Fraud rule not found"));
+    }
+
+    public void deleteRule(Long id) {
+        fraudRuleRepository.deleteById(id);
+        eventPublisher.publishEvent(new FraudRuleChangedEvent(id));
+    }
 }
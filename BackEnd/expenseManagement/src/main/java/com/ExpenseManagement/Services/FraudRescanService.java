@@ -0,0 +1,469 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.config.WorkloadClass;
+import com.expensemanagement.config.WorkloadRoutingDataSource;
+import com.expensemanagement.dto.FraudRescanProgress;
+import com.expensemanagement.entities.Expense;
+import com.expensemanagement.entities.FraudRescanJob;
+import com.expensemanagement.entities.FraudRescanPartition;
+import com.expensemanagement.entities.Role;
+import com.expensemanagement.notification.Notification;
+import com.expensemanagement.notification.NotificationService;
+import com.expensemanagement.repository.FraudRescanJobRepository;
+import com.expensemanagement.repository.FraudRescanPartitionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Re-runs the fraud rules and confidence scoring over stored expenses, e.g.
+ * after rules change.
+ *
+ * <ul>
+ * <li>The expense id range is split into {@code app.fraud-rescan.partitions}
+ * ranges, worked on by {@code app.fraud-rescan.parallelism} virtual threads
+ * drawing from the BATCH pool. Workers are capped at one below that pool's
+ * size, so the coordinator's heartbeat always finds a connection.
+ * <li>A partition reads keyset chunks in id order and writes back only the
+ * rows whose flags or score changed, as one JDBC batch committed together
+ * with the partition's checkpoint. No connection is held between chunks.
+ * <li>A cancelled or failed job, or one whose node died, resumes from the
+ * checkpoints. Progress is logged and served to admins, who are notified
+ * when a job ends.
+ * </ul>
+ * Chunks are read in id order and evaluated in submission order, so a draft
+ * submitted late is only out of order relative to other chunks; each
+ * partition first warms its windows with the submissions just before it.
+ * Drafts are skipped. A row edited while it is being scored keeps the edit
+ * (the write is conditional on the version read) and is picked up by the next
+ * re-scan; rewritten rows are re-ranked in the approval inbox after each chunk
+ * commits.
+ */
+@Slf4j
+@Service
+public class FraudRescanService {
+
+    private static final String SELECT_CHUNK = "SELECT id, user_id, vendor_name, amount, date, submitted_at, "
+            + "category, receipt_url, is_duplicate, fraud_flags, confidence_score, version FROM expense "
+            + "WHERE id > ? AND id <= ? AND draft = false ORDER BY id LIMIT ?";
+    private static final String SELECT_WARMUP = "SELECT user_id, vendor_name, amount, submitted_at FROM expense "
+            + "WHERE submitted_at >= ? AND submitted_at < ? AND id <= ? AND draft = false ORDER BY submitted_at";
+    private static final String UPDATE_RESULT = "UPDATE expense SET fraud_flags = ?, confidence_score = ?, "
+            + "version = version + 1 "
+            + "WHERE id = ? AND version = ?";
+    private static final String UPDATE_CHECKPOINT = "UPDATE fraud_rescan_partitions SET last_id = ?, "
+            + "scanned = scanned + ?, flagged = flagged + ?, updated = updated + ?, done = ? WHERE id = ?";
+
+    private record Row(long id, Long userId, String vendorName, double amount, LocalDate date,
+            LocalDateTime submittedAt, String category, String receiptUrl, boolean duplicate, String fraudFlags,
+            Double confidenceScore, long version) {
+    }
+
+    /** Windows assume time only moves forward; drafts submitted late break id order. */
+    private static final Comparator<Row> SUBMISSION_ORDER = Comparator
+            .comparing(Row::submittedAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(Row::id);
+
+    /** The job this node is working on. */
+    private static final class Run {
+        final long jobId;
+        final long startedNanos = System.nanoTime();
+        final LongAdder scanned = new LongAdder();
+        final LongAdder flagged = new LongAdder();
+        final LongAdder updated = new LongAdder();
+        volatile boolean cancelled;
+        volatile boolean failed;
+
+        Run(long jobId) {
+            this.jobId = jobId;
+        }
+
+        boolean stopped() {
+            return cancelled || failed;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FraudRescanJobRepository jobRepository;
+    private final FraudRescanPartitionRepository partitionRepository;
+    private final FraudRuleEngine fraudRuleEngine;
+    private final ConfidenceScoreService confidenceScoreService;
+    private final NotificationService notificationService;
+    private final ApprovalInboxService approvalInboxService;
+
+    @Value("${app.fraud-rescan.partitions:16}")
+    private int partitionCount;
+
+    @Value("${app.fraud-rescan.parallelism:2}")
+    private int parallelism;
+
+    @Value("${app.datasource.pools.batch.maximum-pool-size:3}")
+    private int batchPoolSize;
+
+    @Value("${app.fraud-rescan.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${app.fraud-rescan.progress-seconds:10}")
+    private int progressSeconds;
+
+    private volatile Run active;
+
+    public FraudRescanService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            FraudRescanJobRepository jobRepository, FraudRescanPartitionRepository partitionRepository,
+            FraudRuleEngine fraudRuleEngine, ConfidenceScoreService confidenceScoreService,
+            NotificationService notificationService, ApprovalInboxService approvalInboxService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.jobRepository = jobRepository;
+        this.partitionRepository = partitionRepository;
+        this.fraudRuleEngine = fraudRuleEngine;
+        this.confidenceScoreService = confidenceScoreService;
+        this.notificationService = notificationService;
+        this.approvalInboxService = approvalInboxService;
+    }
+
+    /**
+     * Starts a re-scan of every expense in the background.
+     *
+     * @throws IllegalStateException if one is already running, or there is
+     *                               nothing to scan
+     */
+    public synchronized FraudRescanProgress start(String startedBy) {
+        jobRepository.findTopByOrderByIdDesc().filter(this::isAlive).ifPresent(job -> {
+            throw new IllegalStateException("Fraud re-scan #" + job.getId() + " is already running");
+        });
+        long[] bounds = jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id) FROM expense",
+                (rs, i) -> rs.getObject(1) == null ? null : new long[] { rs.getLong(1), rs.getLong(2) });
+        if (bounds == null) {
+            throw new IllegalStateException("There are no expenses to scan");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        FraudRescanJob job = jobRepository.save(FraudRescanJob.builder()
+                .status(FraudRescanJob.Status.RUNNING)
+                .minId(bounds[0])
+                .maxId(bounds[1])
+                .startedBy(startedBy)
+                .startedAt(now)
+                .heartbeatAt(now)
+                .build());
+
+        long span = bounds[1] - bounds[0] + 1;
+        long size = Math.ceilDiv(span, Math.min(partitionCount, span));
+        List<FraudRescanPartition> partitions = new ArrayList<>();
+        for (long from = bounds[0] - 1; from < bounds[1]; from += size) {
+            partitions.add(FraudRescanPartition.builder()
+                    .jobId(job.getId())
+                    .fromId(from)
+                    .toId(Math.min(from + size, bounds[1]))
+                    .lastId(from)
+                    .build());
+        }
+        partitionRepository.saveAll(partitions);
+
+        log.info("FRAUD-RESCAN: Job #{} started by {} over ids {}..{} in {} partitions", job.getId(), startedBy,
+                bounds[0], bounds[1], partitions.size());
+        launch(job);
+        return progress(job);
+    }
+
+    /**
+     * Continues the latest job from its checkpoints.
+     *
+     * @throws IllegalStateException if it is running or already completed
+     */
+    public synchronized FraudRescanProgress resume() {
+        FraudRescanJob job = jobRepository.findTopByOrderByIdDesc()
+                .filter(j -> progress(j).isResumable())
+                .orElseThrow(() -> new IllegalStateException("There is no stopped fraud re-scan to resume"));
+        job.setStatus(FraudRescanJob.Status.RUNNING);
+        job.setHeartbeatAt(LocalDateTime.now());
+        job.setFinishedAt(null);
+        job.setError(null);
+        jobRepository.save(job);
+
+        log.info("FRAUD-RESCAN: Job #{} resumed", job.getId());
+        launch(job);
+        return progress(job);
+    }
+
+    /**
+     * Stops the job running on this node after its current chunks.
+     *
+     * @throws IllegalStateException if none is
+     */
+    public FraudRescanProgress cancel() {
+        Run run = active;
+        if (run == null) {
+            throw new IllegalStateException("No fraud re-scan is running on this node");
+        }
+        run.cancelled = true;
+        return progress();
+    }
+
+    /** Progress of the latest job, or {@code null} if there has never been one. */
+    public FraudRescanProgress progress() {
+        return jobRepository.findTopByOrderByIdDesc().map(this::progress).orElse(null);
+    }
+
+    // ── execution ─────────────────────────────────────────────────────────────
+
+    private void launch(FraudRescanJob job) {
+        Run run = new Run(job.getId());
+        active = run;
+        Thread.ofVirtual().name("fraud-rescan-" + job.getId()).start(() -> {
+            String error = null;
+            try {
+                WorkloadRoutingDataSource.within(WorkloadClass.BATCH, () -> {
+                    execute(run);
+                    return null;
+                });
+            } catch (Throwable t) {
+                Throwable cause = t instanceof java.util.concurrent.ExecutionException && t.getCause() != null
+                        ? t.getCause()
+                        : t;
+                error = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+                log.error("FRAUD-RESCAN: Job #{} failed", run.jobId, cause);
+            } finally {
+                finish(run, error);
+            }
+        });
+    }
+
+    private void execute(Run run) throws Exception {
+        List<FraudRescanPartition> pending = partitionRepository.findByJobIdOrderByFromIdAsc(run.jobId).stream()
+                .filter(p -> !p.isDone())
+                .toList();
+        List<Future<?>> futures = new ArrayList<>(pending.size());
+        int workerCount = Math.max(1, Math.min(parallelism, batchPoolSize - 1));
+        try (ExecutorService workers = Executors.newFixedThreadPool(workerCount,
+                Thread.ofVirtual().name("fraud-rescan-worker-", 0).factory())) {
+            for (FraudRescanPartition partition : pending) {
+                futures.add(workers.submit(() -> onBatchPool(() -> {
+                    try {
+                        scan(run, partition);
+                    } catch (RuntimeException e) {
+                        run.failed = true;
+                        throw e;
+                    }
+                })));
+            }
+            workers.shutdown();
+            while (!workers.awaitTermination(progressSeconds, TimeUnit.SECONDS)) {
+                heartbeat(run);
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private void scan(Run run, FraudRescanPartition partition) {
+        FraudRuleEngine.Rescan rescan = fraudRuleEngine.newRescan();
+        long lastId = partition.getLastId();
+        boolean warm = rescan.windowMillis() == 0;
+
+        while (!run.stopped()) {
+            List<Row> rows = jdbcTemplate.query(SELECT_CHUNK, (rs, i) -> row(rs), lastId, partition.getToId(),
+                    chunkSize);
+            if (!warm) {
+                warmUp(rescan, rows, lastId);
+                warm = true;
+            }
+
+            List<Object[]> changes = new ArrayList<>();
+            List<Long> changedIds = new ArrayList<>();
+            long flagged = 0;
+            for (Row row : rows.stream().sorted(SUBMISSION_ORDER).toList()) {
+                List<String> flags = rescan.evaluate(row.userId(), row.vendorName(), row.amount(), row.date(),
+                        row.submittedAt());
+                String fraudFlags = flags.isEmpty() ? null : String.join(FraudDetectionService.FLAG_SEPARATOR, flags);
+                double score = confidenceScoreService.calculateScore(toExpense(row)).getScore();
+                if (fraudFlags != null) {
+                    flagged++;
+                }
+                if (!Objects.equals(fraudFlags, row.fraudFlags()) || row.confidenceScore() == null
+                        || row.confidenceScore() != score) {
+                    changes.add(new Object[] { fraudFlags, score, row.id(), row.version() });
+                    changedIds.add(row.id());
+                }
+            }
+            rescan.evictIdle();
+
+            boolean done = rows.size() < chunkSize;
+            long checkpoint = done ? partition.getToId() : rows.get(rows.size() - 1).id();
+            long scanned = rows.size();
+            long rowsFlagged = flagged;
+            Integer updated = transactionTemplate.execute(status -> {
+                List<Long> applied = new ArrayList<>(changes.size());
+                if (!changes.isEmpty()) {
+                    int[] counts = jdbcTemplate.batchUpdate(UPDATE_RESULT, changes);
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] != 0) { // edited since the read otherwise
+                            applied.add(changedIds.get(i));
+                        }
+                    }
+                    approvalInboxService.refreshAfterCommit(applied);
+                }
+                jdbcTemplate.update(UPDATE_CHECKPOINT, checkpoint, scanned, rowsFlagged, applied.size(), done,
+                        partition.getId());
+                return applied.size();
+            });
+            run.scanned.add(scanned);
+            run.flagged.add(rowsFlagged);
+            run.updated.add(updated != null ? updated : 0);
+            lastId = checkpoint;
+            if (done) {
+                return;
+            }
+        }
+    }
+
+    /** Feeds the windows with what was submitted just before the partition's first row. */
+    private void warmUp(FraudRuleEngine.Rescan rescan, List<Row> rows, long upToId) {
+        LocalDateTime first = rows.stream().map(Row::submittedAt).filter(Objects::nonNull).findFirst().orElse(null);
+        if (first == null) {
+            return;
+        }
+        jdbcTemplate.query(SELECT_WARMUP, rs -> {
+            rescan.prime(rs.getObject("user_id", Long.class), rs.getString("vendor_name"), rs.getDouble("amount"),
+                    rs.getObject("submitted_at", LocalDateTime.class));
+        }, first.minus(Duration.ofMillis(rescan.windowMillis())), first, upToId);
+    }
+
+    private void heartbeat(Run run) {
+        jdbcTemplate.update("UPDATE fraud_rescan_jobs SET heartbeat_at = ? WHERE id = ?", LocalDateTime.now(),
+                run.jobId);
+        FraudRescanProgress p = progress();
+        if (p != null) {
+            log.info("FRAUD-RESCAN: Job #{} {}% ({}/{} partitions), {} scanned, {} flagged, {} updated, {} rows/s",
+                    run.jobId, p.percent(), p.partitionsDone(), p.partitions(), p.scanned(), p.flagged(),
+                    p.updated(), p.rowsPerSecond());
+        }
+    }
+
+    private synchronized void finish(Run run, String error) {
+        active = null;
+        try {
+            FraudRescanJob job = jobRepository.findById(run.jobId).orElseThrow();
+            job.setStatus(error != null ? FraudRescanJob.Status.FAILED
+                    : run.cancelled ? FraudRescanJob.Status.CANCELLED : FraudRescanJob.Status.COMPLETED);
+            job.setError(error);
+            job.setFinishedAt(LocalDateTime.now());
+            jobRepository.save(job);
+
+            FraudRescanProgress p = progress(job);
+            String summary = p.scanned() + " expenses scanned, " + p.flagged() + " flagged, " + p.updated()
+                    + " updated";
+            log.info("FRAUD-RESCAN: Job #{} {}: {}", run.jobId, job.getStatus(), summary);
+            notificationService.notifyRole(
+                    Role.ADMIN,
+                    "Fraud Re-scan " + job.getStatus(),
+                    "Re-scan #" + run.jobId + (error != null ? " failed (" + error + ") after " : ": ") + summary,
+                    job.getStatus() == FraudRescanJob.Status.COMPLETED ? Notification.NotificationType.SUCCESS
+                            : Notification.NotificationType.WARNING,
+                    Notification.NotificationCategory.EXPENSE);
+        } catch (RuntimeException e) {
+            log.error("FRAUD-RESCAN: Could not record the end of job #{}: {}", run.jobId, e.getMessage());
+        }
+    }
+
+    // ── helpers ───────────────────────────────────────────────────────────────
+
+    private FraudRescanProgress progress(FraudRescanJob job) {
+        List<FraudRescanPartition> partitions = partitionRepository.findByJobIdOrderByFromIdAsc(job.getId());
+        long covered = 0;
+        long total = 0;
+        long scanned = 0;
+        long flagged = 0;
+        long updated = 0;
+        int done = 0;
+        for (FraudRescanPartition p : partitions) {
+            covered += p.getLastId() - p.getFromId();
+            total += p.getToId() - p.getFromId();
+            scanned += p.getScanned();
+            flagged += p.getFlagged();
+            updated += p.getUpdated();
+            done += p.isDone() ? 1 : 0;
+        }
+        String status = job.getStatus() == FraudRescanJob.Status.RUNNING && !isAlive(job)
+                ? FraudRescanProgress.INTERRUPTED
+                : job.getStatus().name();
+
+        Run run = active;
+        Long rate = null;
+        if (run != null && run.jobId == job.getId()) {
+            double seconds = Math.max((System.nanoTime() - run.startedNanos) / 1e9, 1);
+            rate = Math.round(run.scanned.sum() / seconds);
+        }
+        double percent = total == 0 ? 100 : Math.round(covered * 1000.0 / total) / 10.0;
+        return new FraudRescanProgress(job.getId(), status, job.getStartedBy(), job.getStartedAt(),
+                job.getFinishedAt(), partitions.size(), done, scanned, flagged, updated, percent, rate,
+                job.getError());
+    }
+
+    /** Running here, or running elsewhere with a recent heartbeat. */
+    private boolean isAlive(FraudRescanJob job) {
+        if (job.getStatus() != FraudRescanJob.Status.RUNNING) {
+            return false;
+        }
+        Run run = active;
+        if (run != null && run.jobId == job.getId()) {
+            return true;
+        }
+        return job.getHeartbeatAt() != null
+                && job.getHeartbeatAt().isAfter(LocalDateTime.now().minusSeconds(6L * progressSeconds));
+    }
+
+    /** Workload routing is per thread, so each worker has to opt in. */
+    private static void onBatchPool(Runnable body) {
+        try {
+            WorkloadRoutingDataSource.within(WorkloadClass.BATCH, () -> {
+                body.run();
+                return null;
+            });
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static Row row(ResultSet rs) throws SQLException {
+        return new Row(rs.getLong("id"), rs.getObject("user_id", Long.class), rs.getString("vendor_name"),
+                rs.getDouble("amount"), rs.getObject("date", LocalDate.class),
+                rs.getObject("submitted_at", LocalDateTime.class), rs.getString("category"),
+                rs.getString("receipt_url"), rs.getBoolean("is_duplicate"), rs.getString("fraud_flags"),
+                rs.getObject("confidence_score", Double.class), rs.getLong("version"));
+    }
+
+    /** Just the fields {@link ConfidenceScoreService} looks at. */
+    private static Expense toExpense(Row row) {
+        Expense expense = new Expense();
+        expense.setAmount(row.amount());
+        expense.setDate(row.date());
+        expense.setCategory(row.category());
+        expense.setVendorName(row.vendorName());
+        expense.setReceiptUrl(row.receiptUrl());
+        expense.setDuplicate(row.duplicate());
+        return expense;
+    }
+}
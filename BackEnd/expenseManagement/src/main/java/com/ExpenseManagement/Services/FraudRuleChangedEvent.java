@@ -0,0 +1,8 @@
+package com.expensemanagement.services;
+
+/**
+ * Published when a fraud rule is created, updated or deleted so
+ * {@link FraudRuleEngine} reloads its rules after commit.
+ */
+public record FraudRuleChangedEvent(Long ruleId) {
+}
@@ -0,0 +1,345 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.config.Workload;
+import com.expensemanagement.config.WorkloadClass;
+import com.expensemanagement.entities.FraudRule;
+import com.expensemanagement.repository.ExpenseRepository;
+import com.expensemanagement.repository.FraudRuleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Real-time evaluation of {@link FraudRule} definitions against submissions.
+ *
+ * <ul>
+ * <li>Every submission is appended to an in-memory {@link SlidingWindow} for
+ * its submitter and its vendor, then checked against the compiled rules, so
+ * evaluation never queries the database.
+ * <li>A rule with a window and {@code thresholdCount} fires when that many
+ * submissions (of at least {@code thresholdAmount}, if set) fall inside the
+ * window; with a window and only {@code thresholdAmount} it fires when the
+ * window's total exceeds it; without a window it is a single-expense amount
+ * check. {@code weekendOnly} restricts a rule to weekend-dated expenses.
+ * <li>Rules are reloaded on {@link FraudRuleChangedEvent} and every
+ * {@code app.fraud.rules-refresh-seconds}. At startup the windows are
+ * replayed from recent submissions, and defaults are seeded into an empty
+ * rule table.
+ * <li>{@link #newRescan()} re-runs the rules over history for
+ * {@link FraudRescanService}.
+ * </ul>
+ * Windows are per node; a multi-node deployment sees each node's share.
+ */
+@Slf4j
+@Service
+public class FraudRuleEngine implements CommandLineRunner {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private record CompiledRule(String name, FraudRule.Scope scope, boolean weekendOnly, double thresholdAmount,
+            int thresholdCount, long windowMillis, Counter hits) {
+    }
+
+    private record RuleSet(List<CompiledRule> rules, long maxWindowMillis) {
+        static final RuleSet EMPTY = new RuleSet(List.of(), 0);
+    }
+
+    private final FraudRuleRepository fraudRuleRepository;
+    private final ExpenseRepository expenseRepository;
+    private final MeterRegistry meterRegistry;
+    private final VendorResolver vendorResolver;
+    private final int windowCapacity;
+    private final AtomicReference<RuleSet> ruleSet = new AtomicReference<>(RuleSet.EMPTY);
+    private final ConcurrentMap<Long, SlidingWindow> userWindows = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, SlidingWindow> vendorWindows = new ConcurrentHashMap<>();
+
+    public FraudRuleEngine(FraudRuleRepository fraudRuleRepository, ExpenseRepository expenseRepository,
+            MeterRegistry meterRegistry, VendorResolver vendorResolver,
+            @Value("${app.fraud.window-capacity:128}") int windowCapacity) {
+        this.fraudRuleRepository = fraudRuleRepository;
+        this.expenseRepository = expenseRepository;
+        this.meterRegistry = meterRegistry;
+        this.vendorResolver = vendorResolver;
+        this.windowCapacity = windowCapacity;
+    }
+
+    @Override
+    public void run(String... args) {
+        try {
+            seedDefaults();
+            reload();
+            replay();
+        } catch (Exception e) {
+            log.error("FRAUD-ENGINE: Startup failed (non-blocking): {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Records a submission and returns the rules it trips, formatted as
+     * {@code "RULE_NAME: detail"}; empty when none.
+     */
+    public List<String> onSubmitted(Long userId, String vendorName, double amount, LocalDate date,
+            LocalDateTime submittedAt) {
+        RuleSet set = ruleSet.get();
+        long at = submittedAt.atZone(ZONE).toInstant().toEpochMilli();
+        long retainAfter = at - set.maxWindowMillis();
+
+        SlidingWindow userWindow = userId != null ? userWindows.computeIfAbsent(userId, k -> newWindow()) : null;
+        String vendorKey = vendorKey(vendorName);
+        SlidingWindow vendorWindow = vendorKey != null ? vendorWindows.computeIfAbsent(vendorKey, k -> newWindow())
+                : null;
+        if (userWindow != null) {
+            userWindow.record(at, amount, retainAfter);
+        }
+        if (vendorWindow != null) {
+            vendorWindow.record(at, amount, retainAfter);
+        }
+
+        return evaluate(set, userWindow, vendorWindow, amount, date, at, true);
+    }
+
+    /**
+     * Starts a re-evaluation of historical submissions against the current
+     * rules. It keeps its own windows, so the live ones are left untouched, and
+     * does not count rule hits.
+     */
+    public Rescan newRescan() {
+        return new Rescan(ruleSet.get());
+    }
+
+    /**
+     * Private windows for one pass over history, fed in submission order.
+     * Not thread-safe; use one per worker.
+     */
+    public final class Rescan {
+
+        private final RuleSet set;
+        private final Map<Long, SlidingWindow> users = new HashMap<>();
+        private final Map<String, SlidingWindow> vendors = new HashMap<>();
+        private long latest = Long.MIN_VALUE;
+
+        private Rescan(RuleSet set) {
+            this.set = set;
+        }
+
+        /** Longest rule window; submissions this far back are needed to warm up. */
+        public long windowMillis() {
+            return set.maxWindowMillis();
+        }
+
+        /** Adds an earlier submission to the windows without evaluating it. */
+        public void prime(Long userId, String vendorName, double amount, LocalDateTime submittedAt) {
+            if (submittedAt != null) {
+                record(userId, vendorName, amount, submittedAt.atZone(ZONE).toInstant().toEpochMilli());
+            }
+        }
+
+        /**
+         * Same result as {@link FraudRuleEngine#onSubmitted} would have given. Without
+         * {@code submittedAt} (rows older than the column) only the
+         * single-expense rules apply.
+         */
+        public List<String> evaluate(Long userId, String vendorName, double amount, LocalDate date,
+                LocalDateTime submittedAt) {
+            if (submittedAt == null) {
+                return FraudRuleEngine.evaluate(set, null, null, amount, date, NO_TIME, false);
+            }
+            long at = submittedAt.atZone(ZONE).toInstant().toEpochMilli();
+            record(userId, vendorName, amount, at);
+            String vendorKey = vendorKey(vendorName);
+            return FraudRuleEngine.evaluate(set, userId != null ? users.get(userId) : null,
+                    vendorKey != null ? vendors.get(vendorKey) : null, amount, date, at, false);
+        }
+
+        /** Drops windows that nothing recent can fall into; call between chunks. */
+        public void evictIdle() {
+            long horizon = latest - set.maxWindowMillis();
+            users.values().removeIf(w -> w.newest() < horizon);
+            vendors.values().removeIf(w -> w.newest() < horizon);
+        }
+
+        private void record(Long userId, String vendorName, double amount, long at) {
+            if (set.maxWindowMillis() == 0) {
+                return;
+            }
+            latest = Math.max(latest, at);
+            long retainAfter = at - set.maxWindowMillis();
+            if (userId != null) {
+                users.computeIfAbsent(userId, k -> newWindow()).record(at, amount, retainAfter);
+            }
+            String vendorKey = vendorKey(vendorName);
+            if (vendorKey != null) {
+                vendors.computeIfAbsent(vendorKey, k -> newWindow()).record(at, amount, retainAfter);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRulesChanged(FraudRuleChangedEvent event) {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${app.fraud.rules-refresh-seconds:60}", timeUnit = TimeUnit.SECONDS,
+            initialDelayString = "${app.fraud.rules-refresh-seconds:60}")
+    @Workload(WorkloadClass.BACKGROUND)
+    public void refresh() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("FRAUD-ENGINE: Rule refresh failed, keeping previous rules: {}", e.getMessage());
+        }
+        // Drop windows with nothing inside the longest rule window
+        long horizon = System.currentTimeMillis() - ruleSet.get().maxWindowMillis();
+        userWindows.values().removeIf(w -> w.newest() < horizon);
+        vendorWindows.values().removeIf(w -> w.newest() < horizon);
+    }
+
+    /** Recompiles the active rules and swaps them in. */
+    public synchronized void reload() {
+        List<CompiledRule> compiled = new ArrayList<>();
+        long maxWindow = 0;
+        for (FraudRule rule : fraudRuleRepository.findByActiveTrue()) {
+            CompiledRule c = compile(rule);
+            if (c == null) {
+                log.warn("FRAUD-ENGINE: Rule '{}' has no usable thresholds, skipped", rule.getRuleName());
+                continue;
+            }
+            compiled.add(c);
+            maxWindow = Math.max(maxWindow, c.windowMillis());
+        }
+        ruleSet.set(new RuleSet(List.copyOf(compiled), maxWindow));
+        log.info("FRAUD-ENGINE: {} active rules, longest window {}h", compiled.size(),
+                TimeUnit.MILLISECONDS.toHours(maxWindow));
+    }
+
+    // ── internals ─────────────────────────────────────────────────────────────
+
+    private static List<String> evaluate(RuleSet set, SlidingWindow userWindow, SlidingWindow vendorWindow,
+            double amount, LocalDate date, long at, boolean live) {
+        boolean weekend = date != null
+                && (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY);
+        List<String> flags = null;
+        for (CompiledRule rule : set.rules()) {
+            if ((rule.weekendOnly() && !weekend) || (at == NO_TIME && rule.windowMillis() > 0)) {
+                continue;
+            }
+            String hit = check(rule, rule.scope() == FraudRule.Scope.VENDOR ? vendorWindow : userWindow, amount, at);
+            if (hit != null) {
+                if (flags == null) {
+                    flags = new ArrayList<>(2);
+                }
+                flags.add(rule.name() + ": " + hit);
+                if (live) {
+                    rule.hits().increment();
+                }
+            }
+        }
+        return flags != null ? flags : List.of();
+    }
+
+    private static String check(CompiledRule rule, SlidingWindow window, double amount, long at) {
+        if (rule.windowMillis() == 0) {
+            return amount > rule.thresholdAmount() ? "₹" + amount + " > ₹" + rule.thresholdAmount() : null;
+        }
+        if (window == null) {
+            return null;
+        }
+        long since = at - rule.windowMillis();
+        long hours = TimeUnit.MILLISECONDS.toHours(rule.windowMillis());
+        String by = rule.scope() == FraudRule.Scope.VENDOR ? "for vendor" : "by user";
+        if (rule.thresholdCount() > 0) {
+            double min = Double.isNaN(rule.thresholdAmount()) ? Double.NEGATIVE_INFINITY : rule.thresholdAmount();
+            int n = window.count(since, min);
+            return n >= rule.thresholdCount() ? n + " submissions " + by + " within " + hours + "h" : null;
+        }
+        double total = window.sum(since);
+        return total > rule.thresholdAmount() ? "₹" + total + " " + by + " within " + hours + "h" : null;
+    }
+
+    private CompiledRule compile(FraudRule rule) {
+        double amount = rule.getThresholdAmount() != null ? rule.getThresholdAmount() : Double.NaN;
+        int count = rule.getThresholdCount() != null ? rule.getThresholdCount() : 0;
+        long window = rule.getThresholdWindowHours() != null && rule.getThresholdWindowHours() > 0
+                ? TimeUnit.HOURS.toMillis(rule.getThresholdWindowHours())
+                : 0;
+        if (Double.isNaN(amount) && (count <= 0 || window == 0)) {
+            return null;
+        }
+        FraudRule.Scope scope = rule.getScope() != null ? rule.getScope() : FraudRule.Scope.USER;
+        return new CompiledRule(rule.getRuleName(), scope, rule.isWeekendOnly(), amount, count, window,
+                meterRegistry.counter("fraud.rule.hits", "rule", rule.getRuleName()));
+    }
+
+    private void replay() {
+        long maxWindow = ruleSet.get().maxWindowMillis();
+        if (maxWindow == 0) {
+            return;
+        }
+        LocalDateTime since = LocalDateTime.now().minus(java.time.Duration.ofMillis(maxWindow));
+        List<Object[]> rows = expenseRepository.findSubmissionsSince(since);
+        for (Object[] row : rows) {
+            long at = ((LocalDateTime) row[3]).atZone(ZONE).toInstant().toEpochMilli();
+            double amount = ((Number) row[2]).doubleValue();
+            long retainAfter = at - maxWindow;
+            userWindows.computeIfAbsent((Long) row[0], k -> newWindow()).record(at, amount, retainAfter);
+            String vendorKey = vendorKey((String) row[1]);
+            if (vendorKey != null) {
+                vendorWindows.computeIfAbsent(vendorKey, k -> newWindow()).record(at, amount, retainAfter);
+            }
+        }
+        log.info("FRAUD-ENGINE: Replayed {} submissions into {} user / {} vendor windows", rows.size(),
+                userWindows.size(), vendorWindows.size());
+    }
+
+    /** Seeds the two checks that used to be hard-coded when no rules exist yet. */
+    private void seedDefaults() {
+        if (fraudRuleRepository.count() > 0) {
+            return;
+        }
+        fraudRuleRepository.saveAll(List.of(
+                FraudRule.builder()
+                        .ruleName("WEEKEND_HIGH_AMOUNT")
+                        .description("High-value expense dated on a weekend")
+                        .thresholdAmount(5000.0)
+                        .weekendOnly(true)
+                        .createdBy("SYSTEM")
+                        .build(),
+                FraudRule.builder()
+                        .ruleName("RAPID_REPEAT")
+                        .description("3 or more submissions by one user within an hour")
+                        .thresholdCount(3)
+                        .thresholdWindowHours(1)
+                        .createdBy("SYSTEM")
+                        .build()));
+        log.info("FRAUD-ENGINE: Seeded default fraud rules");
+    }
+
+    private SlidingWindow newWindow() {
+        return new SlidingWindow(windowCapacity);
+    }
+
+    /** Spellings of one vendor share a window; names not yet resolved fall back to their own key. */
+    private String vendorKey(String vendorName) {
+        VendorResolver.ResolvedVendor vendor = vendorResolver.find(vendorName);
+        return vendor != null ? vendor.key() : VendorNames.normalize(vendorName);
+    }
+}
@@ -0,0 +1,87 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.exception.IdempotencyKeyReusedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Replays the first result for a repeated {@code Idempotency-Key}.
+ *
+ * <p>
+ * Keys are scoped per caller and endpoint and bound to the request payload:
+ * reusing a key with a different payload is rejected. The first request
+ * claims the key with an in-flight future and runs outside any cache lock;
+ * concurrent requests with the same key wait on that future instead of
+ * running twice. Failures are not remembered, so a retry after an error
+ * executes again. Entries live in memory for
+ * {@code app.idempotency.ttl-minutes} — across instances the conditional
+ * UPDATEs in {@link ExpenseStateMachine} still stop duplicate transitions.
+ */
+@Service
+public class IdempotencyService {
+
+    private record Entry(List<Object> payload, CompletableFuture<Object> result) {
+    }
+
+    private final ConcurrentMap<String, Entry> entries;
+
+    public IdempotencyService(@Value("${app.idempotency.ttl-minutes:1440}") long ttlMinutes,
+            @Value("${app.idempotency.max-keys:100000}") long maxKeys) {
+        Cache<String, Entry> cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .maximumSize(maxKeys)
+                .build();
+        this.entries = cache.asMap();
+    }
+
+    /**
+     * Runs {@code action} once per (scope, caller, key); without a key it always
+     * runs.
+     *
+     * @param payload the request values the action depends on
+     * @throws IdempotencyKeyReusedException if the key was used with another
+     *                                       payload
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, String caller, String key, Supplier<T> action, Object... payload) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String cacheKey = scope + "|" + caller + "|" + key.trim();
+        Entry mine = new Entry(Arrays.asList(payload), new CompletableFuture<>());
+        Entry first = entries.putIfAbsent(cacheKey, mine);
+        if (first != null) {
+            if (!first.payload().equals(mine.payload())) {
+                throw new IdempotencyKeyReusedException(
+                        "Idempotency-Key '" + key.trim() + "' was already used with a different request");
+            }
+            try {
+                return (T) first.result().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        try {
+            T result = action.get();
+            mine.result().complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            entries.remove(cacheKey, mine);
+            mine.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.dto.ManagerDashboardDTO;
+import com.expensemanagement.entities.Approval_Status;
+import com.expensemanagement.entities.Team;
+import com.expensemanagement.entities.TeamBudget;
+import com.expensemanagement.repository.ExpenseRepository;
+import com.expensemanagement.repository.TeamBudgetRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Per-team manager dashboard snapshots.
+ *
+ * <ul>
+ * <li>The independent aggregates (status counts, month spend, flagged count,
+ * flagged items, budget row) run concurrently on virtual threads, each as a
+ * single team-keyed query — no member list is loaded. At most
+ * {@code app.manager-dashboard.max-concurrent-queries} of them run at once
+ * across all builds, so cold builds cannot drain the interactive pool.
+ * <li>Flagged expenses are a projection capped at
+ * {@code app.manager-dashboard.flagged-limit}.
+ * <li>Snapshots are cached per team and dropped on {@link ExpenseChangedEvent}
+ * after commit; the TTL is only a backstop. Concurrent requests for a team
+ * share one in-flight build, and an invalidation during a build keeps its
+ * result out of the cache.
+ * </ul>
+ */
+@Slf4j
+@Service
+public class ManagerDashboardService {
+
+    private static final EnumSet<Approval_Status> COUNTED = EnumSet.of(Approval_Status.PENDING,
+            Approval_Status.FORWARDED_TO_ADMIN);
+
+    private final ExpenseRepository expenseRepository;
+    private final TeamBudgetRepository teamBudgetRepository;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AsyncCache<Long, ManagerDashboardDTO> snapshots;
+    private final int flaggedLimit;
+    private final Semaphore queryPermits;
+
+    public ManagerDashboardService(ExpenseRepository expenseRepository, TeamBudgetRepository teamBudgetRepository,
+            @Value("${app.manager-dashboard.ttl-seconds:300}") long ttlSeconds,
+            @Value("${app.manager-dashboard.flagged-limit:20}") int flaggedLimit,
+            @Value("${app.manager-dashboard.max-concurrent-queries:2}") int maxConcurrentQueries) {
+        this.expenseRepository = expenseRepository;
+        this.teamBudgetRepository = teamBudgetRepository;
+        this.flaggedLimit = flaggedLimit;
+        this.queryPermits = new Semaphore(maxConcurrentQueries);
+        this.snapshots = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(10_000)
+                .executor(executor)
+                .buildAsync();
+    }
+
+    public CompletableFuture<ManagerDashboardDTO> snapshot(Team team) {
+        return snapshots.get(team.getId(), (teamId, exec) -> build(team));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        if (event.teamId() != null) {
+            snapshots.synchronous().invalidate(event.teamId());
+        }
+    }
+
+    private CompletableFuture<ManagerDashboardDTO> build(Team team) {
+        Long teamId = team.getId();
+        LocalDate monthStart = LocalDate.now().withDayOfMonth(1);
+
+        CompletableFuture<List<Object[]>> counts = async(
+                () -> expenseRepository.countByTeamAndStatusIn(teamId, COUNTED));
+        CompletableFuture<Double> spend = async(
+                () -> expenseRepository.sumAmountByTeamBetween(teamId, monthStart, monthStart.plusMonths(1)));
+        CompletableFuture<Long> flaggedCount = async(() -> expenseRepository.countDuplicatesByTeam(teamId));
+        CompletableFuture<List<ManagerDashboardDTO.FlaggedExpense>> flagged = async(
+                () -> expenseRepository.findDuplicatesByTeam(teamId, Limit.of(flaggedLimit)).stream()
+                        .map(r -> new ManagerDashboardDTO.FlaggedExpense((Long) r[0], (String) r[1],
+                                ((Number) r[2]).doubleValue(), (LocalDate) r[3], (String) r[4],
+                                (Approval_Status) r[5]))
+                        .toList());
+        CompletableFuture<Double> budget = async(
+                () -> teamBudgetRepository.findByTeamAndMonthAndYear(team, monthStart.getMonthValue(),
+                        monthStart.getYear()).map(TeamBudget::getBudgetAmount).orElse(0.0));
+
+        return CompletableFuture.allOf(counts, spend, flaggedCount, flagged, budget).thenApply(v -> {
+            long pending = 0;
+            long forwarded = 0;
+            for (Object[] row : counts.join()) {
+                long n = ((Number) row[1]).longValue();
+                if (row[0] == Approval_Status.PENDING) {
+                    pending = n;
+                } else {
+                    forwarded = n;
+                }
+            }
+            double spent = spend.join() != null ? spend.join() : 0.0;
+            double limit = budget.join() != null ? budget.join() : 0.0;
+            ManagerDashboardDTO.BudgetStatus budgetStatus = new ManagerDashboardDTO.BudgetStatus(teamId,
+                    team.getName(), monthStart.getMonthValue(), monthStart.getYear(), limit, spent,
+                    limit > 0 && spent > limit, Math.max(0, limit - spent));
+            return new ManagerDashboardDTO(teamId, team.getName(), pending, forwarded, spent, flaggedCount.join(),
+                    flagged.join(), budgetStatus, LocalDateTime.now());
+        });
+    }
+
+    private <T> CompletableFuture<T> async(java.util.function.Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            queryPermits.acquireUninterruptibly();
+            try {
+                return query.get();
+            } finally {
+                queryPermits.release();
+            }
+        }, executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,5 +1,9 @@
 package com.expensemanagement.services;
 
+import com.expensemanagement.dto.ApprovalInboxDTO;
+import com.expensemanagement.dto.CursorPage;
+import com.expensemanagement.dto.ExpenseSummaryDTO;
+import com.expensemanagement.dto.ManagerDashboardDTO;
 import com.expensemanagement.entities.Approval_Status;
 import com.expensemanagement.entities.Expense;
 import com.expensemanagement.entities.User;
@@ -10,15 +14,22 @@ import com.expensemanagement.repository.UserRepository;
 import com.expensemanagement.notification.NotificationService;
 import com.expensemanagement.notification.Notification;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -29,6 +40,19 @@ public class ManagerService {
     private final TeamRepository teamRepository;
     private final NotificationService notificationService;
     private final TeamBudgetService teamBudgetService;
+    private final SlaService slaService;
+    private final AuditLogService auditLogService;
+    private final ExpenseStateMachine stateMachine;
+    private final ApprovalInboxService approvalInboxService;
+    private final ManagerDashboardService managerDashboardService;
+    private final ExpenseListingService expenseListingService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final Set<Approval_Status> FROM_PENDING = EnumSet.of(Approval_Status.PENDING);
+
+    private static final double BULK_APPROVAL_LIMIT = 5000;
+    /** Keeps IN lists well below the driver's bind-parameter limit. */
+    private static final int BULK_CHUNK_SIZE = 1000;
 
     // ── helpers ──────────────────────────────────────────────────────────────
 
@@ -43,18 +67,25 @@ public class ManagerService {
 
     // ── read ─────────────────────────────────────────────────────────────────
 
-    public Page<Expense> getTeamExpenses(Long managerId, Approval_Status status, Pageable pageable) {
+    public Page<ExpenseSummaryDTO> getTeamExpenses(Long managerId, Approval_Status status, Pageable pageable) {
         Team team = getTeamForManager(managerId);
         if (team == null)
             return Page.empty();
-        List<User> members = getTeamMembers(team);
-        if (members.isEmpty())
-            return Page.empty();
 
         if (status != null) {
-            return expenseRepository.findByUserInAndStatus(members, status, pageable);
+            return expenseRepository.findSummariesByTeamAndStatus(team.getId(), status, pageable);
         }
-        return expenseRepository.findByUserIn(members, pageable);
+        return expenseRepository.findSummariesByTeam(team.getId(), pageable);
+    }
+
+    /** Keyset variant of {@link #getTeamExpenses}; see {@link ExpenseListingService}. */
+    public CursorPage<ExpenseSummaryDTO> scrollTeamExpenses(Long managerId, Approval_Status status, String cursor,
+            int size, boolean withTotal) {
+        Team team = getTeamForManager(managerId);
+        if (team == null)
+            return new CursorPage<>(List.of(), null, false);
+        return expenseListingService.list(ExpenseListingService.Scope.TEAM, team.getId(), status, cursor, size,
+                withTotal);
     }
 
     public List<User> getTeamMembers(Long managerId) {
@@ -90,9 +121,9 @@ public class ManagerService {
                             "Use 'Forward to Admin' for amounts between ₹10,001–₹50,000.");
         }
 
-        expense.setStatus(Approval_Status.APPROVED);
-        expense.setApprovalStage("MANAGER");
-        Expense saved = expenseRepository.save(expense);
+        Expense saved = stateMachine.transition(expenseId, FROM_PENDING,
+                Approval_Status.APPROVED, "MANAGER", null, null);
+        slaService.cancel(expenseId);
 
         // Notify User
         notificationService.notifyUser(
@@ -110,12 +141,9 @@ public class ManagerService {
 
     @Transactional
     public Expense rejectExpense(Long expenseId, String reason) {
-        Expense expense = expenseRepository.findById(expenseId).orElseThrow();
-        expense.setStatus(Approval_Status.REJECTED);
-        expense.setRejectionReason(reason);
-        expense.setApprovalComment(reason);
-        expense.setApprovalStage("MANAGER");
-        Expense saved = expenseRepository.save(expense);
+        Expense saved = stateMachine.transition(expenseId, FROM_PENDING,
+                Approval_Status.REJECTED, "MANAGER", reason, reason);
+        slaService.cancel(expenseId);
 
         notificationService.notifyUser(
                 saved.getUser().getId(),
@@ -149,10 +177,9 @@ public class ManagerService {
                     "Expense is within manager approval limit (≤ ₹10,000). No need to forward.");
         }
 
-        expense.setStatus(Approval_Status.FORWARDED_TO_ADMIN);
-        expense.setApprovalStage("ADMIN");
-        expense.setApprovalComment(comment);
-        Expense saved = expenseRepository.save(expense);
+        Expense saved = stateMachine.transition(expenseId, FROM_PENDING,
+                Approval_Status.FORWARDED_TO_ADMIN, "ADMIN", comment, null);
+        slaService.cancel(expenseId);
 
         // Notify Admin role
         notificationService.notifyRole(
@@ -199,46 +226,16 @@ public class ManagerService {
     }
 
     /**
-     * Feature 7: Manager dashboard – returns team KPIs and budget status.
+     * Feature 7: Manager dashboard – team KPIs and budget status, served from a
+     * per-team snapshot (see ManagerDashboardService). {@code null} when the
+     * manager has no team.
      */
-    public Map<String, Object> getManagerDashboard(Long managerId) {
+    public ManagerDashboardDTO getManagerDashboard(Long managerId) {
         Team team = getTeamForManager(managerId);
-        Map<String, Object> dashboard = new HashMap<>();
-
         if (team == null) {
-            dashboard.put("error", "No team assigned to this manager");
-            return dashboard;
+            return null;
         }
-
-        List<User> members = getTeamMembers(team);
-        LocalDate now = LocalDate.now();
-
-        long pendingCount = members.isEmpty() ? 0
-                : expenseRepository.countByUserInAndStatus(members, Approval_Status.PENDING);
-
-        long forwardedCount = members.isEmpty() ? 0
-                : expenseRepository.countByUserInAndStatus(members, Approval_Status.FORWARDED_TO_ADMIN);
-
-        Double monthlySpend = members.isEmpty() ? 0.0
-                : expenseRepository.sumAmountByUserInAndMonth(members, now.getMonthValue(), now.getYear());
-        if (monthlySpend == null)
-            monthlySpend = 0.0;
-
-        List<Expense> flaggedExpenses = members.isEmpty() ? List.of()
-                : expenseRepository.findByUserInAndIsDuplicateTrue(members);
-
-        Map<String, Object> budgetStatus = teamBudgetService.getBudgetStatus(
-                team.getId(), now.getMonthValue(), now.getYear());
-
-        dashboard.put("teamId", team.getId());
-        dashboard.put("teamName", team.getName());
-        dashboard.put("pendingCount", pendingCount);
-        dashboard.put("forwardedCount", forwardedCount);
-        dashboard.put("monthlySpend", monthlySpend);
-        dashboard.put("flaggedCount", flaggedExpenses.size());
-        dashboard.put("flaggedExpenses", flaggedExpenses);
-        dashboard.put("budget", budgetStatus);
-        return dashboard;
+        return managerDashboardService.snapshot(team).join();
     }
 
     /**
@@ -262,68 +259,121 @@ public class ManagerService {
     }
 
     /**
-     * Feature 7: Returns pending expenses sorted by calculated priority score.
-     * Score = (amount * 0.4) + (daysOverdue * 0.4) + ((100-confidence) * 0.2)
+     * Feature 7: Pending team expenses, highest priority first. Scores are
+     * stored and kept current by ApprovalInboxService; this is a keyset read.
      */
-    public List<Map<String, Object>> getPriorityExpenses(Long managerId) {
+    public CursorPage<ApprovalInboxDTO> getApprovalInbox(Long managerId, String cursor, int size) {
         Team team = getTeamForManager(managerId);
         if (team == null)
-            return List.of();
-        List<User> members = getTeamMembers(team);
-        if (members.isEmpty())
-            return List.of();
-
-        List<Expense> pending = expenseRepository
-                .findByUserInAndStatus(members, Approval_Status.PENDING, Pageable.unpaged()).getContent();
-        LocalDate now = LocalDate.now();
-
-        return pending.stream().map(e -> {
-            long daysOverdue = 0;
-            if (e.getSlaDeadAt() != null) {
-                daysOverdue = java.time.Duration.between(e.getSlaDeadAt(), now.atStartOfDay()).toDays();
-                if (daysOverdue < 0)
-                    daysOverdue = 0;
-            }
-            double riskFactor = 100 - (e.getConfidenceScore() != null ? e.getConfidenceScore() : 100);
-            double priorityScore = (e.getAmount() * 0.0001 * 40) + (daysOverdue * 5) + (riskFactor * 0.2);
-
-            Map<String, Object> map = new HashMap<>();
-            map.put("expense", e);
-            map.put("priorityScore", priorityScore);
-            return map;
-        }).sorted((a, b) -> Double.compare((Double) b.get("priorityScore"), (Double) a.get("priorityScore")))
-                .toList();
+            return new CursorPage<>(List.of(), null, false);
+        return approvalInboxService.page(team.getId(), cursor, size);
     }
 
     /**
      * Feature 9: Bulk approve multiple expenses.
-     * Only for PENDING expenses < 5,000 INR.
+     * Only for PENDING expenses up to {@value #BULK_APPROVAL_LIMIT} INR.
+     *
+     * <p>
+     * Set-based: candidates are loaded in one query and validated in memory,
+     * then approved by a single guarded UPDATE per chunk. Users get one
+     * notification each, audit events go through the batched writer and the
+     * team budget is checked once at the end.
      */
     @Transactional
     public Map<String, Object> bulkApprove(List<Long> ids, Long managerId, String comment) {
-        int successCount = 0;
-        int failedCount = 0;
-        for (Long id : ids) {
-            try {
-                Expense e = expenseRepository.findById(id).orElseThrow();
-                if (e.getStatus() == Approval_Status.PENDING && e.getAmount() <= 5000) {
-                    approveExpense(id, managerId);
-                    successCount++;
+        User manager = userRepository.findById(managerId).orElseThrow();
+        Team team = teamRepository.findByManager(manager).orElseThrow();
+
+        Map<Long, String> failures = new LinkedHashMap<>();
+        List<Long> eligible = new ArrayList<>();
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        Set<Long> found = new HashSet<>();
+
+        for (List<Long> chunk : chunks(new ArrayList<>(requested))) {
+            for (Object[] row : expenseRepository.findApprovalCandidates(chunk)) {
+                Long id = (Long) row[0];
+                double amount = ((Number) row[1]).doubleValue();
+                Approval_Status status = (Approval_Status) row[2];
+                Long teamId = (Long) row[3];
+                found.add(id);
+                if (!team.getId().equals(teamId)) {
+                    failures.put(id, "Not in your team");
+                } else if (status != Approval_Status.PENDING) {
+                    failures.put(id, "Not pending (" + status + ")");
+                } else if (amount > BULK_APPROVAL_LIMIT) {
+                    failures.put(id, "Amount exceeds bulk approval limit");
                 } else {
-                    failedCount++;
+                    eligible.add(id);
                 }
-            } catch (Exception e) {
-                failedCount++;
             }
         }
+        for (Long id : requested) {
+            if (!found.contains(id)) {
+                failures.put(id, "Not found");
+            }
+        }
+
+        // Approve; the WHERE guards drop anything that changed since the load
+        Map<Long, List<String>> approvedTitlesByUser = new HashMap<>();
+        List<Long> approved = new ArrayList<>();
+        for (List<Long> chunk : chunks(eligible)) {
+            for (Object[] row : expenseRepository.approvePendingByIds(chunk, BULK_APPROVAL_LIMIT, comment)) {
+                Long id = ((Number) row[0]).longValue();
+                approved.add(id);
+                approvedTitlesByUser.computeIfAbsent(((Number) row[1]).longValue(), u -> new ArrayList<>())
+                        .add((String) row[2]);
+            }
+        }
+        Set<Long> approvedSet = new HashSet<>(approved);
+        for (Long id : eligible) {
+            if (!approvedSet.contains(id)) {
+                failures.put(id, "Changed by another action");
+            }
+        }
+
+        approvalInboxService.refreshAfterCommit(approved);
+        approvedTitlesByUser.keySet().forEach(userId -> eventPublisher.publishEvent(
+                new ExpenseChangedEvent(null, userId, team.getId())));
+        for (Long id : approved) {
+            slaService.cancel(id);
+            auditLogService.log("EXPENSE", id, "APPROVED", manager.getEmail(), "MANAGER",
+                    "Bulk approved: " + comment);
+        }
+
+        List<Notification> notifications = new ArrayList<>();
+        approvedTitlesByUser.forEach((userId, titles) -> notifications.add(Notification.builder()
+                .userId(userId)
+                .title(titles.size() == 1 ? "Expense Approved" : titles.size() + " Expenses Approved")
+                .message(titles.size() == 1
+                        ? "Your expense '" + titles.get(0) + "' was approved by your manager."
+                        : titles.size() + " of your expenses were approved by your manager.")
+                .type(Notification.NotificationType.SUCCESS)
+                .category(Notification.NotificationCategory.EXPENSE)
+                .build()));
+        notificationService.notifyUsers(notifications);
+
+        if (!approved.isEmpty()) {
+            checkAndNotifyBudget(team, managerId);
+        }
+
         Map<String, Object> result = new HashMap<>();
-        result.put("successCount", successCount);
-        result.put("failedCount", failedCount);
+        result.put("successCount", approved.size());
+        result.put("failedCount", failures.size());
+        result.put("approvedIds", approved);
+        result.put("failures", failures);
         return result;
     }
 
     // ── private utils ─────────────────────────────────────────────────────────
 
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += BULK_CHUNK_SIZE) {
+            chunks.add(ids.subList(i, Math.min(ids.size(), i + BULK_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
     private void checkAndNotifyBudget(Team team, Long managerId) {
         LocalDate now = LocalDate.now();
         try {
@@ -5,15 +5,13 @@ import com.expensemanagement.AI.OllamaService;
 import com.expensemanagement.dto.AIDTOs;
 import com.expensemanagement.entities.Expense;
 import com.expensemanagement.entities.User;
-import com.expensemanagement.repository.ExpenseRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.time.YearMonth;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -21,19 +19,20 @@ import java.util.stream.Collectors;
 public class MoodInsightService {
 
     private final AIService aiService;
-    private final ExpenseRepository expenseRepository;
+    private final SpendProfileService spendProfileService;
     private final ObjectMapper objectMapper;
 
     public CompletableFuture<AIDTOs.MoodInsight> analyzeExpense(Expense expense, User user) {
         try {
-            // Get recent spending context
-            List<Expense> recent = expenseRepository.findByUser(user).stream()
-                    .limit(5)
-                    .toList();
-
-            String recentSummary = recent.stream()
-                    .map(e -> String.format("%s (₹%.2f)", e.getTitle(), e.getAmount()))
-                    .collect(Collectors.joining(", "));
+            // Spending context from the user's cached aggregates
+            SpendProfile profile = spendProfileService.get(user != null ? user.getId() : null);
+            YearMonth month = YearMonth.now();
+            String recentSummary = String.format(
+                    "%d expenses this month totalling ₹%.2f; average expense ₹%.2f; average %s expense ₹%.2f; "
+                            + "top category %s",
+                    profile.monthCount(month), profile.monthSpend(month), profile.average(),
+                    expense.getCategory(), profile.categoryAverage(expense.getCategory()),
+                    profile.topCategory() != null ? profile.topCategory() : "N/A");
 
             String prompt = String.format(
                     "You are a financial behavior analyst.\n\n" +
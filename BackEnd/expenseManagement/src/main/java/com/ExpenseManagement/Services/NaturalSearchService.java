@@ -1,63 +1,192 @@
 package com.expensemanagement.services;
 
-import com.expensemanagement.AI.AIResponse;
 import com.expensemanagement.AI.AIService;
-import com.expensemanagement.AI.OllamaService;
 import com.expensemanagement.dto.AIDTOs;
+import com.expensemanagement.dto.CursorPage;
+import com.expensemanagement.entities.Approval_Status;
+import com.expensemanagement.entities.Category;
 import com.expensemanagement.entities.Expense;
 import com.expensemanagement.entities.User;
+import com.expensemanagement.repository.CategoryRepository;
 import com.expensemanagement.repository.ExpenseRepository;
+import com.expensemanagement.search.ExpenseQuery;
+import com.expensemanagement.search.NaturalQueryParser;
 import com.expensemanagement.security.ExpenseSpecification;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 
+/**
+ * Natural-language expense search ("rejected travel over 5k last month").
+ *
+ * <ul>
+ * <li>{@link NaturalQueryParser} compiles the text locally; the LLM is only
+ * asked about words no rule understood, and unresolved words become keyword
+ * matches instead of a full-history scan.
+ * <li>Compiled queries are cached by day + normalized text, so repeated and
+ * re-paged searches skip both parsing and the LLM. Plans produced while the
+ * LLM was unavailable are not cached.
+ * <li>Results are keyset-paginated on (date, id) over
+ * {@code idx_expense_user_date}.
+ * </ul>
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class NaturalSearchService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final AIService aiService;
     private final ExpenseRepository expenseRepository;
+    private final CategoryRepository categoryRepository;
     private final ObjectMapper objectMapper;
+    private final Cache<String, ExpenseQuery> plans;
+
+    public NaturalSearchService(AIService aiService, ExpenseRepository expenseRepository,
+            CategoryRepository categoryRepository, ObjectMapper objectMapper,
+            @Value("${app.natural-search.plan-cache-size:1000}") int planCacheSize) {
+        this.aiService = aiService;
+        this.expenseRepository = expenseRepository;
+        this.categoryRepository = categoryRepository;
+        this.objectMapper = objectMapper;
+        this.plans = Caffeine.newBuilder()
+                .maximumSize(planCacheSize)
+                .expireAfterWrite(Duration.ofDays(1))
+                .build();
+    }
+
+    public CompletableFuture<CursorPage<Expense>> search(String query, User user, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return compile(query).thenApply(plan -> run(plan, user, cursor, pageSize));
+    }
 
-    public CompletableFuture<List<Expense>> search(String query, User user) {
+    // ── compile ────────────────────────────────────────────────────────────────
+
+    private CompletableFuture<ExpenseQuery> compile(String query) {
+        LocalDate today = LocalDate.now();
+        // Relative phrases ("last month") depend on the day, so it is part of the key
+        String key = today + "|" + NaturalQueryParser.normalize(query);
+        ExpenseQuery cached = plans.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        List<String> categories = categoryRepository.findAll().stream()
+                .map(Category::getName)
+                .filter(Objects::nonNull)
+                .toList();
+        NaturalQueryParser.Result parsed = NaturalQueryParser.parse(query, today, categories);
+        if (parsed.leftovers().isEmpty()) {
+            plans.put(key, parsed.query());
+            return CompletableFuture.completedFuture(parsed.query());
+        }
+
+        String leftover = String.join(" ", parsed.leftovers());
         String prompt = String.format(
                 "Convert this natural language query into structured search filters JSON.\n" +
                         "Query: \"%s\"\n" +
                         "Return ONLY JSON with these fields: status (PENDING, APPROVED, REJECTED), category, minAmount (number), month.\n"
                         +
+                        "Use null for anything the query does not mention.\n" +
                         "Example: {\"status\": \"REJECTED\", \"category\": \"travel\", \"minAmount\": null, \"month\": \"January\"}",
-                query);
+                leftover);
 
         return aiService.ask(prompt, "natural-search")
                 .thenApply(aiResponse -> {
                     if (aiResponse.isFallback()) {
-                        log.warn("AI search fallback – performing keyword match on description");
-                        return expenseRepository.findByUser(user).stream()
-                                .filter(e -> e.getDescription() != null
-                                        && e.getDescription().toLowerCase().contains(query.toLowerCase()))
-                                .toList();
+                        log.warn("NATURAL-SEARCH: AI fallback – matching leftover words as keywords: {}", leftover);
+                        return parsed.query().withKeywords(parsed.leftovers());
                     }
-
+                    ExpenseQuery plan;
                     try {
-                        String json = extractJson(aiResponse.getResult());
-                        AIDTOs.SearchFilters filters = objectMapper.readValue(json, AIDTOs.SearchFilters.class);
-                        log.info("AI Search Filters: {}", filters);
-                        return expenseRepository.findAll(ExpenseSpecification.filterBy(filters, user));
+                        AIDTOs.SearchFilters filters = objectMapper.readValue(
+                                extractJson(aiResponse.getResult()), AIDTOs.SearchFilters.class);
+                        log.info("NATURAL-SEARCH: AI filters for \"{}\": {}", leftover, filters);
+                        plan = merge(parsed.query(), filters, today);
+                        List<String> unresolved = unresolved(parsed.leftovers(), filters);
+                        if (!unresolved.isEmpty() || plan.equals(parsed.query())) {
+                            plan = plan.withKeywords(unresolved.isEmpty() ? parsed.leftovers() : unresolved);
+                        }
                     } catch (Exception ex) {
-                        log.error("Failed to parse AI search filters: {}", ex.getMessage());
-                        return expenseRepository.findByUser(user).stream()
-                                .filter(e -> e.getDescription() != null
-                                        && e.getDescription().toLowerCase().contains(query.toLowerCase()))
-                                .toList();
+                        log.error("NATURAL-SEARCH: Failed to parse AI search filters: {}", ex.getMessage());
+                        plan = parsed.query().withKeywords(parsed.leftovers());
                     }
+                    plans.put(key, plan);
+                    return plan;
                 });
     }
 
+    /** Fills only what the local parser left open; the parser wins on conflicts. */
+    private static ExpenseQuery merge(ExpenseQuery q, AIDTOs.SearchFilters f, LocalDate today) {
+        if (q.statuses().isEmpty() && f.getStatus() != null) {
+            try {
+                Approval_Status status = Approval_Status.valueOf(f.getStatus().trim().toUpperCase(Locale.ROOT));
+                q = q.withStatuses(status == Approval_Status.APPROVED
+                        ? EnumSet.of(Approval_Status.APPROVED, Approval_Status.APPROVED_BY_MANAGER,
+                                Approval_Status.APPROVED_BY_FINANCE)
+                        : EnumSet.of(status));
+            } catch (IllegalArgumentException ignored) {
+                // unknown status from the model; leave unfiltered
+            }
+        }
+        if (q.category() == null && f.getCategory() != null && !f.getCategory().isBlank()) {
+            q = q.withCategory(f.getCategory().trim());
+        }
+        if (q.minAmount() == null && f.getMinAmount() != null) {
+            q = q.withAmounts(f.getMinAmount(), q.maxAmount());
+        }
+        if (!q.hasDates() && f.getMonth() != null) {
+            q = NaturalQueryParser.withMonth(q, f.getMonth(), today);
+        }
+        return q;
+    }
+
+    /**
+     * Leftover words the model's filters do not echo ("uber" next to a
+     * category it filled in); they stay as keywords rather than being dropped.
+     */
+    private static List<String> unresolved(List<String> leftovers, AIDTOs.SearchFilters f) {
+        String answered = (f.getStatus() + " " + f.getCategory() + " " + f.getMonth() + " " + f.getMinAmount())
+                .toLowerCase(Locale.ROOT);
+        return leftovers.stream()
+                .filter(word -> !answered.contains(word))
+                .toList();
+    }
+
+    // ── execute ────────────────────────────────────────────────────────────────
+
+    private CursorPage<Expense> run(ExpenseQuery plan, User user, String cursor, int pageSize) {
+        Specification<Expense> spec = ExpenseSpecification.filterBy(plan, user);
+        if (cursor != null) {
+            String[] parts = CursorPage.decode(cursor, 2);
+            LocalDate afterDate;
+            try {
+                afterDate = LocalDate.parse(parts[0]);
+            } catch (java.time.format.DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            spec = spec.and(ExpenseSpecification.before(afterDate, Long.parseLong(parts[1])));
+        }
+        List<Expense> fetched = expenseRepository.findBy(spec, q -> q
+                .sortBy(Sort.by(Sort.Direction.DESC, "date").and(Sort.by(Sort.Direction.DESC, "id")))
+                .limit(pageSize + 1)
+                .all());
+        return CursorPage.of(fetched, pageSize, e -> CursorPage.encode(e.getDate(), e.getId()));
+    }
+
     private String extractJson(String text) {
         int start = text.indexOf('{');
         int end = text.lastIndexOf('}');
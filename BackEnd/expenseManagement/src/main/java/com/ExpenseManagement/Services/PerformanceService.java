@@ -1,5 +1,8 @@
 package com.expensemanagement.services;
 
+import com.expensemanagement.config.Workload;
+import com.expensemanagement.config.WorkloadClass;
+import com.expensemanagement.config.ReadReplica;
 import com.expensemanagement.dto.Performance.TeamPerformanceDTO;
 import com.expensemanagement.entities.Approval_Status;
 import com.expensemanagement.entities.Team;
@@ -15,7 +18,9 @@ import java.util.List;
 import java.util.Map;
 
 @Service
+@ReadReplica
 @RequiredArgsConstructor
+@Workload(WorkloadClass.REPORTING)
 public class PerformanceService {
 
     private final ExpenseRepository expenseRepository;
@@ -0,0 +1,8 @@
+package com.expensemanagement.services;
+
+/**
+ * Published when an expense policy is created, updated or deleted so the
+ * compiled rule set in {@link PolicyService} is rebuilt after commit.
+ */
+public record PolicyChangedEvent(Long policyId) {
+}
@@ -1,48 +1,137 @@
 package com.expensemanagement.services;
 
+import com.expensemanagement.config.Workload;
+import com.expensemanagement.config.WorkloadClass;
+import com.expensemanagement.dto.PolicyBreach;
+import com.expensemanagement.entities.Approval_Status;
 import com.expensemanagement.entities.Expense;
-import com.expensemanagement.entities.ExpensePolicy;
 import com.expensemanagement.repository.ExpensePolicyRepository;
-import lombok.RequiredArgsConstructor;
+import com.expensemanagement.repository.ExpenseRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Evaluates expenses against the active policies.
+ *
+ * <ul>
+ * <li>Active policies (with their categories, in one query) are compiled into
+ * a {@link CompiledPolicySet} and swapped in atomically, so evaluation never
+ * touches the database for maxAmount / category / receipt rules.
+ * <li>The set is rebuilt on {@link PolicyChangedEvent} after commit, and every
+ * {@code app.policy.refresh-seconds} by a scheduled task to pick up changes
+ * made on other nodes; evaluation itself never waits on a reload.
+ * <li>Monthly limits need the submitter's month-to-date spend. It is read
+ * from the cached {@link SpendProfile}; only a month older than the profile
+ * falls back to an aggregate query.
+ * </ul>
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class PolicyService {
 
+    /** Spend that does not count towards a monthly limit. */
+    private static final EnumSet<Approval_Status> NOT_COUNTED = EnumSet.of(Approval_Status.REJECTED,
+            Approval_Status.DRAFT);
+
     private final ExpensePolicyRepository policyRepository;
+    private final ExpenseRepository expenseRepository;
+    private final SpendProfileService spendProfileService;
+    private final AtomicReference<CompiledPolicySet> rules = new AtomicReference<>();
+
+    public PolicyService(ExpensePolicyRepository policyRepository, ExpenseRepository expenseRepository,
+            SpendProfileService spendProfileService) {
+        this.policyRepository = policyRepository;
+        this.expenseRepository = expenseRepository;
+        this.spendProfileService = spendProfileService;
+    }
 
     /**
      * Evaluates an expense against all active policies.
      * Returns true if any policy is breached.
      */
     public boolean evaluatePolicies(Expense expense) {
-        List<ExpensePolicy> activePolicies = policyRepository.findByIsActiveTrue();
-        for (ExpensePolicy policy : activePolicies) {
-            // maxAmount check
-            if (policy.getMaxAmount() != null && expense.getAmount() > policy.getMaxAmount()) {
-                log.info("Policy Breached: {} (Amount ₹{} > Limit ₹{})",
-                        policy.getName(), expense.getAmount(), policy.getMaxAmount());
-                return true;
-            }
-            // Category check
-            if (policy.getAllowedCategories() != null && !policy.getAllowedCategories().isEmpty()) {
-                if (!policy.getAllowedCategories().contains(expense.getCategory())) {
-                    log.info("Policy Breached: {} (Category {} not in allowed list)",
-                            policy.getName(), expense.getCategory());
-                    return true;
-                }
-            }
-            // requiresReceipt check
-            if (policy.isRequiresReceipt() && (expense.getReceiptUrl() == null || expense.getReceiptUrl().isBlank())) {
-                log.info("Policy Breached: {} (Receipt required but missing)", policy.getName());
-                return true;
+        List<PolicyBreach> breaches = evaluate(expense);
+        for (PolicyBreach breach : breaches) {
+            log.info("Policy Breached: {} ({}: {})", breach.policyName(), breach.rule(), breach.detail());
+        }
+        return !breaches.isEmpty();
+    }
+
+    /** Every rule of every active policy the expense breaches; empty when compliant. */
+    public List<PolicyBreach> evaluate(Expense expense) {
+        CompiledPolicySet set = rules();
+        if (set.size() == 0) {
+            return List.of();
+        }
+        boolean hasReceipt = expense.getReceiptUrl() != null && !expense.getReceiptUrl().isBlank();
+        double monthSpend = set.hasMonthlyLimits() ? monthSpend(expense) : Double.NaN;
+        return set.evaluate(expense.getAmount(), expense.getCategory(), hasReceipt, monthSpend);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPolicyChanged(PolicyChangedEvent event) {
+        reload();
+    }
+
+    /** Recompiles the active policies and swaps them in. */
+    private synchronized CompiledPolicySet reload() {
+        CompiledPolicySet next = CompiledPolicySet.compile(policyRepository.findActiveWithCategories());
+        rules.set(next);
+        log.info("POLICY: compiled {} active policies", next.size());
+        return next;
+    }
+
+    /** Picks up policy changes made on other nodes. */
+    @Scheduled(fixedDelayString = "${app.policy.refresh-seconds:60}", timeUnit = TimeUnit.SECONDS,
+            initialDelayString = "${app.policy.refresh-seconds:60}")
+    @Workload(WorkloadClass.BACKGROUND)
+    public void refresh() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("POLICY: refresh failed, keeping previous rule set: {}", e.getMessage());
+        }
+    }
+
+    private CompiledPolicySet rules() {
+        CompiledPolicySet current = rules.get();
+        return current != null ? current : reload();
+    }
+
+    /**
+     * Month-to-date spend of the submitter including this expense, or NaN if
+     * unknown. The profile does not hold this expense under a counted status
+     * yet: it is either new or still listed as a draft.
+     */
+    private double monthSpend(Expense expense) {
+        if (expense.getUser() == null || expense.getUser().getId() == null) {
+            return Double.NaN;
+        }
+        Long userId = expense.getUser().getId();
+        YearMonth month = YearMonth.from(expense.getDate() != null ? expense.getDate() : LocalDate.now());
+        SpendProfile profile = spendProfileService.get(userId);
+        // Load failed, or a month older than the profile covers
+        if (profile == SpendProfile.EMPTY || month.isBefore(profile.firstMonth())) {
+            LocalDate from = month.atDay(1);
+            Double others = expenseRepository.sumAmountByUserBetweenExcluding(userId, from, from.plusMonths(1),
+                    expense.getId() != null ? expense.getId() : -1L, NOT_COUNTED);
+            return (others != null ? others : 0) + expense.getAmount();
+        }
+        double others = 0;
+        for (Approval_Status status : Approval_Status.values()) {
+            if (!NOT_COUNTED.contains(status)) {
+                others += profile.monthSpend(month, status);
             }
         }
-        return false;
+        return others + expense.getAmount();
     }
 }
@@ -1,5 +1,7 @@
 package com.expensemanagement.services;
 
+import com.expensemanagement.config.Workload;
+import com.expensemanagement.config.WorkloadClass;
 import com.expensemanagement.entities.Expense;
 import com.expensemanagement.entities.User;
 import com.expensemanagement.repository.ExpenseRepository;
@@ -35,6 +37,7 @@ import java.awt.Color;
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
+@Workload(WorkloadClass.REPORTING)
 public class ReportService {
 
     private final ExpenseRepository expenseRepository;
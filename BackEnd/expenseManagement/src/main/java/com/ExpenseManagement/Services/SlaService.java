@@ -1,28 +1,47 @@
 package com.expensemanagement.services;
 
+import com.expensemanagement.config.Workload;
+import com.expensemanagement.config.WorkloadClass;
 import com.expensemanagement.entities.Approval_Status;
 import com.expensemanagement.entities.Expense;
 import com.expensemanagement.notification.NotificationService;
 import com.expensemanagement.notification.Notification;
 import com.expensemanagement.repository.ExpenseRepository;
+import com.expensemanagement.scheduler.TimingWheel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Event-driven SLA engine.
+ *
+ * <p>
+ * Pending deadlines live in a {@link TimingWheel} seeded from the indexed
+ * {@code sla_dead_at} column at startup and kept current as expenses are
+ * submitted ({@link #track}) and resolved ({@link #cancel}). A 1-second tick
+ * fires breaches at the deadline and flags them with one bulk UPDATE. The
+ * hourly full sweep remains only as a cheap, index-backed safety net.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class SlaService {
+public class SlaService implements CommandLineRunner {
 
     private final ExpenseRepository expenseRepository;
     private final NotificationService notificationService;
+    private final ApprovalInboxService approvalInboxService;
 
     private static final int SLA_HOURS = 48; // Configurable SLA window
 
+    private final TimingWheel wheel = new TimingWheel(1_000, System.currentTimeMillis());
+
     /**
      * Set SLA deadline when expense is submitted (called from ExpenseService).
      */
@@ -35,45 +54,95 @@ public class SlaService {
         }
     }
 
+    /** Starts watching a saved, pending expense's deadline. */
+    public void track(Expense expense) {
+        if (expense.getId() != null && expense.getSlaDeadAt() != null
+                && expense.getStatus() == Approval_Status.PENDING && !expense.isOverdue()) {
+            wheel.schedule(expense.getId(), toMillis(expense.getSlaDeadAt()));
+        }
+    }
+
+    /** Stops watching an expense that left PENDING (approved, rejected, forwarded). */
+    public void cancel(Long expenseId) {
+        if (expenseId != null) {
+            wheel.cancel(expenseId);
+        }
+    }
+
+    /** Seeds the wheel from the index on startup. */
+    @Override
+    public void run(String... args) {
+        try {
+            List<Object[]> rows = expenseRepository.findSlaDeadlines(Approval_Status.PENDING);
+            for (Object[] row : rows) {
+                wheel.schedule((Long) row[0], toMillis((LocalDateTime) row[1]));
+            }
+            log.info("SLA engine seeded with {} pending deadlines", rows.size());
+        } catch (Exception e) {
+            log.error("SLA seed failed (non-blocking): {}", e.getMessage());
+        }
+    }
+
+    /** Wheel tick — fires breaches whose deadline has passed. */
+    @Scheduled(fixedRate = 1_000)
+    @Workload(WorkloadClass.BACKGROUND)
+    public void tick() {
+        List<Long> due = wheel.advanceTo(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+        try {
+            notifyBreaches(expenseRepository.markOverdueByIds(due, LocalDateTime.now()));
+        } catch (Exception e) {
+            log.error("SLA breach update failed (non-blocking): {}", e.getMessage());
+        }
+    }
+
     /**
-     * Scheduled job — runs every hour to flag overdue approvals.
+     * Safety net — runs every hour and flags anything the wheel missed (e.g.
+     * rows changed outside this node) with a single index-backed UPDATE.
      */
     @Scheduled(fixedRate = 3_600_000) // every 1 hour
+    @Workload(WorkloadClass.BACKGROUND)
     public void checkOverdueApprovals() {
         try {
-            List<Expense> pending = expenseRepository.findByStatus(Approval_Status.PENDING);
-            LocalDateTime now = LocalDateTime.now();
-            for (Expense expense : pending) {
-                if (expense.getSlaDeadAt() != null && !expense.isOverdue()
-                        && now.isAfter(expense.getSlaDeadAt())) {
-                    expense.setOverdue(true);
-                    expenseRepository.save(expense);
-                    // Notify manager
-                    if (expense.getUser() != null) {
-                        notificationService.notifyUser(
-                                expense.getUser().getId(),
-                                "SLA Breach — Action Required",
-                                "Expense #" + expense.getId() + " (" + expense.getTitle()
-                                        + ") is overdue for approval.",
-                                Notification.NotificationType.WARNING,
-                                Notification.NotificationCategory.SYSTEM);
-                    }
-                }
-            }
-            log.info("SLA check complete — checked {} pending expenses", pending.size());
+            List<Object[]> breached = expenseRepository.markAllOverdue(LocalDateTime.now());
+            notifyBreaches(breached);
+            log.info("SLA check complete — {} newly overdue, {} deadlines tracked", breached.size(), wheel.size());
         } catch (Exception e) {
             log.error("SLA check failed (non-blocking): {}", e.getMessage());
         }
     }
 
+    private void notifyBreaches(List<Object[]> breached) {
+        List<Long> ids = new ArrayList<>(breached.size());
+        for (Object[] row : breached) {
+            Long expenseId = ((Number) row[0]).longValue();
+            ids.add(expenseId);
+            wheel.cancel(expenseId);
+            if (row[1] != null) {
+                notificationService.notifyUser(
+                        ((Number) row[1]).longValue(),
+                        "SLA Breach — Action Required",
+                        "Expense #" + expenseId + " (" + row[2] + ") is overdue for approval.",
+                        Notification.NotificationType.WARNING,
+                        Notification.NotificationCategory.SYSTEM);
+            }
+        }
+        // Overdue expenses move up the inbox
+        approvalInboxService.refreshAfterCommit(ids);
+    }
+
     public List<Expense> getOverdueExpenses() {
         try {
-            return expenseRepository.findByStatus(Approval_Status.PENDING).stream()
-                    .filter(Expense::isOverdue)
-                    .toList();
+            return expenseRepository.findByStatusAndOverdueTrueOrderBySlaDeadAtAsc(Approval_Status.PENDING);
         } catch (Exception e) {
             log.error("Failed to fetch overdue expenses: {}", e.getMessage());
             return List.of();
         }
     }
+
+    private static long toMillis(LocalDateTime t) {
+        return t.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
 }
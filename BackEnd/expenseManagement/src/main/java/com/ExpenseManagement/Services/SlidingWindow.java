@@ -0,0 +1,85 @@
+package com.expensemanagement.services;
+
+/**
+ * Fixed-capacity ring buffer of (timestamp, amount) events for one user or
+ * vendor, kept in timestamp order: an event older than the newest one is
+ * inserted in place, so {@link #count} and {@link #sum} can stop at the first
+ * event before their window. Events older than the retention horizon are
+ * evicted on append; when the buffer is full the oldest event is dropped, so
+ * counts and sums are a lower bound for keys busier than the capacity.
+ * Thread-safe per instance.
+ */
+final class SlidingWindow {
+
+    private final long[] timestamps;
+    private final double[] amounts;
+    private int start;
+    private int size;
+
+    SlidingWindow(int capacity) {
+        timestamps = new long[capacity];
+        amounts = new double[capacity];
+    }
+
+    /** Adds an event in timestamp order and drops those older than {@code retainAfterMillis}. */
+    synchronized void record(long atMillis, double amount, long retainAfterMillis) {
+        int capacity = timestamps.length;
+        while (size > 0 && timestamps[start] < retainAfterMillis) {
+            start = (start + 1) % capacity;
+            size--;
+        }
+        if (size == capacity) {
+            if (atMillis < timestamps[start]) {
+                return; // older than everything kept; it would be the one dropped
+            }
+            start = (start + 1) % capacity;
+            size--;
+        }
+        // Usually the newest, so this loop rarely moves anything
+        int i = size;
+        while (i > 0 && timestamps[(start + i - 1) % capacity] > atMillis) {
+            int from = (start + i - 1) % capacity;
+            int to = (start + i) % capacity;
+            timestamps[to] = timestamps[from];
+            amounts[to] = amounts[from];
+            i--;
+        }
+        int slot = (start + i) % capacity;
+        timestamps[slot] = atMillis;
+        amounts[slot] = amount;
+        size++;
+    }
+
+    /** Events at or after {@code sinceMillis} with amount at least {@code minAmount}. */
+    synchronized int count(long sinceMillis, double minAmount) {
+        int n = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            int slot = (start + i) % timestamps.length;
+            if (timestamps[slot] < sinceMillis) {
+                break;
+            }
+            if (amounts[slot] >= minAmount) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /** Total amount of events at or after {@code sinceMillis}. */
+    synchronized double sum(long sinceMillis) {
+        double total = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            int slot = (start + i) % timestamps.length;
+            if (timestamps[slot] < sinceMillis) {
+                break;
+            }
+            total += amounts[slot];
+        }
+        return total;
+    }
+
+    /** Timestamp of the newest event, or {@link Long#MIN_VALUE} when empty. */
+    synchronized long newest() {
+        return size == 0 ? Long.MIN_VALUE : timestamps[(start + size - 1) % timestamps.length];
+    }
+}
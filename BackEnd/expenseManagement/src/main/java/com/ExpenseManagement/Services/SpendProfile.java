@@ -0,0 +1,233 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.entities.Approval_Status;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One user's expense aggregates as primitive arrays: per month (overall and
+ * per approval status) from {@link #firstMonth()} on, per category (by
+ * spend, descending) and per approval status. Immutable; built by
+ * {@link SpendProfileService}.
+ */
+public final class SpendProfile {
+
+    static final SpendProfile EMPTY = new Builder(0).build();
+
+    private static final int STATUSES = Approval_Status.values().length;
+
+    /** Month index {@code year * 12 + month - 1} of slot 0 of the monthly arrays. */
+    private final int firstMonth;
+    private final double[] monthlySpend;
+    private final int[] monthlyCount;
+    /** {@code [slot * STATUSES + status.ordinal()]} */
+    private final double[] monthlyStatusSpend;
+    private final String[] categories;
+    private final double[] categorySpend;
+    private final int[] categoryCount;
+    private final double[] statusSpend;
+    private final int[] statusCount;
+    private final int count;
+    private final double total;
+
+    private SpendProfile(int firstMonth, double[] monthlySpend, int[] monthlyCount, double[] monthlyStatusSpend,
+            String[] categories, double[] categorySpend, int[] categoryCount, double[] statusSpend, int[] statusCount,
+            int count, double total) {
+        this.firstMonth = firstMonth;
+        this.monthlySpend = monthlySpend;
+        this.monthlyCount = monthlyCount;
+        this.monthlyStatusSpend = monthlyStatusSpend;
+        this.categories = categories;
+        this.categorySpend = categorySpend;
+        this.categoryCount = categoryCount;
+        this.statusSpend = statusSpend;
+        this.statusCount = statusCount;
+        this.count = count;
+        this.total = total;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public double total() {
+        return total;
+    }
+
+    public double average() {
+        return count > 0 ? total / count : 0;
+    }
+
+    public double spend(Approval_Status status) {
+        return statusSpend[status.ordinal()];
+    }
+
+    public int count(Approval_Status status) {
+        return statusCount[status.ordinal()];
+    }
+
+    /** Oldest month the monthly figures cover; earlier months read as zero. */
+    public YearMonth firstMonth() {
+        return YearMonth.of(Math.floorDiv(firstMonth, 12), Math.floorMod(firstMonth, 12) + 1);
+    }
+
+    public double monthSpend(YearMonth month) {
+        int slot = slot(month);
+        return slot >= 0 ? monthlySpend[slot] : 0;
+    }
+
+    public double monthSpend(YearMonth month, Approval_Status status) {
+        int slot = slot(month);
+        return slot >= 0 ? monthlyStatusSpend[slot * STATUSES + status.ordinal()] : 0;
+    }
+
+    public int monthCount(YearMonth month) {
+        int slot = slot(month);
+        return slot >= 0 ? monthlyCount[slot] : 0;
+    }
+
+    /** Category with the highest spend, or {@code null} if none is set. */
+    public String topCategory() {
+        return categories.length > 0 ? categories[0] : null;
+    }
+
+    /** Up to {@code limit} categories, most used first. */
+    public List<String> topCategoriesByCount(int limit) {
+        Integer[] order = new Integer[categories.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> categoryCount[i]).reversed());
+        List<String> result = new ArrayList<>(Math.min(limit, order.length));
+        for (int i = 0; i < order.length && i < limit; i++) {
+            result.add(categories[order[i]]);
+        }
+        return result;
+    }
+
+    /** Average expense in {@code category}; 0 if the user has none there. */
+    public double categoryAverage(String category) {
+        for (int i = 0; i < categories.length; i++) {
+            if (categories[i].equals(category)) {
+                return categorySpend[i] / categoryCount[i];
+            }
+        }
+        return 0;
+    }
+
+    private int slot(YearMonth month) {
+        int slot = month.getYear() * 12 + month.getMonthValue() - 1 - firstMonth;
+        return slot < monthlySpend.length ? slot : -1;
+    }
+
+    /**
+     * This profile with {@code before} taken out and {@code after} added; a
+     * null side is skipped. Months older than the profile only move the
+     * totals, as in a fresh load.
+     */
+    SpendProfile apply(ExpenseChangedEvent.Spend before, ExpenseChangedEvent.Spend after) {
+        Builder builder = new Builder(this);
+        if (before != null) {
+            builder.add(before.category(), before.status(), monthIndex(before.date()), -1, -before.amount());
+        }
+        if (after != null) {
+            builder.add(after.category(), after.status(), monthIndex(after.date()), 1, after.amount());
+        }
+        return builder.build();
+    }
+
+    private static Integer monthIndex(LocalDate date) {
+        return date != null ? date.getYear() * 12 + date.getMonthValue() - 1 : null;
+    }
+
+    /** Folds grouped rows into a profile; not thread-safe. */
+    static final class Builder {
+
+        private final int firstMonth;
+        private double[] monthlySpend = new double[12];
+        private int[] monthlyCount = new int[12];
+        private double[] monthlyStatusSpend = new double[12 * STATUSES];
+        private final Map<String, double[]> byCategory = new HashMap<>();
+        private final double[] statusSpend = new double[STATUSES];
+        private final int[] statusCount = new int[STATUSES];
+        private int months;
+        private int count;
+        private double total;
+
+        Builder(int firstMonth) {
+            this.firstMonth = firstMonth;
+        }
+
+        /** Starts from the figures of {@code base}. */
+        Builder(SpendProfile base) {
+            this.firstMonth = base.firstMonth;
+            this.months = base.monthlySpend.length;
+            this.monthlySpend = Arrays.copyOf(base.monthlySpend, Math.max(months, 12));
+            this.monthlyCount = Arrays.copyOf(base.monthlyCount, monthlySpend.length);
+            this.monthlyStatusSpend = Arrays.copyOf(base.monthlyStatusSpend, monthlySpend.length * STATUSES);
+            for (int i = 0; i < base.categories.length; i++) {
+                byCategory.put(base.categories[i], new double[] { base.categoryCount[i], base.categorySpend[i] });
+            }
+            System.arraycopy(base.statusSpend, 0, statusSpend, 0, STATUSES);
+            System.arraycopy(base.statusCount, 0, statusCount, 0, STATUSES);
+            this.count = base.count;
+            this.total = base.total;
+        }
+
+        /**
+         * @param month month index as in {@link SpendProfile#firstMonth}, or
+         *              {@code null} for rows before the first month or undated
+         */
+        void add(String category, Approval_Status status, Integer month, int rows, double sum) {
+            count += rows;
+            total += sum;
+            if (category != null) {
+                double[] totals = byCategory.computeIfAbsent(category, k -> new double[2]);
+                totals[0] += rows;
+                totals[1] += sum;
+            }
+            if (status != null) {
+                statusCount[status.ordinal()] += rows;
+                statusSpend[status.ordinal()] += sum;
+            }
+            if (month != null && month >= firstMonth) {
+                int slot = month - firstMonth;
+                if (slot >= monthlySpend.length) {
+                    int size = Math.max(slot + 1, monthlySpend.length * 2);
+                    monthlySpend = Arrays.copyOf(monthlySpend, size);
+                    monthlyCount = Arrays.copyOf(monthlyCount, size);
+                    monthlyStatusSpend = Arrays.copyOf(monthlyStatusSpend, size * STATUSES);
+                }
+                monthlySpend[slot] += sum;
+                monthlyCount[slot] += rows;
+                if (status != null) {
+                    monthlyStatusSpend[slot * STATUSES + status.ordinal()] += sum;
+                }
+                months = Math.max(months, slot + 1);
+            }
+        }
+
+        SpendProfile build() {
+            byCategory.values().removeIf(totals -> totals[0] <= 0);
+            String[] categories = byCategory.keySet().toArray(String[]::new);
+            Arrays.sort(categories, Comparator.<String>comparingDouble(c -> byCategory.get(c)[1]).reversed()
+                    .thenComparing(Comparator.naturalOrder()));
+            double[] categorySpend = new double[categories.length];
+            int[] categoryCount = new int[categories.length];
+            for (int i = 0; i < categories.length; i++) {
+                double[] totals = byCategory.get(categories[i]);
+                categoryCount[i] = (int) totals[0];
+                categorySpend[i] = totals[1];
+            }
+            return new SpendProfile(firstMonth, Arrays.copyOf(monthlySpend, months),
+                    Arrays.copyOf(monthlyCount, months), Arrays.copyOf(monthlyStatusSpend, months * STATUSES),
+                    categories, categorySpend, categoryCount, statusSpend,
+                    statusCount, count, total);
+        }
+    }
+}
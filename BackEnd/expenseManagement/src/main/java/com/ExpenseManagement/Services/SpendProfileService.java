@@ -0,0 +1,159 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.entities.Approval_Status;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user {@link SpendProfile}s for the AI prompt builders and suggestions.
+ *
+ * <ul>
+ * <li>A profile is loaded with one grouped query over the user's expenses
+ * (category × status × month) and folded into primitive arrays; no entity
+ * is loaded.
+ * <li>Profiles are cached for up to {@code app.spend-profile.max-users}
+ * users. An {@link ExpenseChangedEvent} that carries the change is applied to
+ * a cached profile as a delta after commit, with no query. Other changes mark
+ * the profile stale; it is rebuilt once, {@code app.spend-profile.rebuild-delay-ms}
+ * later, however many changes arrive in between. The stale profile keeps
+ * being served until then. The TTL is only a backstop.
+ * <li>Deltas and rebuilds replace the cached profile only if it is still the
+ * one they started from. When one loses that race, the profile is rebuilt.
+ * <li>Loads run on the cache's own threads, so they read the primary even
+ * when the caller runs under {@code @ReadReplica}.
+ * </ul>
+ */
+@Slf4j
+@Service
+public class SpendProfileService {
+
+    private static final String SELECT_AGGREGATES = "SELECT category, status, "
+            + "CASE WHEN date >= ? THEN CAST(EXTRACT(YEAR FROM date) AS int) * 12 "
+            + "+ CAST(EXTRACT(MONTH FROM date) AS int) - 1 END AS month, COUNT(*), COALESCE(SUM(amount), 0) "
+            + "FROM expense WHERE user_id = ? GROUP BY 1, 2, 3";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int months;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Executor rebuildExecutor;
+    private final AsyncLoadingCache<Long, SpendProfile> profiles;
+    /** Users whose cached profile misses a change; a rebuild is scheduled. */
+    private final Set<Long> stale = ConcurrentHashMap.newKeySet();
+
+    public SpendProfileService(JdbcTemplate jdbcTemplate,
+            @Value("${app.spend-profile.months:24}") int months,
+            @Value("${app.spend-profile.max-users:10000}") long maxUsers,
+            @Value("${app.spend-profile.ttl-minutes:60}") long ttlMinutes,
+            @Value("${app.spend-profile.rebuild-delay-ms:2000}") long rebuildDelayMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.months = months;
+        this.rebuildExecutor = CompletableFuture.delayedExecutor(rebuildDelayMs, TimeUnit.MILLISECONDS, executor);
+        this.profiles = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .executor(executor)
+                .buildAsync(this::load);
+    }
+
+    /** The user's profile; an empty one for a null id or when the load fails. */
+    public SpendProfile get(Long userId) {
+        if (userId == null) {
+            return SpendProfile.EMPTY;
+        }
+        try {
+            return profiles.synchronous().get(userId);
+        } catch (RuntimeException e) {
+            log.error("SPEND-PROFILE: Load failed for user {} (non-blocking): {}", userId, e.getMessage());
+            return SpendProfile.EMPTY;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        Long userId = event.userId();
+        if (userId == null) {
+            return;
+        }
+        CompletableFuture<SpendProfile> current = profiles.getIfPresent(userId);
+        if (current == null) {
+            return;
+        }
+        if (!event.hasDelta() || stale.contains(userId) || !current.isDone() || current.isCompletedExceptionally()) {
+            markStale(userId);
+            return;
+        }
+        SpendProfile next = current.join().apply(event.before(), event.after());
+        if (!profiles.asMap().replace(userId, current, CompletableFuture.completedFuture(next))) {
+            markStale(userId);
+        }
+    }
+
+    private void markStale(Long userId) {
+        if (stale.add(userId)) {
+            CompletableFuture.runAsync(() -> rebuild(userId), rebuildExecutor);
+        }
+    }
+
+    private void rebuild(Long userId) {
+        stale.remove(userId);
+        CompletableFuture<SpendProfile> current = profiles.getIfPresent(userId);
+        if (current == null) {
+            return;
+        }
+        SpendProfile fresh;
+        try {
+            fresh = load(userId);
+        } catch (RuntimeException e) {
+            log.error("SPEND-PROFILE: Rebuild failed for user {} (non-blocking): {}", userId, e.getMessage());
+            profiles.asMap().remove(userId, current);
+            return;
+        }
+        // A delta landed while loading; it may not be in this result
+        if (!profiles.asMap().replace(userId, current, CompletableFuture.completedFuture(fresh))) {
+            markStale(userId);
+        }
+    }
+
+    private SpendProfile load(Long userId) {
+        YearMonth first = YearMonth.now().minusMonths(months - 1L);
+        SpendProfile.Builder builder = new SpendProfile.Builder(first.getYear() * 12 + first.getMonthValue() - 1);
+        jdbcTemplate.query(SELECT_AGGREGATES, rs -> {
+            builder.add(rs.getString(1), status(rs.getString(2)), rs.getObject(3, Integer.class), rs.getInt(4),
+                    rs.getDouble(5));
+        }, Date.valueOf(first.atDay(1)), userId);
+        return builder.build();
+    }
+
+    private static Approval_Status status(String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Approval_Status.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,5 +1,7 @@
 package com.expensemanagement.services;
 
+import com.expensemanagement.config.Workload;
+import com.expensemanagement.config.WorkloadClass;
 import com.expensemanagement.entities.Team;
 import com.expensemanagement.entities.TeamBudget;
 import com.expensemanagement.entities.User;
@@ -88,6 +90,7 @@ public class TeamBudgetService {
      * Returns budget status for all teams for the given month/year.
      * Used in admin dashboard for budget alerts.
      */
+    @Workload(WorkloadClass.REPORTING)
     public List<Map<String, Object>> getAllBudgetStatuses(int month, int year) {
         List<Team> teams = teamRepository.findAll();
         List<Map<String, Object>> result = new ArrayList<>();
@@ -0,0 +1,344 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.entities.Expense;
+import com.expensemanagement.search.PrefixIndex;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Database-free type-ahead for vendor names, expense titles and categories.
+ *
+ * <ul>
+ * <li>One {@link PrefixIndex} per field holds global usage counts; a bounded
+ * per-user map of the user's own counts boosts their habits.
+ * <li>Updated incrementally from {@link #record} once each saved expense
+ * commits.
+ * <li>Snapshotted to {@code app.typeahead.snapshot-path} periodically and on
+ * shutdown, under a lock that also fixes what the snapshot covers. Its mark
+ * is the highest id seen at the previous snapshot, and it lists the ids
+ * recorded above that mark. On startup the snapshot is loaded and expenses
+ * above the mark that it does not list are aggregated from the database, so
+ * an id that committed after a higher one is not skipped. Without a snapshot
+ * the whole table is aggregated once.
+ * <li>Edits and deletes do not decrement counts — suggestions are popularity
+ * hints and the least used terms are dropped by compaction when an index
+ * nears {@code app.typeahead.max-terms}.
+ * </ul>
+ */
+@Slf4j
+@Service
+public class TypeaheadService implements CommandLineRunner {
+
+    public enum Field {
+        VENDOR("vendor_name"), TITLE("title"), CATEGORY("category");
+
+        private final String column;
+
+        Field(String column) {
+            this.column = column;
+        }
+    }
+
+    private static final int SNAPSHOT_MAGIC = 0x54594832; // "TYH2"
+    private static final int MAX_PERSONAL_TERMS = 256;
+    private static final double PERSONAL_WEIGHT = 2.0;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Field, PrefixIndex> indexes = new EnumMap<>(Field.class);
+    private final Cache<Long, Map<Field, Map<String, Integer>>> personal;
+    private final int maxTerms;
+    private final Path snapshotPath;
+
+    /** Read-held while recording, write-held while a snapshot is taken. */
+    private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    /** Highest expense id in the indexes. */
+    private volatile long watermark;
+    /** {@link #watermark} at the previous snapshot; the next snapshot's mark. */
+    private long settledMark;
+    /** Ids recorded above {@link #settledMark}. */
+    private final Set<Long> recordedAbove = ConcurrentHashMap.newKeySet();
+
+    public TypeaheadService(JdbcTemplate jdbcTemplate,
+            @Value("${app.typeahead.max-terms:100000}") int maxTerms,
+            @Value("${app.typeahead.max-users:10000}") int maxUsers,
+            @Value("${app.typeahead.snapshot-path:data/typeahead.snap}") String snapshotPath) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxTerms = maxTerms;
+        this.snapshotPath = Paths.get(snapshotPath);
+        this.personal = Caffeine.newBuilder().maximumSize(maxUsers).build();
+        for (Field f : Field.values()) {
+            indexes.put(f, new PrefixIndex(maxTerms));
+        }
+    }
+
+    // ── reads ──────────────────────────────────────────────────────────────────
+
+    public List<String> suggest(Field field, String prefix, Long userId, int limit) {
+        Map<String, Integer> own = null;
+        if (userId != null) {
+            Map<Field, Map<String, Integer>> maps = personal.getIfPresent(userId);
+            if (maps != null) {
+                synchronized (maps) {
+                    own = maps.containsKey(field) ? new HashMap<>(maps.get(field)) : null;
+                }
+            }
+        }
+        return indexes.get(field).suggest(prefix, limit, own, PERSONAL_WEIGHT);
+    }
+
+    // ── writes ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Called after an expense is saved; applied once the caller's transaction
+     * commits (immediately when there is none).
+     */
+    public void record(Expense expense) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(expense);
+                }
+            });
+        } else {
+            apply(expense);
+        }
+    }
+
+    private void apply(Expense expense) {
+        Long userId = expense.getUser() != null ? expense.getUser().getId() : null;
+        snapshotLock.readLock().lock();
+        try {
+            add(Field.VENDOR, expense.getVendorName(), userId, 1);
+            add(Field.TITLE, expense.getTitle(), userId, 1);
+            add(Field.CATEGORY, expense.getCategory(), userId, 1);
+            Long id = expense.getId();
+            if (id != null) {
+                synchronized (recordedAbove) {
+                    if (id > settledMark) {
+                        recordedAbove.add(id);
+                    }
+                    watermark = Math.max(watermark, id);
+                }
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    private void add(Field field, String term, Long userId, long count) {
+        if (!indexes.get(field).add(term, count) || userId == null) {
+            return;
+        }
+        Map<Field, Map<String, Integer>> maps = personal.get(userId, id -> new EnumMap<>(Field.class));
+        synchronized (maps) {
+            Map<String, Integer> own = maps.computeIfAbsent(field, f -> new HashMap<>());
+            own.merge(PrefixIndex.normalize(term), (int) Math.min(count, Integer.MAX_VALUE), Integer::sum);
+            if (own.size() > MAX_PERSONAL_TERMS) {
+                own.entrySet().stream()
+                        .min(Comparator.comparingInt(Map.Entry::getValue))
+                        .map(Map.Entry::getKey)
+                        .ifPresent(own::remove);
+            }
+        }
+    }
+
+    // ── startup / snapshot ─────────────────────────────────────────────────────
+
+    @Override
+    public void run(String... args) {
+        long started = System.currentTimeMillis();
+        try {
+            if (Files.exists(snapshotPath)) {
+                loadSnapshot();
+            }
+        } catch (Exception e) {
+            log.warn("TYPEAHEAD: Snapshot unreadable, rebuilding from database: {}", e.getMessage());
+            for (Field f : Field.values()) {
+                indexes.put(f, new PrefixIndex(maxTerms));
+            }
+            personal.invalidateAll();
+            watermark = 0;
+            recordedAbove.clear();
+        }
+        try {
+            catchUp();
+        } catch (Exception e) {
+            log.error("TYPEAHEAD: Catch-up from database failed (non-blocking): {}", e.getMessage());
+        }
+        log.info("TYPEAHEAD: Ready in {} ms — {} vendors, {} titles, {} categories",
+                System.currentTimeMillis() - started, indexes.get(Field.VENDOR).size(),
+                indexes.get(Field.TITLE).size(), indexes.get(Field.CATEGORY).size());
+    }
+
+    /**
+     * Aggregates expenses above the snapshot mark that the snapshot does not
+     * already count, one GROUP BY per field.
+     */
+    private void catchUp() {
+        long from = watermark;
+        Long[] known = recordedAbove.toArray(Long[]::new);
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM expense", Long.class);
+        if (max != null && max > from) {
+            for (Field f : Field.values()) {
+                jdbcTemplate.query("SELECT user_id, " + f.column + ", COUNT(*) FROM expense " +
+                        "WHERE id > ? AND id <= ? AND NOT (id = ANY (?)) AND " + f.column + " IS NOT NULL " +
+                        "GROUP BY user_id, " + f.column,
+                        ps -> {
+                            ps.setLong(1, from);
+                            ps.setLong(2, max);
+                            ps.setArray(3, ps.getConnection().createArrayOf("bigint", known));
+                        },
+                        rs -> {
+                            long userId = rs.getLong(1);
+                            add(f, rs.getString(2), rs.wasNull() ? null : userId, rs.getLong(3));
+                        });
+            }
+        }
+        synchronized (recordedAbove) {
+            watermark = Math.max(watermark, max != null ? max : 0);
+            settledMark = watermark;
+            recordedAbove.removeIf(id -> id <= settledMark);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.typeahead.snapshot-interval-ms:600000}",
+            initialDelayString = "${app.typeahead.snapshot-interval-ms:600000}")
+    public void snapshot() {
+        for (PrefixIndex index : indexes.values()) {
+            if (index.size() >= maxTerms * 9L / 10 || index.rejected() > 0) {
+                index.compact(maxTerms * 3 / 4);
+            }
+        }
+        try {
+            writeSnapshot();
+        } catch (Exception e) {
+            log.error("TYPEAHEAD: Snapshot failed (non-blocking): {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        try {
+            writeSnapshot();
+        } catch (Exception e) {
+            log.warn("TYPEAHEAD: Final snapshot failed: {}", e.getMessage());
+        }
+    }
+
+    private void writeSnapshot() throws Exception {
+        Path dir = snapshotPath.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        // Serialize while no term can be recorded, so the data matches its mark
+        ByteArrayOutputStream data = new ByteArrayOutputStream(1024 * 1024);
+        long mark;
+        snapshotLock.writeLock().lock();
+        try {
+            mark = settledMark;
+            DataOutputStream out = new DataOutputStream(data);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(mark);
+            List<Long> ids = recordedAbove.stream().toList();
+            out.writeInt(ids.size());
+            for (long id : ids) {
+                out.writeLong(id);
+            }
+            for (Field f : Field.values()) {
+                indexes.get(f).writeTo(out);
+            }
+            Map<Long, Map<Field, Map<String, Integer>>> users = Map.copyOf(personal.asMap());
+            out.writeInt(users.size());
+            for (Map.Entry<Long, Map<Field, Map<String, Integer>>> user : users.entrySet()) {
+                out.writeLong(user.getKey());
+                Map<Field, Map<String, Integer>> maps = user.getValue();
+                synchronized (maps) {
+                    for (Field f : Field.values()) {
+                        Map<String, Integer> own = maps.getOrDefault(f, Map.of());
+                        out.writeInt(own.size());
+                        for (Map.Entry<String, Integer> e : own.entrySet()) {
+                            out.writeUTF(e.getKey());
+                            out.writeInt(e.getValue());
+                        }
+                    }
+                }
+            }
+            out.flush();
+            // An id below the current watermark that commits later than one
+            // snapshot interval from now is the only thing the next one can miss
+            settledMark = watermark;
+            recordedAbove.removeIf(id -> id <= settledMark);
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+
+        Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+            data.writeTo(out);
+        }
+        Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("TYPEAHEAD: Snapshot written at mark {}", mark);
+    }
+
+    private void loadSnapshot() throws Exception {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(snapshotPath)), 64 * 1024))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IllegalStateException("not a type-ahead snapshot");
+            }
+            long mark = in.readLong();
+            int recorded = in.readInt();
+            for (int i = 0; i < recorded; i++) {
+                recordedAbove.add(in.readLong());
+            }
+            for (Field f : Field.values()) {
+                indexes.get(f).readFrom(in);
+            }
+            int users = in.readInt();
+            for (int u = 0; u < users; u++) {
+                long userId = in.readLong();
+                Map<Field, Map<String, Integer>> maps = new EnumMap<>(Field.class);
+                for (Field f : Field.values()) {
+                    int n = in.readInt();
+                    Map<String, Integer> own = new HashMap<>(n * 2);
+                    for (int i = 0; i < n; i++) {
+                        own.put(in.readUTF(), in.readInt());
+                    }
+                    maps.put(f, own);
+                }
+                personal.put(userId, maps);
+            }
+            watermark = mark;
+        }
+    }
+}
@@ -1,14 +1,13 @@
 package com.expensemanagement.services;
 
+import com.expensemanagement.config.ReadReplica;
 import com.expensemanagement.entities.Expense;
 import com.expensemanagement.entities.*;
 import com.expensemanagement.repository.VendorStatRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
 import java.util.List;
 
 @Slf4j
@@ -17,43 +16,22 @@ import java.util.List;
 public class VendorAnalyticsService {
 
     private final VendorStatRepository vendorStatRepository;
+    private final VendorStatsAggregator vendorStatsAggregator;
 
-    @Transactional
+    /** In-memory only; totals and the suspicious flag reach vendor_stats on the next flush. */
     public void updateVendorStats(Expense expense) {
-        if (expense.getVendorName() == null || expense.getVendorName().isBlank())
-            return;
-
-        try {
-            VendorStat stat = vendorStatRepository.findByVendorNameIgnoreCase(expense.getVendorName())
-                    .orElse(VendorStat.builder()
-                            .vendorName(expense.getVendorName())
-                            .transactionCount(0L)
-                            .totalAmount(0.0)
-                            .avgAmount(0.0)
-                            .suspicious(false)
-                            .build());
-
-            stat.setTransactionCount(stat.getTransactionCount() + 1);
-            stat.setTotalAmount(stat.getTotalAmount() + expense.getAmount());
-            stat.setAvgAmount(stat.getTotalAmount() / stat.getTransactionCount());
-            stat.setLastSeen(LocalDate.now());
-
-            // Simple heuristic: if avg amount suddenly jumps or high count from single user
-            // (future)
-            if (expense.getAmount() > stat.getAvgAmount() * 3 && stat.getTransactionCount() > 5) {
-                stat.setSuspicious(true);
-            }
-
-            vendorStatRepository.save(stat);
-        } catch (Exception e) {
-            log.error("Failed to update vendor stats (non-blocking): {}", e.getMessage());
+        if (vendorStatsAggregator.recordVendor(expense.getVendorName(), expense.getAmount())) {
+            log.info("Vendor '{}' marked suspicious: ₹{} far above its usual spend", expense.getVendorName(),
+                    expense.getAmount());
         }
     }
 
+    @ReadReplica
     public List<VendorStat> getTopVendors() {
         return vendorStatRepository.findAllByOrderByTotalAmountDesc();
     }
 
+    @ReadReplica
     public List<VendorStat> getSuspiciousVendors() {
         return vendorStatRepository.findBySuspiciousTrue();
     }
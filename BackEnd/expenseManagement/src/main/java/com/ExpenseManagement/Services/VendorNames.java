@@ -0,0 +1,190 @@
+package com.expensemanagement.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * String handling for vendor names: the exact-match key, the canonical form
+ * aliases are resolved under, blocking keys and similarity.
+ */
+public final class VendorNames {
+
+    /**
+     * Trailing words that do not tell vendors apart: legal forms, corporate
+     * descriptors and region qualifiers. Only stripped from the end, so
+     * "Tech Mahindra" keeps its first word.
+     */
+    private static final Set<String> SUFFIXES = Set.of(
+            "pvt", "private", "ltd", "limited", "llp", "llc", "inc", "incorporated", "corp", "corporation",
+            "co", "company", "plc", "gmbh", "ag", "sa", "bv", "pte", "pty",
+            "technologies", "technology", "services", "solutions", "enterprises", "holdings", "group",
+            "international", "intl", "global", "india", "in", "usa", "us", "uk");
+
+    /** The differing word of a fuzzy match needs at least this many characters. */
+    private static final int MIN_FUZZY_WORD_LENGTH = 5;
+
+    private VendorNames() {
+    }
+
+    /**
+     * Exact-match key: trimmed, inner whitespace collapsed, lower-cased.
+     * {@code null} for a blank name.
+     */
+    public static String normalize(String vendorName) {
+        if (vendorName == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(vendorName.length());
+        boolean gap = false;
+        for (int i = 0; i < vendorName.length(); i++) {
+            char c = vendorName.charAt(i);
+            if (Character.isWhitespace(c)) {
+                gap = key.length() > 0;
+            } else {
+                if (gap) {
+                    key.append(' ');
+                    gap = false;
+                }
+                key.append(Character.toLowerCase(c));
+            }
+        }
+        return key.isEmpty() ? null : key.toString();
+    }
+
+    /**
+     * Canonical form: lower-cased, punctuation dropped ("&" reads as "and"),
+     * trailing {@link #SUFFIXES} removed. "UBER INDIA", "Uber Technologies
+     * Pvt. Ltd." and "uber" all become "uber". {@code null} if nothing is left.
+     */
+    public static String canonicalize(String vendorName) {
+        if (vendorName == null) {
+            return null;
+        }
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= vendorName.length(); i++) {
+            char c = i < vendorName.length() ? vendorName.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (c == '\'' || c == '\u2019') {
+                // McDonald's -> mcdonalds
+            } else {
+                if (!word.isEmpty()) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                }
+                if (c == '&') {
+                    words.add("and");
+                }
+            }
+        }
+        int end = words.size();
+        while (end > 1 && SUFFIXES.contains(words.get(end - 1))) {
+            end--;
+        }
+        return end == 0 ? null : String.join(" ", words.subList(0, end));
+    }
+
+    /** Candidates for fuzzy matching share this: the first three characters. */
+    public static String blockKey(String canonical) {
+        return canonical.length() <= 3 ? canonical : canonical.substring(0, 3);
+    }
+
+    /** Jaro-Winkler similarity in [0, 1]; 1 for equal strings. */
+    public static double similarity(String a, String b) {
+        if (a.equals(b)) {
+            return 1.0;
+        }
+        int window = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+        boolean[] matchedA = new boolean[a.length()];
+        boolean[] matchedB = new boolean[b.length()];
+        int matches = 0;
+        for (int i = 0; i < a.length(); i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(b.length() - 1, i + window);
+            for (int j = from; j <= to; j++) {
+                if (!matchedB[j] && a.charAt(i) == b.charAt(j)) {
+                    matchedA[i] = true;
+                    matchedB[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0.0;
+        }
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < a.length(); i++) {
+            if (matchedA[i]) {
+                while (!matchedB[j]) {
+                    j++;
+                }
+                if (a.charAt(i) != b.charAt(j)) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+        double m = matches;
+        double jaro = (m / a.length() + m / b.length() + (m - transpositions / 2.0) / m) / 3.0;
+        int prefix = 0;
+        while (prefix < Math.min(4, Math.min(a.length(), b.length())) && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1 - jaro);
+    }
+
+    /**
+     * Whether two different canonical forms may be a typo of one vendor: the
+     * same number of words, all equal but one, and that one at least
+     * {@value #MIN_FUZZY_WORD_LENGTH} characters long and one edit away
+     * (a character substituted, dropped or added inside the word, or two
+     * neighbours swapped). An extra word ("amazon" / "amazon pay"), a short word
+     * ("dell" / "della") or a longer ending ("shell" / "shells") is a different
+     * vendor, however similar the strings are.
+     */
+    public static boolean typoOf(String a, String b) {
+        String[] wordsA = a.split(" ");
+        String[] wordsB = b.split(" ");
+        if (wordsA.length != wordsB.length) {
+            return false;
+        }
+        int differing = -1;
+        for (int i = 0; i < wordsA.length; i++) {
+            if (!wordsA[i].equals(wordsB[i])) {
+                if (differing >= 0) {
+                    return false;
+                }
+                differing = i;
+            }
+        }
+        if (differing < 0) {
+            return false;
+        }
+        String x = wordsA[differing];
+        String y = wordsB[differing];
+        return Math.min(x.length(), y.length()) >= MIN_FUZZY_WORD_LENGTH
+                && !x.startsWith(y) && !y.startsWith(x) && oneEditApart(x, y);
+    }
+
+    private static boolean oneEditApart(String a, String b) {
+        if (a.length() < b.length()) {
+            return oneEditApart(b, a);
+        }
+        if (a.length() - b.length() > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (a.length() != b.length()) {
+            return a.startsWith(b.substring(i), i + 1);
+        }
+        return a.startsWith(b.substring(i + 1), i + 1)
+                || (i + 1 < a.length() && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                        && a.startsWith(b.substring(i + 2), i + 2));
+    }
+}
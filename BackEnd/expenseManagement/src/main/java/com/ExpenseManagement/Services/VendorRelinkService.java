@@ -0,0 +1,217 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.config.WorkloadClass;
+import com.expensemanagement.config.WorkloadRoutingDataSource;
+import com.expensemanagement.dto.VendorRelinkStatus;
+import com.expensemanagement.entities.Role;
+import com.expensemanagement.notification.Notification;
+import com.expensemanagement.notification.NotificationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Points historical data at the canonical vendors of {@link VendorResolver},
+ * after it first runs or after an admin merges vendors.
+ *
+ * <ul>
+ * <li>Every distinct expense vendor name is resolved once; expenses are then
+ * updated in id-range chunks of {@code app.vendor-resolution.relink-chunk-size}
+ * with a single statement each, touching only rows whose id changes.
+ * <li>Statistics rows keyed by an alias or a merged vendor are folded into
+ * the canonical vendor's row by {@link VendorStatsAggregator#rekey}.
+ * </ul>
+ * The job is idempotent, so an interrupted run is simply started again; it
+ * starts by itself once the application is up if any expense is unlinked.
+ */
+@Slf4j
+@Service
+public class VendorRelinkService {
+
+    private static final String LINK_CHUNK = "UPDATE expense e SET vendor_id = m.vid, version = e.version + 1 "
+            + "FROM unnest(?, ?) AS m(name, vid) "
+            + "WHERE e.vendor_name = m.name AND e.id > ? AND e.id <= ? AND e.vendor_id IS DISTINCT FROM m.vid";
+    private static final String SELECT_STAT_KEYS = "SELECT vendor_key FROM vendor_stats WHERE vendor_key IS NOT NULL "
+            + "UNION SELECT name_key FROM vendors WHERE name_key IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VendorResolver vendorResolver;
+    private final VendorStatsAggregator vendorStatsAggregator;
+    private final NotificationService notificationService;
+
+    @Value("${app.vendor-resolution.relink-chunk-size:20000}")
+    private int chunkSize;
+
+    private volatile VendorRelinkStatus status;
+    /** Who asked for a re-link while one was running; it starts when that one ends. */
+    private String queuedBy;
+
+    public VendorRelinkService(JdbcTemplate jdbcTemplate, VendorResolver vendorResolver,
+            VendorStatsAggregator vendorStatsAggregator, NotificationService notificationService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.vendorResolver = vendorResolver;
+        this.vendorStatsAggregator = vendorStatsAggregator;
+        this.notificationService = notificationService;
+    }
+
+    /** After the startup runners, so vendor statistics are loaded before they are re-keyed. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void relinkIfNeeded() {
+        try {
+            Boolean unlinked = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM expense "
+                    + "WHERE vendor_id IS NULL AND btrim(vendor_name) <> '')", Boolean.class);
+            if (Boolean.TRUE.equals(unlinked)) {
+                log.info("VENDOR-RELINK: Unlinked expenses found, re-linking");
+                start("SYSTEM");
+            }
+        } catch (Exception e) {
+            log.error("VENDOR-RELINK: Startup check failed (non-blocking): {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Starts a re-link in the background.
+     *
+     * @throws IllegalStateException if one is already running on this node
+     */
+    public synchronized VendorRelinkStatus start(String startedBy) {
+        if (status != null && status.running()) {
+            throw new IllegalStateException("A vendor re-link is already running");
+        }
+        status = new VendorRelinkStatus(true, startedBy, LocalDateTime.now(), null, 0, 0, 0, null, false);
+        Thread.ofVirtual().name("vendor-relink").start(this::runInBackground);
+        return status;
+    }
+
+    /**
+     * Starts a re-link, or queues one to run after the current one — for
+     * changes such as a vendor merge that must not be lost to a running job
+     * that has already read the old mapping.
+     */
+    public synchronized VendorRelinkStatus startOrQueue(String startedBy) {
+        if (status != null && status.running()) {
+            queuedBy = startedBy;
+            status = withQueued(status, true);
+            return status;
+        }
+        return start(startedBy);
+    }
+
+    /** The latest re-link on this node, or {@code null} if there has been none. */
+    public VendorRelinkStatus status() {
+        return status;
+    }
+
+    // ── execution ─────────────────────────────────────────────────────────────
+
+    private void runInBackground() {
+        VendorRelinkStatus started = status;
+        int[] names = new int[1];
+        long[] linked = new long[1];
+        int[] rekeyed = new int[1];
+        String error = null;
+        try {
+            WorkloadRoutingDataSource.within(WorkloadClass.BATCH, () -> {
+                names[0] = linkExpenses(linked);
+                rekeyed[0] = rekeyStats();
+                return null;
+            });
+        } catch (Throwable t) {
+            error = t.getClass().getSimpleName() + ": " + t.getMessage();
+            log.error("VENDOR-RELINK: Failed", t);
+        }
+        finish(new VendorRelinkStatus(false, started.startedBy(), started.startedAt(), LocalDateTime.now(),
+                names[0], linked[0], rekeyed[0], error, false));
+
+        String summary = names[0] + " vendor names resolved, " + linked[0] + " expenses re-linked, " + rekeyed[0]
+                + " statistics keys merged";
+        log.info("VENDOR-RELINK: {}{}", error != null ? "Stopped: " : "Done: ", summary);
+        try {
+            notificationService.notifyRole(
+                    Role.ADMIN,
+                    error != null ? "Vendor Re-link FAILED" : "Vendor Re-link COMPLETED",
+                    error != null ? "Re-link failed (" + error + ") after " + summary : summary,
+                    error != null ? Notification.NotificationType.WARNING : Notification.NotificationType.SUCCESS,
+                    Notification.NotificationCategory.EXPENSE);
+        } catch (RuntimeException e) {
+            log.error("VENDOR-RELINK: Could not notify admins: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void finish(VendorRelinkStatus finished) {
+        status = finished;
+        if (queuedBy != null) {
+            String by = queuedBy;
+            queuedBy = null;
+            start(by);
+        }
+    }
+
+    private static VendorRelinkStatus withQueued(VendorRelinkStatus s, boolean queued) {
+        return new VendorRelinkStatus(s.running(), s.startedBy(), s.startedAt(), s.finishedAt(), s.names(),
+                s.linked(), s.rekeyed(), s.error(), queued);
+    }
+
+    /** Sets {@code expense.vendor_id} everywhere; returns the number of distinct names. */
+    private int linkExpenses(long[] linked) {
+        List<String> names = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        jdbcTemplate.query("SELECT DISTINCT vendor_name FROM expense WHERE vendor_name IS NOT NULL", rs -> {
+            String name = rs.getString(1);
+            Long id = vendorResolver.resolveId(name);
+            if (id != null) {
+                names.add(name);
+                ids.add(id);
+            }
+        });
+        if (names.isEmpty()) {
+            return 0;
+        }
+        String[] nameArray = names.toArray(String[]::new);
+        Long[] idArray = ids.toArray(Long[]::new);
+
+        long[] bounds = jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id) FROM expense",
+                (rs, i) -> new long[] { rs.getLong(1), rs.getLong(2) });
+        for (long from = bounds[0] - 1; from < bounds[1]; from += chunkSize) {
+            long to = Math.min(from + chunkSize, bounds[1]);
+            long after = from;
+            linked[0] += jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(LINK_CHUNK);
+                ps.setArray(1, con.createArrayOf("text", nameArray));
+                ps.setArray(2, con.createArrayOf("bigint", idArray));
+                ps.setLong(3, after);
+                ps.setLong(4, to);
+                return ps;
+            });
+        }
+        return names.size();
+    }
+
+    /** Folds statistics keyed by an alias or a merged vendor; returns the number of keys moved. */
+    private int rekeyStats() {
+        Map<String, VendorResolver.ResolvedVendor> moves = new HashMap<>();
+        for (String key : jdbcTemplate.queryForList(SELECT_STAT_KEYS, String.class)) {
+            VendorResolver.ResolvedVendor vendor = vendorResolver.byKey(key);
+            if (vendor == null) {
+                vendor = vendorResolver.resolve(key);
+            }
+            if (vendor != null && !vendor.key().equals(key)) {
+                moves.put(key, vendor);
+            }
+        }
+        if (!moves.isEmpty()) {
+            vendorStatsAggregator.rekey(moves);
+        }
+        return moves.size();
+    }
+}
@@ -0,0 +1,393 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.entities.CanonicalVendor;
+import com.expensemanagement.entities.VendorAlias;
+import com.expensemanagement.repository.CanonicalVendorRepository;
+import com.expensemanagement.repository.VendorAliasRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves vendor names as typed to canonical vendors, so "Uber", "UBER INDIA"
+ * and "Uber Technologies" share one id and one set of statistics.
+ *
+ * <ul>
+ * <li>Every alias seen so far is held in memory: resolving a known name is a
+ * map lookup and runs no SQL.
+ * <li>A new name is {@link VendorNames#canonicalize canonicalized}. It joins
+ * the vendor with the same canonical form, else the most similar vendor in its
+ * {@link VendorNames#blockKey block} that it is a {@link VendorNames#typoOf
+ * typo} of, if the Jaro-Winkler similarity reaches
+ * {@code app.vendor-resolution.similarity}, else it founds a new vendor. The
+ * rows are written in their own transaction, so a rolled-back submission
+ * cannot leave the in-memory index pointing at nothing.
+ * <li>Fuzzy links keep their similarity as the alias score and are listed for
+ * review until an admin confirms them or detaches the name into a vendor of
+ * its own.
+ * <li>Admins can merge one vendor into another. Its aliases move over and its
+ * canonical form resolves to the target from then on.
+ * </ul>
+ * Aliases created on another node are adopted on the first miss here: the
+ * unique indexes turn the duplicate insert into a lookup.
+ */
+@Slf4j
+@Service
+public class VendorResolver implements CommandLineRunner {
+
+    /** A canonical vendor; {@code key} is what statistics are aggregated under. */
+    public record ResolvedVendor(Long id, String key, String displayName) {
+    }
+
+    private final CanonicalVendorRepository canonicalVendorRepository;
+    private final VendorAliasRepository vendorAliasRepository;
+    private final TransactionTemplate requiresNew;
+    private final double similarityThreshold;
+
+    private final ConcurrentMap<String, Long> byAlias = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Long> byCanonicalKey = new ConcurrentHashMap<>();
+    /** Vendor id -> the vendor it resolves to, merges followed. */
+    private final ConcurrentMap<Long, ResolvedVendor> resolvedById = new ConcurrentHashMap<>();
+    /** Block key -> unmerged vendors; only changed under the instance lock. */
+    private final Map<String, List<ResolvedVendor>> blocks = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public VendorResolver(CanonicalVendorRepository canonicalVendorRepository,
+            VendorAliasRepository vendorAliasRepository, PlatformTransactionManager transactionManager,
+            @Value("${app.vendor-resolution.similarity:0.92}") double similarityThreshold) {
+        this.canonicalVendorRepository = canonicalVendorRepository;
+        this.vendorAliasRepository = vendorAliasRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.similarityThreshold = similarityThreshold;
+    }
+
+    @Override
+    public void run(String... args) {
+        try {
+            ensureLoaded();
+        } catch (Exception e) {
+            log.error("VENDOR-RESOLVER: Startup load failed (non-blocking): {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The canonical vendor for a name, registering the name (and the vendor, if
+     * it is new) on first sight. {@code null} for a blank name.
+     */
+    public ResolvedVendor resolve(String vendorName) {
+        String aliasKey = VendorNames.normalize(vendorName);
+        if (aliasKey == null) {
+            return null;
+        }
+        ensureLoaded();
+        Long id = byAlias.get(aliasKey);
+        return id != null ? resolvedById.get(id) : register(vendorName, aliasKey);
+    }
+
+    /** Id of {@link #resolve}, or {@code null}. */
+    public Long resolveId(String vendorName) {
+        ResolvedVendor vendor = resolve(vendorName);
+        return vendor != null ? vendor.id() : null;
+    }
+
+    /** Like {@link #resolve} for names already seen; {@code null} otherwise. */
+    public ResolvedVendor find(String vendorName) {
+        String aliasKey = VendorNames.normalize(vendorName);
+        if (aliasKey == null) {
+            return null;
+        }
+        ensureLoaded();
+        Long id = byAlias.get(aliasKey);
+        return id != null ? resolvedById.get(id) : null;
+    }
+
+    /**
+     * The vendor a statistics key belongs to now: as a canonical form first,
+     * then as an alias. {@code null} if the key is unknown.
+     */
+    public ResolvedVendor byKey(String key) {
+        ensureLoaded();
+        Long id = byCanonicalKey.get(key);
+        if (id == null) {
+            id = byAlias.get(key);
+        }
+        return id != null ? resolvedById.get(id) : null;
+    }
+
+    /** Unmerged vendors with the names that resolve to them. */
+    public List<Map<String, Object>> listVendors() {
+        ensureLoaded();
+        Map<Long, List<String>> aliases = new HashMap<>();
+        byAlias.forEach((alias, id) -> aliases.computeIfAbsent(resolvedById.get(id).id(), k -> new ArrayList<>())
+                .add(alias));
+        List<Map<String, Object>> result = new ArrayList<>();
+        blocks.values().forEach(block -> block.forEach(v -> result.add(Map.of(
+                "id", v.id(),
+                "key", v.key(),
+                "displayName", v.displayName(),
+                "aliases", aliases.getOrDefault(v.id(), List.of())))));
+        result.sort(Comparator.comparing(m -> (String) m.get("key")));
+        return result;
+    }
+
+    /**
+     * Folds {@code sourceId} into {@code targetId}: its aliases, and vendors
+     * merged into it earlier, resolve to the target from now on. Expenses and
+     * statistics follow on the next re-link.
+     *
+     * @throws IllegalArgumentException if either id is unknown or already merged,
+     *                                  or they are the same
+     */
+    public synchronized ResolvedVendor merge(Long sourceId, Long targetId) {
+        ensureLoaded();
+        ResolvedVendor source = resolvedById.get(sourceId);
+        ResolvedVendor target = resolvedById.get(targetId);
+        if (source == null || target == null || !source.id().equals(sourceId) || !target.id().equals(targetId)) {
+            throw new IllegalArgumentException("Both vendors must exist and not be merged already");
+        }
+        if (sourceId.equals(targetId)) {
+            throw new IllegalArgumentException("A vendor cannot be merged into itself");
+        }
+        requiresNew.executeWithoutResult(status -> {
+            canonicalVendorRepository.mergeInto(sourceId, targetId);
+            vendorAliasRepository.repoint(sourceId, targetId);
+        });
+        resolvedById.replaceAll((id, resolved) -> resolved.id().equals(sourceId) ? target : resolved);
+        unblock(source);
+        log.info("VENDOR-RESOLVER: Merged vendor '{}' (#{}) into '{}' (#{})", source.displayName(), sourceId,
+                target.displayName(), targetId);
+        return target;
+    }
+
+    /** Automatic fuzzy links not reviewed yet, least similar first. */
+    public List<Map<String, Object>> listFuzzyLinks() {
+        ensureLoaded();
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (VendorAlias alias : vendorAliasRepository.findByManualFalseAndScoreLessThanOrderByScoreAsc(1.0)) {
+            ResolvedVendor vendor = resolvedById.get(alias.getVendorId());
+            if (vendor != null) {
+                result.add(Map.of(
+                        "aliasId", alias.getId(),
+                        "alias", alias.getAliasKey(),
+                        "score", alias.getScore(),
+                        "vendor", vendor));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Keeps a fuzzy link and takes it off the review list.
+     *
+     * @throws IllegalArgumentException if the alias is unknown or not an unreviewed link
+     */
+    public void confirm(Long aliasId) {
+        Integer updated = requiresNew.execute(status -> vendorAliasRepository.confirm(aliasId));
+        if (updated == null || updated == 0) {
+            throw new IllegalArgumentException("Alias " + aliasId + " is not an unreviewed fuzzy link");
+        }
+    }
+
+    /**
+     * Undoes a fuzzy link: the name resolves to the vendor with its own
+     * canonical form, founded now if there is none. Expenses follow on the next
+     * re-link; statistics already aggregated under the old vendor stay there.
+     *
+     * @throws IllegalArgumentException if the alias is unknown or not an unreviewed link
+     */
+    public synchronized ResolvedVendor detach(Long aliasId) {
+        ensureLoaded();
+        VendorAlias alias = vendorAliasRepository.findById(aliasId)
+                .filter(a -> !a.isManual() && a.getScore() != null && a.getScore() < 1.0)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Alias " + aliasId + " is not an unreviewed fuzzy link"));
+        String canonical = VendorNames.canonicalize(alias.getAliasKey());
+        String key = canonical != null ? canonical : alias.getAliasKey();
+        ResolvedVendor current = resolvedById.get(alias.getVendorId());
+        Long existing = byCanonicalKey.get(key);
+        if (existing != null && current != null && resolvedById.get(existing).id().equals(current.id())) {
+            throw new IllegalArgumentException("'" + alias.getAliasKey() + "' is the vendor's own name");
+        }
+        CanonicalVendor created = requiresNew.execute(status -> {
+            CanonicalVendor vendor = existing != null ? null
+                    : canonicalVendorRepository.save(CanonicalVendor.builder()
+                            .canonicalKey(key)
+                            .displayName(alias.getAliasKey())
+                            .build());
+            alias.setVendorId(vendor != null ? vendor.getId() : existing);
+            alias.setScore(1.0);
+            alias.setManual(true);
+            vendorAliasRepository.save(alias);
+            return vendor;
+        });
+        Long id = created != null ? index(created) : existing;
+        byAlias.put(alias.getAliasKey(), id);
+        ResolvedVendor detached = resolvedById.get(id);
+        log.info("VENDOR-RESOLVER: Detached '{}' from '{}' into '{}' (#{})", alias.getAliasKey(),
+                current != null ? current.displayName() : alias.getVendorId(), detached.displayName(), id);
+        return detached;
+    }
+
+    // ── internals ─────────────────────────────────────────────────────────────
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        List<CanonicalVendor> vendors = canonicalVendorRepository.findAll();
+        Map<Long, CanonicalVendor> byId = new HashMap<>();
+        vendors.forEach(v -> byId.put(v.getId(), v));
+        for (CanonicalVendor v : vendors) {
+            CanonicalVendor target = v;
+            for (int hops = 0; target.getMergedInto() != null && byId.containsKey(target.getMergedInto())
+                    && hops < vendors.size(); hops++) {
+                target = byId.get(target.getMergedInto());
+            }
+            ResolvedVendor resolved = new ResolvedVendor(target.getId(), target.getCanonicalKey(),
+                    target.getDisplayName());
+            resolvedById.put(v.getId(), resolved);
+            byCanonicalKey.put(v.getCanonicalKey(), v.getId());
+            if (v == target) {
+                block(resolved);
+            }
+        }
+        for (VendorAlias alias : vendorAliasRepository.findAll()) {
+            if (resolvedById.containsKey(alias.getVendorId())) {
+                byAlias.put(alias.getAliasKey(), alias.getVendorId());
+            }
+        }
+        loaded = true;
+        log.info("VENDOR-RESOLVER: Loaded {} vendors, {} aliases", vendors.size(), byAlias.size());
+    }
+
+    private synchronized ResolvedVendor register(String vendorName, String aliasKey) {
+        Long known = byAlias.get(aliasKey);
+        if (known != null) {
+            return resolvedById.get(known);
+        }
+        String canonical = VendorNames.canonicalize(vendorName);
+        if (canonical == null) {
+            canonical = aliasKey;
+        }
+        Long vendorId = byCanonicalKey.get(canonical);
+        double score = 1.0;
+        if (vendorId == null) {
+            ResolvedVendor best = null;
+            double bestScore = 0;
+            for (ResolvedVendor candidate : blocks.getOrDefault(VendorNames.blockKey(canonical), List.of())) {
+                if (!VendorNames.typoOf(canonical, candidate.key())) {
+                    continue;
+                }
+                double s = VendorNames.similarity(canonical, candidate.key());
+                if (s > bestScore) {
+                    best = candidate;
+                    bestScore = s;
+                }
+            }
+            if (best != null && bestScore >= similarityThreshold) {
+                vendorId = best.id();
+                score = bestScore;
+                log.info("VENDOR-RESOLVER: '{}' matched '{}' ({})", vendorName.trim(), best.displayName(),
+                        String.format("%.3f", bestScore));
+            }
+        }
+
+        String key = canonical;
+        Long matched = vendorId;
+        double linkScore = score;
+        try {
+            CanonicalVendor created = requiresNew.execute(status -> {
+                CanonicalVendor vendor = matched != null ? null
+                        : canonicalVendorRepository.save(CanonicalVendor.builder()
+                                .canonicalKey(key)
+                                .displayName(vendorName.trim())
+                                .build());
+                saveAlias(aliasKey, vendor != null ? vendor.getId() : matched, linkScore);
+                return vendor;
+            });
+            // Only index what committed
+            Long id = created != null ? index(created) : matched;
+            byAlias.put(aliasKey, id);
+            return resolvedById.get(id);
+        } catch (DataIntegrityViolationException e) {
+            return adopt(aliasKey, key, linkScore, e);
+        }
+    }
+
+    /** Another node inserted the alias or the vendor first; take theirs. */
+    private ResolvedVendor adopt(String aliasKey, String canonical, double score, DataIntegrityViolationException e) {
+        VendorAlias alias = vendorAliasRepository.findByAliasKey(aliasKey).orElse(null);
+        Long vendorId = alias != null ? alias.getVendorId() : null;
+        if (vendorId == null) {
+            CanonicalVendor vendor = canonicalVendorRepository.findByCanonicalKey(canonical).orElseThrow(() -> e);
+            vendorId = vendor.getId();
+            Long vid = vendorId;
+            requiresNew.executeWithoutResult(status -> saveAlias(aliasKey, vid, score));
+        }
+        if (!resolvedById.containsKey(vendorId)) {
+            CanonicalVendor vendor = canonicalVendorRepository.findById(vendorId).orElseThrow(() -> e);
+            Long targetId = vendor.getMergedInto() != null ? vendor.getMergedInto() : vendor.getId();
+            ResolvedVendor target = resolvedById.get(targetId);
+            if (target == null) {
+                index(vendor);
+            } else {
+                resolvedById.put(vendorId, target);
+                byCanonicalKey.put(vendor.getCanonicalKey(), vendorId);
+            }
+        }
+        byAlias.put(aliasKey, vendorId);
+        return resolvedById.get(vendorId);
+    }
+
+    private Long index(CanonicalVendor vendor) {
+        ResolvedVendor resolved = new ResolvedVendor(vendor.getId(), vendor.getCanonicalKey(),
+                vendor.getDisplayName());
+        resolvedById.put(vendor.getId(), resolved);
+        byCanonicalKey.put(vendor.getCanonicalKey(), vendor.getId());
+        block(resolved);
+        return vendor.getId();
+    }
+
+    private void saveAlias(String aliasKey, Long vendorId, double score) {
+        vendorAliasRepository.save(VendorAlias.builder()
+                .aliasKey(aliasKey)
+                .vendorId(vendorId)
+                .score(score)
+                .build());
+    }
+
+    private void block(ResolvedVendor vendor) {
+        blocks.merge(VendorNames.blockKey(vendor.key()), List.of(vendor), (a, b) -> {
+            List<ResolvedVendor> merged = new ArrayList<>(a);
+            merged.addAll(b);
+            return List.copyOf(merged);
+        });
+    }
+
+    private void unblock(ResolvedVendor vendor) {
+        blocks.computeIfPresent(VendorNames.blockKey(vendor.key()), (k, list) -> {
+            List<ResolvedVendor> rest = list.stream().filter(v -> !v.id().equals(vendor.id())).toList();
+            return rest.isEmpty() ? null : rest;
+        });
+    }
+}
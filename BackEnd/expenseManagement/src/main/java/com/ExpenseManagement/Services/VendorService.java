@@ -5,7 +5,6 @@ import com.expensemanagement.repository.VendorRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
 import java.util.List;
@@ -18,44 +17,32 @@ import java.util.stream.Collectors;
 public class VendorService {
 
     private final VendorRepository vendorRepository;
+    private final TypeaheadService typeaheadService;
+    private final VendorStatsAggregator vendorStatsAggregator;
+    private final VendorResolver vendorResolver;
 
-    @Transactional
+    /**
+     * In-memory only; the user's vendor row (totals, anomaly count, trust score
+     * = 100 - anomalyCount * 10) is upserted on the next flush.
+     */
     public void trackVendor(String vendorName, double amount, com.expensemanagement.entities.User user) {
-        if (vendorName == null || vendorName.isBlank() || user == null)
+        if (user == null)
             return;
 
-        Vendor vendor = vendorRepository.findByNameIgnoreCaseAndUserId(vendorName, user.getId())
-                .orElse(Vendor.builder()
-                        .name(vendorName)
-                        .user(user)
-                        .transactionCount(0L)
-                        .totalSpend(0.0)
-                        .avgAmount(0.0)
-                        .build());
-
-        // Update stats
-        vendor.setTransactionCount(vendor.getTransactionCount() + 1);
-        vendor.setTotalSpend(vendor.getTotalSpend() + amount);
-        vendor.setAvgAmount(vendor.getTotalSpend() / vendor.getTransactionCount());
-
-        // Anomaly Detection Logic
-        if (vendor.getTransactionCount() > 3 && amount > (vendor.getAvgAmount() * 3)) {
-            vendor.setAnomalyCount(vendor.getAnomalyCount() + 1);
-            // Trust Score Logic: trustScore = 100 - anomalyCount * 10
-            vendor.setTrustScore(Math.max(0, 100 - vendor.getAnomalyCount() * 10));
-            log.warn("Anomaly detected for vendor {} and user {}. Amount: {}, Avg: {}",
-                    vendorName, user.getName(), amount, vendor.getAvgAmount());
+        if (vendorStatsAggregator.recordUserVendor(user.getId(), vendorName, amount)) {
+            log.warn("Anomaly detected for vendor {} and user {}. Amount: {}", vendorName, user.getName(), amount);
         }
-
-        vendorRepository.save(vendor);
     }
 
-    public List<String> getVendorSuggestions(String query) {
-        return vendorRepository.findDistinctNamesByQuery(query);
+    /** Served from the in-memory type-ahead index, boosted by the caller's own vendors. */
+    public List<String> getVendorSuggestions(String query, Long userId) {
+        return typeaheadService.suggest(TypeaheadService.Field.VENDOR, query, userId, 10);
     }
 
     public Map<String, Object> getVendorInsights(String vendorName, Long userId) {
-        return vendorRepository.findByNameIgnoreCaseAndUserId(vendorName, userId)
+        VendorResolver.ResolvedVendor vendor = vendorResolver.find(vendorName);
+        String key = vendor != null ? vendor.key() : VendorNames.normalize(vendorName);
+        return vendorRepository.findByUserIdAndNameKey(userId, key)
                 .map(v -> {
                     Map<String, Object> insights = new HashMap<>();
                     insights.put("avgAmount", v.getAvgAmount());
@@ -75,9 +62,7 @@ public class VendorService {
     }
 
     public boolean isAmountSuspicious(String vendorName, double amount, Long userId) {
-        return vendorRepository.findByNameIgnoreCaseAndUserId(vendorName, userId)
-                .map(v -> v.getTransactionCount() > 3 && amount > (v.getAvgAmount() * 3))
-                .orElse(false);
+        return vendorStatsAggregator.isAnomalous(userId, vendorName, amount);
     }
 
     public List<String> getFrequentVendors(Long userId) {
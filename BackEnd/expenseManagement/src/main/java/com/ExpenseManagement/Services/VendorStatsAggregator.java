@@ -0,0 +1,422 @@
+package com.expensemanagement.services;
+
+import com.expensemanagement.config.Workload;
+import com.expensemanagement.config.WorkloadClass;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory vendor statistics: the global per-vendor totals in
+ * {@code vendor_stats} and each user's per-vendor totals in {@code vendors}.
+ *
+ * <ul>
+ * <li>Submissions add to striped accumulators (count, sum, sum of squares)
+ * keyed by the {@link VendorResolver resolved} vendor, once the submitting
+ * transaction commits. The submit path runs no SQL, and concurrent submissions
+ * to one vendor neither lose increments nor queue on its row.
+ * <li>Every {@code app.vendor-stats.flush-ms} the growth since the previous
+ * flush is written as {@code INSERT ... ON CONFLICT DO UPDATE} increments, one
+ * JDBC batch per table. Accumulators are only ever read, never reset, so an add
+ * racing a flush lands in the next one and the totals stay exact; a failed
+ * flush is retried with the larger delta. Shutdown flushes once more.
+ * <li>An amount is anomalous when it lies more than 3 standard deviations above
+ * the mean of the totals loaded at startup plus everything added since. The
+ * deviation is floored at 2/3 of the mean, so nothing under 3x the average is
+ * ever flagged.
+ * </ul>
+ * Increments made by other nodes reach this node's anomaly baseline on
+ * restart. One accumulator per known vendor and user-vendor pair stays in
+ * memory.
+ */
+@Slf4j
+@Service
+public class VendorStatsAggregator implements CommandLineRunner {
+
+    private static final double Z_THRESHOLD = 3.0;
+    private static final double MIN_RELATIVE_STDDEV = 2.0 / 3.0;
+    /** History needed before anomaly checks apply, globally and per user. */
+    private static final long GLOBAL_MIN_COUNT = 5;
+    private static final long USER_MIN_COUNT = 3;
+
+    /** SQL form of {@link VendorNames#normalize}, for keys of rows written before it existed. */
+    private static final String NORMALIZE_SQL = "lower(btrim(regexp_replace(%s, '\\s+', ' ', 'g')))";
+
+    private static final String VENDOR_STAT_COLUMNS = "INSERT INTO vendor_stats (vendor_key, vendor_name, "
+            + "transaction_count, total_amount, sum_squares, avg_amount, suspicious, suspicious_reason, last_seen) ";
+    private static final String VENDOR_STAT_INCREMENT = "ON CONFLICT (vendor_key) DO UPDATE SET "
+            + "transaction_count = COALESCE(vendor_stats.transaction_count, 0) + EXCLUDED.transaction_count, "
+            + "total_amount = COALESCE(vendor_stats.total_amount, 0) + EXCLUDED.total_amount, "
+            + "sum_squares = COALESCE(vendor_stats.sum_squares, 0) + EXCLUDED.sum_squares, "
+            + "avg_amount = (COALESCE(vendor_stats.total_amount, 0) + EXCLUDED.total_amount) "
+            + "/ NULLIF(COALESCE(vendor_stats.transaction_count, 0) + EXCLUDED.transaction_count, 0), "
+            + "suspicious = vendor_stats.suspicious OR EXCLUDED.suspicious, "
+            + "suspicious_reason = COALESCE(EXCLUDED.suspicious_reason, vendor_stats.suspicious_reason), "
+            + "last_seen = GREATEST(vendor_stats.last_seen, EXCLUDED.last_seen)";
+    private static final String UPSERT_VENDOR_STAT = VENDOR_STAT_COLUMNS + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + VENDOR_STAT_INCREMENT;
+    /** Deletes the rows under each old key and adds their totals to the new key's row. */
+    private static final String REKEY_VENDOR_STATS = "WITH m AS (SELECT * FROM unnest(?, ?, ?) AS m(old_key, new_key, "
+            + "new_name)), moved AS (DELETE FROM vendor_stats s USING m WHERE s.vendor_key = m.old_key RETURNING "
+            + "m.new_key, m.new_name, s.transaction_count, s.total_amount, s.sum_squares, s.suspicious, "
+            + "s.suspicious_reason, s.last_seen) " + VENDOR_STAT_COLUMNS
+            + "SELECT new_key, MIN(new_name), SUM(transaction_count), SUM(total_amount), SUM(sum_squares), "
+            + "SUM(total_amount) / NULLIF(SUM(transaction_count), 0), bool_or(suspicious), MAX(suspicious_reason), "
+            + "MAX(last_seen) FROM moved GROUP BY new_key " + VENDOR_STAT_INCREMENT;
+
+    private static final String USER_VENDOR_COLUMNS = "INSERT INTO vendors (user_id, name, name_key, "
+            + "transaction_count, total_spend, sum_squares, avg_amount, anomaly_count, trust_score, created_at) ";
+    private static final String USER_VENDOR_INCREMENT = "ON CONFLICT (user_id, name_key) DO UPDATE SET "
+            + "transaction_count = COALESCE(vendors.transaction_count, 0) + EXCLUDED.transaction_count, "
+            + "total_spend = COALESCE(vendors.total_spend, 0) + EXCLUDED.total_spend, "
+            + "sum_squares = COALESCE(vendors.sum_squares, 0) + EXCLUDED.sum_squares, "
+            + "avg_amount = (COALESCE(vendors.total_spend, 0) + EXCLUDED.total_spend) "
+            + "/ NULLIF(COALESCE(vendors.transaction_count, 0) + EXCLUDED.transaction_count, 0), "
+            + "anomaly_count = COALESCE(vendors.anomaly_count, 0) + EXCLUDED.anomaly_count, "
+            + "trust_score = GREATEST(0, 100 - (COALESCE(vendors.anomaly_count, 0) + EXCLUDED.anomaly_count) * 10)";
+    private static final String UPSERT_USER_VENDOR = USER_VENDOR_COLUMNS
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, GREATEST(0, 100 - ? * 10), now()) " + USER_VENDOR_INCREMENT;
+    private static final String REKEY_USER_VENDORS = "WITH m AS (SELECT * FROM unnest(?, ?, ?) AS m(old_key, new_key, "
+            + "new_name)), moved AS (DELETE FROM vendors v USING m WHERE v.name_key = m.old_key RETURNING v.user_id, "
+            + "m.new_key, m.new_name, v.transaction_count, v.total_spend, v.sum_squares, v.anomaly_count, "
+            + "v.created_at) " + USER_VENDOR_COLUMNS
+            + "SELECT user_id, MIN(new_name), new_key, SUM(transaction_count), SUM(total_spend), SUM(sum_squares), "
+            + "SUM(total_spend) / NULLIF(SUM(transaction_count), 0), SUM(anomaly_count), "
+            + "GREATEST(0, 100 - SUM(anomaly_count) * 10), MIN(created_at) FROM moved "
+            + "WHERE user_id IS NOT NULL GROUP BY user_id, new_key " + USER_VENDOR_INCREMENT;
+
+    private record UserVendor(long userId, String key) {
+    }
+
+    /** Running totals for one key: the persisted baseline plus striped adds. */
+    private static final class Accumulator {
+        final String displayName;
+        final LongAdder count = new LongAdder();
+        final DoubleAdder sum = new DoubleAdder();
+        final DoubleAdder sumSquares = new DoubleAdder();
+        final LongAdder anomalies = new LongAdder();
+        volatile long lastSeenMillis;
+        volatile long baseCount;
+        volatile double baseSum;
+        volatile double baseSumSquares;
+
+        // Only touched by the (synchronized) flush
+        long flushedCount;
+        double flushedSum;
+        double flushedSumSquares;
+        long flushedAnomalies;
+
+        long unflushed() {
+            return count.sum() - flushedCount;
+        }
+
+        Accumulator(String displayName) {
+            this.displayName = displayName;
+        }
+
+        void add(double amount, boolean anomalous) {
+            count.increment();
+            sum.add(amount);
+            sumSquares.add(amount * amount);
+            if (anomalous) {
+                anomalies.increment();
+            }
+            lastSeenMillis = System.currentTimeMillis();
+        }
+
+        boolean isAnomalous(double amount, long minCount) {
+            long n = baseCount + count.sum();
+            if (n <= minCount) {
+                return false;
+            }
+            double mean = (baseSum + sum.sum()) / n;
+            double variance = Math.max(0, (baseSumSquares + sumSquares.sum()) / n - mean * mean);
+            double stddev = Math.max(Math.sqrt(variance), Math.abs(mean) * MIN_RELATIVE_STDDEV);
+            return amount > mean + Z_THRESHOLD * stddev;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VendorResolver vendorResolver;
+    private final ConcurrentMap<String, Accumulator> vendors = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UserVendor, Accumulator> userVendors = new ConcurrentHashMap<>();
+
+    public VendorStatsAggregator(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            VendorResolver vendorResolver) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.vendorResolver = vendorResolver;
+    }
+
+    @Override
+    public void run(String... args) {
+        try {
+            backfillKeys();
+            loadBaselines();
+        } catch (Exception e) {
+            log.error("VENDOR-STATS: Startup load failed (non-blocking): {}", e.getMessage());
+        }
+    }
+
+    /** Adds a submission to the vendor's global totals; returns whether the amount was anomalous. */
+    public boolean recordVendor(String vendorName, double amount) {
+        VendorResolver.ResolvedVendor vendor = vendorResolver.resolve(vendorName);
+        if (vendor == null) {
+            return false;
+        }
+        return record(vendors.computeIfAbsent(vendor.key(), k -> new Accumulator(vendor.displayName())), amount,
+                GLOBAL_MIN_COUNT);
+    }
+
+    /** Adds a submission to the user's totals for the vendor; returns whether the amount was anomalous. */
+    public boolean recordUserVendor(Long userId, String vendorName, double amount) {
+        VendorResolver.ResolvedVendor vendor = vendorResolver.resolve(vendorName);
+        if (vendor == null || userId == null) {
+            return false;
+        }
+        Accumulator acc = userVendors.computeIfAbsent(new UserVendor(userId, vendor.key()),
+                k -> new Accumulator(vendor.displayName()));
+        return record(acc, amount, USER_MIN_COUNT);
+    }
+
+    /** Whether the amount would be anomalous for this user and vendor, without recording it. */
+    public boolean isAnomalous(Long userId, String vendorName, double amount) {
+        VendorResolver.ResolvedVendor vendor = vendorResolver.find(vendorName);
+        if (vendor == null || userId == null) {
+            return false;
+        }
+        Accumulator acc = userVendors.get(new UserVendor(userId, vendor.key()));
+        return acc != null && acc.isAnomalous(amount, USER_MIN_COUNT);
+    }
+
+    /**
+     * Moves the totals kept under each old key onto its vendor's key, in both
+     * tables, after aliases were re-resolved or vendors merged.
+     */
+    public synchronized void rekey(Map<String, VendorResolver.ResolvedVendor> moves) {
+        if (moves.isEmpty()) {
+            return;
+        }
+        flush();
+        String[] oldKeys = moves.keySet().toArray(String[]::new);
+        String[] newKeys = moves.values().stream().map(VendorResolver.ResolvedVendor::key).toArray(String[]::new);
+        String[] newNames = moves.values().stream().map(VendorResolver.ResolvedVendor::displayName)
+                .toArray(String[]::new);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(con -> textArrays(con.prepareStatement(REKEY_VENDOR_STATS), oldKeys, newKeys,
+                    newNames));
+            jdbcTemplate.update(con -> textArrays(con.prepareStatement(REKEY_USER_VENDORS), oldKeys, newKeys,
+                    newNames));
+        });
+
+        // Old keys get no more adds; re-base the new ones on the merged rows
+        vendors.entrySet().removeIf(e -> moves.containsKey(e.getKey()) && e.getValue().unflushed() == 0);
+        userVendors.entrySet().removeIf(e -> moves.containsKey(e.getKey().key()) && e.getValue().unflushed() == 0);
+        String[] targets = Arrays.stream(newKeys).distinct().toArray(String[]::new);
+        jdbcTemplate.query(con -> textArrays(con.prepareStatement("SELECT vendor_key, vendor_name, transaction_count, "
+                + "total_amount, sum_squares FROM vendor_stats WHERE vendor_key = ANY (?)"), targets), rs -> {
+                    String name = rs.getString(2);
+                    Accumulator acc = vendors.computeIfAbsent(rs.getString(1), k -> new Accumulator(name));
+                    rebase(acc, rs.getLong(3), rs.getDouble(4), rs.getDouble(5));
+                });
+        jdbcTemplate.query(con -> textArrays(con.prepareStatement("SELECT user_id, name_key, name, transaction_count, "
+                + "total_spend, sum_squares FROM vendors WHERE name_key = ANY (?)"), targets), rs -> {
+                    String name = rs.getString(3);
+                    Accumulator acc = userVendors.computeIfAbsent(new UserVendor(rs.getLong(1), rs.getString(2)),
+                            k -> new Accumulator(name));
+                    rebase(acc, rs.getLong(4), rs.getDouble(5), rs.getDouble(6));
+                });
+        log.info("VENDOR-STATS: Re-keyed {} vendor keys onto {} vendors", moves.size(), targets.length);
+    }
+
+    /** Checks now, adds once the submitting transaction commits, so rolled-back expenses never count. */
+    private static boolean record(Accumulator acc, double amount, long minCount) {
+        boolean anomalous = acc.isAnomalous(amount, minCount);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acc.add(amount, anomalous);
+                }
+            });
+        } else {
+            acc.add(amount, anomalous);
+        }
+        return anomalous;
+    }
+
+    @Scheduled(fixedDelayString = "${app.vendor-stats.flush-ms:2000}",
+            initialDelayString = "${app.vendor-stats.flush-ms:2000}")
+    @Workload(WorkloadClass.BACKGROUND)
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("VENDOR-STATS: Flush failed, retrying next cycle: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("VENDOR-STATS: Final flush failed, unflushed increments lost: {}", e.getMessage());
+        }
+    }
+
+    // ── flush ─────────────────────────────────────────────────────────────────
+
+    private synchronized void flush() {
+        List<Runnable> commits = new ArrayList<>();
+        List<Object[]> vendorRows = new ArrayList<>();
+        List<Object[]> userVendorRows = new ArrayList<>();
+
+        vendors.forEach((key, acc) -> delta(acc, commits, (n, sum, sumSq, anomalies) -> vendorRows.add(
+                new Object[] { key, acc.displayName, n, sum, sumSq, sum / n, anomalies > 0,
+                        anomalies > 0 ? anomalies + " amount(s) far above this vendor's usual spend" : null,
+                        new Date(acc.lastSeenMillis) })));
+        userVendors.forEach((uv, acc) -> delta(acc, commits, (n, sum, sumSq, anomalies) -> userVendorRows.add(
+                new Object[] { uv.userId(), acc.displayName, uv.key(), n, sum, sumSq, sum / n, anomalies,
+                        anomalies })));
+        if (commits.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!vendorRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_VENDOR_STAT, vendorRows);
+            }
+            if (!userVendorRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_USER_VENDOR, userVendorRows);
+            }
+        });
+        commits.forEach(Runnable::run);
+        log.debug("VENDOR-STATS: Flushed {} vendor / {} user-vendor increments", vendorRows.size(),
+                userVendorRows.size());
+    }
+
+    @FunctionalInterface
+    private interface DeltaSink {
+        void accept(long count, double sum, double sumSquares, long anomalies);
+    }
+
+    /**
+     * Hands the growth since the last flush to {@code sink} and queues the
+     * bookkeeping that marks it flushed once the batch commits.
+     */
+    private static void delta(Accumulator acc, List<Runnable> commits, DeltaSink sink) {
+        long count = acc.count.sum();
+        double sum = acc.sum.sum();
+        double sumSquares = acc.sumSquares.sum();
+        long anomalies = acc.anomalies.sum();
+        long n = count - acc.flushedCount;
+        if (n == 0) {
+            return;
+        }
+        sink.accept(n, sum - acc.flushedSum, sumSquares - acc.flushedSumSquares, anomalies - acc.flushedAnomalies);
+        commits.add(() -> {
+            acc.flushedCount = count;
+            acc.flushedSum = sum;
+            acc.flushedSumSquares = sumSquares;
+            acc.flushedAnomalies = anomalies;
+        });
+    }
+
+    // ── startup ───────────────────────────────────────────────────────────────
+
+    /**
+     * Keys rows written before keys existed, folding rows whose names normalize
+     * to the same key into the oldest one, so the unique indexes hold.
+     */
+    private void backfillKeys() {
+        String statName = String.format(NORMALIZE_SQL, "vendor_name");
+        Boolean statsMissing = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM vendor_stats WHERE vendor_key IS NULL)", Boolean.class);
+        if (Boolean.TRUE.equals(statsMissing)) {
+            // One multi-statement execute runs as a single implicit transaction
+            jdbcTemplate.execute("UPDATE vendor_stats SET sum_squares = COALESCE(transaction_count, 0) "
+                    + "* COALESCE(avg_amount, 0) * COALESCE(avg_amount, 0) WHERE sum_squares IS NULL; "
+                    + "WITH g AS (SELECT MIN(id) AS keep, SUM(transaction_count) AS c, SUM(total_amount) AS t, "
+                    + "SUM(sum_squares) AS q, bool_or(suspicious) AS s, MAX(last_seen) AS l FROM vendor_stats "
+                    + "GROUP BY " + statName + " HAVING COUNT(*) > 1) "
+                    + "UPDATE vendor_stats v SET transaction_count = g.c, total_amount = g.t, sum_squares = g.q, "
+                    + "avg_amount = g.t / NULLIF(g.c, 0), suspicious = g.s, last_seen = g.l FROM g "
+                    + "WHERE v.id = g.keep; "
+                    + "DELETE FROM vendor_stats v USING vendor_stats k WHERE "
+                    + String.format(NORMALIZE_SQL, "v.vendor_name") + " = "
+                    + String.format(NORMALIZE_SQL, "k.vendor_name") + " AND v.id > k.id; "
+                    + "UPDATE vendor_stats SET vendor_key = " + statName + " WHERE vendor_key IS NULL");
+            log.info("VENDOR-STATS: vendor_stats keyed by normalized vendor name.");
+        }
+
+        String userName = String.format(NORMALIZE_SQL, "name");
+        Boolean vendorsMissing = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM vendors WHERE name_key IS NULL)", Boolean.class);
+        if (Boolean.TRUE.equals(vendorsMissing)) {
+            jdbcTemplate.execute("UPDATE vendors SET sum_squares = COALESCE(transaction_count, 0) "
+                    + "* COALESCE(avg_amount, 0) * COALESCE(avg_amount, 0) WHERE sum_squares IS NULL; "
+                    + "WITH g AS (SELECT MIN(id) AS keep, SUM(transaction_count) AS c, SUM(total_spend) AS t, "
+                    + "SUM(sum_squares) AS q, SUM(anomaly_count) AS a FROM vendors "
+                    + "GROUP BY user_id, " + userName + " HAVING COUNT(*) > 1) "
+                    + "UPDATE vendors v SET transaction_count = g.c, total_spend = g.t, sum_squares = g.q, "
+                    + "avg_amount = g.t / NULLIF(g.c, 0), anomaly_count = g.a, "
+                    + "trust_score = GREATEST(0, 100 - g.a * 10) FROM g WHERE v.id = g.keep; "
+                    + "DELETE FROM vendors v USING vendors k WHERE v.user_id = k.user_id AND "
+                    + String.format(NORMALIZE_SQL, "v.name") + " = " + String.format(NORMALIZE_SQL, "k.name")
+                    + " AND v.id > k.id; "
+                    + "UPDATE vendors SET name_key = " + userName + " WHERE name_key IS NULL");
+            log.info("VENDOR-STATS: vendors keyed by normalized vendor name.");
+        }
+    }
+
+    private void loadBaselines() {
+        jdbcTemplate.query("SELECT vendor_key, vendor_name, transaction_count, total_amount, sum_squares "
+                + "FROM vendor_stats WHERE vendor_key IS NOT NULL", rs -> {
+                    String name = rs.getString(2);
+                    Accumulator acc = vendors.computeIfAbsent(rs.getString(1), k -> new Accumulator(name));
+                    rebase(acc, rs.getLong(3), rs.getDouble(4), rs.getDouble(5));
+                });
+        jdbcTemplate.query("SELECT user_id, name_key, name, transaction_count, total_spend, sum_squares "
+                + "FROM vendors WHERE user_id IS NOT NULL AND name_key IS NOT NULL", rs -> {
+                    UserVendor key = new UserVendor(rs.getLong(1), rs.getString(2));
+                    String name = rs.getString(3);
+                    Accumulator acc = userVendors.computeIfAbsent(key, k -> new Accumulator(name));
+                    rebase(acc, rs.getLong(4), rs.getDouble(5), rs.getDouble(6));
+                });
+        log.info("VENDOR-STATS: Loaded {} vendor / {} user-vendor baselines", vendors.size(), userVendors.size());
+    }
+
+    /** Sets the baseline so baseline + adds equals the persisted row plus what is still unflushed. */
+    private static void rebase(Accumulator acc, long count, double sum, double sumSquares) {
+        acc.baseCount = count - acc.flushedCount;
+        acc.baseSum = sum - acc.flushedSum;
+        acc.baseSumSquares = sumSquares - acc.flushedSumSquares;
+    }
+
+    private static PreparedStatement textArrays(PreparedStatement ps, String[]... values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            ps.setArray(i + 1, ps.getConnection().createArrayOf("text", values[i]));
+        }
+        return ps;
+    }
+}
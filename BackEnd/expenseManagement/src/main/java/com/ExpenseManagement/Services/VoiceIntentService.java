@@ -49,6 +49,7 @@ public class VoiceIntentService {
     private final ManagerService managerService;
     private final TeamBudgetService teamBudgetService;
     private final AuditLogService auditLogService;
+    private final AuditPartitionService auditPartitionService;
     private final VoiceKeywordService voiceKeywordService;
     private final ObjectMapper objectMapper;
 
@@ -302,11 +303,10 @@ public class VoiceIntentService {
 
             case "AUDIT_REPORT" -> {
                 // Return last 20 audit entries (ADMIN-triggered)
-                var auditPage = auditLogService.getAll(
-                        org.springframework.data.domain.PageRequest.of(0, 20));
+                var auditPage = auditLogService.getAll(null, 20);
                 yield CompletableFuture.completedFuture(
-                        Map.of("entries", auditPage.getContent(),
-                                "totalRecords", auditPage.getTotalElements()));
+                        Map.of("entries", auditPage.items(),
+                                "totalRecords", auditPartitionService.estimateRowCount()));
             }
 
             // ── MANAGER: Risk Insights ─────────────────────────────────────────────
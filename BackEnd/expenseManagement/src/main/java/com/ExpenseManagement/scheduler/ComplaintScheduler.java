@@ -1,62 +1,165 @@
 package com.expensemanagement.scheduler;
 
-import com.expensemanagement.dto.ComplaintDTO;
-import com.expensemanagement.entities.Complaint_Priority;
+import com.expensemanagement.config.Workload;
+import com.expensemanagement.config.WorkloadClass;
 import com.expensemanagement.entities.Complaint_Status;
-import com.expensemanagement.services.ComplaintService;
+import com.expensemanagement.entities.Role;
+import com.expensemanagement.notification.Notification;
+import com.expensemanagement.notification.NotificationService;
+import com.expensemanagement.repository.ComplaintRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.time.ZoneId;
 import java.util.List;
 
+/**
+ * Escalates stagnant complaints.
+ * Rules:
+ * - 24 hrs -> Log reminder
+ * - 48 hrs -> Escalate to Admin
+ * - 72 hrs -> Mark as Critical
+ *
+ * <p>
+ * Each open complaint sits in a {@link TimingWheel} under its next rule
+ * deadline, so work happens only when a complaint actually crosses a threshold.
+ * Fired ids are handled with set-based UPDATEs guarded on (status, created_at),
+ * which makes stale queue entries for resolved complaints harmless. The hourly
+ * sweep runs the same UPDATEs as index range scans to catch anything the queue
+ * missed (restarts, rows changed on another node).
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class ComplaintScheduler {
+public class ComplaintScheduler implements CommandLineRunner {
 
-    private final ComplaintService complaintService;
+    private static final List<Complaint_Status> OPEN_STATUSES = List.of(
+            Complaint_Status.SUBMITTED,
+            Complaint_Status.UNDER_REVIEW);
+    private static final int[] THRESHOLD_HOURS = { 24, 48, 72 };
+    private static final int CHUNK_SIZE = 1_000;
+
+    private final ComplaintRepository complaintRepository;
+    private final NotificationService notificationService;
+
+    private final TimingWheel wheel = new TimingWheel(1_000, System.currentTimeMillis());
+
+    /** Queues a newly created complaint (called from ComplaintService). */
+    public void track(Long complaintId, LocalDateTime createdAt) {
+        if (complaintId != null && createdAt != null) {
+            scheduleNext(complaintId, createdAt, LocalDateTime.now());
+        }
+    }
+
+    /** Seeds the queue with open complaints that still have a threshold ahead. */
+    @Override
+    public void run(String... args) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<Object[]> rows = complaintRepository.findOpenDeadlines(OPEN_STATUSES,
+                    now.minusHours(THRESHOLD_HOURS[THRESHOLD_HOURS.length - 1]));
+            for (Object[] row : rows) {
+                scheduleNext((Long) row[0], (LocalDateTime) row[1], now);
+            }
+            log.info("Complaint Scheduler: Queued {} open complaints", rows.size());
+        } catch (Exception e) {
+            log.error("Complaint Scheduler: Seed failed (non-blocking): {}", e.getMessage());
+        }
+    }
+
+    /** Queue tick — handles complaints that crossed a threshold since the last tick. */
+    @Scheduled(fixedRate = 5_000)
+    @Workload(WorkloadClass.BACKGROUND)
+    public void tick() {
+        List<Long> due = wheel.advanceTo(System.currentTimeMillis());
+        for (int from = 0; from < due.size(); from += CHUNK_SIZE) {
+            try {
+                processDue(due.subList(from, Math.min(from + CHUNK_SIZE, due.size())));
+            } catch (Exception e) {
+                log.error("Complaint Scheduler: Escalation batch failed (non-blocking): {}", e.getMessage());
+            }
+        }
+    }
 
     /**
-     * Runs every hour to check for stagnant complaints.
-     * Rules:
-     * - 24 hrs -> Log reminder (in a real system, send email/notification)
-     * - 48 hrs -> Escalate to Admin
-     * - 72 hrs -> Mark as Critical
+     * Safety net — runs every hour. Both statements are range scans on
+     * idx_complaint_status_created and only touch rows that need changing.
      */
     @Scheduled(cron = "0 0 * * * *") // Every hour
+    @Workload(WorkloadClass.BACKGROUND)
     public void processEscalations() {
-        log.info("Complaint Scheduler: Scanning for stagnant complaints...");
-
-        List<Complaint_Status> activeStatuses = Arrays.asList(
-                Complaint_Status.SUBMITTED,
-                Complaint_Status.UNDER_REVIEW);
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<Object[]> escalated = complaintRepository.escalateStale(now.minusHours(48), now.minusHours(72));
+            List<Object[]> critical = complaintRepository.markCritical(now.minusHours(72));
+            notifyChanges(escalated, critical);
+            log.info("Complaint Scheduler: Sweep escalated {}, marked {} critical, {} queued",
+                    escalated.size(), critical.size(), wheel.size());
+        } catch (Exception e) {
+            log.error("Complaint Scheduler: Sweep failed (non-blocking): {}", e.getMessage());
+        }
+    }
 
-        List<ComplaintDTO> activeComplaints = complaintService.getComplaintsByStatus(activeStatuses);
+    private void processDue(List<Long> ids) {
         LocalDateTime now = LocalDateTime.now();
+        LocalDateTime reminderBefore = now.minusHours(24);
+        LocalDateTime escalateBefore = now.minusHours(48);
+        LocalDateTime criticalBefore = now.minusHours(72);
+
+        List<Object[]> escalated = complaintRepository.escalateStaleByIds(ids, escalateBefore, criticalBefore);
+        List<Object[]> critical = complaintRepository.markCriticalByIds(ids, criticalBefore);
+        notifyChanges(escalated, critical);
+
+        // Whatever is still open gets its 24h reminder (if due) and its next deadline
+        for (Object[] row : complaintRepository.findOpenByIds(ids, OPEN_STATUSES)) {
+            Long id = (Long) row[0];
+            LocalDateTime createdAt = (LocalDateTime) row[1];
+            if (createdAt.isBefore(reminderBefore) && !createdAt.isBefore(escalateBefore)) {
+                log.info("SCHEDULER: 24h Reminder for Complaint #{}", id);
+            }
+            scheduleNext(id, createdAt, now);
+        }
+    }
+
+    private void notifyChanges(List<Object[]> escalated, List<Object[]> critical) {
+        for (Object[] row : escalated) {
+            log.info("SCHEDULER: Auto-Escalate - Complaint #{}", row[0]);
+            if (row[1] != null) {
+                notificationService.notifyUser(
+                        ((Number) row[1]).longValue(),
+                        "Complaint Escalated",
+                        "Your complaint #" + row[0] + " (" + row[2] + ") has been escalated to an administrator.",
+                        Notification.NotificationType.INFO,
+                        Notification.NotificationCategory.GENERAL);
+            }
+        }
+        for (Object[] row : critical) {
+            log.info("SCHEDULER: Auto-Critical - Complaint #{}", row[0]);
+        }
+        // One summary per batch for admins instead of one per complaint
+        if (!escalated.isEmpty() || !critical.isEmpty()) {
+            notificationService.notifyRole(
+                    Role.ADMIN,
+                    "Stagnant Complaints",
+                    escalated.size() + " complaint(s) auto-escalated, " + critical.size()
+                            + " marked critical after exceeding response time.",
+                    Notification.NotificationType.WARNING,
+                    Notification.NotificationCategory.GENERAL);
+        }
+    }
 
-        for (ComplaintDTO complaint : activeComplaints) {
-            LocalDateTime created = complaint.getCreatedAt();
-            if (created == null)
-                continue;
-
-            if (created.isBefore(now.minusHours(72))) {
-                if (complaint.getPriority() != Complaint_Priority.CRITICAL) {
-                    log.info("SCHEDULER: Auto-Critical - Complaint #{}", complaint.getId());
-                    complaintService.updateField(complaint.getId(), c -> c.setPriority(Complaint_Priority.CRITICAL));
-                }
-            } else if (created.isBefore(now.minusHours(48))) {
-                if (complaint.getStatus() != Complaint_Status.ESCALATED) {
-                    log.info("SCHEDULER: Auto-Escalate - Complaint #{}", complaint.getId());
-                    complaintService.escalateComplaint(complaint.getId());
-                }
-            } else if (created.isBefore(now.minusHours(24))) {
-                log.info("SCHEDULER: 24h Reminder for Complaint #{}", complaint.getId());
-                // In a real app, send notification here.
+    private void scheduleNext(Long id, LocalDateTime createdAt, LocalDateTime now) {
+        for (int hours : THRESHOLD_HOURS) {
+            LocalDateTime deadline = createdAt.plusHours(hours);
+            if (deadline.isAfter(now)) {
+                wheel.schedule(id, deadline.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                return;
             }
         }
+        wheel.cancel(id);
     }
 }
@@ -0,0 +1,130 @@
+package com.expensemanagement.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel keyed by entity id.
+ *
+ * <p>
+ * {@value #LEVELS} levels of {@value #SLOTS} slots; level {@code n} slots span
+ * {@code 64^n} ticks, so with a 1 s tick the wheel covers ~34 years before
+ * falling back to the overflow list. Scheduling and cancelling are O(1);
+ * advancing costs O(1) per elapsed tick plus the entries that fire or cascade
+ * down a level.
+ *
+ * <p>
+ * Cancellation is lazy: the id → deadline map is the source of truth and
+ * stale bucket entries are skipped when their slot comes up. Rescheduling an
+ * id simply overwrites its deadline. Not thread-safe on its own; all methods
+ * are synchronized.
+ */
+public final class TimingWheel {
+
+    private static final int LEVELS = 5;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private record Entry(long id, long deadlineTick) {
+    }
+
+    private final long tickMs;
+    private final ArrayDeque<Entry>[][] wheel;
+    private final List<Entry> overflow = new ArrayList<>();
+    private final Map<Long, Long> deadlines = new HashMap<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, long startMs) {
+        this.tickMs = tickMs;
+        this.currentTick = startMs / tickMs;
+        this.wheel = new ArrayDeque[LEVELS][SLOTS];
+        for (int l = 0; l < LEVELS; l++) {
+            for (int s = 0; s < SLOTS; s++) {
+                wheel[l][s] = new ArrayDeque<>();
+            }
+        }
+    }
+
+    /** Schedules (or reschedules) {@code id} to fire at {@code deadlineMs}. */
+    public synchronized void schedule(long id, long deadlineMs) {
+        long tick = Math.ceilDiv(deadlineMs, tickMs);
+        deadlines.put(id, tick);
+        place(new Entry(id, tick), null);
+    }
+
+    public synchronized void cancel(long id) {
+        deadlines.remove(id);
+    }
+
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Advances the wheel to {@code nowMs} and returns the ids whose deadline has
+     * passed, each exactly once.
+     */
+    public synchronized List<Long> advanceTo(long nowMs) {
+        List<Long> due = new ArrayList<>();
+        long target = nowMs / tickMs;
+        while (currentTick < target) {
+            currentTick++;
+            for (int l = 1; l < LEVELS; l++) {
+                if ((currentTick & ((1L << (SLOT_BITS * l)) - 1)) != 0) {
+                    break;
+                }
+                cascade(wheel[l][(int) ((currentTick >>> (SLOT_BITS * l)) & SLOT_MASK)], due);
+            }
+            if ((currentTick & ((1L << (SLOT_BITS * LEVELS)) - 1)) == 0 && !overflow.isEmpty()) {
+                List<Entry> pending = new ArrayList<>(overflow);
+                overflow.clear();
+                pending.forEach(e -> place(e, due));
+            }
+            ArrayDeque<Entry> bucket = wheel[0][(int) (currentTick & SLOT_MASK)];
+            for (Entry e; (e = bucket.poll()) != null;) {
+                fire(e, due);
+            }
+        }
+        return due;
+    }
+
+    private void cascade(ArrayDeque<Entry> bucket, List<Long> due) {
+        int n = bucket.size();
+        for (int i = 0; i < n; i++) {
+            place(bucket.poll(), due);
+        }
+    }
+
+    private void place(Entry e, List<Long> due) {
+        long delta = e.deadlineTick() - currentTick;
+        if (delta <= 0) {
+            if (due != null) {
+                fire(e, due);
+            } else {
+                // Already due when scheduled: fire on the next tick
+                wheel[0][(int) ((currentTick + 1) & SLOT_MASK)].add(e);
+            }
+            return;
+        }
+        for (int l = 0; l < LEVELS; l++) {
+            if (delta < (1L << (SLOT_BITS * (l + 1)))) {
+                wheel[l][(int) ((e.deadlineTick() >>> (SLOT_BITS * l)) & SLOT_MASK)].add(e);
+                return;
+            }
+        }
+        overflow.add(e);
+    }
+
+    private void fire(Entry e, List<Long> due) {
+        Long current = deadlines.get(e.id());
+        if (current != null && current == e.deadlineTick()) {
+            deadlines.remove(e.id());
+            due.add(e.id());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.expensemanagement.search;
+
+import com.expensemanagement.entities.Approval_Status;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiled filter tree for a natural-language expense search. Immutable, so a
+ * compiled query can be cached and shared across users; scoping to the caller
+ * happens when it is turned into a Specification.
+ *
+ * @param statuses  any of these statuses, or empty for all
+ * @param category  exact category name (case-insensitive), or {@code null}
+ * @param minAmount inclusive lower bound, or {@code null}
+ * @param maxAmount inclusive upper bound, or {@code null}
+ * @param from      inclusive start date, or {@code null}
+ * @param to        exclusive end date, or {@code null}
+ * @param keywords  words matched (any of them) against title, vendor and description
+ */
+public record ExpenseQuery(Set<Approval_Status> statuses, String category, Double minAmount, Double maxAmount,
+        LocalDate from, LocalDate to, List<String> keywords) {
+
+    public static final ExpenseQuery EMPTY = new ExpenseQuery(Set.of(), null, null, null, null, null, List.of());
+
+    public ExpenseQuery withStatuses(Set<Approval_Status> s) {
+        return new ExpenseQuery(Set.copyOf(s), category, minAmount, maxAmount, from, to, keywords);
+    }
+
+    public ExpenseQuery withCategory(String c) {
+        return new ExpenseQuery(statuses, c, minAmount, maxAmount, from, to, keywords);
+    }
+
+    public ExpenseQuery withAmounts(Double min, Double max) {
+        return new ExpenseQuery(statuses, category, min, max, from, to, keywords);
+    }
+
+    public ExpenseQuery withDates(LocalDate f, LocalDate t) {
+        return new ExpenseQuery(statuses, category, minAmount, maxAmount, f, t, keywords);
+    }
+
+    public ExpenseQuery withKeywords(List<String> k) {
+        return new ExpenseQuery(statuses, category, minAmount, maxAmount, from, to, List.copyOf(k));
+    }
+
+    public boolean hasDates() {
+        return from != null || to != null;
+    }
+}
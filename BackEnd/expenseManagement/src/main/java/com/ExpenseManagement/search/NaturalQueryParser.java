@@ -0,0 +1,259 @@
+package com.expensemanagement.search;
+
+import com.expensemanagement.entities.Approval_Status;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rule-based compiler from free text ("rejected travel over 5k last month")
+ * to an {@link ExpenseQuery}.
+ *
+ * <p>
+ * Recognises amounts (over / under / between, with k/lakh suffixes and
+ * currency marks), dates (ISO dates, month names with optional year, years
+ * after "in" / "of" / "year", today / yesterday, this / last week|month|year,
+ * last N days|weeks|months), statuses and known category names. A bare
+ * number such as "taxi 2050" is not a year, and "may" is only the month when
+ * a year follows it or a date word ("in", "since", ...) precedes it. Every recognised phrase is cut
+ * out of the text; whatever meaningful words remain are returned as
+ * {@link Result#leftovers()} for the caller to resolve (or match as keywords).
+ */
+public final class NaturalQueryParser {
+
+    /** Parsed query plus the words no rule understood. */
+    public record Result(ExpenseQuery query, List<String> leftovers) {
+    }
+
+    private static final String AMOUNT = "(?:rs\\.?|inr|₹|\\$)?\\s*(\\d+(?:\\.\\d+)?)\\s*(k|l|lakh|lakhs|lac|m)?\\b";
+
+    private static final Pattern BETWEEN = Pattern.compile(
+            "\\bbetween\\s+" + AMOUNT + "\\s*(?:and|to|-)\\s*" + AMOUNT);
+    private static final Pattern OVER = Pattern.compile(
+            "(?:\\bover|\\babove|\\bmore than|\\bgreater than|\\bat least|\\bmin(?:imum)?|>=?)\\s*" + AMOUNT);
+    private static final Pattern UNDER = Pattern.compile(
+            "(?:\\bunder|\\bbelow|\\bless than|\\bat most|\\bup ?to|\\bmax(?:imum)?|<=?)\\s*" + AMOUNT);
+
+    private static final Pattern ISO_DATE = Pattern.compile("\\b(\\d{4})-(\\d{2})-(\\d{2})\\b");
+    private static final Pattern LAST_N = Pattern.compile("\\b(?:last|past)\\s+(\\d{1,3})\\s+(day|week|month)s?\\b");
+    private static final Pattern RELATIVE = Pattern.compile(
+            "\\b(today|yesterday|(?:this|last|previous)\\s+(?:week|month|year))\\b");
+    private static final Pattern MONTH = Pattern.compile(
+            "\\b(january|february|march|april|may|june|july|august|september|october|november|december"
+                    + "|jan|feb|mar|apr|jun|jul|aug|sept|sep|oct|nov|dec)(?:\\s+(\\d{4}))?\\b");
+    private static final Pattern YEAR = Pattern.compile("\\b(?:in|of|during|year)\\s+((?:19|20)\\d{2})\\b");
+    /** Words before "may" that make it the month rather than the verb. */
+    private static final Pattern MAY_CONTEXT = Pattern.compile(
+            "\\b(?:in|of|during|since|from|until|till|before|after|last|this|early|mid|late)\\s+$");
+
+    private static final Map<String, Set<Approval_Status>> STATUS_WORDS = Map.of(
+            "pending", EnumSet.of(Approval_Status.PENDING),
+            "approved", EnumSet.of(Approval_Status.APPROVED, Approval_Status.APPROVED_BY_MANAGER,
+                    Approval_Status.APPROVED_BY_FINANCE),
+            "rejected", EnumSet.of(Approval_Status.REJECTED),
+            "declined", EnumSet.of(Approval_Status.REJECTED),
+            "draft", EnumSet.of(Approval_Status.DRAFT),
+            "drafts", EnumSet.of(Approval_Status.DRAFT),
+            "forwarded", EnumSet.of(Approval_Status.FORWARDED_TO_ADMIN));
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "show", "me", "my", "all", "find", "list", "get", "give", "search", "expense", "expenses", "spent",
+            "spend", "spending", "paid", "bills", "bill", "with", "for", "in", "on", "at", "the", "of", "from",
+            "to", "that", "which", "were", "was", "are", "is", "a", "an", "and", "or", "any", "items", "claims",
+            "claim", "since", "during", "than", "amount", "status", "category", "made", "i", "what", "did");
+
+    private NaturalQueryParser() {
+    }
+
+    /** Lower-cased, whitespace-collapsed form used as the compile-cache key. */
+    public static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").trim();
+    }
+
+    /**
+     * @param today      reference date for relative phrases
+     * @param categories known category names, matched as whole phrases
+     */
+    public static Result parse(String text, LocalDate today, Collection<String> categories) {
+        StringBuilder s = new StringBuilder(" " + normalize(text).replace(",", "") + " ");
+        ExpenseQuery q = ExpenseQuery.EMPTY;
+
+        // ── amounts ──
+        Matcher m = BETWEEN.matcher(s);
+        if (m.find()) {
+            q = q.withAmounts(amount(m.group(1), m.group(2)), amount(m.group(3), m.group(4)));
+            cut(s, m);
+        }
+        m = OVER.matcher(s);
+        if (m.find()) {
+            q = q.withAmounts(amount(m.group(1), m.group(2)), q.maxAmount());
+            cut(s, m);
+        }
+        m = UNDER.matcher(s);
+        if (m.find()) {
+            q = q.withAmounts(q.minAmount(), amount(m.group(1), m.group(2)));
+            cut(s, m);
+        }
+
+        // ── dates ──
+        m = ISO_DATE.matcher(s);
+        if (m.find()) {
+            try {
+                LocalDate d = LocalDate.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)),
+                        Integer.parseInt(m.group(3)));
+                q = q.withDates(d, d.plusDays(1));
+                cut(s, m);
+            } catch (java.time.DateTimeException ignored) {
+                // not a real date; leave the text alone
+            }
+        }
+        m = LAST_N.matcher(s);
+        if (!q.hasDates() && m.find()) {
+            int n = Integer.parseInt(m.group(1));
+            LocalDate from = switch (m.group(2)) {
+                case "day" -> today.minusDays(n - 1L);
+                case "week" -> today.minusWeeks(n);
+                default -> today.minusMonths(n);
+            };
+            q = q.withDates(from, today.plusDays(1));
+            cut(s, m);
+        }
+        m = RELATIVE.matcher(s);
+        if (!q.hasDates() && m.find()) {
+            q = relative(q, m.group(1).replace("previous", "last"), today);
+            cut(s, m);
+        }
+        m = MONTH.matcher(s);
+        if (!q.hasDates() && findMonth(s, m)) {
+            Month month = month(m.group(1));
+            int year = m.group(2) != null ? Integer.parseInt(m.group(2))
+                    // No year given: the most recent such month, never one in the future
+                    : (month.getValue() > today.getMonthValue() ? today.getYear() - 1 : today.getYear());
+            YearMonth ym = YearMonth.of(year, month);
+            q = q.withDates(ym.atDay(1), ym.plusMonths(1).atDay(1));
+            cut(s, m);
+        }
+        m = YEAR.matcher(s);
+        if (!q.hasDates() && m.find()) {
+            int year = Integer.parseInt(m.group(1));
+            q = q.withDates(LocalDate.of(year, 1, 1), LocalDate.of(year + 1, 1, 1));
+            cut(s, m);
+        }
+
+        // ── statuses ──
+        EnumSet<Approval_Status> statuses = EnumSet.noneOf(Approval_Status.class);
+        for (Map.Entry<String, Set<Approval_Status>> e : STATUS_WORDS.entrySet()) {
+            Matcher w = Pattern.compile("\\b" + e.getKey() + "\\b").matcher(s);
+            if (w.find()) {
+                statuses.addAll(e.getValue());
+                cut(s, w);
+            }
+        }
+        if (!statuses.isEmpty()) {
+            q = q.withStatuses(statuses);
+        }
+
+        // ── category: longest known name first so "office supplies" beats "office" ──
+        List<String> names = categories.stream()
+                .filter(c -> c != null && !c.isBlank())
+                .sorted(Comparator.comparingInt(String::length).reversed())
+                .toList();
+        for (String name : names) {
+            Matcher c = Pattern.compile("\\b" + Pattern.quote(name.toLowerCase(Locale.ROOT)) + "s?\\b").matcher(s);
+            if (c.find()) {
+                q = q.withCategory(name);
+                cut(s, c);
+                break;
+            }
+        }
+
+        List<String> leftovers = new ArrayList<>();
+        for (String word : s.toString().split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() > 1 && !STOPWORDS.contains(word)) {
+                leftovers.add(word);
+            }
+        }
+        return new Result(q, leftovers);
+    }
+
+    /** Applies a month such as "January" or "jan 2024" as a date range; {@code q} unchanged if none found. */
+    public static ExpenseQuery withMonth(ExpenseQuery q, String text, LocalDate today) {
+        // "in" marks the text as a date, so a bare "May" or "2024" is still read
+        Result r = parse("in " + text, today, List.of());
+        return r.query().hasDates() ? q.withDates(r.query().from(), r.query().to()) : q;
+    }
+
+    private static ExpenseQuery relative(ExpenseQuery q, String phrase, LocalDate today) {
+        return switch (phrase.replaceAll("\\s+", " ")) {
+            case "today" -> q.withDates(today, today.plusDays(1));
+            case "yesterday" -> q.withDates(today.minusDays(1), today);
+            case "this week" -> {
+                LocalDate monday = today.with(DayOfWeek.MONDAY);
+                yield q.withDates(monday, monday.plusWeeks(1));
+            }
+            case "last week" -> {
+                LocalDate monday = today.with(DayOfWeek.MONDAY).minusWeeks(1);
+                yield q.withDates(monday, monday.plusWeeks(1));
+            }
+            case "this month" -> q.withDates(today.withDayOfMonth(1), today.withDayOfMonth(1).plusMonths(1));
+            case "last month" -> q.withDates(today.withDayOfMonth(1).minusMonths(1), today.withDayOfMonth(1));
+            case "this year" -> q.withDates(today.withDayOfYear(1), today.withDayOfYear(1).plusYears(1));
+            case "last year" -> q.withDates(today.withDayOfYear(1).minusYears(1), today.withDayOfYear(1));
+            default -> q;
+        };
+    }
+
+    /** Advances {@code m} to the first month name, skipping a "may" that is not used as a date. */
+    private static boolean findMonth(CharSequence s, Matcher m) {
+        while (m.find()) {
+            if (!m.group(1).equals("may") || m.group(2) != null
+                    || MAY_CONTEXT.matcher(s.subSequence(0, m.start())).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Month month(String prefix) {
+        for (Month month : Month.values()) {
+            if (month.getDisplayName(TextStyle.FULL, Locale.ENGLISH).toLowerCase(Locale.ROOT)
+                    .startsWith(prefix.substring(0, 3))) {
+                return month;
+            }
+        }
+        throw new IllegalArgumentException("Unknown month: " + prefix);
+    }
+
+    private static double amount(String number, String suffix) {
+        double v = Double.parseDouble(number);
+        if (suffix == null) {
+            return v;
+        }
+        return switch (suffix) {
+            case "k" -> v * 1_000;
+            case "l", "lakh", "lakhs", "lac" -> v * 100_000;
+            case "m" -> v * 1_000_000;
+            default -> v;
+        };
+    }
+
+    /** Blanks out a match so later rules and the leftover scan do not see it. */
+    private static void cut(StringBuilder s, Matcher m) {
+        for (int i = m.start(); i < m.end(); i++) {
+            s.setCharAt(i, ' ');
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.expensemanagement.search;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory type-ahead index over a set of short strings (vendor names,
+ * titles, categories) weighted by how often each was used.
+ *
+ * <p>
+ * Every word start of a term is inserted into a character trie, so "hotel"
+ * finds "Marriott Hotel". Each trie node keeps the ids of its
+ * {@value #TOP_K} most frequent terms, which makes a lookup one walk down
+ * the prefix plus scoring a handful of candidates — independent of how many
+ * terms share the prefix. Counts only grow between compactions, so those
+ * per-node lists stay exact under incremental {@link #add}.
+ *
+ * <p>
+ * Memory is bounded by {@code maxTerms}, {@value #MAX_WORDS} indexed words
+ * per term and {@value #MAX_DEPTH} characters per word. Once full, new terms
+ * are rejected until {@link #compact} drops the least used ones.
+ *
+ * <p>
+ * Thread-safe: lookups share a read lock, writes take the write lock.
+ */
+public final class PrefixIndex {
+
+    static final int TOP_K = 16;
+    static final int MAX_DEPTH = 24;
+    static final int MAX_WORDS = 6;
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final int[] NO_TOP = new int[0];
+
+    private static final class Node {
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+        int[] top = NO_TOP;
+        int topSize;
+    }
+
+    private final int maxTerms;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Node root = new Node();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> keys = new ArrayList<>();
+    private final List<String> displays = new ArrayList<>();
+    private long[] counts = new long[1024];
+    private long rejected;
+
+    public PrefixIndex(int maxTerms) {
+        this.maxTerms = maxTerms;
+    }
+
+    /** Lower-cases and collapses everything but letters/digits to single spaces. */
+    public static String normalize(String s) {
+        if (s == null) {
+            return "";
+        }
+        return s.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    // ── writes ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Adds {@code delta} uses of {@code term}. Returns {@code false} if the term
+     * is empty or new while the index is full.
+     */
+    public boolean add(String term, long delta) {
+        String key = normalize(term);
+        if (key.isEmpty() || delta <= 0) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer id = ids.get(key);
+            if (id == null) {
+                if (keys.size() >= maxTerms) {
+                    rejected++;
+                    return false;
+                }
+                id = keys.size();
+                ids.put(key, id);
+                keys.add(key);
+                displays.add(term.trim());
+                if (id == counts.length) {
+                    counts = Arrays.copyOf(counts, counts.length * 2);
+                }
+            }
+            counts[id] += delta;
+            index(id, key);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(int id, String key) {
+        int words = 0;
+        for (int start = 0; start < key.length() && words < MAX_WORDS; start++) {
+            if (start > 0 && key.charAt(start - 1) != ' ') {
+                continue;
+            }
+            words++;
+            Node node = root;
+            int end = Math.min(key.length(), start + MAX_DEPTH);
+            for (int i = start; i < end; i++) {
+                node = child(node, key.charAt(i));
+                offer(node, id);
+            }
+        }
+    }
+
+    private static Node child(Node node, char c) {
+        int pos = Arrays.binarySearch(node.keys, c);
+        if (pos >= 0) {
+            return node.children[pos];
+        }
+        int at = -pos - 1;
+        int n = node.keys.length;
+        char[] keys = new char[n + 1];
+        Node[] children = new Node[n + 1];
+        System.arraycopy(node.keys, 0, keys, 0, at);
+        System.arraycopy(node.children, 0, children, 0, at);
+        keys[at] = c;
+        children[at] = new Node();
+        System.arraycopy(node.keys, at, keys, at + 1, n - at);
+        System.arraycopy(node.children, at, children, at + 1, n - at);
+        node.keys = keys;
+        node.children = children;
+        return children[at];
+    }
+
+    /** Keeps {@code node.top} sorted by count desc after {@code id}'s count grew. */
+    private void offer(Node node, int id) {
+        int pos = -1;
+        for (int i = 0; i < node.topSize; i++) {
+            if (node.top[i] == id) {
+                pos = i;
+                break;
+            }
+        }
+        if (pos < 0) {
+            if (node.topSize < TOP_K) {
+                if (node.topSize == node.top.length) {
+                    node.top = Arrays.copyOf(node.top, Math.min(TOP_K, Math.max(2, node.top.length * 2)));
+                }
+                pos = node.topSize++;
+            } else if (counts[id] > counts[node.top[TOP_K - 1]]) {
+                pos = TOP_K - 1;
+            } else {
+                return;
+            }
+            node.top[pos] = id;
+        }
+        while (pos > 0 && counts[node.top[pos - 1]] < counts[id]) {
+            node.top[pos] = node.top[pos - 1];
+            node.top[--pos] = id;
+        }
+    }
+
+    /**
+     * Keeps only the {@code keep} most used terms and rebuilds the trie, making
+     * room for new ones.
+     */
+    public void compact(int keep) {
+        lock.writeLock().lock();
+        try {
+            Integer[] order = new Integer[keys.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingLong((Integer i) -> counts[i]).reversed());
+            List<String> oldKeys = new ArrayList<>(keys);
+            List<String> oldDisplays = new ArrayList<>(displays);
+            long[] oldCounts = counts;
+
+            root = new Node();
+            ids.clear();
+            keys.clear();
+            displays.clear();
+            counts = new long[Math.max(1024, Math.min(keep, order.length))];
+            for (int i = 0; i < Math.min(keep, order.length); i++) {
+                int old = order[i];
+                int id = keys.size();
+                ids.put(oldKeys.get(old), id);
+                keys.add(oldKeys.get(old));
+                displays.add(oldDisplays.get(old));
+                counts[id] = oldCounts[old];
+                index(id, oldKeys.get(old));
+            }
+            rejected = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ── reads ──────────────────────────────────────────────────────────────────
+
+    /**
+     * Up to {@code limit} terms matching {@code prefix} at a word start, best
+     * first. {@code personal} (normalized term → uses by the caller, may be
+     * {@code null}) lifts the caller's own terms by {@code personalWeight} and
+     * lets them surface even when they are not globally popular.
+     */
+    public List<String> suggest(String prefix, int limit, Map<String, Integer> personal, double personalWeight) {
+        String p = normalize(prefix);
+        if (p.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Map<String, Double> scored = new HashMap<>();
+        Map<String, String> display = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            Node node = find(p);
+            if (node != null) {
+                boolean truncated = p.length() > MAX_DEPTH;
+                for (int i = 0; i < node.topSize; i++) {
+                    int id = node.top[i];
+                    String key = keys.get(id);
+                    if (truncated && !matches(key, p)) {
+                        continue;
+                    }
+                    int own = personal != null ? personal.getOrDefault(key, 0) : 0;
+                    scored.put(key, score(counts[id], own, personalWeight));
+                    display.put(key, displays.get(id));
+                }
+            }
+            if (personal != null) {
+                for (Map.Entry<String, Integer> e : personal.entrySet()) {
+                    String key = e.getKey();
+                    if (!scored.containsKey(key) && matches(key, p)) {
+                        Integer id = ids.get(key);
+                        scored.put(key, score(id != null ? counts[id] : 0, e.getValue(), personalWeight));
+                        display.put(key, id != null ? displays.get(id) : key);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return scored.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(limit)
+                .map(e -> display.get(e.getKey()))
+                .toList();
+    }
+
+    /** Display form of a normalized key, or the key itself if unknown. */
+    public String display(String key) {
+        lock.readLock().lock();
+        try {
+            Integer id = ids.get(key);
+            return id != null ? displays.get(id) : key;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return keys.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** New terms turned away since the last compaction because the index was full. */
+    public long rejected() {
+        lock.readLock().lock();
+        try {
+            return rejected;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Node find(String p) {
+        Node node = root;
+        for (int i = 0; i < p.length() && i < MAX_DEPTH; i++) {
+            int pos = Arrays.binarySearch(node.keys, p.charAt(i));
+            if (pos < 0) {
+                return null;
+            }
+            node = node.children[pos];
+        }
+        return node;
+    }
+
+    private static boolean matches(String key, String p) {
+        return key.startsWith(p) || key.contains(" " + p);
+    }
+
+    private static double score(long global, int own, double personalWeight) {
+        return Math.log1p(global) + personalWeight * Math.log1p(own);
+    }
+
+    // ── snapshot ───────────────────────────────────────────────────────────────
+
+    /** Writes terms and counts only; the trie is rebuilt on load. */
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                out.writeUTF(displays.get(i));
+                out.writeLong(counts[i]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void readFrom(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            String display = in.readUTF();
+            add(display, in.readLong());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.expensemanagement.config;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Two nodes, each with the in-memory simple broker and its own fan-out; the
+ * test moves NOTIFY payloads between them in place of Postgres.
+ */
+class PgNotifyBrokerFanoutTest {
+
+	private Node nodeA;
+	private Node nodeB;
+
+	@BeforeEach
+	void setUp() {
+		nodeA = new Node();
+		nodeB = new Node();
+	}
+
+	@AfterEach
+	void tearDown() {
+		nodeA.broker.stop();
+		nodeB.broker.stop();
+	}
+
+	@Test
+	void topicMessageReachesSubscribersOnOtherNodes() {
+		byte[] payload = "{\"expenseId\":42}".getBytes(StandardCharsets.UTF_8);
+		nodeA.publish("/topic/expenses", payload);
+
+		assertEquals(1, nodeA.delivered.size());
+		assertEquals(1, nodeA.fanout.outbox.size());
+
+		notifyAll(nodeA.fanout.outbox.poll());
+
+		assertEquals(1, nodeA.delivered.size(), "own notification must not be delivered twice");
+		assertEquals(1, nodeB.delivered.size());
+		assertArrayEquals(payload, (byte[]) nodeB.delivered.get(0).getPayload());
+		assertTrue(nodeB.fanout.outbox.isEmpty(), "re-injected message must not be published again");
+		assertEquals(1.0, nodeB.registry.counter("ws.fanout.received").count());
+	}
+
+	@Test
+	void oversizedPayloadIsDeliveredLocallyOnly() {
+		nodeA.publish("/topic/expenses", new byte[8000]);
+
+		assertEquals(1, nodeA.delivered.size());
+		assertTrue(nodeA.fanout.outbox.isEmpty());
+		assertEquals(1.0, nodeA.registry.counter("ws.fanout.dropped").count());
+	}
+
+	@Test
+	void applicationDestinationsAreNotFannedOut() {
+		nodeA.publish("/app/expenses", new byte[1]);
+
+		assertTrue(nodeA.fanout.outbox.isEmpty());
+	}
+
+	private void notifyAll(String envelope) {
+		nodeA.fanout.deliver(envelope);
+		nodeB.fanout.deliver(envelope);
+	}
+
+	private static final class Node {
+
+		final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		final List<Message<?>> delivered = new CopyOnWriteArrayList<>();
+		final ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+		final PgNotifyBrokerFanout fanout;
+		final SimpleBrokerMessageHandler broker;
+
+		Node() {
+			fanout = new PgNotifyBrokerFanout(new DataSourceProperties(), brokerChannel, new ObjectMapper(),
+					registry, "ws_fanout", 16);
+			brokerChannel.addInterceptor(fanout);
+			MessageChannel clientOutbound = (message, timeout) -> delivered.add(message);
+			broker = new SimpleBrokerMessageHandler(new ExecutorSubscribableChannel(), clientOutbound,
+					brokerChannel, List.of("/topic"));
+			broker.start();
+
+			SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+			connect.setSessionId("session-1");
+			brokerChannel.send(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+			SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+			subscribe.setSessionId("session-1");
+			subscribe.setSubscriptionId("sub-1");
+			subscribe.setDestination("/topic/expenses");
+			brokerChannel.send(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+			delivered.clear(); // CONNECT_ACK
+		}
+
+		void publish(String destination, byte[] payload) {
+			SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+			accessor.setDestination(destination);
+			accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+			brokerChannel.send(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+		}
+	}
+}
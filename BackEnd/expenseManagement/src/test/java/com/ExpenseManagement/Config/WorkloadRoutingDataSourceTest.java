@@ -0,0 +1,91 @@
+package com.expensemanagement.config;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * One real Hikari pool per workload class on an in-memory database: filling
+ * one pool must leave every other class able to check out a connection.
+ */
+class WorkloadRoutingDataSourceTest {
+
+	private static final int POOL_SIZE = 2;
+
+	private final Map<WorkloadClass, HikariDataSource> pools = new EnumMap<>(WorkloadClass.class);
+	private final List<Connection> held = new ArrayList<>();
+	private WorkloadRoutingDataSource dataSource;
+
+	@BeforeEach
+	void setUp() {
+		for (WorkloadClass workload : WorkloadClass.values()) {
+			HikariDataSource pool = new HikariDataSource();
+			pool.setJdbcUrl("jdbc:h2:mem:bulkhead");
+			pool.setUsername("sa");
+			pool.setPoolName(workload.poolName());
+			pool.setMaximumPoolSize(POOL_SIZE);
+			pool.setMinimumIdle(0);
+			pool.setConnectionTimeout(250);
+			pools.put(workload, pool);
+		}
+		dataSource = new WorkloadRoutingDataSource(Map.copyOf(pools));
+	}
+
+	@AfterEach
+	void tearDown() throws SQLException {
+		for (Connection connection : held) {
+			connection.close();
+		}
+		pools.values().forEach(HikariDataSource::close);
+	}
+
+	@Test
+	void reportStormDoesNotBlockInteractiveCheckout() throws Throwable {
+		saturate(WorkloadClass.REPORTING);
+
+		assertTimeoutPreemptively(Duration.ofMillis(200), () -> assertCheckout(WorkloadClass.INTERACTIVE));
+		assertCheckout(WorkloadClass.BACKGROUND);
+	}
+
+	@Test
+	void batchScanDoesNotBlockBackgroundTicks() throws Throwable {
+		saturate(WorkloadClass.BATCH);
+
+		assertCheckout(WorkloadClass.BACKGROUND);
+		assertCheckout(WorkloadClass.INTERACTIVE);
+	}
+
+	private void saturate(WorkloadClass workload) throws Throwable {
+		WorkloadRoutingDataSource.within(workload, () -> {
+			for (int i = 0; i < POOL_SIZE; i++) {
+				held.add(dataSource.getConnection());
+			}
+			assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+			return null;
+		});
+	}
+
+	private void assertCheckout(WorkloadClass workload) throws Throwable {
+		WorkloadRoutingDataSource.within(workload, () -> {
+			try (Connection connection = dataSource.getConnection()) {
+				assertTrue(connection.isValid(1));
+			}
+			return null;
+		});
+	}
+}
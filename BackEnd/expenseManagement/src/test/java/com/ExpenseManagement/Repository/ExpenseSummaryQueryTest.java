@@ -0,0 +1,169 @@
+package com.expensemanagement.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.expensemanagement.dto.ExpenseSummaryDTO;
+import com.expensemanagement.entities.Approval_Status;
+import com.expensemanagement.entities.Expense;
+import com.expensemanagement.entities.Role;
+import com.expensemanagement.entities.Team;
+import com.expensemanagement.entities.User;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Statement budget for the admin, manager and user expense lists: one page
+ * select plus one count, however many submitters, teams and managers the page
+ * spans. An N+1 fetch creeping back in fails here.
+ */
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:summaries;MODE=PostgreSQL;NON_KEYWORDS=MONTH,YEAR,VALUE,KEY",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ExpenseSummaryQueryTest {
+
+	private static final int MAX_STATEMENTS_PER_PAGE = 2;
+	private static final PageRequest PAGE = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "date"));
+
+	@Autowired
+	TestEntityManager em;
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+	@Autowired
+	ExpenseRepository expenseRepository;
+
+	private Team teamA;
+	private User memberA;
+
+	@BeforeEach
+	void seed() {
+		teamA = team("alpha");
+		Team teamB = team("beta");
+		for (int u = 0; u < 4; u++) {
+			User a = user("a" + u, teamA);
+			User b = user("b" + u, teamB);
+			if (u == 0) {
+				memberA = a;
+			}
+			for (int i = 0; i < 3; i++) {
+				expense(a, i);
+				expense(b, i);
+			}
+		}
+		em.flush();
+		em.clear();
+	}
+
+	@Test
+	void adminListStaysWithinBudget() {
+		Page<ExpenseSummaryDTO> page = withinBudget(() -> expenseRepository.findSummaries(PAGE));
+		assertEquals(24, page.getTotalElements());
+		assertManagerNested(page);
+
+		page = withinBudget(() -> expenseRepository.findSummariesByStatus(Approval_Status.PENDING, PAGE));
+		assertEquals(16, page.getTotalElements());
+	}
+
+	@Test
+	void managerListStaysWithinBudget() {
+		Page<ExpenseSummaryDTO> page = withinBudget(() -> expenseRepository.findSummariesByTeam(teamA.getId(), PAGE));
+		assertEquals(12, page.getTotalElements());
+		assertManagerNested(page);
+
+		page = withinBudget(() -> expenseRepository.findSummariesByTeamAndStatus(teamA.getId(),
+				Approval_Status.APPROVED, PAGE));
+		assertEquals(4, page.getTotalElements());
+	}
+
+	@Test
+	void userListStaysWithinBudget() {
+		Page<ExpenseSummaryDTO> page = withinBudget(() -> expenseRepository.findSummariesByUser(memberA.getId(),
+				PageRequest.of(0, 2)));
+		assertEquals(3, page.getTotalElements());
+		assertManagerNested(page);
+
+		page = withinBudget(() -> expenseRepository.findSummariesByUserAndStatus(memberA.getId(),
+				Approval_Status.PENDING, PAGE));
+		assertEquals(2, page.getTotalElements());
+	}
+
+	@Test
+	void searchPageHydratesInOneStatement() {
+		List<Long> ids = expenseRepository.findAll().stream().map(Expense::getId).limit(10).toList();
+		Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		em.clear();
+		stats.clear();
+		List<ExpenseSummaryDTO> page = expenseRepository.findSummariesByIds(ids);
+		assertEquals(1, stats.getPrepareStatementCount());
+		assertEquals(10, page.size());
+		page.forEach(e -> assertNotNull(e.user().team().manager().name()));
+	}
+
+	private <T> T withinBudget(Supplier<T> query) {
+		Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		em.clear();
+		stats.clear();
+		T result = query.get();
+		long statements = stats.getPrepareStatementCount();
+		assertTrue(statements <= MAX_STATEMENTS_PER_PAGE,
+				"expected at most " + MAX_STATEMENTS_PER_PAGE + " statements, got " + statements);
+		return result;
+	}
+
+	private static void assertManagerNested(Page<ExpenseSummaryDTO> page) {
+		assertTrue(page.hasContent());
+		page.forEach(e -> assertNotNull(e.user().team().manager().name()));
+	}
+
+	private Team team(String name) {
+		User manager = new User();
+		manager.setName(name + "-manager");
+		manager.setEmail(name + "-manager@example.com");
+		manager.setRole(Role.MANAGER);
+		em.persist(manager);
+		return em.persist(Team.builder().name(name).manager(manager).build());
+	}
+
+	private User user(String name, Team team) {
+		User user = new User();
+		user.setName(name);
+		user.setEmail(name + "@example.com");
+		user.setRole(Role.USER);
+		user.setTeam(team);
+		return em.persist(user);
+	}
+
+	private void expense(User user, int i) {
+		Expense expense = new Expense();
+		expense.setTitle(user.getName() + "-" + i);
+		expense.setAmount(100 + i);
+		expense.setDate(LocalDate.of(2026, 1, 1).plusDays(i));
+		expense.setCategory("Travel");
+		expense.setStatus(i == 2 ? Approval_Status.APPROVED : Approval_Status.PENDING);
+		expense.setUser(user);
+		em.persist(expense);
+	}
+}
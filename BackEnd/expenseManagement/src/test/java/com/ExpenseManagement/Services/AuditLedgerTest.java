@@ -0,0 +1,72 @@
+package com.expensemanagement.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLedgerTest {
+
+	/** 27 bytes; the type field holds 16. */
+	private static final String LONG_TYPE = "EXPENSE_REIMBURSEMENT_BATCH";
+	/** "É" is two bytes; the third one straddles the 16-byte cut. */
+	private static final String MULTIBYTE_TYPE = "RAPPORT_DÉPENSÉÉÉ";
+
+	@Mock
+	AuditLogWriter auditLogWriter;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void longTypesAreFoundBeforeAndAfterRestart() throws Exception {
+		AuditLedger ledger = open();
+		ledger.append(event(LONG_TYPE, 7L));
+		ledger.append(event(MULTIBYTE_TYPE, 8L));
+		assertFound(ledger);
+		ledger.stop();
+
+		AuditLedger reopened = open();
+		assertFound(reopened);
+		reopened.stop();
+	}
+
+	@Test
+	void truncationKeepsWholeCharacters() throws Exception {
+		AuditLedger ledger = open();
+		ledger.append(event(MULTIBYTE_TYPE, 8L));
+		String stored = ledger.findByEntity(MULTIBYTE_TYPE, 8L, 1).get(0).entityType();
+		ledger.stop();
+
+		assertFalse(stored.contains("�"), stored);
+		assertEquals("RAPPORT_DÉPENS", stored); // the next "É" would be bytes 16-17
+	}
+
+	private void assertFound(AuditLedger ledger) {
+		List<AuditLedger.LedgerRecord> byLong = ledger.findByEntity(LONG_TYPE, 7L, 10);
+		List<AuditLedger.LedgerRecord> byMultibyte = ledger.findByEntity(MULTIBYTE_TYPE, 8L, 10);
+		assertEquals(1, byLong.size());
+		assertEquals(1, byMultibyte.size());
+	}
+
+	private AuditLedger open() {
+		AuditLedger ledger = new AuditLedger(auditLogWriter, new SimpleMeterRegistry(), dir.toString(), 1, 1440, 100);
+		ledger.start();
+		return ledger;
+	}
+
+	private static AuditLogWriter.AuditEvent event(String type, Long id) {
+		return new AuditLogWriter.AuditEvent(type, id, "CREATED", "tester", "USER", "details", LocalDateTime.now());
+	}
+}
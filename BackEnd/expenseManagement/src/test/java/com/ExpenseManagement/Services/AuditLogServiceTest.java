@@ -0,0 +1,77 @@
+package com.expensemanagement.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.expensemanagement.dto.CursorPage;
+import com.expensemanagement.entities.AuditLog;
+import com.expensemanagement.repository.AuditLogRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLogServiceTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 10, 12, 0);
+
+	@Mock
+	AuditLogRepository auditLogRepository;
+	@Mock
+	AuditLogWriter auditLogWriter;
+	@Mock
+	AuditPartitionService auditPartitionService;
+	@Mock
+	JdbcTemplate jdbcTemplate;
+	@Mock
+	ObjectProvider<AuditLedger> auditLedger;
+
+	private AuditLogService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new AuditLogService(auditLogRepository, auditLogWriter, auditPartitionService, jdbcTemplate,
+				auditLedger);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void legacyRowsAreMergedWhileTheMoveIsPending() {
+		when(auditPartitionService.legacyPending()).thenReturn(true);
+		when(auditLogRepository.findAllByOrderByTimestampDescIdDesc(Limit.of(3)))
+				.thenReturn(List.of(row(9, 0), row(8, 2)));
+		when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+				.thenReturn(List.of(row(3, 1), row(2, 3)));
+
+		CursorPage<AuditLog> page = service.getAll(null, 2);
+
+		assertEquals(List.of(9L, 3L), page.items().stream().map(AuditLog::getId).toList());
+		assertTrue(page.hasMore());
+	}
+
+	@Test
+	void legacyTableIsNotReadOnceMoved() {
+		when(auditLogRepository.findAllByOrderByTimestampDescIdDesc(Limit.of(3))).thenReturn(List.of(row(9, 0)));
+
+		assertEquals(1, service.getAll(null, 2).items().size());
+		verifyNoInteractions(jdbcTemplate);
+	}
+
+	private static AuditLog row(long id, int minutesAgo) {
+		return AuditLog.builder().id(id).timestamp(NOW.minusMinutes(minutesAgo)).build();
+	}
+}
@@ -0,0 +1,112 @@
+package com.expensemanagement.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.expensemanagement.dto.AIDTOs;
+import com.expensemanagement.entities.Expense;
+import com.expensemanagement.notification.NotificationService;
+import com.expensemanagement.repository.ExpenseRepository;
+import com.expensemanagement.repository.ExpenseSplitRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ExpenseServiceImpleTest {
+
+	@Mock
+	ExpenseRepository expenseRepository;
+	@Mock
+	NotificationService notificationService;
+	@Mock
+	CategoryResolver categoryResolver;
+	@Mock
+	DuplicateDetectionService duplicateDetectionService;
+	@Mock
+	FreezePeriodService freezePeriodService;
+	@Mock
+	AuditLogService auditLogService;
+	@Mock
+	SlaService slaService;
+	@Mock
+	BudgetGuardService budgetGuardService;
+	@Mock
+	CategorySuggestionService categorySuggestionService;
+	@Mock
+	ExpenseSplitRepository expenseSplitRepository;
+	@Mock
+	PolicyService policyService;
+	@Mock
+	VendorAnalyticsService vendorAnalyticsService;
+	@Mock
+	ConfidenceScoreService confidenceScoreService;
+	@Mock
+	VendorService userVendorService;
+	@Mock
+	ExpenseSearchService expenseSearchService;
+	@Mock
+	TypeaheadService typeaheadService;
+	@Mock
+	ExpenseStateMachine stateMachine;
+	@Mock
+	ApprovalInboxService approvalInboxService;
+	@Mock
+	FraudDetectionService fraudDetectionService;
+	@Mock
+	VendorResolver vendorResolver;
+	@Mock
+	ApplicationEventPublisher eventPublisher;
+
+	@InjectMocks
+	ExpenseServiceImple expenseService;
+
+	@Test
+	void policyEscalationKeepsTheSavedVersion() {
+		// Each save returns a new instance one version ahead, as a JPA merge does
+		List<Expense> saves = new ArrayList<>();
+		when(expenseRepository.save(any(Expense.class))).thenAnswer(inv -> {
+			Expense argument = inv.getArgument(0);
+			saves.add(argument);
+			return persisted(argument);
+		});
+		when(policyService.evaluatePolicies(any(Expense.class))).thenReturn(true);
+		when(confidenceScoreService.calculateScore(any(Expense.class)))
+				.thenReturn(AIDTOs.ConfidenceScoreResult.builder().score(80).build());
+
+		Expense expense = new Expense();
+		expense.setTitle("Client dinner");
+		expense.setCategory("Food");
+		expense.setAmount(12_000);
+
+		Expense result = expenseService.saveExpense(expense);
+
+		assertEquals(3, saves.size());
+		assertEquals("ADMIN", saves.get(1).getApprovalStage());
+		assertEquals(saves.get(1).getVersion() + 1, saves.get(2).getVersion(),
+				"the score save must use the entity returned by the escalation save");
+		assertEquals(saves.get(2).getVersion() + 1, result.getVersion());
+		assertEquals(80.0, result.getConfidenceScore());
+	}
+
+	private static Expense persisted(Expense source) {
+		Expense copy = new Expense();
+		copy.setId(source.getId() != null ? source.getId() : 1L);
+		copy.setVersion(source.getVersion() + 1);
+		copy.setTitle(source.getTitle());
+		copy.setCategory(source.getCategory());
+		copy.setAmount(source.getAmount());
+		copy.setStatus(source.getStatus());
+		copy.setApprovalStage(source.getApprovalStage());
+		copy.setConfidenceScore(source.getConfidenceScore());
+		return copy;
+	}
+}
@@ -0,0 +1,73 @@
+package com.expensemanagement.services;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.expensemanagement.entities.Approval_Status;
+import com.expensemanagement.entities.Expense;
+import com.expensemanagement.exception.ExpenseConflictException;
+import com.expensemanagement.repository.ExpenseRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ExpenseStateMachineTest {
+
+	private static final Set<Approval_Status> FROM_PENDING = EnumSet.of(Approval_Status.PENDING);
+
+	@Mock
+	ExpenseRepository expenseRepository;
+	@Mock
+	ApprovalInboxService approvalInboxService;
+	@Mock
+	ApplicationEventPublisher eventPublisher;
+
+	@InjectMocks
+	ExpenseStateMachine stateMachine;
+
+	@Test
+	void winnerGetsTheExpense() {
+		Expense expense = expense(Approval_Status.APPROVED);
+		when(expenseRepository.transition(eq(1L), eq(FROM_PENDING), eq(Approval_Status.APPROVED), any(), any(),
+				any())).thenReturn(1);
+		when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+
+		assertSame(expense, stateMachine.transition(1L, FROM_PENDING, Approval_Status.APPROVED, "MANAGER", null,
+				null));
+		verify(approvalInboxService).refreshAfterCommit(1L);
+	}
+
+	@Test
+	void loserConflictsEvenWhenTheTargetStatusIsAlreadySet() {
+		when(expenseRepository.transition(eq(1L), eq(FROM_PENDING), eq(Approval_Status.REJECTED), any(), any(),
+				any())).thenReturn(0);
+		when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense(Approval_Status.REJECTED)));
+
+		assertThrows(ExpenseConflictException.class, () -> stateMachine.transition(1L, FROM_PENDING,
+				Approval_Status.REJECTED, "MANAGER", "late", "late"));
+		verify(approvalInboxService, never()).refreshAfterCommit(anyLong());
+		verify(eventPublisher, never()).publishEvent(any(Object.class));
+	}
+
+	private static Expense expense(Approval_Status status) {
+		Expense expense = new Expense();
+		expense.setId(1L);
+		expense.setStatus(status);
+		return expense;
+	}
+}
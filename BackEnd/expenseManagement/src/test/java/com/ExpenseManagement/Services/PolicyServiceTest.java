@@ -0,0 +1,87 @@
+package com.expensemanagement.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.expensemanagement.dto.PolicyBreach;
+import com.expensemanagement.entities.Approval_Status;
+import com.expensemanagement.entities.Expense;
+import com.expensemanagement.entities.ExpensePolicy;
+import com.expensemanagement.entities.User;
+import com.expensemanagement.repository.ExpensePolicyRepository;
+import com.expensemanagement.repository.ExpenseRepository;
+
+@ExtendWith(MockitoExtension.class)
+class PolicyServiceTest {
+
+	private static final YearMonth MONTH = YearMonth.of(2026, 3);
+
+	@Mock
+	ExpensePolicyRepository policyRepository;
+	@Mock
+	ExpenseRepository expenseRepository;
+	@Mock
+	SpendProfileService spendProfileService;
+
+	private PolicyService policyService;
+
+	@BeforeEach
+	void setUp() {
+		ExpensePolicy policy = new ExpensePolicy();
+		policy.setId(1L);
+		policy.setName("Monthly cap");
+		policy.setMonthlyLimit(1000.0);
+		when(policyRepository.findActiveWithCategories()).thenReturn(List.of(policy));
+
+		int month = MONTH.getYear() * 12 + MONTH.getMonthValue() - 1;
+		SpendProfile.Builder profile = new SpendProfile.Builder(month - 11);
+		profile.add("Travel", Approval_Status.APPROVED, month, 2, 900);
+		profile.add("Travel", Approval_Status.REJECTED, month, 1, 5000); // not counted
+		profile.add("Travel", Approval_Status.APPROVED, month - 1, 1, 5000); // another month
+		when(spendProfileService.get(7L)).thenReturn(profile.build());
+
+		policyService = new PolicyService(policyRepository, expenseRepository, spendProfileService);
+	}
+
+	@Test
+	void monthlyLimitIsCheckedAgainstTheProfileWithoutAQuery() {
+		assertTrue(policyService.evaluate(expense(100)).isEmpty());
+
+		List<PolicyBreach> breaches = policyService.evaluate(expense(101));
+		assertEquals(1, breaches.size());
+		assertEquals("Monthly cap", breaches.get(0).policyName());
+		verifyNoInteractions(expenseRepository);
+	}
+
+	@Test
+	void evaluationDoesNotReloadPolicies() {
+		policyService.evaluate(expense(1));
+		policyService.evaluate(expense(1));
+		verify(policyRepository, times(1)).findActiveWithCategories();
+	}
+
+	private static Expense expense(double amount) {
+		User user = new User();
+		user.setId(7L);
+		Expense expense = new Expense();
+		expense.setUser(user);
+		expense.setAmount(amount);
+		expense.setCategory("Travel");
+		expense.setDate(LocalDate.of(2026, 3, 15));
+		return expense;
+	}
+}
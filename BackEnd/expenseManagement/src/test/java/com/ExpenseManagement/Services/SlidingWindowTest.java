@@ -0,0 +1,33 @@
+package com.expensemanagement.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class SlidingWindowTest {
+
+	@Test
+	void lateEventIsCountedInsideItsWindow() {
+		SlidingWindow window = new SlidingWindow(8);
+		window.record(1_000, 10, 0);
+		window.record(3_000, 30, 0);
+		window.record(2_000, 20, 0); // screened after the 3 s one
+
+		assertEquals(2, window.count(2_000, 0));
+		assertEquals(50, window.sum(2_000));
+		assertEquals(3_000, window.newest());
+	}
+
+	@Test
+	void fullBufferDropsTheOldestEvent() {
+		SlidingWindow window = new SlidingWindow(3);
+		window.record(2_000, 1, 0);
+		window.record(4_000, 1, 0);
+		window.record(5_000, 1, 0);
+		window.record(3_000, 1, 0); // evicts 2 s
+		window.record(1_000, 1, 0); // older than everything kept
+
+		assertEquals(3, window.count(0, 0));
+		assertEquals(2, window.count(4_000, 0));
+	}
+}
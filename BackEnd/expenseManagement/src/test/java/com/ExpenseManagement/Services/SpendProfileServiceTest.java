@@ -0,0 +1,65 @@
+package com.expensemanagement.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.expensemanagement.entities.Approval_Status;
+import com.expensemanagement.services.ExpenseChangedEvent.Spend;
+
+class SpendProfileServiceTest {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final SpendProfileService service = new SpendProfileService(jdbcTemplate, 24, 100, 60, 100);
+
+	@AfterEach
+	void tearDown() {
+		service.shutdown();
+	}
+
+	@Test
+	void knownChangesApplyAsDeltasWithoutAQuery() {
+		service.get(7L);
+		LocalDate today = LocalDate.now();
+		Spend pending = new Spend(100, "Travel", Approval_Status.PENDING, today);
+		service.onExpenseChanged(new ExpenseChangedEvent(1L, 7L, null, null, pending));
+		service.onExpenseChanged(new ExpenseChangedEvent(1L, 7L, null, pending,
+				pending.withStatus(Approval_Status.APPROVED)));
+
+		SpendProfile profile = service.get(7L);
+		assertEquals(1, profile.count());
+		assertEquals(100, profile.monthSpend(YearMonth.from(today), Approval_Status.APPROVED));
+		assertEquals(0, profile.monthSpend(YearMonth.from(today), Approval_Status.PENDING));
+		assertEquals("Travel", profile.topCategory());
+
+		service.onExpenseChanged(new ExpenseChangedEvent(1L, 7L, null, pending.withStatus(Approval_Status.APPROVED),
+				null));
+		assertEquals(0, service.get(7L).count());
+		assertEquals(null, service.get(7L).topCategory());
+		verify(jdbcTemplate, times(1)).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+	}
+
+	@Test
+	void unknownChangesRebuildOnceAfterTheDelay() throws Exception {
+		service.get(7L);
+		for (int i = 0; i < 5; i++) {
+			service.onExpenseChanged(new ExpenseChangedEvent(null, 7L, null));
+		}
+		verify(jdbcTemplate, timeout(2000).times(2)).query(anyString(), any(RowCallbackHandler.class),
+				any(Object[].class));
+		Thread.sleep(300);
+		verify(jdbcTemplate, times(2)).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+	}
+}
@@ -0,0 +1,93 @@
+package com.expensemanagement.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.expensemanagement.entities.Expense;
+import com.expensemanagement.services.TypeaheadService.Field;
+
+class TypeaheadServiceTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void lowerIdCommittedAfterTheSnapshotIsCaughtUpOnRestart() throws Exception {
+		JdbcTemplate before = jdbc(0L);
+		TypeaheadService service = open(before);
+		service.record(expense(7L, "Uber"));
+		service.snapshot();
+		service.record(expense(5L, "Lyft")); // committed late; the process dies before the next snapshot
+
+		JdbcTemplate after = jdbc(7L);
+		TypeaheadService restarted = open(after);
+		assertEquals(List.of("Uber"), restarted.suggest(Field.VENDOR, "ub", null, 5));
+
+		ArgumentCaptor<PreparedStatementSetter> setter = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+		verify(after, atLeastOnce()).query(anyString(), setter.capture(), any(RowCallbackHandler.class));
+		PreparedStatement ps = mock(PreparedStatement.class);
+		Connection connection = mock(Connection.class);
+		when(ps.getConnection()).thenReturn(connection);
+		setter.getValue().setValues(ps);
+		verify(ps).setLong(1, 0L); // below the late id
+		verify(ps).setLong(2, 7L);
+		ArgumentCaptor<Object[]> known = ArgumentCaptor.forClass(Object[].class);
+		verify(connection).createArrayOf(eq("bigint"), known.capture());
+		assertArrayEquals(new Object[] { 7L }, known.getValue()); // counted by the snapshot already
+	}
+
+	@Test
+	void recordInsideATransactionWaitsForCommit() {
+		TypeaheadService service = open(jdbc(0L));
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			service.record(expense(1L, "Uber"));
+			assertTrue(service.suggest(Field.VENDOR, "ub", null, 5).isEmpty());
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		assertEquals(List.of("Uber"), service.suggest(Field.VENDOR, "ub", null, 5));
+	}
+
+	private TypeaheadService open(JdbcTemplate jdbcTemplate) {
+		TypeaheadService service = new TypeaheadService(jdbcTemplate, 1000, 100, dir.resolve("typeahead.snap").toString());
+		service.run();
+		return service;
+	}
+
+	private static JdbcTemplate jdbc(long maxId) {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(maxId);
+		return jdbcTemplate;
+	}
+
+	private static Expense expense(long id, String vendor) {
+		Expense expense = new Expense();
+		expense.setId(id);
+		expense.setVendorName(vendor);
+		return expense;
+	}
+}
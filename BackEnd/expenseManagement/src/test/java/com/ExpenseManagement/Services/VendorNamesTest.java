@@ -0,0 +1,31 @@
+package com.expensemanagement.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class VendorNamesTest {
+
+	@Test
+	void distinctMerchantsAreNotTypos() {
+		assertFalse(VendorNames.typoOf("dell", "della"));
+		assertFalse(VendorNames.typoOf("shell", "shells"));
+		assertFalse(VendorNames.typoOf("amazon", "amazon pay"));
+		assertFalse(VendorNames.typoOf("amazon pay", "amazon fresh"));
+	}
+
+	@Test
+	void oneEditInALongWordIsATypo() {
+		assertTrue(VendorNames.typoOf("starbucks", "starbuks"));
+		assertTrue(VendorNames.typoOf("starbucks", "starbukcs"));
+		assertTrue(VendorNames.typoOf("swiggy instamart", "swiggy instamrat"));
+		assertTrue(VendorNames.typoOf("mcdonalds", "mcdonelds"));
+	}
+
+	@Test
+	void moreThanOneEditIsNotATypo() {
+		assertFalse(VendorNames.typoOf("starbucks", "starbxxks"));
+		assertFalse(VendorNames.typoOf("uber eats", "ubar eets"));
+	}
+}
@@ -0,0 +1,50 @@
+package com.expensemanagement.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class NaturalQueryParserTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2026, 10, 19);
+
+	@Test
+	void bareNumbersAreNotYears() {
+		NaturalQueryParser.Result r = parse("taxi 2050");
+		assertFalse(r.query().hasDates());
+		assertEquals(List.of("taxi", "2050"), r.leftovers());
+	}
+
+	@Test
+	void yearsNeedADateWordOrAMonth() {
+		assertRange(parse("taxi in 2024").query(), LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1));
+		assertRange(parse("year 1999 hotels").query(), LocalDate.of(1999, 1, 1), LocalDate.of(2000, 1, 1));
+		assertRange(parse("taxi march 2024").query(), LocalDate.of(2024, 3, 1), LocalDate.of(2024, 4, 1));
+	}
+
+	@Test
+	void mayIsOnlyAMonthInDateContext() {
+		NaturalQueryParser.Result verb = parse("may i see taxi");
+		assertFalse(verb.query().hasDates());
+		assertTrue(verb.leftovers().contains("may"));
+
+		assertRange(parse("taxi in may").query(), LocalDate.of(2026, 5, 1), LocalDate.of(2026, 6, 1));
+		assertRange(parse("may 2024 taxi").query(), LocalDate.of(2024, 5, 1), LocalDate.of(2024, 6, 1));
+		assertRange(NaturalQueryParser.withMonth(ExpenseQuery.EMPTY, "May", TODAY),
+				LocalDate.of(2026, 5, 1), LocalDate.of(2026, 6, 1));
+	}
+
+	private static NaturalQueryParser.Result parse(String text) {
+		return NaturalQueryParser.parse(text, TODAY, List.of());
+	}
+
+	private static void assertRange(ExpenseQuery q, LocalDate from, LocalDate to) {
+		assertEquals(from, q.from());
+		assertEquals(to, q.to());
+	}
+}
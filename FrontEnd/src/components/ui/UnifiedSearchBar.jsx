@@ -77,7 +77,7 @@ const UnifiedSearchBar = ({
         setSearchMode('ai');
         try {
             const response = await naturalSearch(query);
-            if (onResults) onResults(response, 'ai', query);
+            if (onResults) onResults(response.items, 'ai', query);
             toast.success('AI Search complete', { icon: '🪄' });
         } catch (error) {
             toast.error('AI search failed');
@@ -25,8 +25,8 @@ const ComplaintManagementPage = () => {
             if (user?.role === 'ADMIN') endpoint = '/complaints/all';
             else if (user?.role === 'MANAGER') endpoint = '/complaints/team';
 
-            const res = await api.get(endpoint);
-            setComplaints(res.data);
+            const res = await api.get(endpoint, { params: { size: 100 } });
+            setComplaints(res.data.items);
         } catch (error) {
             toast.error('Sector scan failed: Data stream corrupted');
         } finally {
@@ -43,7 +43,7 @@ const userService = {
 
     searchExpenses: async (query) => {
         const response = await api.get('/user/expenses/search', { params: { query } });
-        return response.data;
+        return response.data.items;
     },
 
     getMyStats: async () => {
@@ -0,0 +1,130 @@
+// using native fetch
+//
+// Report-storm load test for the workload pool bulkheads.
+// Measures expense-submit latency on its own, then again while admins hammer
+// the PDF / Excel exports, and prints p50/p95/p99 for both phases plus the
+// per-pool saturation reported by the backend.
+//
+//   USER_EMAIL=... USER_PASSWORD=... ADMIN_EMAIL=... ADMIN_PASSWORD=... \
+//   node load-test-report-storm.js
+//
+// Optional: BASE_URL (default http://localhost:8081), SUBMITS (200),
+// SUBMIT_CONCURRENCY (10), STORM_CONCURRENCY (20).
+
+const BASE_URL = process.env.BASE_URL || 'http://localhost:8081';
+const SUBMITS = Number(process.env.SUBMITS || 200);
+const SUBMIT_CONCURRENCY = Number(process.env.SUBMIT_CONCURRENCY || 10);
+const STORM_CONCURRENCY = Number(process.env.STORM_CONCURRENCY || 20);
+
+const REPORTS = ['/api/reports/download/audit/pdf', '/api/reports/download/user/excel'];
+const POOLS = ['interactive', 'reporting', 'background', 'batch'];
+
+const login = async (email, password) => {
+    const response = await fetch(`${BASE_URL}/api/auth/login`, {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify({ email, password })
+    });
+    if (!response.ok) {
+        throw new Error(`Login failed for ${email}: ${response.status}`);
+    }
+    return (await response.json()).token;
+};
+
+const submitOnce = async (token, i) => {
+    const started = performance.now();
+    const response = await fetch(`${BASE_URL}/api/user/expenses`, {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json', Authorization: `Bearer ${token}` },
+        body: JSON.stringify({
+            title: `Load test ${Date.now()}-${i}`,
+            amount: 100 + (i % 50),
+            category: 'Travel',
+            description: 'report storm load test',
+            date: new Date().toISOString().slice(0, 10)
+        })
+    });
+    await response.arrayBuffer();
+    return { ms: performance.now() - started, ok: response.ok };
+};
+
+const runSubmits = async (token) => {
+    const results = [];
+    let next = 0;
+    const worker = async () => {
+        while (next < SUBMITS) {
+            results.push(await submitOnce(token, next++));
+        }
+    };
+    await Promise.all(Array.from({ length: SUBMIT_CONCURRENCY }, worker));
+    return results;
+};
+
+const startStorm = (token) => {
+    let running = true;
+    let completed = 0;
+    const worker = async (w) => {
+        while (running) {
+            try {
+                const response = await fetch(`${BASE_URL}${REPORTS[w % REPORTS.length]}`, {
+                    headers: { Authorization: `Bearer ${token}` }
+                });
+                await response.arrayBuffer();
+                completed++;
+            } catch (error) {
+                // keep storming; failures are visible in the server log
+            }
+        }
+    };
+    const workers = Promise.all(Array.from({ length: STORM_CONCURRENCY }, (_, w) => worker(w)));
+    return async () => {
+        running = false;
+        await workers;
+        return completed;
+    };
+};
+
+const percentile = (sorted, p) => sorted[Math.min(sorted.length - 1, Math.ceil((p / 100) * sorted.length) - 1)];
+
+const summarize = (label, results) => {
+    const sorted = results.map((r) => r.ms).sort((a, b) => a - b);
+    const failed = results.filter((r) => !r.ok).length;
+    console.log(
+        `${label.padEnd(16)} n=${results.length} failed=${failed} ` +
+            `p50=${percentile(sorted, 50).toFixed(1)}ms p95=${percentile(sorted, 95).toFixed(1)}ms ` +
+            `p99=${percentile(sorted, 99).toFixed(1)}ms`
+    );
+    return percentile(sorted, 99);
+};
+
+const printSaturation = async (adminToken) => {
+    for (const pool of POOLS) {
+        const response = await fetch(`${BASE_URL}/actuator/metrics/db.pool.saturation?tag=pool:${pool}`, {
+            headers: { Authorization: `Bearer ${adminToken}` }
+        });
+        if (response.ok) {
+            const value = (await response.json()).measurements?.[0]?.value;
+            console.log(`  saturation[${pool}] = ${value}`);
+        }
+    }
+};
+
+const main = async () => {
+    const userToken = await login(process.env.USER_EMAIL, process.env.USER_PASSWORD);
+    const adminToken = await login(process.env.ADMIN_EMAIL, process.env.ADMIN_PASSWORD);
+
+    const baseline = summarize('submit (quiet)', await runSubmits(userToken));
+
+    const stopStorm = startStorm(adminToken);
+    const storm = summarize('submit (storm)', await runSubmits(userToken));
+    await printSaturation(adminToken);
+    const reports = await stopStorm();
+    console.log(`reports completed during storm: ${reports}`);
+
+    console.log(`p99 ratio storm/quiet: ${(storm / baseline).toFixed(2)}x`);
+};
+
+main().catch((error) => {
+    console.error('❌ Load test failed:', error.message);
+    process.exit(1);
+});